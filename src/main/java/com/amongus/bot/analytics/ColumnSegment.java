@@ -0,0 +1,281 @@
+package com.amongus.bot.analytics;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * One immutable file of the event column store, read through a read-only
+ * memory mapping.
+ *
+ * <p>Layout: a 48-byte header with the counts and the file's min/max
+ * statistics, then the per-game columns (game ID, player count, impostor
+ * count, winner, impostor slot mask, duration, first row) and the per-event
+ * columns (action, time, actor slot, target slot), each stored contiguously.
+ * Queries check the header first and skip files that cannot match.
+ */
+public final class ColumnSegment {
+    private static final int MAGIC = 0x41554543; // "AUEC"
+    private static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 48;
+
+    /** Impostor mask of a game with more players than the mask has bits */
+    public static final int IMPOSTOR_MASK_UNRECORDED = -1;
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int gameCount;
+    private final int rowCount;
+    private final long minGameId;
+    private final long maxGameId;
+    private final int minPlayers;
+    private final int maxPlayers;
+    private final int minImpostors;
+    private final int maxImpostors;
+    private final int maxTime;
+    private final long actionMask;
+
+    // Column offsets
+    private final int gameIds;
+    private final int playerCounts;
+    private final int impostorCounts;
+    private final int winners;
+    private final int impostorMasks;
+    private final int durations;
+    private final int rowStarts;
+    private final int actions;
+    private final int times;
+    private final int actors;
+    private final int targets;
+
+    private ColumnSegment(Path file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not an event column file: " + file);
+        }
+        gameCount = buffer.getInt(8);
+        rowCount = buffer.getInt(12);
+        minGameId = buffer.getLong(16);
+        maxGameId = buffer.getLong(24);
+        minPlayers = buffer.get(32);
+        maxPlayers = buffer.get(33);
+        minImpostors = buffer.get(34);
+        maxImpostors = buffer.get(35);
+        maxTime = buffer.getInt(36);
+        actionMask = buffer.getLong(40);
+
+        gameIds = HEADER_BYTES;
+        playerCounts = gameIds + 8 * gameCount;
+        impostorCounts = playerCounts + gameCount;
+        winners = impostorCounts + gameCount;
+        impostorMasks = winners + gameCount;
+        durations = impostorMasks + 4 * gameCount;
+        rowStarts = durations + 4 * gameCount;
+        actions = rowStarts + 4 * (gameCount + 1);
+        times = actions + rowCount;
+        actors = times + 4 * rowCount;
+        targets = actors + rowCount;
+        if (gameCount < 0 || rowCount < 0 || (long) targets + rowCount != buffer.capacity()) {
+            throw new IOException("Truncated event column file: " + file);
+        }
+    }
+
+    /**
+     * Maps an existing column file.
+     *
+     * @param file The file
+     * @return The segment
+     * @throws IOException If the file cannot be read or is not a valid column file
+     */
+    static ColumnSegment open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new ColumnSegment(file, mapped);
+        }
+    }
+
+    /**
+     * Writes games to a new column file. The file appears atomically, so
+     * readers never see a partial segment.
+     *
+     * @param file The file to create
+     * @param games The games, at least one
+     * @return The written segment, mapped for reading
+     * @throws IOException If the file cannot be written
+     */
+    static ColumnSegment write(Path file, List<GameColumns> games) throws IOException {
+        int gameCount = games.size();
+        int rowCount = 0;
+        long minGameId = Long.MAX_VALUE;
+        long maxGameId = Long.MIN_VALUE;
+        int minPlayers = Integer.MAX_VALUE;
+        int maxPlayers = 0;
+        int minImpostors = Integer.MAX_VALUE;
+        int maxImpostors = 0;
+        int maxTime = 0;
+        long actionMask = 0;
+        for (GameColumns game : games) {
+            rowCount += game.rowCount();
+            minGameId = Math.min(minGameId, game.gameId);
+            maxGameId = Math.max(maxGameId, game.gameId);
+            minPlayers = Math.min(minPlayers, game.players);
+            maxPlayers = Math.max(maxPlayers, game.players);
+            minImpostors = Math.min(minImpostors, game.impostors);
+            maxImpostors = Math.max(maxImpostors, game.impostors);
+            maxTime = Math.max(maxTime, game.duration);
+            actionMask |= game.actionMask();
+        }
+
+        int size = HEADER_BYTES + gameCount * (8 + 1 + 1 + 1 + 4 + 4 + 4) + 4 + rowCount * (1 + 4 + 1 + 1);
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(gameCount).putInt(rowCount)
+                .putLong(minGameId).putLong(maxGameId)
+                .put((byte) minPlayers).put((byte) maxPlayers).put((byte) minImpostors).put((byte) maxImpostors)
+                .putInt(maxTime).putLong(actionMask);
+        for (GameColumns game : games) {
+            buffer.putLong(game.gameId);
+        }
+        for (GameColumns game : games) {
+            buffer.put(game.players);
+        }
+        for (GameColumns game : games) {
+            buffer.put(game.impostors);
+        }
+        for (GameColumns game : games) {
+            buffer.put(game.winner);
+        }
+        for (GameColumns game : games) {
+            buffer.putInt(game.impostorMask);
+        }
+        for (GameColumns game : games) {
+            buffer.putInt(game.duration);
+        }
+        int row = 0;
+        for (GameColumns game : games) {
+            buffer.putInt(row);
+            row += game.rowCount();
+        }
+        buffer.putInt(row);
+        for (GameColumns game : games) {
+            buffer.put(game.actions);
+        }
+        for (GameColumns game : games) {
+            for (int time : game.times) {
+                buffer.putInt(time);
+            }
+        }
+        for (GameColumns game : games) {
+            buffer.put(game.actors);
+        }
+        for (GameColumns game : games) {
+            buffer.put(game.targets);
+        }
+        buffer.flip();
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return open(file);
+    }
+
+    /**
+     * Checks the header statistics against a query's filters.
+     *
+     * @return False if no game in the file can match
+     */
+    boolean mayMatch(int playersFrom, int playersTo, int impostorsFrom, int impostorsTo, long requiredActions) {
+        return gameCount > 0
+                && maxPlayers >= playersFrom && minPlayers <= playersTo
+                && maxImpostors >= impostorsFrom && minImpostors <= impostorsTo
+                && (actionMask & requiredActions) == requiredActions;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getMinGameId() {
+        return minGameId;
+    }
+
+    public long getMaxGameId() {
+        return maxGameId;
+    }
+
+    public int getMaxTime() {
+        return maxTime;
+    }
+
+    public long gameId(int game) {
+        return buffer.getLong(gameIds + 8 * game);
+    }
+
+    public int players(int game) {
+        return buffer.get(playerCounts + game);
+    }
+
+    public int impostors(int game) {
+        return buffer.get(impostorCounts + game);
+    }
+
+    public int winner(int game) {
+        return buffer.get(winners + game);
+    }
+
+    /**
+     * @return Bit {@code slot} set for each impostor, or
+     *         {@link #IMPOSTOR_MASK_UNRECORDED} for games of more than 32 players
+     */
+    public int impostorMask(int game) {
+        return buffer.getInt(impostorMasks + 4 * game);
+    }
+
+    public int duration(int game) {
+        return buffer.getInt(durations + 4 * game);
+    }
+
+    /**
+     * @return The first event row of the game; the game's rows end where the next game's begin
+     */
+    public int rowStart(int game) {
+        return buffer.getInt(rowStarts + 4 * game);
+    }
+
+    public int action(int row) {
+        return buffer.get(actions + row);
+    }
+
+    public int time(int row) {
+        return buffer.getInt(times + 4 * row);
+    }
+
+    public int actor(int row) {
+        return buffer.get(actors + row);
+    }
+
+    public int target(int row) {
+        return buffer.get(targets + row);
+    }
+}
+// COMPLETED: ColumnSegment class
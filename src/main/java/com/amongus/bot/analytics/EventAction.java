@@ -0,0 +1,60 @@
+package com.amongus.bot.analytics;
+
+/**
+ * Compact codes for game event actions in the column store. Codes are
+ * written to disk, so new actions are only ever appended.
+ */
+public enum EventAction {
+    OTHER,
+    KILL,
+    TASK,
+    FAKE_TASK,
+    REPORT,
+    MEETING,
+    EMERGENCY_MEETING,
+    VOTE,
+    VOTE_RESULT,
+    EJECTED,
+    SABOTAGE,
+    FIX_LIGHTS,
+    FIX_REACTOR,
+    SCAN,
+    DISCUSSION_SKIPPED,
+    GAME_OVER;
+
+    private static final EventAction[] VALUES = values();
+
+    /**
+     * Maps an action name as used in {@code GameLobby.addGameEvent}.
+     *
+     * @param action The action name
+     * @return The matching action, or OTHER if unknown
+     */
+    public static EventAction fromName(String action) {
+        if (action == null) {
+            return OTHER;
+        }
+        try {
+            return valueOf(action.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return OTHER;
+        }
+    }
+
+    /**
+     * @param code The stored code
+     * @return The action for the code, or OTHER if out of range
+     */
+    public static EventAction fromCode(int code) {
+        return code >= 0 && code < VALUES.length ? VALUES[code] : OTHER;
+    }
+
+    public byte code() {
+        return (byte) ordinal();
+    }
+
+    long bit() {
+        return 1L << ordinal();
+    }
+}
+// COMPLETED: EventAction enum
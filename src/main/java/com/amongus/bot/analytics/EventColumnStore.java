@@ -0,0 +1,227 @@
+package com.amongus.bot.analytics;
+
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameLobby;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Columnar store of finished games' events for offline analytics.
+ *
+ * <p>Games are buffered in memory and written as immutable
+ * {@link ColumnSegment} files of up to {@link GameConstants#COLUMN_SEGMENT_GAMES}
+ * games each. A buffer that does not fill up is written anyway once its
+ * oldest game is {@link GameConstants#COLUMN_SEGMENT_MAX_AGE_MILLIS} old.
+ * Segments are written on a single background thread, so recording never
+ * blocks the game-over path on disk. Run queries with {@link EventQuery};
+ * games still in the buffer are not visible to them until {@link #flush()}.
+ */
+public class EventColumnStore {
+    private static final Logger logger = LoggerFactory.getLogger(EventColumnStore.class);
+
+    private static final String FILE_PREFIX = "events-";
+    private static final String FILE_SUFFIX = ".col";
+
+    private final Path directory;
+    private final int segmentGames;
+    private final long maxAgeMillis;
+    private final ScheduledExecutorService writer;
+
+    private final Object lock = new Object();
+    private final List<GameColumns> pending = new ArrayList<>();
+    // Bumped each time the buffer is taken, so an age spill scheduled for an
+    // earlier buffer leaves a newer one alone
+    private long bufferGeneration;
+    private final List<ColumnSegment> segments = new CopyOnWriteArrayList<>();
+    private volatile boolean loaded;
+    private final AtomicLong nextGameId = new AtomicLong(1);
+
+    // Metrics
+    private final AtomicLong gamesRecorded = new AtomicLong();
+    private final AtomicLong segmentsWritten = new AtomicLong();
+
+    /**
+     * @param directory The directory holding the column files
+     */
+    public EventColumnStore(Path directory) {
+        this(directory, GameConstants.COLUMN_SEGMENT_GAMES);
+    }
+
+    EventColumnStore(Path directory, int segmentGames) {
+        this(directory, segmentGames, GameConstants.COLUMN_SEGMENT_MAX_AGE_MILLIS);
+    }
+
+    EventColumnStore(Path directory, int segmentGames, long maxAgeMillis) {
+        this.directory = directory;
+        this.segmentGames = segmentGames;
+        this.maxAgeMillis = maxAgeMillis;
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AmongUs-EventColumns");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Copies a finished game's events into the column buffer. Call before the
+     * lobby's events are cleared. Queues a segment write when the buffer is
+     * full.
+     *
+     * @param lobby The finished game's lobby
+     * @param winner The winning side
+     */
+    public void record(GameLobby lobby, String winner) {
+        ensureLoaded();
+        GameColumns game = GameColumns.of(nextGameId.getAndIncrement(), lobby, winner, System.currentTimeMillis());
+        gamesRecorded.incrementAndGet();
+        synchronized (lock) {
+            pending.add(game);
+            if (pending.size() >= segmentGames) {
+                // Queued under the lock, so segments are written in the order they were taken
+                List<GameColumns> full = takePendingLocked();
+                writer.execute(() -> writeSegment(full));
+            } else if (pending.size() == 1) {
+                long generation = bufferGeneration;
+                writer.schedule(() -> spill(generation), maxAgeMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Writes the buffer once its first game is too old, unless it was
+     * already taken in the meantime. Runs on the writer thread.
+     */
+    private void spill(long generation) {
+        List<GameColumns> games;
+        synchronized (lock) {
+            if (generation != bufferGeneration || pending.isEmpty()) {
+                return;
+            }
+            games = takePendingLocked();
+        }
+        writeSegment(games);
+    }
+
+    private List<GameColumns> takePendingLocked() {
+        List<GameColumns> games = new ArrayList<>(pending);
+        pending.clear();
+        bufferGeneration++;
+        return games;
+    }
+
+    /**
+     * Writes buffered games to a segment and waits for every queued segment,
+     * so queries see them.
+     */
+    public void flush() {
+        Future<?> written;
+        synchronized (lock) {
+            List<GameColumns> games = pending.isEmpty() ? null : takePendingLocked();
+            written = writer.submit(() -> {
+                if (games != null) {
+                    writeSegment(games);
+                }
+            });
+        }
+        try {
+            written.get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Timed out waiting for the event column files: {}", e.getMessage());
+        }
+    }
+
+    private void writeSegment(List<GameColumns> games) {
+        Path file = directory.resolve(String.format("%s%020d%s", FILE_PREFIX, games.get(0).gameId, FILE_SUFFIX));
+        try {
+            Files.createDirectories(directory);
+            segments.add(ColumnSegment.write(file, games));
+            segmentsWritten.incrementAndGet();
+            logger.info("Wrote {} games to event column file {}", games.size(), file.getFileName());
+        } catch (IOException e) {
+            logger.error("Failed to write event column file {}: {}", file, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Gets the segments written so far, oldest first.
+     *
+     * @return The segments
+     */
+    public List<ColumnSegment> getSegments() {
+        ensureLoaded();
+        return Collections.unmodifiableList(segments);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (lock) {
+            if (loaded) {
+                return;
+            }
+            loaded = true;
+            if (!Files.isDirectory(directory)) {
+                return;
+            }
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+                stream.forEach(files::add);
+            } catch (IOException e) {
+                logger.error("Failed to list event column files in {}: {}", directory, e.getMessage(), e);
+                return;
+            }
+            Collections.sort(files);
+            for (Path file : files) {
+                try {
+                    ColumnSegment segment = ColumnSegment.open(file);
+                    segments.add(segment);
+                    nextGameId.accumulateAndGet(segment.getMaxGameId() + 1, Math::max);
+                } catch (IOException e) {
+                    logger.warn("Skipping unreadable event column file {}: {}", file, e.getMessage());
+                }
+            }
+            logger.info("Loaded {} event column files from {}", segments.size(), directory);
+        }
+    }
+
+    /**
+     * Gets the store metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        int games = 0;
+        long rows = 0;
+        for (ColumnSegment segment : segments) {
+            games += segment.getGameCount();
+            rows += segment.getRowCount();
+        }
+        int buffered;
+        synchronized (lock) {
+            buffered = pending.size();
+        }
+        return String.format("EventColumnStore Stats - Segments: %d, Games: %d, Events: %d, Buffered: %d, Recorded: %d, Written: %d",
+                segments.size(), games, rows, buffered, gamesRecorded.get(), segmentsWritten.get());
+    }
+}
+// COMPLETED: EventColumnStore class
@@ -0,0 +1,229 @@
+package com.amongus.bot.analytics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Offline query over the event column store, e.g. the median time to the
+ * first kill in 8-player games with 2 impostors:
+ *
+ * <pre>
+ * int[] times = new EventQuery().players(8, 8).impostors(2, 2)
+ *         .timeToFirst(store, EventAction.KILL);
+ * int median = EventQuery.median(times);
+ * </pre>
+ *
+ * Segments are scanned in parallel on the common fork-join pool; segments
+ * whose header statistics rule out a match are skipped without touching
+ * their columns.
+ */
+public class EventQuery {
+    private int playersFrom = 0;
+    private int playersTo = Integer.MAX_VALUE;
+    private int impostorsFrom = 0;
+    private int impostorsTo = Integer.MAX_VALUE;
+    private int winner = -1;
+
+    /**
+     * Restricts the query to games with a player count in the range.
+     */
+    public EventQuery players(int from, int to) {
+        this.playersFrom = from;
+        this.playersTo = to;
+        return this;
+    }
+
+    /**
+     * Restricts the query to games with an impostor count in the range.
+     */
+    public EventQuery impostors(int from, int to) {
+        this.impostorsFrom = from;
+        this.impostorsTo = to;
+        return this;
+    }
+
+    /**
+     * Restricts the query to games won by a side ("Crewmates" or "Impostors").
+     */
+    public EventQuery winner(String winner) {
+        this.winner = GameColumns.winnerCode(winner);
+        return this;
+    }
+
+    boolean matches(ColumnSegment segment, int game) {
+        int players = segment.players(game);
+        int impostors = segment.impostors(game);
+        return players >= playersFrom && players <= playersTo
+                && impostors >= impostorsFrom && impostors <= impostorsTo
+                && (winner < 0 || segment.winner(game) == winner);
+    }
+
+    /**
+     * Counts the matching games.
+     *
+     * @param store The store to scan
+     * @return The number of games
+     */
+    public int countGames(EventColumnStore store) {
+        return scan(store, 0L, (segment, game) -> new int[] {1}, (a, b) -> new int[] {a[0] + b[0]}, new int[1])[0];
+    }
+
+    /**
+     * Finds, per matching game, the time of the first event with the action.
+     * Games without such an event are left out.
+     *
+     * @param store The store to scan
+     * @param action The action
+     * @return Milliseconds since game start, sorted ascending
+     */
+    public int[] timeToFirst(EventColumnStore store, EventAction action) {
+        int code = action.code();
+        int[] times = scan(store, action.bit(), (segment, game) -> {
+            int end = segment.rowStart(game + 1);
+            for (int row = segment.rowStart(game); row < end; row++) {
+                if (segment.action(row) == code) {
+                    return new int[] {segment.time(row)};
+                }
+            }
+            return new int[0];
+        }, EventQuery::concat, new int[0]);
+        Arrays.sort(times);
+        return times;
+    }
+
+    /**
+     * Counts events per action over the matching games.
+     *
+     * @param store The store to scan
+     * @return Counts indexed by {@link EventAction#code()}
+     */
+    public long[] countActions(EventColumnStore store) {
+        int actions = EventAction.values().length;
+        return scan(store, 0L, (segment, game) -> {
+            long[] counts = new long[actions];
+            int end = segment.rowStart(game + 1);
+            for (int row = segment.rowStart(game); row < end; row++) {
+                counts[EventAction.fromCode(segment.action(row)).ordinal()]++;
+            }
+            return counts;
+        }, (a, b) -> {
+            long[] sum = a.clone();
+            for (int i = 0; i < sum.length; i++) {
+                sum[i] += b[i];
+            }
+            return sum;
+        }, new long[actions]);
+    }
+
+    /**
+     * Runs a per-game function over all matching games in parallel and
+     * combines the results.
+     *
+     * @param store The store to scan
+     * @param requiredActions Bit mask of actions a segment must contain to be scanned
+     * @param perGame The function applied to each matching game
+     * @param combiner Combines two results; must be associative
+     * @param identity The result for no games
+     * @return The combined result
+     */
+    public <R> R scan(EventColumnStore store, long requiredActions, GameFunction<R> perGame,
+                      BinaryOperator<R> combiner, R identity) {
+        List<ColumnSegment> segments = store.getSegments();
+        if (segments.isEmpty()) {
+            return identity;
+        }
+        return ForkJoinPool.commonPool().invoke(
+                new ScanTask<>(segments, 0, segments.size(), requiredActions, perGame, combiner, identity));
+    }
+
+    /**
+     * @param sortedTimes Values sorted ascending
+     * @return The median, or -1 for no values
+     */
+    public static int median(int[] sortedTimes) {
+        return percentile(sortedTimes, 50);
+    }
+
+    /**
+     * @param sortedTimes Values sorted ascending
+     * @param percent The percentile, 0 to 100
+     * @return The nearest-rank percentile, or -1 for no values
+     */
+    public static int percentile(int[] sortedTimes, int percent) {
+        if (sortedTimes.length == 0) {
+            return -1;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sortedTimes.length);
+        return sortedTimes[Math.max(0, Math.min(sortedTimes.length - 1, rank - 1))];
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        }
+        if (b.length == 0) {
+            return a;
+        }
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    /**
+     * A function evaluated for one game of a segment.
+     */
+    @FunctionalInterface
+    public interface GameFunction<R> {
+        R apply(ColumnSegment segment, int game);
+    }
+
+    private final class ScanTask<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ColumnSegment> segments;
+        private final int from;
+        private final int to;
+        private final long requiredActions;
+        private final GameFunction<R> perGame;
+        private final BinaryOperator<R> combiner;
+        private final R identity;
+
+        private ScanTask(List<ColumnSegment> segments, int from, int to, long requiredActions,
+                         GameFunction<R> perGame, BinaryOperator<R> combiner, R identity) {
+            this.segments = segments;
+            this.from = from;
+            this.to = to;
+            this.requiredActions = requiredActions;
+            this.perGame = perGame;
+            this.combiner = combiner;
+            this.identity = identity;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                ScanTask<R> left = new ScanTask<>(segments, from, middle, requiredActions, perGame, combiner, identity);
+                left.fork();
+                R right = new ScanTask<>(segments, middle, to, requiredActions, perGame, combiner, identity).compute();
+                return combiner.apply(left.join(), right);
+            }
+
+            ColumnSegment segment = segments.get(from);
+            R result = identity;
+            if (!segment.mayMatch(playersFrom, playersTo, impostorsFrom, impostorsTo, requiredActions)) {
+                return result;
+            }
+            for (int game = 0; game < segment.getGameCount(); game++) {
+                if (matches(segment, game)) {
+                    result = combiner.apply(result, perGame.apply(segment, game));
+                }
+            }
+            return result;
+        }
+    }
+}
+// COMPLETED: EventQuery class
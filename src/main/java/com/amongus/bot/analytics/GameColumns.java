@@ -0,0 +1,151 @@
+package com.amongus.bot.analytics;
+
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.models.GameEvent;
+import com.amongus.bot.models.Player;
+import com.amongus.bot.utils.GameUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * One finished game flattened into primitive columns, ready to be appended
+ * to a {@link ColumnSegment}.
+ *
+ * <p>Players are identified by their slot: the index in the player list
+ * sorted by user ID, the same order role assignment uses. Events carry no
+ * target, so the target slot is the player whose name ends the event's
+ * details (e.g. "Убил Alice"), or -1. The impostor mask has a bit per slot
+ * and is only kept for games of up to {@link #MASK_SLOTS} players; the
+ * impostor count is kept for every game.
+ */
+final class GameColumns {
+    static final byte WINNER_UNKNOWN = 0;
+    static final byte WINNER_CREWMATES = 1;
+    static final byte WINNER_IMPOSTORS = 2;
+    static final int MASK_SLOTS = Integer.SIZE;
+
+    final long gameId;
+    final byte players;
+    final byte impostors;
+    final byte winner;
+    final int impostorMask;
+    final int duration;
+    final byte[] actions;
+    final int[] times;
+    final byte[] actors;
+    final byte[] targets;
+
+    private GameColumns(long gameId, byte players, byte impostors, byte winner, int impostorMask, int duration,
+                        byte[] actions, int[] times, byte[] actors, byte[] targets) {
+        this.gameId = gameId;
+        this.players = players;
+        this.impostors = impostors;
+        this.winner = winner;
+        this.impostorMask = impostorMask;
+        this.duration = duration;
+        this.actions = actions;
+        this.times = times;
+        this.actors = actors;
+        this.targets = targets;
+    }
+
+    /**
+     * Copies a finished game out of its lobby. Times are milliseconds since the
+     * game started, or since its first event if the start is unknown.
+     */
+    static GameColumns of(long gameId, GameLobby lobby, String winner, long finishedAt) {
+        List<Player> players = new ArrayList<>(lobby.getPlayerList());
+        players.sort(Comparator.comparing(Player::getUserId));
+        int impostors = 0;
+        int impostorMask = 0;
+        for (int slot = 0; slot < players.size(); slot++) {
+            if (players.get(slot).isImpostor()) {
+                impostors++;
+                impostorMask |= 1 << slot;
+            }
+        }
+        if (players.size() > MASK_SLOTS) {
+            // Slots past 31 would wrap onto the low bits; no game has every player an impostor
+            impostorMask = ColumnSegment.IMPOSTOR_MASK_UNRECORDED;
+        }
+
+        List<GameEvent> events = lobby.getSortedGameEvents();
+        long start = lobby.getGameStartedAt();
+        if (start <= 0) {
+            start = events.isEmpty() ? finishedAt : events.get(0).getTimestamp().getTime();
+        }
+
+        int rows = events.size();
+        byte[] actions = new byte[rows];
+        int[] times = new int[rows];
+        byte[] actors = new byte[rows];
+        byte[] targets = new byte[rows];
+        for (int i = 0; i < rows; i++) {
+            GameEvent event = events.get(i);
+            actions[i] = EventAction.fromName(event.getAction()).code();
+            times[i] = relative(event.getTimestamp().getTime(), start);
+            actors[i] = (byte) slotOf(players, event.getUserId());
+            targets[i] = (byte) targetOf(players, event.getDetails(), actors[i]);
+        }
+
+        return new GameColumns(gameId, (byte) players.size(), (byte) impostors, winnerCode(winner), impostorMask,
+                relative(finishedAt, start), actions, times, actors, targets);
+    }
+
+    private static int relative(long time, long start) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, time - start));
+    }
+
+    private static int slotOf(List<Player> players, Long userId) {
+        if (userId != null) {
+            for (int slot = 0; slot < players.size(); slot++) {
+                if (userId.equals(players.get(slot).getUserId())) {
+                    return slot;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int targetOf(List<Player> players, String details, int actor) {
+        if (details == null) {
+            return -1;
+        }
+        int target = -1;
+        int longest = 0;
+        for (int slot = 0; slot < players.size(); slot++) {
+            String name = players.get(slot).getUserName();
+            // The longest match wins, so "Ann" does not shadow "Joann"
+            if (slot != actor && name != null && name.length() > longest && details.endsWith(name)) {
+                target = slot;
+                longest = name.length();
+            }
+        }
+        return target;
+    }
+
+    static byte winnerCode(String winner) {
+        if (GameUtils.isCrewmateWin(winner)) {
+            return WINNER_CREWMATES;
+        }
+        if (GameUtils.isImpostorWin(winner)) {
+            return WINNER_IMPOSTORS;
+        }
+        return WINNER_UNKNOWN;
+    }
+
+    int rowCount() {
+        return actions.length;
+    }
+
+    long actionMask() {
+        long mask = 0;
+        for (byte action : actions) {
+            mask |= EventAction.fromCode(action).bit();
+        }
+        return mask;
+    }
+}
+// COMPLETED: GameColumns class
@@ -1,6 +1,23 @@
 package com.amongus.bot.core;
 
+import com.amongus.bot.managers.LobbyJournal;
 import com.amongus.bot.managers.LobbyManager;
+import com.amongus.bot.managers.LobbyScavenger;
+import com.amongus.bot.managers.LobbySnapshotStore;
+import com.amongus.bot.analytics.EventColumnStore;
+import com.amongus.bot.managers.GameArchive;
+import com.amongus.bot.managers.GroupDashboard;
+import com.amongus.bot.managers.MessageLifecycle;
+import com.amongus.bot.managers.MessageOutbox;
+import com.amongus.bot.managers.PhotoProofPipeline;
+import com.amongus.bot.managers.PlayerStatsStore;
+import com.amongus.bot.managers.ReplayStore;
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameClock;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.replay.GameReplay;
+import com.amongus.bot.game.replay.ReplayRecorder;
+import com.amongus.bot.game.states.DiscussionState;
 import com.amongus.bot.handlers.CallbackQueryHandler;
 import com.amongus.bot.handlers.CommandHandler;
 import com.amongus.bot.handlers.MessageHandler;
@@ -8,19 +25,29 @@ import com.amongus.bot.handlers.SettingsHandler;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
 import org.telegram.telegrambots.bots.TelegramLongPollingBot;
 import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.GetFile;
+import org.telegram.telegrambots.meta.api.methods.send.SendMediaGroup;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.methods.updates.GetUpdates;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessage;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageReplyMarkup;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.polls.PollAnswer;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.file.Paths;
+import java.util.List;
 
 /**
  * Main bot class that handles Telegram updates.
@@ -36,13 +63,98 @@ public class AmongUsBot extends TelegramLongPollingBot {
     private final MessageHandler messageHandler;
     private final CallbackQueryHandler callbackQueryHandler;
     private final SettingsHandler settingsHandler;
+    private final LobbyScavenger lobbyScavenger;
+    private final LobbySnapshotStore snapshotStore;
+    private final LobbyJournal journal;
+    private final PlayerStatsStore playerStatsStore;
+    private final GameArchive gameArchive;
+    private final EventColumnStore eventColumnStore;
+    private final ReplayStore replayStore;
+    private final PhotoProofPipeline photoProofPipeline;
+    private final GroupDashboard groupDashboard;
+    private final MessageLifecycle messageLifecycle;
+    private final ApiRetrier apiRetrier;
+    private final MessageOutbox messageOutbox;
+    private final BotApiTransport transport;
+    private final Object updateLock = new Object();
+    private final boolean pollVoting;
     
     public AmongUsBot() {
+        this(true);
+    }
+    
+    /**
+     * @param live False for a bot that never talks to Telegram, like the replay
+     *        simulator's: no HTTP/2 transport, no photo downloads and no
+     *        deletion sweeper, so no threads are left behind
+     */
+    protected AmongUsBot(boolean live) {
+        super(createOptions());
         logger.debug("Initializing AmongUsBot components...");
         
+        this.transport = live && ((AmongUsBotOptions) getOptions()).getTransport() == BotApiTransport.Type.HTTP2
+                ? new HttpClientTransport(getBaseUrl()) : null;
+        
+        logger.debug("Initializing ApiRetrier...");
+        // Calls made while handling an update must not stall the update thread on a flood wait
+        this.apiRetrier = new ApiRetrier(GameClock.SYSTEM, Thread::sleep, () -> Thread.holdsLock(updateLock)
+                ? GameConstants.API_UPDATE_PATH_MAX_WAIT_MILLIS : Long.MAX_VALUE);
+        
+        logger.debug("Initializing MessageOutbox...");
+        // AMONGUS_OUTBOX=off drops messages that cannot be delivered, as before
+        String outboxDir = System.getenv("AMONGUS_OUTBOX_DIR");
+        this.messageOutbox = "off".equalsIgnoreCase(System.getenv("AMONGUS_OUTBOX")) ? null
+                : new MessageOutbox(Paths.get(outboxDir != null && !outboxDir.isBlank()
+                        ? outboxDir : GameConstants.DEFAULT_OUTBOX_DIR),
+                        GameClock.SYSTEM, this::deliverQueued, apiRetrier::isAvailable);
+        
         logger.debug("Initializing LobbyManager...");
         this.lobbyManager = new LobbyManager();
         
+        logger.debug("Initializing LobbyJournal...");
+        String journalDir = System.getenv("AMONGUS_JOURNAL_DIR");
+        this.journal = new LobbyJournal(Paths.get(
+                journalDir != null && !journalDir.isBlank() ? journalDir : GameConstants.DEFAULT_JOURNAL_DIR));
+        lobbyManager.setJournal(journal);
+        
+        logger.debug("Initializing PlayerStatsStore...");
+        String statsFile = System.getenv("AMONGUS_STATS_FILE");
+        this.playerStatsStore = new PlayerStatsStore(Paths.get(
+                statsFile != null && !statsFile.isBlank() ? statsFile : GameConstants.DEFAULT_STATS_FILE));
+        
+        logger.debug("Initializing GameArchive...");
+        String archiveDir = System.getenv("AMONGUS_ARCHIVE_DIR");
+        this.gameArchive = new GameArchive(Paths.get(
+                archiveDir != null && !archiveDir.isBlank() ? archiveDir : GameConstants.DEFAULT_ARCHIVE_DIR));
+        
+        logger.debug("Initializing EventColumnStore...");
+        String analyticsDir = System.getenv("AMONGUS_ANALYTICS_DIR");
+        this.eventColumnStore = new EventColumnStore(Paths.get(
+                analyticsDir != null && !analyticsDir.isBlank() ? analyticsDir : GameConstants.DEFAULT_ANALYTICS_DIR));
+        
+        logger.debug("Initializing ReplayStore...");
+        String replayDir = System.getenv("AMONGUS_REPLAY_DIR");
+        this.replayStore = new ReplayStore(Paths.get(
+                replayDir != null && !replayDir.isBlank() ? replayDir : GameConstants.DEFAULT_REPLAY_DIR));
+        
+        logger.debug("Initializing PhotoProofPipeline...");
+        // AMONGUS_PHOTO_HASHING=off keeps the unique ID check but skips downloads
+        boolean hashing = live && !"off".equalsIgnoreCase(System.getenv("AMONGUS_PHOTO_HASHING"));
+        this.photoProofPipeline = new PhotoProofPipeline(hashing ? this::downloadPhoto : null,
+                Runtime.getRuntime().availableProcessors());
+        photoProofPipeline.setVerdictGate(this::runOnUpdatePath);
+        
+        logger.debug("Initializing GroupDashboard...");
+        this.groupDashboard = new GroupDashboard(this);
+        
+        logger.debug("Initializing MessageLifecycle...");
+        this.messageLifecycle = new MessageLifecycle(this, GameClock.SYSTEM);
+        if (live) {
+            this.messageLifecycle.start();
+        }
+        // AMONGUS_GROUP_POLLS=off keeps the private voting keyboards in group lobbies
+        this.pollVoting = !"off".equalsIgnoreCase(System.getenv("AMONGUS_GROUP_POLLS"));
+        
         logger.debug("Initializing CommandHandler...");
         this.commandHandler = new CommandHandler(this, lobbyManager);
         
@@ -55,9 +167,43 @@ public class AmongUsBot extends TelegramLongPollingBot {
         logger.debug("Initializing SettingsHandler...");
         this.settingsHandler = new SettingsHandler(this, lobbyManager);
         
+        logger.debug("Initializing LobbyScavenger...");
+        this.lobbyScavenger = new LobbyScavenger(lobbyManager, this);
+        
+        logger.debug("Initializing LobbySnapshotStore...");
+        String snapshotFile = System.getenv("AMONGUS_SNAPSHOT_FILE");
+        this.snapshotStore = new LobbySnapshotStore(lobbyManager, this, Paths.get(
+                snapshotFile != null && !snapshotFile.isBlank() ? snapshotFile : GameConstants.DEFAULT_SNAPSHOT_FILE));
+        
         logger.info("AmongUsBot initialized successfully");
     }
     
+    /**
+     * Builds the API options. AMONGUS_BOT_API_URL points the bot at another
+     * Bot API server, e.g. a local fake for testing a handoff between two processes.
+     * AMONGUS_BOT_TRANSPORT=http2 sends API calls over {@link HttpClientTransport}.
+     */
+    private static DefaultBotOptions createOptions() {
+        AmongUsBotOptions options = new AmongUsBotOptions();
+        String apiUrl = System.getenv("AMONGUS_BOT_API_URL");
+        if (apiUrl != null && !apiUrl.isBlank()) {
+            options.setBaseUrl(apiUrl);
+        }
+        if ("http2".equalsIgnoreCase(System.getenv("AMONGUS_BOT_TRANSPORT"))) {
+            options.setTransport(BotApiTransport.Type.HTTP2);
+        }
+        return options;
+    }
+    
+    /**
+     * Sends JSON API calls over the configured transport, or the library
+     * client if none is configured.
+     */
+    @Override
+    public <T extends Serializable, Method extends BotApiMethod<T>> T execute(Method method) throws TelegramApiException {
+        return transport != null ? transport.execute(method) : super.execute(method);
+    }
+    
     @Override
     public String getBotUsername() {
         return BOT_USERNAME;
@@ -70,6 +216,26 @@ public class AmongUsBot extends TelegramLongPollingBot {
     
     @Override
     public void onUpdateReceived(Update update) {
+        synchronized (updateLock) {
+            handleUpdate(update);
+        }
+    }
+    
+    /**
+     * Runs a task that changes game state from a background thread, such as
+     * a photo verdict, never concurrently with the handling of an update.
+     * 
+     * @param task The task
+     */
+    public void runOnUpdatePath(Runnable task) {
+        synchronized (updateLock) {
+            task.run();
+        }
+    }
+    
+    private void handleUpdate(Update update) {
+        Long actorId = actorOf(update);
+        GameLobby actorLobby = actorId != null ? lobbyManager.getLobbyForPlayer(actorId) : null;
         try {
             if (update.hasMessage() && update.getMessage().hasText()) {
                 Message message = update.getMessage();
@@ -80,6 +246,7 @@ public class AmongUsBot extends TelegramLongPollingBot {
                 
                 logger.debug("Received message from user @{} (ID: {}, Chat: {}): {}", 
                         userName, userId, chatId, text);
+                recordReplayInput(userId, chatId, GameReplay.INPUT_TEXT, text);
                 
                 if (text.startsWith("/")) {
                     // Process commands
@@ -98,6 +265,10 @@ public class AmongUsBot extends TelegramLongPollingBot {
                 
                 logger.info("Received callback query from user @{} (ID: {}): {}", 
                         userName, userId, callbackData);
+                if (update.getCallbackQuery().getMessage() != null) {
+                    recordReplayInput(userId, update.getCallbackQuery().getMessage().getChatId(),
+                            GameReplay.INPUT_CALLBACK, callbackData);
+                }
                 
                 // Check if this is a settings-related callback
                 if (callbackData != null && callbackData.startsWith("settings_")) {
@@ -107,15 +278,71 @@ public class AmongUsBot extends TelegramLongPollingBot {
                     logger.info("Handling general callback: {}", callbackData);
                     callbackQueryHandler.handle(update);
                 }
+            } else if (update.hasPollAnswer() && update.getPollAnswer().getUser() != null) {
+                // A vote in a meeting poll of a group lobby; anonymous admins answer without a user
+                PollAnswer answer = update.getPollAnswer();
+                Long userId = answer.getUser().getId();
+                
+                logger.info("Received poll answer from user @{} (ID: {}): {}", 
+                        answer.getUser().getUserName(), userId, answer.getOptionIds());
+                
+                // Replays hold the vote callback it stands for, so they run without a poll
+                GameLobby lobby = lobbyManager.getLobbyForPlayer(userId);
+                if (lobby != null && lobby.getGameState() instanceof DiscussionState) {
+                    String vote = ((DiscussionState) lobby.getGameState()).toVoteCallback(answer);
+                    if (vote != null) {
+                        recordReplayInput(userId, userId, GameReplay.INPUT_CALLBACK, vote);
+                    }
+                }
+                callbackQueryHandler.handlePollAnswer(update);
             } else if (update.hasMessage() && update.getMessage().hasPhoto()) {
                 // Process message with photo (for task confirmations)
                 logger.debug("Processing message with photo");
+                Message message = update.getMessage();
+                recordReplayInput(message.getFrom().getId(), message.getChatId(), GameReplay.INPUT_PHOTO,
+                        message.getPhoto().get(message.getPhoto().size() - 1).getFileId());
                 messageHandler.handle(update);
             } else {
                 logger.debug("Received unsupported update type: {}", update);
             }
         } catch (Exception e) {
             logger.error("Error handling update: {}", e.getMessage(), e);
+        } finally {
+            // Touch after the handler ran: a snapshot encoded while it was mutating the
+            // lobby is then re-encoded, even if the change fired no event
+            if (actorLobby != null) {
+                actorLobby.touch();
+            }
+            if (actorId != null && lobbyManager.getLobbyForPlayer(actorId) != actorLobby) {
+                lobbyManager.recordActivity(actorId);
+            }
+        }
+    }
+    
+    /**
+     * The user whose action an update carries, or null if there is none.
+     */
+    private static Long actorOf(Update update) {
+        if (update.hasMessage() && update.getMessage().getFrom() != null) {
+            return update.getMessage().getFrom().getId();
+        }
+        if (update.hasCallbackQuery() && update.getCallbackQuery().getFrom() != null) {
+            return update.getCallbackQuery().getFrom().getId();
+        }
+        if (update.hasPollAnswer() && update.getPollAnswer().getUser() != null) {
+            return update.getPollAnswer().getUser().getId();
+        }
+        return null;
+    }
+    
+    /**
+     * Adds an input to the replay of the sender's running game, if any.
+     */
+    private void recordReplayInput(Long userId, Long chatId, byte kind, String data) {
+        GameLobby lobby = lobbyManager.getLobbyForPlayer(userId);
+        ReplayRecorder recorder = lobby != null ? lobby.getReplayRecorder() : null;
+        if (recorder != null) {
+            recorder.record(lobby.getContext().currentTimeMillis(), kind, userId, chatId != null ? chatId : userId, data);
         }
     }
     
@@ -139,15 +366,107 @@ public class AmongUsBot extends TelegramLongPollingBot {
                 }
             }
             
-            T result = execute(method);
+            T result = apiRetrier.call(method.getMethod(), () -> execute(method));
             logger.debug("API method executed successfully");
             return result;
         } catch (TelegramApiException e) {
+            MessageOutbox outbox = getMessageOutbox();
+            if (method instanceof SendMessage && outbox != null && outbox.isRunning() && ApiRetrier.isRetryable(e)
+                    && outbox.add((SendMessage) method)) {
+                logger.warn("Could not send message to chat {} now, queued for later delivery: {}",
+                        ((SendMessage) method).getChatId(), e.getMessage());
+                return null;
+            }
             logger.error("Failed to execute method {}: {}", method.getClass().getSimpleName(), e.getMessage(), e);
             return null;
         }
     }
     
+    /**
+     * Executes an API method with retries, leaving the failure to the caller
+     * when it needs to tell why the call failed.
+     *
+     * @param method The API method
+     * @return The method's result
+     * @throws TelegramApiException The last failure
+     */
+    public <T extends Serializable, M extends BotApiMethod<T>> T executeChecked(M method) throws TelegramApiException {
+        return apiRetrier.call(method.getMethod(), () -> execute(method));
+    }
+    
+    /**
+     * Sends a message from the outbox.
+     * 
+     * @return True if it was delivered or can never be
+     */
+    private boolean deliverQueued(SendMessage message) {
+        try {
+            apiRetrier.call(message.getMethod(), () -> execute(message));
+            return true;
+        } catch (TelegramApiException e) {
+            if (ApiRetrier.isRetryable(e)) {
+                return false;
+            }
+            logger.warn("Dropping queued message to chat {}: {}", message.getChatId(), e.getMessage());
+            return true;
+        }
+    }
+    
+    /**
+     * Confirms every update below an offset without handling it, so polling
+     * continues exactly where another process stopped.
+     * 
+     * @param offset The first update to keep; 0 keeps everything
+     * @return True if the updates were confirmed
+     */
+    public boolean skipUpdatesBefore(int offset) {
+        if (offset <= 0) {
+            return true;
+        }
+        GetUpdates getUpdates = new GetUpdates();
+        getUpdates.setOffset(offset);
+        getUpdates.setLimit(1);
+        getUpdates.setTimeout(0);
+        try {
+            execute(getUpdates);
+            logger.info("Confirmed updates before offset {}", offset);
+            return true;
+        } catch (TelegramApiException e) {
+            logger.error("Failed to confirm updates before offset {}: {}", offset, e.getMessage(), e);
+            return false;
+        }
+    }
+    
+    /**
+     * Sends a photo, logging instead of throwing on failure.
+     * 
+     * @param photo The photo to send
+     * @return The sent message, or null on failure
+     */
+    public Message sendPhoto(SendPhoto photo) {
+        try {
+            return apiRetrier.call("sendPhoto", () -> execute(photo));
+        } catch (TelegramApiException e) {
+            logger.error("Failed to send photo to chat {}: {}", photo.getChatId(), e.getMessage(), e);
+            return null;
+        }
+    }
+    
+    /**
+     * Sends a media group album, logging instead of throwing on failure.
+     * 
+     * @param album The album to send
+     * @return The sent messages, or null on failure
+     */
+    public List<Message> sendMediaGroup(SendMediaGroup album) {
+        try {
+            return apiRetrier.call("sendMediaGroup", () -> execute(album));
+        } catch (TelegramApiException e) {
+            logger.error("Failed to send album to chat {}: {}", album.getChatId(), e.getMessage(), e);
+            return null;
+        }
+    }
+    
     /**
      * Gets the SettingsHandler instance.
      * 
@@ -157,6 +476,158 @@ public class AmongUsBot extends TelegramLongPollingBot {
         return settingsHandler;
     }
     
+    /**
+     * Gets the background task that evicts idle lobbies.
+     * 
+     * @return The LobbyScavenger instance
+     */
+    public LobbyScavenger getLobbyScavenger() {
+        return lobbyScavenger;
+    }
+    
+    /**
+     * Gets the store that snapshots live lobbies across restarts.
+     * 
+     * @return The LobbySnapshotStore instance
+     */
+    public LobbySnapshotStore getSnapshotStore() {
+        return snapshotStore;
+    }
+    
+    /**
+     * Gets the write-ahead journal of lobby commands.
+     * 
+     * @return The LobbyJournal instance
+     */
+    public LobbyJournal getJournal() {
+        return journal;
+    }
+    
+    /**
+     * Gets the store of lifetime player statistics.
+     * 
+     * @return The PlayerStatsStore instance
+     */
+    public PlayerStatsStore getPlayerStatsStore() {
+        return playerStatsStore;
+    }
+    
+    /**
+     * Gets the archive of finished games.
+     * 
+     * @return The GameArchive instance
+     */
+    public GameArchive getGameArchive() {
+        return gameArchive;
+    }
+    
+    /**
+     * Gets the columnar store of finished games' events.
+     * 
+     * @return The EventColumnStore instance
+     */
+    public EventColumnStore getEventColumnStore() {
+        return eventColumnStore;
+    }
+    
+    /**
+     * Gets the directory of exported game replays.
+     * 
+     * @return The ReplayStore instance
+     */
+    public ReplayStore getReplayStore() {
+        return replayStore;
+    }
+    
+    /**
+     * Gets the pipeline validating task proof photos.
+     * 
+     * @return The PhotoProofPipeline instance
+     */
+    public PhotoProofPipeline getPhotoProofPipeline() {
+        return photoProofPipeline;
+    }
+    
+    /**
+     * Gets the dashboards of lobbies played in group chats.
+     * 
+     * @return The GroupDashboard instance
+     */
+    public GroupDashboard getGroupDashboard() {
+        return groupDashboard;
+    }
+    
+    /**
+     * Gets the registry deciding when sent messages are deleted.
+     * 
+     * @return The MessageLifecycle instance
+     */
+    public MessageLifecycle getMessageLifecycle() {
+        return messageLifecycle;
+    }
+    
+    /**
+     * Gets the transport JSON API calls go through.
+     * 
+     * @return The BotApiTransport instance, or null if the library client is used
+     */
+    public BotApiTransport getTransport() {
+        return transport;
+    }
+    
+    /**
+     * Gets the retry layer every API call goes through.
+     * 
+     * @return The ApiRetrier instance
+     */
+    public ApiRetrier getApiRetrier() {
+        return apiRetrier;
+    }
+    
+    /**
+     * Gets the outbox of messages waiting for the API to recover.
+     * 
+     * @return The MessageOutbox instance, or null if disabled
+     */
+    public MessageOutbox getMessageOutbox() {
+        return messageOutbox;
+    }
+    
+    /**
+     * Whether meetings of group lobbies vote in a native poll in the group.
+     * 
+     * @return True if poll voting is enabled
+     */
+    public boolean isPollVotingEnabled() {
+        return pollVoting;
+    }
+    
+    /**
+     * Downloads a photo sent to the bot.
+     * 
+     * @param fileId The photo's file ID
+     * @return The file's bytes
+     * @throws TelegramApiException If the file cannot be resolved or fetched
+     * @throws IOException If reading the download fails
+     */
+    public byte[] downloadPhoto(String fileId) throws TelegramApiException, IOException {
+        GetFile getFile = new GetFile();
+        getFile.setFileId(fileId);
+        org.telegram.telegrambots.meta.api.objects.File file = execute(getFile);
+        try (InputStream in = downloadFileAsStream(file)) {
+            return in.readAllBytes();
+        }
+    }
+    
+    /**
+     * Gets the lobby manager.
+     * 
+     * @return The LobbyManager instance
+     */
+    public LobbyManager getLobbyManager() {
+        return lobbyManager;
+    }
+    
     /**
      * Convenience method to send a text message.
      */
@@ -182,7 +653,7 @@ public class AmongUsBot extends TelegramLongPollingBot {
         deleteMessage.setMessageId(messageId);
         
         try {
-            execute(deleteMessage);
+            apiRetrier.call(deleteMessage.getMethod(), () -> execute(deleteMessage));
             logger.debug("Message deleted successfully");
             return true;
         } catch (TelegramApiException e) {
@@ -207,7 +678,7 @@ public class AmongUsBot extends TelegramLongPollingBot {
         editMessageText.setText(text);
         
         try {
-            execute(editMessageText);
+            apiRetrier.call(editMessageText.getMethod(), () -> execute(editMessageText));
             logger.debug("Message text edited successfully");
             return true;
         } catch (TelegramApiException e) {
@@ -232,7 +703,7 @@ public class AmongUsBot extends TelegramLongPollingBot {
         editMarkup.setReplyMarkup(markup);
         
         try {
-            execute(editMarkup);
+            apiRetrier.call(editMarkup.getMethod(), () -> execute(editMarkup));
             logger.debug("Message reply markup edited successfully");
             return true;
         } catch (TelegramApiException e) {
@@ -0,0 +1,19 @@
+package com.amongus.bot.core;
+
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+
+/**
+ * Bot options with the choice of HTTP transport for Bot API calls.
+ */
+public class AmongUsBotOptions extends DefaultBotOptions {
+    private BotApiTransport.Type transport = BotApiTransport.Type.DEFAULT;
+
+    public BotApiTransport.Type getTransport() {
+        return transport;
+    }
+
+    public void setTransport(BotApiTransport.Type transport) {
+        this.transport = transport != null ? transport : BotApiTransport.Type.DEFAULT;
+    }
+}
+// COMPLETED: AmongUsBotOptions class
@@ -0,0 +1,345 @@
+package com.amongus.bot.core;
+
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameClock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Retries Telegram API calls that failed for a transient reason, and stops
+ * calling while the API is down.
+ *
+ * <p>A failure is retryable if Telegram asked to slow down (429), failed on
+ * its side (5xx) or could not be reached. Anything else, like a chat that
+ * blocked the bot or a message that no longer exists, fails right away. A
+ * 429 waits the {@code retry_after} Telegram sent; other failures back off
+ * exponentially with jitter, so callers hit by the same outage do not retry
+ * in lockstep.
+ *
+ * <p>After {@link GameConstants#API_BREAKER_THRESHOLD} outage failures in a
+ * row the circuit breaker opens: calls fail at once with
+ * {@link CircuitOpenException} for {@link GameConstants#API_BREAKER_OPEN_MILLIS},
+ * then a single probe call decides whether it closes again. Rate limiting
+ * does not count as an outage.
+ *
+ * <p>A wait budget caps how long one call may sleep in total. Callers on a
+ * thread that must not stall, like the update thread, get a short budget, so
+ * a long flood wait fails fast instead and the caller can queue the message.
+ * The budget is decided on the calling thread; work it hands to other
+ * threads takes the caller's budget along with {@link #withCallerBudget}.
+ */
+public class ApiRetrier {
+    private static final Logger logger = LoggerFactory.getLogger(ApiRetrier.class);
+
+    /**
+     * A Telegram API call.
+     */
+    @FunctionalInterface
+    public interface ApiCall<T> {
+        T call() throws TelegramApiException;
+    }
+
+    /**
+     * Waits between attempts; replaced in tests.
+     */
+    @FunctionalInterface
+    public interface Sleeper {
+        void sleep(long millis) throws InterruptedException;
+    }
+
+    /**
+     * State of the circuit breaker.
+     */
+    public enum BreakerState {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Thrown instead of calling the API while the circuit breaker is open.
+     */
+    public static class CircuitOpenException extends TelegramApiException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+
+    private final GameClock clock;
+    private final Sleeper sleeper;
+    private final LongSupplier waitBudget;
+    // Set on threads running work for another thread, whose budget applies
+    private final ThreadLocal<Long> callerBudget = new ThreadLocal<>();
+
+    // Circuit breaker
+    private final Object breakerLock = new Object();
+    private volatile BreakerState state = BreakerState.CLOSED;
+    private long openUntil;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+
+    // Metrics
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong fatal = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong breakerOpened = new AtomicLong();
+
+    /**
+     * @param clock Source of time for the breaker
+     * @param sleeper Waits between attempts
+     */
+    public ApiRetrier(GameClock clock, Sleeper sleeper) {
+        this(clock, sleeper, () -> Long.MAX_VALUE);
+    }
+
+    /**
+     * @param clock Source of time for the breaker
+     * @param sleeper Waits between attempts
+     * @param waitBudget How long the calling thread may sleep across all retries of one call
+     */
+    public ApiRetrier(GameClock clock, Sleeper sleeper, LongSupplier waitBudget) {
+        this.clock = clock;
+        this.sleeper = sleeper;
+        this.waitBudget = waitBudget;
+    }
+
+    /**
+     * Runs an API call, retrying transient failures.
+     *
+     * @param name The API method, for the logs
+     * @param call The call
+     * @return The call's result
+     * @throws TelegramApiException The last failure, or {@link CircuitOpenException}
+     */
+    public <T> T call(String name, ApiCall<T> call) throws TelegramApiException {
+        calls.incrementAndGet();
+        long budget = currentBudget();
+        long waited = 0;
+        for (int attempt = 1; ; attempt++) {
+            boolean probe = acquirePermit(name);
+            TelegramApiException failure;
+            try {
+                T result = call.call();
+                onSuccess(probe);
+                return result;
+            } catch (TelegramApiException e) {
+                if (!isRetryable(e)) {
+                    // The API answered, so it is up even though the call failed
+                    onSuccess(probe);
+                    fatal.incrementAndGet();
+                    throw e;
+                }
+                if (isRateLimit(e)) {
+                    rateLimited.incrementAndGet();
+                } else {
+                    onOutageFailure(name, probe);
+                }
+                failure = e;
+            } finally {
+                // Also after a runtime exception, or the breaker would stay half-open with no probe
+                releaseProbe(probe);
+            }
+
+            long delay = retryDelayMillis(failure, attempt);
+            if (attempt >= GameConstants.API_MAX_ATTEMPTS || delay < 0 || delay > budget - waited
+                    || state == BreakerState.OPEN) {
+                exhausted.incrementAndGet();
+                throw failure;
+            }
+            retries.incrementAndGet();
+            logger.debug("Retrying {} in {} ms after attempt {} failed: {}", name, delay, attempt,
+                    failure.getMessage());
+            try {
+                sleeper.sleep(delay);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                throw failure;
+            }
+            waited += delay;
+        }
+    }
+
+    /**
+     * Wraps work that another thread does for the calling one, like a send
+     * of a broadcast, so it runs under the calling thread's wait budget.
+     *
+     * @param task The work
+     * @return The work, carrying the budget decided now
+     */
+    public <T> Callable<T> withCallerBudget(Callable<T> task) {
+        long budget = currentBudget();
+        return () -> {
+            Long previous = callerBudget.get();
+            callerBudget.set(budget);
+            try {
+                return task.call();
+            } finally {
+                if (previous != null) {
+                    callerBudget.set(previous);
+                } else {
+                    callerBudget.remove();
+                }
+            }
+        };
+    }
+
+    private long currentBudget() {
+        Long budget = callerBudget.get();
+        return budget != null ? budget : waitBudget.getAsLong();
+    }
+
+    /**
+     * Whether a failure is worth retrying: rate limiting, a Telegram server
+     * error, a network failure or an open breaker.
+     *
+     * @param e The failure
+     * @return True if the same call may succeed later
+     */
+    public static boolean isRetryable(TelegramApiException e) {
+        if (e instanceof CircuitOpenException) {
+            return true;
+        }
+        if (e instanceof TelegramApiRequestException) {
+            Integer code = ((TelegramApiRequestException) e).getErrorCode();
+            if (code != null) {
+                return code == 429 || code >= 500;
+            }
+        }
+        return e.getCause() instanceof IOException;
+    }
+
+    private static boolean isRateLimit(TelegramApiException e) {
+        return e instanceof TelegramApiRequestException
+                && Integer.valueOf(429).equals(((TelegramApiRequestException) e).getErrorCode());
+    }
+
+    /**
+     * The wait before the next attempt: Telegram's {@code retry_after} for a
+     * 429, otherwise exponential backoff with jitter.
+     *
+     * @return The wait, or -1 if Telegram asks for longer than a caller should block
+     */
+    static long retryDelayMillis(TelegramApiException e, int attempt) {
+        if (e instanceof TelegramApiRequestException) {
+            TelegramApiRequestException request = (TelegramApiRequestException) e;
+            if (request.getParameters() != null && request.getParameters().getRetryAfter() != null) {
+                long retryAfter = request.getParameters().getRetryAfter() * 1000L;
+                return retryAfter <= GameConstants.API_RETRY_AFTER_MAX_MILLIS ? retryAfter : -1;
+            }
+        }
+        long ceiling = Math.min(GameConstants.API_BACKOFF_MAX_MILLIS,
+                GameConstants.API_BACKOFF_BASE_MILLIS << Math.min(attempt - 1, 20));
+        // Equal jitter: at least half the backoff, so retries never bunch up at zero
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    /**
+     * Lets a call through the breaker.
+     *
+     * @return True if the call is the probe of a half-open breaker
+     * @throws CircuitOpenException If the breaker is open
+     */
+    private boolean acquirePermit(String name) throws CircuitOpenException {
+        if (state == BreakerState.CLOSED) {
+            return false;
+        }
+        synchronized (breakerLock) {
+            if (state == BreakerState.OPEN && clock.millis() >= openUntil) {
+                state = BreakerState.HALF_OPEN;
+                logger.info("Telegram API circuit breaker half-open, probing");
+            }
+            if (state == BreakerState.CLOSED) {
+                return false;
+            }
+            if (state == BreakerState.HALF_OPEN && probeInFlight.compareAndSet(false, true)) {
+                return true;
+            }
+        }
+        rejected.incrementAndGet();
+        throw new CircuitOpenException("Telegram API circuit breaker is open, not calling " + name);
+    }
+
+    private void onSuccess(boolean probe) {
+        consecutiveFailures.set(0);
+        if (state != BreakerState.CLOSED) {
+            synchronized (breakerLock) {
+                if (state == BreakerState.HALF_OPEN && probe) {
+                    state = BreakerState.CLOSED;
+                    logger.info("Telegram API circuit breaker closed");
+                }
+            }
+        }
+    }
+
+    private void onOutageFailure(String name, boolean probe) {
+        int failures = consecutiveFailures.incrementAndGet();
+        synchronized (breakerLock) {
+            boolean trip = probe && state == BreakerState.HALF_OPEN
+                    || state == BreakerState.CLOSED && failures >= GameConstants.API_BREAKER_THRESHOLD;
+            if (trip) {
+                state = BreakerState.OPEN;
+                openUntil = clock.millis() + GameConstants.API_BREAKER_OPEN_MILLIS;
+                breakerOpened.incrementAndGet();
+                logger.warn("Telegram API circuit breaker opened after {} failures (last: {}), pausing for {} ms",
+                        failures, name, GameConstants.API_BREAKER_OPEN_MILLIS);
+            }
+        }
+    }
+
+    private void releaseProbe(boolean probe) {
+        if (probe) {
+            probeInFlight.set(false);
+        }
+    }
+
+    /**
+     * @return The breaker state; an open breaker past its pause still reads OPEN until the next call
+     */
+    public BreakerState getBreakerState() {
+        return state;
+    }
+
+    /**
+     * Whether calls currently get through, so queued work can wait instead
+     * of failing against an open breaker.
+     *
+     * @return False while the breaker is open and pausing
+     */
+    public boolean isAvailable() {
+        if (state != BreakerState.OPEN) {
+            return true;
+        }
+        synchronized (breakerLock) {
+            return clock.millis() >= openUntil;
+        }
+    }
+
+    /**
+     * Gets the retry metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        return String.format("ApiRetrier Stats - Calls: %d, Retries: %d, RateLimited: %d, Fatal: %d, " +
+                "Exhausted: %d, Rejected: %d, BreakerOpened: %d, Breaker: %s",
+                calls.get(), retries.get(), rateLimited.get(), fatal.get(), exhausted.get(),
+                rejected.get(), breakerOpened.get(), state);
+    }
+}
+// COMPLETED: ApiRetrier class
@@ -0,0 +1,41 @@
+package com.amongus.bot.core;
+
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.Serializable;
+
+/**
+ * Carries JSON Bot API calls to Telegram in place of the library's own
+ * HTTP client. Multipart uploads like photos and file downloads stay on the
+ * library client.
+ */
+public interface BotApiTransport {
+
+    /**
+     * Which transport the bot uses.
+     */
+    enum Type {
+        /** The telegrambots Apache HTTP client */
+        DEFAULT,
+        /** {@link HttpClientTransport}: java.net.http with HTTP/2 */
+        HTTP2
+    }
+
+    /**
+     * Calls a Bot API method.
+     *
+     * @param method The method
+     * @return The method's result
+     * @throws TelegramApiException If the call fails or Telegram returns an error
+     */
+    <T extends Serializable> T execute(BotApiMethod<T> method) throws TelegramApiException;
+
+    /**
+     * Gets the transport metrics.
+     *
+     * @return Statistics string
+     */
+    String getStatistics();
+}
+// COMPLETED: BotApiTransport interface
@@ -0,0 +1,194 @@
+package com.amongus.bot.core;
+
+import com.amongus.bot.game.GameConstants;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.meta.api.methods.updates.GetUpdates;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.bots.AbsSender;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.generics.BotOptions;
+import org.telegram.telegrambots.meta.generics.BotSession;
+import org.telegram.telegrambots.meta.generics.LongPollingBot;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Long polling session that only confirms updates the bot has handled.
+ *
+ * <p>The library's session confirms an update (by polling past it) as soon as
+ * it is received and queues it for a handler thread, so stopping it drops
+ * whatever was still queued. This session handles each batch before polling
+ * again, always with the offset of the first unhandled update. After
+ * {@link #drain()} that offset is exact: another process polling from it
+ * neither loses nor repeats an update.
+ */
+public class HandoffBotSession implements BotSession {
+    private static final Logger logger = LoggerFactory.getLogger(HandoffBotSession.class);
+
+    private static final long MIN_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    // Each poll loop gets its own flag, so a loop that was drained stays
+    // stopped even when polling is started again before it has exited
+    private volatile AtomicBoolean running = new AtomicBoolean(false);
+    private final Object handleLock = new Object();
+    private volatile int nextOffset;
+
+    private DefaultBotOptions options = new DefaultBotOptions();
+    private LongPollingBot callback;
+    private AbsSender sender;
+    private Thread pollingThread;
+
+    @Override
+    public synchronized void start() {
+        if (callback == null) {
+            throw new IllegalStateException("Session has no bot");
+        }
+        if (running.get()) {
+            return;
+        }
+        awaitPreviousLoop();
+        AtomicBoolean loopRunning = new AtomicBoolean(true);
+        running = loopRunning;
+        pollingThread = new Thread(() -> pollLoop(loopRunning), "AmongUs-Polling");
+        pollingThread.setDaemon(true);
+        pollingThread.start();
+        logger.info("Polling started at update offset {}", nextOffset);
+    }
+
+    /**
+     * Waits for a drained loop's last long poll to return, so two getUpdates
+     * requests never overlap; Telegram answers the second with 409 Conflict.
+     */
+    private void awaitPreviousLoop() {
+        Thread previous = pollingThread;
+        if (previous == null || !previous.isAlive()) {
+            return;
+        }
+        long waitMillis = options.getGetUpdatesTimeout() * 1000L + GameConstants.HTTP_REQUEST_TIMEOUT_MILLIS;
+        try {
+            previous.join(waitMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (previous.isAlive()) {
+            logger.warn("Previous polling thread is still running after {} ms", waitMillis);
+        }
+    }
+
+    @Override
+    public void stop() {
+        drain();
+    }
+
+    /**
+     * Stops polling and waits for the update being handled, if any. Updates
+     * fetched but not handled yet stay unconfirmed on Telegram's side.
+     *
+     * @return The offset of the first update not handled
+     */
+    public int drain() {
+        running.set(false);
+        // Waits out the update in progress; no new one starts once running is false
+        synchronized (handleLock) {
+            Thread thread = pollingThread;
+            if (thread != null) {
+                // The long poll itself cannot be interrupted; its response is ignored
+                thread.interrupt();
+            }
+            logger.info("Polling drained at update offset {}", nextOffset);
+            return nextOffset;
+        }
+    }
+
+    private void pollLoop(AtomicBoolean running) {
+        long backOff = MIN_BACKOFF_MILLIS;
+        while (running.get()) {
+            List<Update> updates;
+            try {
+                updates = sender.execute(request());
+                backOff = MIN_BACKOFF_MILLIS;
+            } catch (TelegramApiException e) {
+                if (!running.get()) {
+                    break;
+                }
+                logger.warn("getUpdates failed, retrying in {} ms: {}", backOff, e.getMessage());
+                try {
+                    Thread.sleep(backOff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backOff = Math.min(backOff * 2, MAX_BACKOFF_MILLIS);
+                continue;
+            }
+
+            if (updates == null) {
+                continue;
+            }
+            for (Update update : updates) {
+                synchronized (handleLock) {
+                    if (!running.get()) {
+                        return;
+                    }
+                    if (update.getUpdateId() == null || update.getUpdateId() < nextOffset) {
+                        continue;
+                    }
+                    try {
+                        callback.onUpdateReceived(update);
+                    } catch (Exception e) {
+                        logger.error("Error handling update {}: {}", update.getUpdateId(), e.getMessage(), e);
+                    }
+                    nextOffset = update.getUpdateId() + 1;
+                }
+            }
+        }
+    }
+
+    private GetUpdates request() {
+        GetUpdates request = new GetUpdates();
+        request.setOffset(nextOffset);
+        request.setLimit(options.getGetUpdatesLimit());
+        request.setTimeout(options.getGetUpdatesTimeout());
+        request.setAllowedUpdates(options.getAllowedUpdates());
+        return request;
+    }
+
+    /**
+     * @return The offset the next poll starts from
+     */
+    public int getNextOffset() {
+        return nextOffset;
+    }
+
+    @Override
+    public void setOptions(BotOptions options) {
+        if (options instanceof DefaultBotOptions) {
+            this.options = (DefaultBotOptions) options;
+        }
+    }
+
+    @Override
+    public void setToken(String token) {
+        // Requests go through the bot, which knows its own token
+    }
+
+    @Override
+    public void setCallback(LongPollingBot callback) {
+        if (!(callback instanceof AbsSender)) {
+            throw new IllegalArgumentException("Bot must be able to send requests");
+        }
+        this.callback = callback;
+        this.sender = (AbsSender) callback;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+}
+// COMPLETED: HandoffBotSession class
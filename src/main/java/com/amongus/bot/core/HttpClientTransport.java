@@ -0,0 +1,130 @@
+package com.amongus.bot.core;
+
+import com.amongus.bot.game.GameConstants;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.updates.GetUpdates;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bot API transport on {@link java.net.http.HttpClient}.
+ *
+ * <p>Over TLS the client negotiates HTTP/2, so concurrent calls become
+ * streams multiplexed on one kept-alive connection instead of queueing for
+ * a slot in a small connection pool. Servers without HTTP/2 get HTTP/1.1
+ * with a pooled connection per concurrent call.
+ *
+ * <p>java.net.http does not expose its connection pool, so the metrics count
+ * streams: calls in flight, the peak, and responses per protocol, which shows
+ * whether calls are actually multiplexed.
+ */
+public class HttpClientTransport implements BotApiTransport {
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientTransport.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final String baseUrl;
+    private final HttpClient client;
+
+    // Metrics
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong http2Responses = new AtomicLong();
+    private final AtomicLong http1Responses = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    /**
+     * @param baseUrl The Bot API URL up to the method name, including the token and trailing slash
+     */
+    public HttpClientTransport(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(GameConstants.HTTP_CONNECT_TIMEOUT_MILLIS))
+                .build();
+        logger.info("Using the HTTP/2 Bot API transport");
+    }
+
+    @Override
+    public <T extends Serializable> T execute(BotApiMethod<T> method) throws TelegramApiException {
+        method.validate();
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(method);
+        } catch (JsonProcessingException e) {
+            throw new TelegramApiException("Unable to serialize " + method.getMethod() + " method", e);
+        }
+
+        long timeout = GameConstants.HTTP_REQUEST_TIMEOUT_MILLIS;
+        if (method instanceof GetUpdates && ((GetUpdates) method).getTimeout() != null) {
+            // Long polling holds the request open for its own timeout
+            timeout += ((GetUpdates) method).getTimeout() * 1000L;
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + method.getMethod()))
+                .timeout(Duration.ofMillis(timeout))
+                .header("Content-Type", "application/json; charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+
+        calls.incrementAndGet();
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        long started = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            failures.incrementAndGet();
+            throw new TelegramApiException("Unable to execute " + method.getMethod() + " method", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failures.incrementAndGet();
+            throw new TelegramApiException("Interrupted while executing " + method.getMethod() + " method", e);
+        } finally {
+            inFlight.decrementAndGet();
+            totalNanos.addAndGet(System.nanoTime() - started);
+        }
+
+        if (response.version() == HttpClient.Version.HTTP_2) {
+            http2Responses.incrementAndGet();
+        } else {
+            http1Responses.incrementAndGet();
+        }
+        // Telegram answers errors with a JSON body too; the method turns it into the exception
+        return method.deserializeResponse(response.body());
+    }
+
+    /**
+     * @return The number of calls waiting for a response
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public String getStatistics() {
+        long completed = http2Responses.get() + http1Responses.get() + failures.get();
+        return String.format("HttpClientTransport Stats - Calls: %d, Failures: %d, HTTP/2: %d, HTTP/1.1: %d, " +
+                "InFlight: %d, PeakInFlight: %d, AvgLatency: %.1f ms",
+                calls.get(), failures.get(), http2Responses.get(), http1Responses.get(),
+                inFlight.get(), peakInFlight.get(),
+                completed > 0 ? totalNanos.get() / 1_000_000.0 / completed : 0.0);
+    }
+}
+// COMPLETED: HttpClientTransport class
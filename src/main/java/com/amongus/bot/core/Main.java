@@ -1,13 +1,26 @@
 package com.amongus.bot.core;
 
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.managers.ReplicationPrimary;
+import com.amongus.bot.managers.ReplicationStandby;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.telegram.telegrambots.meta.TelegramBotsApi;
 import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
-import org.telegram.telegrambots.updatesreceivers.DefaultBotSession;
+import org.telegram.telegrambots.meta.generics.BotSession;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Main entry point for the Among Us Telegram bot application.
+ * 
+ * <p>Started with {@code --standby}, the process follows the primary running
+ * on this machine (AMONGUS_REPLICATION_PORT) and takes its lobbies over when
+ * the primary shuts down; with {@code --takeover} as well, it asks the primary
+ * to hand over as soon as it is in sync.
  */
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
@@ -17,15 +30,57 @@ public class Main {
         logger.info("Java version: {}", System.getProperty("java.version"));
         logger.info("OS: {} {}", System.getProperty("os.name"), System.getProperty("os.version"));
         
+        List<String> options = Arrays.asList(args);
+        boolean standby = options.contains("--standby");
+        String portSetting = System.getenv("AMONGUS_REPLICATION_PORT");
+        int replicationPort = portSetting != null && !portSetting.isBlank()
+                ? Integer.parseInt(portSetting.trim()) : GameConstants.DEFAULT_REPLICATION_PORT;
+        
         try {
             logger.info("Initializing Telegram Bots API...");
-            TelegramBotsApi botsApi = new TelegramBotsApi(DefaultBotSession.class);
+            TelegramBotsApi botsApi = new TelegramBotsApi(HandoffBotSession.class);
             
             logger.info("Creating bot instance...");
             AmongUsBot bot = new AmongUsBot();
             
-            logger.info("Registering bot with Telegram API...");
-            botsApi.registerBot(bot);
+            BotSession session;
+            if (standby) {
+                logger.info("Waiting for the primary on port {} to hand over...", replicationPort);
+                ReplicationStandby replica = new ReplicationStandby(bot.getLobbyManager(), bot,
+                        "127.0.0.1", replicationPort);
+                replica.start(options.contains("--takeover"));
+                replica.awaitHandoff(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+                bot.skipUpdatesBefore(replica.getHandoffOffset());
+                // The primary lets go on the acknowledgement; polling without it risks two pollers
+                if (!replica.acknowledge()) {
+                    logger.error("Could not acknowledge the handoff, exiting without polling");
+                    System.exit(1);
+                }
+                
+                logger.info("Registering bot with Telegram API...");
+                session = botsApi.registerBot(bot);
+                int saved = bot.getSnapshotStore().snapshot();
+                logger.info("Took over {} lobbies", saved);
+            } else {
+                logger.info("Restoring lobbies from snapshot...");
+                int restored = bot.getSnapshotStore().restore();
+                logger.info("Restored {} lobbies", restored);
+                
+                logger.info("Registering bot with Telegram API...");
+                session = botsApi.registerBot(bot);
+            }
+            
+            bot.getLobbyScavenger().start();
+            if (bot.getMessageOutbox() != null) {
+                bot.getMessageOutbox().start();
+            }
+            bot.getSnapshotStore().start();
+            bot.getJournal().start();
+            
+            ReplicationPrimary replication = new ReplicationPrimary(bot.getLobbyManager(), bot, replicationPort);
+            replication.setSession((HandoffBotSession) session);
+            startReplication(replication);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> shutdown(bot, replication), "AmongUs-Shutdown"));
             
             logger.info("Bot successfully registered and started!");
             logger.info("Bot username: {}", bot.getBotUsername());
@@ -40,5 +95,59 @@ public class Main {
             System.exit(1);
         }
     }
+    
+    /**
+     * Starts listening for a standby. After a takeover the previous primary
+     * may still hold the port for a moment, so binding is retried.
+     */
+    private static void startReplication(ReplicationPrimary replication) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                replication.start();
+                return;
+            } catch (Exception e) {
+                if (attempt >= 10) {
+                    logger.error("Replication disabled, port unavailable: {}", e.getMessage());
+                    return;
+                }
+                Thread.sleep(GameConstants.REPLICATION_RECONNECT_MILLIS);
+            }
+        }
+    }
+    
+    /**
+     * Hands the lobbies to a connected standby, or stops background tasks and
+     * writes a final lobby snapshot. After a handoff the shared snapshot,
+     * journal and stats files belong to the new primary and are left alone.
+     */
+    private static void shutdown(AmongUsBot bot, ReplicationPrimary replication) {
+        // Verdicts still in flight land before the lobbies are saved or handed over
+        bot.getPhotoProofPipeline().close();
+        bot.getMessageLifecycle().close();
+        if (bot.getMessageOutbox() != null) {
+            bot.getMessageOutbox().close();
+        }
+        if (replication.isHandedOver() || replication.hasStandby() && replication.handoff()) {
+            // The standby owns the lobbies and the shared files now
+            replication.stop();
+            logger.info("Shutting down after handing lobbies over");
+            return;
+        }
+        replication.stop();
+        logger.info("Shutting down, saving lobbies...");
+        bot.getLobbyScavenger().stop();
+        bot.getSnapshotStore().stop();
+        try {
+            int saved = bot.getSnapshotStore().snapshot();
+            logger.info("Saved {} lobbies", saved);
+        } catch (Exception e) {
+            logger.error("Failed to save lobbies on shutdown: {}", e.getMessage(), e);
+        }
+        // Anything recorded after the final snapshot is flushed to the journal
+        bot.getJournal().stop();
+        bot.getPlayerStatsStore().close();
+        bot.getGameArchive().close();
+        bot.getEventColumnStore().flush();
+    }
 }
-// COMPLETED: Main class 
\ No newline at end of file
+// COMPLETED: Main class
@@ -19,6 +19,8 @@ public final class GameConstants {
     // Player limits
     public static final int MIN_PLAYERS = 4;
     public static final int MAX_PLAYERS = 20;
+    public static final int DEFAULT_MAX_PLAYERS = 10; // classic lobby size
+    public static final int LARGE_LOBBY_MAX_PLAYERS = 100; // venue events
     public static final int DEFAULT_EMERGENCY_MEETINGS_PER_PLAYER = 1;
     
     // Task completion
@@ -79,7 +81,93 @@ public final class GameConstants {
     public static final int MAXIMUM_POOL_SIZE = 20;
     public static final long KEEP_ALIVE_TIME = 60L; // seconds
     
+    // Idle lobby eviction (limits per game state, in minutes)
+    public static final int IDLE_LIMIT_LOBBY_MINUTES = 30;
+    public static final int IDLE_LIMIT_SETUP_MINUTES = 10;
+    public static final int IDLE_LIMIT_ACTIVE_MINUTES = 120; // games are played offline, updates can be sparse
+    public static final int IDLE_LIMIT_DISCUSSION_MINUTES = 15;
+    public static final int IDLE_LIMIT_GAME_OVER_MINUTES = 15;
+    public static final int SCAVENGER_INTERVAL_SECONDS = 60;
+    public static final int SCAVENGER_BATCH_PAUSE_SECONDS = 1;
+    public static final int SCAVENGER_BATCH_SIZE = 20; // lobbies closed per pass
+    public static final int LEAK_CHECK_GRACE_SECONDS = 120; // closed lobbies still reachable after this are reported
+    
+    // Per-lobby memory quotas
+    public static final int MAX_GAME_EVENTS = 500; // older routine events are summarized beyond this
+    public static final int EVENT_SUMMARY_HEADROOM = 50; // events freed per summarization
+    
+    // Lobby snapshots
+    public static final String DEFAULT_SNAPSHOT_FILE = "data/lobbies.snapshot";
+    public static final int SNAPSHOT_INTERVAL_SECONDS = 10;
+    public static final int SNAPSHOT_FULL_EVERY = 30; // passes between full re-encodes
+    public static final int RESTORE_RESEND_THREADS = 4;
+    
+    // Write-ahead journal
+    public static final String DEFAULT_JOURNAL_DIR = "data/journal";
+    public static final int JOURNAL_COMMIT_MILLIS = 20; // group commit window
+    public static final long JOURNAL_SEGMENT_BYTES = 4L * 1024 * 1024;
+    
+    // Player statistics
+    public static final String DEFAULT_STATS_FILE = "data/player-stats.db";
+    public static final int STATS_CACHE_SIZE = 1024; // players kept in the LRU hot set
+    public static final int STATS_FLUSH_MILLIS = 500; // batching window for stats writes
+    
+    // Finished game archive
+    public static final String DEFAULT_ARCHIVE_DIR = "data/archive";
+    
+    // Columnar event store for analytics
+    public static final String DEFAULT_ANALYTICS_DIR = "data/analytics";
+    public static final int COLUMN_SEGMENT_GAMES = 64; // games per column file
+    public static final long COLUMN_SEGMENT_MAX_AGE_MILLIS = 10 * 60 * 1000; // longest a game waits in the buffer
+    
+    // Replay export
+    public static final String DEFAULT_REPLAY_DIR = "data/replays";
+    
+    // HTTP/2 Bot API transport
+    public static final long HTTP_CONNECT_TIMEOUT_MILLIS = 10_000;
+    public static final long HTTP_REQUEST_TIMEOUT_MILLIS = 30_000; // on top of the getUpdates long-poll timeout
+    
+    // Telegram API retries
+    public static final int API_MAX_ATTEMPTS = 3;
+    public static final long API_BACKOFF_BASE_MILLIS = 250;
+    public static final long API_BACKOFF_MAX_MILLIS = 4000;
+    public static final long API_RETRY_AFTER_MAX_MILLIS = 10_000; // longer flood waits go to the outbox
+    public static final long API_UPDATE_PATH_MAX_WAIT_MILLIS = 1_000; // total retry sleep allowed while handling an update
+    public static final int API_BREAKER_THRESHOLD = 5; // outage failures in a row that open the breaker
+    public static final long API_BREAKER_OPEN_MILLIS = 15_000;
+    
+    // Outbox of undelivered messages
+    public static final String DEFAULT_OUTBOX_DIR = "data/outbox";
+    public static final int OUTBOX_DRAIN_MILLIS = 2000;
+    public static final long OUTBOX_MAX_AGE_MILLIS = 10 * 60 * 1000L;
+    public static final int OUTBOX_CAPACITY = 10_000;
+    
+    // Hot-standby replication
+    public static final int DEFAULT_REPLICATION_PORT = 7070; // loopback only
+    public static final int REPLICATION_QUEUE_CAPACITY = 4096; // messages buffered for a slow standby
+    public static final int REPLICATION_ACK_TIMEOUT_SECONDS = 30;
+    public static final int REPLICATION_RECONNECT_MILLIS = 1000;
+    
+    // Task photo validation
+    public static final int PHOTO_DOWNLOAD_THREADS = 4;
+    public static final int PHOTO_HASH_QUEUE_CAPACITY = 64; // per pool; beyond it photos skip the hash check
+    public static final int PHOTO_HASH_MAX_DISTANCE = 5; // differing bits of 64 that still count as the same picture
+    
     // Performance optimization
     public static final int BULK_OPERATION_THRESHOLD = 5; // When to use bulk operations vs individual
     public static final int CACHE_SIZE = 100; // For any caching mechanisms
+    public static final int KEYBOARD_PAGE_SIZE = 8; // Player buttons per inline keyboard page
+    public static final int BROADCAST_PARALLELISM = 8; // Concurrent sends per broadcast
+    public static final int BULK_LANE_CAPACITY = 256; // queued low-priority jobs, e.g. photo reports
+    public static final int MEDIA_GROUP_SIZE = 10; // Telegram's limit per album
+    public static final int MAX_CAPTION_LENGTH = 1024;
+    public static final int DASHBOARD_MIN_EDIT_MILLIS = 3000; // group chats allow ~20 messages a minute
+    public static final int ROSTER_DEBOUNCE_MILLIS = 1500; // join bursts render as one status edit
+    public static final int POLL_MAX_OPTIONS = 10; // Telegram's limit; larger meetings vote with keyboards
+    public static final int POLL_OPTION_MAX_LENGTH = 100;
+    public static final int CALLBACK_ANSWER_MAX_LENGTH = 200; // Telegram's limit for a toast or alert
+    public static final int MESSAGE_DELETE_BUCKET_MILLIS = 1000; // deletions are swept once per bucket
+    public static final int MESSAGE_DELETE_BATCH_SIZE = 20; // the rest of a purge waits for the next bucket
+    public static final long EPHEMERAL_MESSAGE_TTL_MILLIS = 30_000;
+    public static final long ROLE_MESSAGE_TTL_MILLIS = 10_000;
 } 
\ No newline at end of file
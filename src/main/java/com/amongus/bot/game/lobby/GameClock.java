@@ -0,0 +1,44 @@
+package com.amongus.bot.game.lobby;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Source of time for a lobby: the current time and the scheduling of game
+ * timers. Live lobbies use {@link #SYSTEM}; the replay simulator swaps in a
+ * simulated clock so a recorded game runs without waiting on real time.
+ */
+public interface GameClock {
+    /**
+     * Wall-clock time, timers on the given scheduler.
+     */
+    GameClock SYSTEM = new GameClock() {
+        @Override
+        public long millis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(ScheduledExecutorService scheduler, Runnable task, long delay, TimeUnit unit) {
+            return scheduler.schedule(task, delay, unit);
+        }
+    };
+
+    /**
+     * @return The current time in epoch milliseconds
+     */
+    long millis();
+
+    /**
+     * Schedules a task after a delay.
+     *
+     * @param scheduler The scheduler a live lobby would use
+     * @param task The task
+     * @param delay The delay
+     * @param unit The unit of the delay
+     * @return The scheduled future
+     */
+    ScheduledFuture<?> schedule(ScheduledExecutorService scheduler, Runnable task, long delay, TimeUnit unit);
+}
+// COMPLETED: GameClock interface
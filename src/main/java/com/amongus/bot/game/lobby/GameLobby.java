@@ -1,5 +1,7 @@
 package com.amongus.bot.game.lobby;
 
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.replay.ReplayRecorder;
 import com.amongus.bot.game.states.GameState;
 import com.amongus.bot.models.Player;
 import com.amongus.bot.models.GameEvent;
@@ -13,7 +15,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Represents a game lobby where players can join before starting a game.
@@ -23,7 +28,6 @@ public class GameLobby {
     
     // Constants
     public static final int MIN_PLAYERS = 4;
-    private static final int MAX_PLAYERS = 10;
     
     // Lobby properties
     private final String lobbyCode;
@@ -35,6 +39,35 @@ public class GameLobby {
     // История событий для отчета в конце игры
     private final List<GameEvent> gameEvents;
     
+    // Квота событий: при превышении старые рядовые события сворачиваются в сводку
+    private volatile int maxGameEvents = GameConstants.MAX_GAME_EVENTS;
+    private final AtomicLong summarizedEvents = new AtomicLong();
+    private final Map<String, Integer> summarizedCounts = new LinkedHashMap<>(); // под блокировкой gameEvents
+    private int nextSummaryAt; // под блокировкой gameEvents
+    
+    // Latest read-only view, replaced after every mutation
+    private volatile LobbySnapshot snapshot;
+    private long snapshotVersion;
+    
+    // Wall-clock time of the last player action or mutation, used for idle eviction
+    private volatile long lastActivityMillis = System.currentTimeMillis();
+    private final AtomicLong activityCount = new AtomicLong();
+    
+    // Timers, registry entries and tracked messages, released when the lobby closes
+    private final LobbyContext context;
+    
+    // Seed for role and task assignment, so a journaled game can be reproduced
+    private volatile long gameSeed;
+    private volatile long gameStartedAt;
+    private volatile ReplayRecorder replayRecorder;
+    
+    // Receives every state-changing command, e.g. the write-ahead journal
+    private volatile LobbyChangeListener changeListener;
+    
+    // Group chat the lobby is played in and its pinned dashboard, null in DM mode
+    private volatile Long groupChatId;
+    private volatile Integer dashboardMessageId;
+    
     public GameLobby(String lobbyCode, Long hostId, String hostName) {
         this.lobbyCode = lobbyCode;
         this.hostId = hostId;
@@ -42,9 +75,11 @@ public class GameLobby {
         this.gameState = null;
         this.settings = new LobbySettings();
         this.gameEvents = Collections.synchronizedList(new ArrayList<>());
+        this.context = new LobbyContext(lobbyCode);
         
         // Add the host as the first player
         players.put(hostId, new Player(hostId, hostName));
+        publishSnapshot();
         
         logger.info("Created new GameLobby with code {} and host {}", lobbyCode, hostId);
     }
@@ -58,10 +93,25 @@ public class GameLobby {
      * @return Созданное событие
      */
     public GameEvent addGameEvent(Long userId, String action, String details) {
+        return addGameEvent(userId, action, details, null);
+    }
+    
+    /**
+     * Добавляет событие с фото-подтверждением. Фото прикрепляется до того, как
+     * событие попадает в историю, поэтому квота событий его не сворачивает.
+     * 
+     * @param userId ID пользователя, совершившего действие
+     * @param action Тип действия
+     * @param details Подробности действия
+     * @param photoFileId ID фото в Telegram или null
+     * @return Созданное событие
+     */
+    public GameEvent addGameEvent(Long userId, String action, String details, String photoFileId) {
         // Если userId равен null, создаем системное событие без привязки к игроку
         if (userId == null) {
-            GameEvent event = new GameEvent(null, "SYSTEM", action, details);
-            gameEvents.add(event);
+            GameEvent event = new GameEvent(null, "SYSTEM", action, details, new Date(context.currentTimeMillis()));
+            event.setPhotoFileId(photoFileId);
+            appendGameEvent(event);
             logger.debug("Added system game event: {} in lobby {}", event.getFormattedDescription(), lobbyCode);
             return event;
         }
@@ -72,12 +122,151 @@ public class GameLobby {
             return null;
         }
         
-        GameEvent event = new GameEvent(userId, player.getUserName(), action, details);
-        gameEvents.add(event);
+        GameEvent event = new GameEvent(userId, player.getUserName(), action, details,
+                new Date(context.currentTimeMillis()));
+        event.setPhotoFileId(photoFileId);
+        appendGameEvent(event);
         logger.debug("Added game event: {} in lobby {}", event.getFormattedDescription(), lobbyCode);
         return event;
     }
     
+    private void appendGameEvent(GameEvent event) {
+        synchronized (gameEvents) {
+            gameEvents.add(event);
+            if (gameEvents.size() > Math.max(maxGameEvents, nextSummaryAt)) {
+                summarizeOldEvents();
+            }
+        }
+        touch();
+        fireChange(event.getAction(), event.getUserId(), event.getDetails());
+    }
+    
+    /**
+     * Сворачивает самые старые рядовые события (задания, голоса, саботажи) в одно
+     * событие SUMMARY со счетчиками по типам. Убийства, исключения, собрания и
+     * события с фото-подтверждением не сворачиваются никогда: их читают итоговый
+     * фотоальбом, статистика игроков, аналитика и реплеи. Если таких событий
+     * больше квоты, история превышает ее. Сводка в истории всегда одна:
+     * повторное сворачивание обновляет ее счетчики. Освобождается запас в
+     * {@link GameConstants#EVENT_SUMMARY_HEADROOM} событий, чтобы сворачивание
+     * не выполнялось на каждом новом событии.
+     * Вызывается под блокировкой списка событий.
+     */
+    private void summarizeOldEvents() {
+        int size = gameEvents.size();
+        int toRemove = size - maxGameEvents + GameConstants.EVENT_SUMMARY_HEADROOM;
+        boolean[] selected = new boolean[size];
+        int count = 0;
+        for (int i = 0; i < size && count < toRemove; i++) {
+            if (isRoutineEvent(gameEvents.get(i))) {
+                selected[i] = true;
+                count++;
+            }
+        }
+        // Остались только ключевые события: следующая попытка через запас
+        nextSummaryAt = size - count + GameConstants.EVENT_SUMMARY_HEADROOM;
+        if (count == 0) {
+            return;
+        }
+        
+        List<GameEvent> kept = new ArrayList<>(size - count + 1);
+        int summaryPosition = -1;
+        Date summaryTimestamp = null;
+        for (int i = 0; i < size; i++) {
+            GameEvent event = gameEvents.get(i);
+            boolean summary = isSummary(event);
+            if (!selected[i] && !summary) {
+                kept.add(event);
+                continue;
+            }
+            if (summaryPosition < 0) {
+                summaryPosition = kept.size();
+                summaryTimestamp = event.getTimestamp();
+            }
+            if (!summary) {
+                summarizedCounts.merge(event.getAction().toUpperCase(), 1, Integer::sum);
+            }
+        }
+        
+        int total = 0;
+        StringBuilder breakdown = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : summarizedCounts.entrySet()) {
+            total += entry.getValue();
+            breakdown.append(entry.getKey()).append(" ×").append(entry.getValue()).append(", ");
+        }
+        StringBuilder details = new StringBuilder("свернуто событий: ").append(total).append(" (").append(breakdown);
+        details.setLength(details.length() - 2);
+        details.append(')');
+        
+        kept.add(summaryPosition, new GameEvent(null, "SYSTEM", "SUMMARY", details.toString(), summaryTimestamp));
+        gameEvents.clear();
+        gameEvents.addAll(kept);
+        summarizedEvents.addAndGet(count);
+        logger.info("Lobby {} reached the event quota of {}, summarized {} old events",
+                lobbyCode, maxGameEvents, count);
+    }
+    
+    private static boolean isSummary(GameEvent event) {
+        return "SUMMARY".equalsIgnoreCase(event.getAction());
+    }
+    
+    private static boolean isRoutineEvent(GameEvent event) {
+        if (event.getPhotoFileId() != null) {
+            return false;
+        }
+        switch (event.getAction().toUpperCase()) {
+            case "TASK":
+            case "FAKE_TASK":
+            case "SCAN":
+            case "VOTE":
+            case "SABOTAGE":
+            case "FIX_LIGHTS":
+            case "FIX_REACTOR":
+                return true;
+            default:
+                return false;
+        }
+    }
+    
+    /**
+     * Получает квоту событий на игру.
+     * 
+     * @return Максимальное число хранимых событий
+     */
+    public int getMaxGameEvents() {
+        return maxGameEvents;
+    }
+    
+    /**
+     * Устанавливает квоту событий на игру.
+     * 
+     * @param maxGameEvents Максимальное число хранимых событий
+     */
+    public void setMaxGameEvents(int maxGameEvents) {
+        if (maxGameEvents <= GameConstants.EVENT_SUMMARY_HEADROOM) {
+            throw new IllegalArgumentException("Event quota must exceed " + GameConstants.EVENT_SUMMARY_HEADROOM);
+        }
+        this.maxGameEvents = maxGameEvents;
+    }
+    
+    /**
+     * Получает общее число событий, свернутых в сводки за время жизни лобби.
+     * 
+     * @return Количество свернутых событий
+     */
+    public long getSummarizedEventCount() {
+        return summarizedEvents.get();
+    }
+    
+    /**
+     * Оценивает память, занимаемую лобби.
+     * 
+     * @return Оценка по событиям, игрокам, заданиям и служебным структурам
+     */
+    public LobbyFootprint getFootprint() {
+        return LobbyFootprint.measure(this);
+    }
+    
     /**
      * Получает список всех событий в хронологическом порядке.
      * 
@@ -142,10 +331,32 @@ public class GameLobby {
      * Очищает историю событий.
      */
     public void clearGameEvents() {
-        gameEvents.clear();
+        synchronized (gameEvents) {
+            gameEvents.clear();
+            summarizedCounts.clear();
+            nextSummaryAt = 0;
+        }
         logger.debug("Cleared game events for lobby {}", lobbyCode);
     }
     
+    /**
+     * Готовит лобби к реваншу: сбрасывает состояние игроков, историю событий
+     * и seed прошлой игры. Завершенная игра к этому моменту уже в архиве.
+     */
+    public void prepareRematch() {
+        for (Player player : players.values()) {
+            player.reset();
+        }
+        clearGameEvents();
+        this.gameSeed = 0L;
+        this.gameStartedAt = 0L;
+        this.replayRecorder = null;
+        publishSnapshot();
+        touch();
+        fireChange("REMATCH", hostId, null);
+        logger.info("Prepared lobby {} for a rematch", lobbyCode);
+    }
+    
     /**
      * Adds a player to the lobby.
      * 
@@ -160,8 +371,8 @@ public class GameLobby {
             return false;
         }
         
-        // Check if lobby is full
-        if (players.size() >= MAX_PLAYERS) {
+        // Check if lobby is full (capacity is a lobby setting)
+        if (players.size() >= settings.getMaxPlayers()) {
             logger.warn("Cannot add player {} to lobby {}. Lobby is full", userName, lobbyCode);
             return false;
         }
@@ -174,10 +385,12 @@ public class GameLobby {
         
         // Add player to the lobby
         players.put(userId, new Player(userId, userName));
+        publishSnapshot();
         logger.info("Player {} added to lobby {}", userName, lobbyCode);
         
         // Adjust impostor count if needed based on the new player count
         settings.adjustImpostorCount(players.size());
+        fireChange("JOIN", userId, userName);
         
         return true;
     }
@@ -195,7 +408,9 @@ public class GameLobby {
         }
         
         players.remove(userId);
+        publishSnapshot();
         logger.info("Removed player {} from lobby {}", userId, lobbyCode);
+        fireChange("LEAVE", userId, null);
         return true;
     }
     
@@ -214,6 +429,8 @@ public class GameLobby {
         // Choose the first available player
         Long newHostId = players.keySet().iterator().next();
         this.hostId = newHostId;
+        publishSnapshot();
+        fireChange("HOST", newHostId, null);
         
         logger.info("Assigned new host {} for lobby {}", newHostId, lobbyCode);
         return true;
@@ -255,6 +472,94 @@ public class GameLobby {
         return new ArrayList<>(players.values());
     }
     
+    /**
+     * Gets the latest immutable view of the lobby. Lock-free and copy-free;
+     * use it for read-only screens instead of {@link #getPlayerList()}.
+     * 
+     * @return The current snapshot
+     */
+    public LobbySnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Rebuilds and publishes the snapshot. Called internally on membership,
+     * host and state changes; game states call it after changing player
+     * fields the snapshot exposes (e.g. killing or ejecting a player).
+     */
+    public synchronized void publishSnapshot() {
+        Long currentHostId = hostId;
+        String hostName = null;
+        List<LobbySnapshot.PlayerView> views = new ArrayList<>(players.size());
+        for (Player player : players.values()) {
+            boolean host = player.getUserId().equals(currentHostId);
+            if (host) {
+                hostName = player.getUserName();
+            }
+            views.add(new LobbySnapshot.PlayerView(player.getUserId(), player.getUserName(), player.isAlive(), host));
+        }
+        GameState state = gameState;
+        snapshot = new LobbySnapshot(++snapshotVersion, lobbyCode, currentHostId, hostName,
+                state != null ? state.getStateName() : null, views);
+        touch();
+    }
+    
+    /**
+     * Gets the context that owns this lobby's timers, registrations and tracked messages.
+     * 
+     * @return The lobby context
+     */
+    public LobbyContext getContext() {
+        return context;
+    }
+    
+    /**
+     * Replaces the lobby contents with a decoded snapshot record. Used by
+     * {@link LobbyCodec} only; the state is set without calling onEnter.
+     */
+    void restore(List<Player> restoredPlayers, List<GameEvent> restoredEvents, GameState restoredState,
+                 long restoredSeed, long restoredActivityMillis) {
+        players.clear();
+        for (Player player : restoredPlayers) {
+            players.put(player.getUserId(), player);
+        }
+        synchronized (gameEvents) {
+            gameEvents.clear();
+            gameEvents.addAll(restoredEvents);
+            nextSummaryAt = 0;
+        }
+        this.gameState = restoredState;
+        this.gameSeed = restoredSeed;
+        publishSnapshot();
+        this.lastActivityMillis = restoredActivityMillis;
+    }
+    
+    /**
+     * Records activity in the lobby so it is not evicted as idle.
+     */
+    public void touch() {
+        lastActivityMillis = context.currentTimeMillis();
+        activityCount.incrementAndGet();
+    }
+    
+    /**
+     * Counts recorded activity. Unlike {@link #getLastActivityMillis()} it
+     * changes on every touch, even within the same millisecond, so it tells
+     * reliably whether the lobby changed since it was last saved.
+     * 
+     * @return The number of touches so far
+     */
+    public long getActivityCount() {
+        return activityCount.get();
+    }
+    
+    /**
+     * @return The time of the last recorded activity, in epoch milliseconds
+     */
+    public long getLastActivityMillis() {
+        return lastActivityMillis;
+    }
+    
     // Getters and setters
     
     public String getLobbyCode() {
@@ -275,8 +580,125 @@ public class GameLobby {
     
     public void setGameState(GameState gameState) {
         this.gameState = gameState;
+        publishSnapshot();
         logger.info("Set game state for lobby {}: {}", lobbyCode, 
                 gameState == null ? "null" : gameState.getClass().getSimpleName());
+        fireChange("STATE", null, gameState == null ? null : gameState.getStateName());
+    }
+    
+    /**
+     * @return The seed used for the current game's role and task assignment
+     */
+    public long getGameSeed() {
+        return gameSeed;
+    }
+    
+    /**
+     * @return When the current game's seed was drawn, i.e. when the game
+     *         started; 0 if unknown (no game yet, or restored after a restart)
+     */
+    public long getGameStartedAt() {
+        return gameStartedAt;
+    }
+    
+    /**
+     * Начинает запись входных действий игроков для экспорта реплея.
+     * Вызывается при старте игры, после выбора seed.
+     */
+    public void startReplay() {
+        this.replayRecorder = new ReplayRecorder(this, gameSeed, gameStartedAt);
+    }
+    
+    /**
+     * @return Запись текущей игры или null, если игра не записывается
+     */
+    public ReplayRecorder getReplayRecorder() {
+        return replayRecorder;
+    }
+    
+    /**
+     * Завершает запись реплея.
+     * 
+     * @return Запись завершенной игры или null, если запись не велась
+     */
+    public ReplayRecorder finishReplay() {
+        ReplayRecorder recorder = replayRecorder;
+        replayRecorder = null;
+        return recorder;
+    }
+    
+    /**
+     * Sets the seed for role and task assignment and records it, so the
+     * assignment can be repeated exactly from the journal.
+     * 
+     * @param gameSeed The seed
+     */
+    public void setGameSeed(long gameSeed) {
+        this.gameSeed = gameSeed;
+        this.gameStartedAt = context.currentTimeMillis();
+        touch();
+        fireChange("SEED", null, Long.toString(gameSeed));
+    }
+    
+    /**
+     * Binds the lobby to a group chat. Public state is then shown on one
+     * dashboard message in the group and only secrets go to private chats.
+     * 
+     * @param groupChatId The group chat, or null to return to private chats only
+     */
+    public void setGroupChatId(Long groupChatId) {
+        this.groupChatId = groupChatId;
+        this.dashboardMessageId = null;
+        touch();
+        fireChange("GROUP", null, groupChatId == null ? null : groupChatId.toString());
+    }
+    
+    public Long getGroupChatId() {
+        return groupChatId;
+    }
+    
+    /**
+     * @return True if the lobby is played in a group chat
+     */
+    public boolean isGroupMode() {
+        return groupChatId != null;
+    }
+    
+    public Integer getDashboardMessageId() {
+        return dashboardMessageId;
+    }
+    
+    public void setDashboardMessageId(Integer dashboardMessageId) {
+        this.dashboardMessageId = dashboardMessageId;
+    }
+    
+    /**
+     * Restores the group binding from a snapshot without recording a change.
+     */
+    public void restoreGroup(Long groupChatId, Integer dashboardMessageId) {
+        this.groupChatId = groupChatId;
+        this.dashboardMessageId = dashboardMessageId;
+    }
+    
+    /**
+     * Sets the listener that receives every state-changing command.
+     * 
+     * @param changeListener The listener, or null to stop recording
+     */
+    public void setChangeListener(LobbyChangeListener changeListener) {
+        this.changeListener = changeListener;
+    }
+    
+    private void fireChange(String command, Long userId, String details) {
+        LobbyChangeListener listener = changeListener;
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.onLobbyChange(this, command, userId, details);
+        } catch (Exception e) {
+            logger.error("Change listener failed for {} in lobby {}: {}", command, lobbyCode, e.getMessage(), e);
+        }
     }
     
     /**
@@ -316,7 +738,12 @@ public class GameLobby {
      * @return True if the setting was updated successfully
      */
     public boolean updateSetting(String settingName, int newValue) {
-        return settings.updateSetting(settingName, newValue);
+        if (!settings.updateSetting(settingName, newValue)) {
+            return false;
+        }
+        touch();
+        fireChange("SETTING", null, settingName + "=" + newValue);
+        return true;
     }
     
     /**
@@ -324,6 +751,8 @@ public class GameLobby {
      */
     public void resetSettings() {
         settings.resetToDefaults();
+        touch();
+        fireChange("SETTING", null, "reset");
         logger.info("Reset settings for lobby {}", lobbyCode);
     }
     
@@ -0,0 +1,20 @@
+package com.amongus.bot.game.lobby;
+
+/**
+ * Receives every state-changing command applied to a lobby: membership,
+ * host, settings and state changes, the game seed and each recorded game
+ * event. Called on the thread that made the change, after the change is
+ * visible, so implementations must be fast and must not block.
+ */
+@FunctionalInterface
+public interface LobbyChangeListener {
+
+    /**
+     * @param lobby The lobby that changed
+     * @param command The command, e.g. {@code JOIN}, {@code STATE} or a game event action
+     * @param userId The player who issued it, or null for system changes
+     * @param details Command arguments, or null
+     */
+    void onLobbyChange(GameLobby lobby, String command, Long userId, String details);
+}
+// COMPLETED: LobbyChangeListener interface
@@ -0,0 +1,132 @@
+package com.amongus.bot.game.lobby;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * Allocates six-letter lobby codes without retry loops.
+ * A running counter is pushed through a keyed Feistel permutation over the
+ * 26^6 code space, so consecutive lobbies get unrelated codes and no code is
+ * handed out twice until the whole space has been used.
+ * Codes are handled internally as packed {@code int} keys (the base-26 value
+ * of the letters); strings only exist at the UI edge.
+ */
+public final class LobbyCodeAllocator {
+    public static final int CODE_LENGTH = 6;
+    private static final int ALPHABET_SIZE = 26;
+
+    // The code space splits into two equal halves of 26^3 for the Feistel network
+    private static final int HALF_SPACE = ALPHABET_SIZE * ALPHABET_SIZE * ALPHABET_SIZE;
+    public static final int CODE_SPACE = HALF_SPACE * HALF_SPACE;
+    private static final int ROUNDS = 6;
+
+    // Returned by parse() for anything that is not a valid code
+    public static final int INVALID_KEY = -1;
+
+    private final int[] roundKeys;
+    private final AtomicLong counter;
+
+    /**
+     * Creates an allocator with a random key and starting position.
+     */
+    public LobbyCodeAllocator() {
+        this(new SecureRandom());
+    }
+
+    LobbyCodeAllocator(SecureRandom random) {
+        this.roundKeys = new int[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            roundKeys[i] = random.nextInt();
+        }
+        this.counter = new AtomicLong(random.nextInt(CODE_SPACE));
+    }
+
+    /**
+     * Returns the next packed code key that is not in use.
+     * The permutation never repeats within one pass over the code space, so the
+     * check only matters after wrap-around or for codes restored from elsewhere.
+     *
+     * @param inUse Tells whether a key is already taken
+     * @return A free packed code key
+     * @throws IllegalStateException if every code is taken
+     */
+    public int nextKey(IntPredicate inUse) {
+        for (int i = 0; i < CODE_SPACE; i++) {
+            int index = (int) Math.floorMod(counter.getAndIncrement(), (long) CODE_SPACE);
+            int key = permute(index);
+            if (!inUse.test(key)) {
+                return key;
+            }
+        }
+        throw new IllegalStateException("Lobby code space exhausted");
+    }
+
+    /**
+     * Maps an index in [0, 26^6) to a unique key in the same range.
+     */
+    int permute(int index) {
+        int left = index / HALF_SPACE;
+        int right = index % HALF_SPACE;
+        for (int round = 0; round < ROUNDS; round++) {
+            int next = Math.floorMod(left + roundFunction(right, roundKeys[round]), HALF_SPACE);
+            left = right;
+            right = next;
+        }
+        return left * HALF_SPACE + right;
+    }
+
+    private static int roundFunction(int value, int roundKey) {
+        int h = value * 0x9E3779B1 ^ roundKey;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Converts a packed key to its six-letter code.
+     *
+     * @param key A key in [0, 26^6)
+     * @return The lobby code
+     */
+    public static String format(int key) {
+        if (key < 0 || key >= CODE_SPACE) {
+            throw new IllegalArgumentException("Lobby key out of range: " + key);
+        }
+        char[] chars = new char[CODE_LENGTH];
+        for (int i = CODE_LENGTH - 1; i >= 0; i--) {
+            chars[i] = (char) ('A' + key % ALPHABET_SIZE);
+            key /= ALPHABET_SIZE;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Converts user input to a packed key. Case and surrounding whitespace are ignored.
+     *
+     * @param code The lobby code as typed by the user
+     * @return The packed key, or {@link #INVALID_KEY} if the input is not a valid code
+     */
+    public static int parse(String code) {
+        if (code == null) {
+            return INVALID_KEY;
+        }
+        String normalized = code.trim();
+        if (normalized.length() != CODE_LENGTH) {
+            return INVALID_KEY;
+        }
+        int key = 0;
+        for (int i = 0; i < CODE_LENGTH; i++) {
+            char c = Character.toUpperCase(normalized.charAt(i));
+            if (c < 'A' || c > 'Z') {
+                return INVALID_KEY;
+            }
+            key = key * ALPHABET_SIZE + (c - 'A');
+        }
+        return key;
+    }
+}
+// COMPLETED: LobbyCodeAllocator class
@@ -0,0 +1,258 @@
+package com.amongus.bot.game.lobby;
+
+import com.amongus.bot.game.roles.Crewmate;
+import com.amongus.bot.game.roles.Impostor;
+import com.amongus.bot.game.states.GameState;
+import com.amongus.bot.game.states.StateCodec;
+import com.amongus.bot.game.tasks.SimpleTask;
+import com.amongus.bot.game.tasks.Task;
+import com.amongus.bot.game.tasks.TaskDifficulty;
+import com.amongus.bot.game.utils.SnapshotIO;
+import com.amongus.bot.models.GameEvent;
+import com.amongus.bot.models.Player;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary encoding of one lobby for the snapshot file: settings, players with
+ * their roles and tasks, the event history and the current game state.
+ * Each lobby is encoded on its own so records can be reused between
+ * snapshots and decoded in parallel.
+ *
+ * <p>Records end with the message IDs the lobby context tracks, so a lobby
+ * handed to another process keeps editing the same control messages, and
+ * then the group chat binding with its dashboard message. Records written
+ * before those sections were added simply end earlier.
+ */
+public final class LobbyCodec {
+    private static final byte ROLE_NONE = 0;
+    private static final byte ROLE_CREWMATE = 1;
+    private static final byte ROLE_IMPOSTOR = 2;
+
+    private LobbyCodec() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Encodes a lobby. Reads the lobby without locking, so a lobby changing
+     * meanwhile may be captured half-way; the next snapshot catches up.
+     *
+     * @param lobby The lobby to encode
+     * @return The record bytes
+     * @throws IOException If a value cannot be encoded
+     */
+    public static byte[] encode(GameLobby lobby) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeUTF(lobby.getLobbyCode());
+        out.writeLong(lobby.getHostId());
+        out.writeLong(lobby.getLastActivityMillis());
+        out.writeLong(lobby.getGameSeed());
+
+        Map<String, Integer> settings = lobby.getSettings().getAllSettings();
+        out.writeInt(settings.size());
+        for (Map.Entry<String, Integer> entry : settings.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+
+        List<Player> players = lobby.getPlayerList();
+        out.writeInt(players.size());
+        for (Player player : players) {
+            writePlayer(out, player);
+        }
+
+        List<GameEvent> events = lobby.getGameEvents();
+        out.writeInt(events.size());
+        for (GameEvent event : events) {
+            SnapshotIO.writeNullableLong(out, event.getUserId());
+            SnapshotIO.writeNullableString(out, event.getUserName());
+            out.writeUTF(event.getAction());
+            SnapshotIO.writeNullableString(out, event.getDetails());
+            out.writeLong(event.getTimestamp().getTime());
+            SnapshotIO.writeNullableString(out, event.getPhotoFileId());
+        }
+
+        GameState state = lobby.getGameState();
+        out.writeBoolean(state != null);
+        if (state != null) {
+            StateCodec.write(state, out);
+        }
+
+        LobbyContext context = lobby.getContext();
+        List<String> scopes = new ArrayList<>(context.getTrackedScopes());
+        out.writeInt(scopes.size());
+        for (String scope : scopes) {
+            List<Map.Entry<Long, Integer>> messages = new ArrayList<>(context.trackedMessages(scope).entrySet());
+            out.writeUTF(scope);
+            out.writeInt(messages.size());
+            for (Map.Entry<Long, Integer> message : messages) {
+                out.writeLong(message.getKey());
+                out.writeInt(message.getValue());
+            }
+        }
+
+        SnapshotIO.writeNullableLong(out, lobby.getGroupChatId());
+        Integer dashboardMessageId = lobby.getDashboardMessageId();
+        out.writeBoolean(dashboardMessageId != null);
+        if (dashboardMessageId != null) {
+            out.writeInt(dashboardMessageId);
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes a lobby record. The returned lobby is not registered anywhere
+     * and its state has not been restored yet.
+     *
+     * @param record The record bytes
+     * @return The lobby
+     * @throws IOException If the record is malformed
+     */
+    public static GameLobby decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+
+        String lobbyCode = in.readUTF();
+        Long hostId = in.readLong();
+        long lastActivityMillis = in.readLong();
+        long gameSeed = in.readLong();
+
+        int settingCount = SnapshotIO.readSize(in);
+        String[] settingKeys = new String[settingCount];
+        int[] settingValues = new int[settingCount];
+        for (int i = 0; i < settingCount; i++) {
+            settingKeys[i] = in.readUTF();
+            settingValues[i] = in.readInt();
+        }
+
+        int playerCount = SnapshotIO.readSize(in);
+        List<Player> players = new ArrayList<>(playerCount);
+        String hostName = null;
+        for (int i = 0; i < playerCount; i++) {
+            Player player = readPlayer(in);
+            players.add(player);
+            if (player.getUserId().equals(hostId)) {
+                hostName = player.getUserName();
+            }
+        }
+
+        int eventCount = SnapshotIO.readSize(in);
+        List<GameEvent> events = new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            Long userId = SnapshotIO.readNullableLong(in);
+            String userName = SnapshotIO.readNullableString(in);
+            String action = in.readUTF();
+            String details = SnapshotIO.readNullableString(in);
+            Date timestamp = new Date(in.readLong());
+            GameEvent event = new GameEvent(userId, userName, action, details, timestamp);
+            event.setPhotoFileId(SnapshotIO.readNullableString(in));
+            events.add(event);
+        }
+
+        GameState state = in.readBoolean() ? StateCodec.read(in) : null;
+
+        GameLobby lobby = new GameLobby(lobbyCode, hostId, hostName != null ? hostName : "Host");
+        for (int i = 0; i < settingCount; i++) {
+            lobby.getSettings().restoreSetting(settingKeys[i], settingValues[i]);
+        }
+        lobby.restore(players, events, state, gameSeed, lastActivityMillis);
+
+        if (in.available() > 0) {
+            int scopeCount = SnapshotIO.readSize(in);
+            for (int i = 0; i < scopeCount; i++) {
+                Map<Long, Integer> messages = lobby.getContext().trackedMessages(in.readUTF());
+                int messageCount = SnapshotIO.readSize(in);
+                for (int j = 0; j < messageCount; j++) {
+                    messages.put(in.readLong(), in.readInt());
+                }
+            }
+        }
+        if (in.available() > 0) {
+            Long groupChatId = SnapshotIO.readNullableLong(in);
+            Integer dashboardMessageId = in.readBoolean() ? in.readInt() : null;
+            lobby.restoreGroup(groupChatId, dashboardMessageId);
+        }
+        return lobby;
+    }
+
+    private static void writePlayer(DataOutputStream out, Player player) throws IOException {
+        out.writeLong(player.getUserId());
+        out.writeUTF(player.getUserName());
+        SnapshotIO.writeNullableLong(out, player.getChatId());
+        out.writeByte(player.getRole() == null ? ROLE_NONE : player.isImpostor() ? ROLE_IMPOSTOR : ROLE_CREWMATE);
+        out.writeBoolean(player.isAlive());
+        out.writeBoolean(player.isEjected());
+
+        List<Task> tasks = new ArrayList<>(player.getTasks());
+        out.writeInt(tasks.size());
+        for (Task task : tasks) {
+            out.writeUTF(task.getName());
+            out.writeUTF(task.getDescription());
+            out.writeUTF(task.getDifficulty().name());
+            out.writeBoolean(task.isCompleted());
+        }
+
+        SnapshotIO.writeNullableInt(out, player.getAwaitingPhotoForTaskIndex());
+        SnapshotIO.writeNullableInt(out, player.getAwaitingPhotoForFakeTask());
+        out.writeInt(player.getEmergencyMeetingsUsed());
+    }
+
+    private static Player readPlayer(DataInputStream in) throws IOException {
+        Player player = new Player(in.readLong(), in.readUTF());
+        player.setChatId(SnapshotIO.readNullableLong(in));
+
+        byte role = in.readByte();
+        if (role == ROLE_IMPOSTOR) {
+            player.setRole(new Impostor());
+        } else if (role == ROLE_CREWMATE) {
+            player.setRole(new Crewmate());
+        }
+
+        boolean alive = in.readBoolean();
+        boolean ejected = in.readBoolean();
+        if (!alive) {
+            if (ejected) {
+                player.eject();
+            } else {
+                player.kill();
+            }
+        }
+
+        int taskCount = SnapshotIO.readSize(in);
+        List<Task> tasks = new ArrayList<>(taskCount);
+        boolean[] completed = new boolean[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            Task task = new SimpleTask(in.readUTF(), in.readUTF(), TaskDifficulty.valueOf(in.readUTF()));
+            task.setOwnerId(player.getUserId());
+            tasks.add(task);
+            completed[i] = in.readBoolean();
+        }
+        // Completing through the player keeps its completed-task counter in step
+        player.setTasks(tasks);
+        for (int i = 0; i < taskCount; i++) {
+            if (completed[i]) {
+                player.completeTask(i);
+            }
+        }
+
+        player.setAwaitingPhotoForTaskIndex(SnapshotIO.readNullableInt(in));
+        player.setAwaitingPhotoForFakeTask(SnapshotIO.readNullableInt(in));
+        int meetingsUsed = in.readInt();
+        for (int i = 0; i < meetingsUsed; i++) {
+            player.incrementEmergencyMeetingsUsed();
+        }
+        return player;
+    }
+}
+// COMPLETED: LobbyCodec class
@@ -0,0 +1,250 @@
+package com.amongus.bot.game.lobby;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Owns the resources a lobby holds outside of its own fields: scheduled
+ * timers, registry entries in static state maps and tracked message ids.
+ * Everything is released in one place by {@link #close()}, so closing a
+ * lobby no longer depends on every state remembering its own cleanup.
+ */
+public final class LobbyContext {
+    private static final Logger logger = LoggerFactory.getLogger(LobbyContext.class);
+
+    private final String lobbyCode;
+    private final Set<ScheduledFuture<?>> timers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Map<Long, Integer>> trackedMessages = new ConcurrentHashMap<>();
+    private final Map<String, Registration> registrations = new ConcurrentHashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+    private volatile GameClock clock = GameClock.SYSTEM;
+
+    public LobbyContext(String lobbyCode) {
+        this.lobbyCode = lobbyCode;
+    }
+
+    /**
+     * Creates a scheduler for game timers. Cancelled tasks are removed from the
+     * queue right away, so a cancelled timer does not keep its lobby reachable
+     * until the original delay runs out.
+     *
+     * @param threads Number of core threads
+     * @param name Thread name prefix
+     * @return The scheduler
+     */
+    public static ScheduledExecutorService newScheduler(int threads, String name) {
+        AtomicInteger counter = new AtomicInteger();
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(threads, runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Schedules a task that is cancelled when the lobby closes.
+     *
+     * @return The scheduled future, or null if the context is already closed
+     */
+    public ScheduledFuture<?> schedule(ScheduledExecutorService scheduler, Runnable task, long delay, TimeUnit unit) {
+        if (closed.get()) {
+            logger.warn("Ignoring timer for closed lobby {}", lobbyCode);
+            return null;
+        }
+        timers.removeIf(ScheduledFuture::isDone);
+
+        ScheduledFuture<?> future = clock.schedule(scheduler, task, delay, unit);
+        timers.add(future);
+
+        // close() may have drained the set between the check and the add
+        if (closed.get()) {
+            future.cancel(false);
+            timers.remove(future);
+        }
+        return future;
+    }
+
+    /**
+     * @return The current time of this lobby's clock, in epoch milliseconds
+     */
+    public long currentTimeMillis() {
+        return clock.millis();
+    }
+
+    public GameClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Replaces the clock used for timers and timestamps. Set it before the
+     * lobby schedules anything; timers already scheduled keep their clock.
+     *
+     * @param clock The clock
+     */
+    public void setClock(GameClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the message id map for a scope, keyed by user id. The map is cleared on close.
+     *
+     * @param scope Name of the group of messages, e.g. voting keyboards
+     * @return The live map for the scope
+     */
+    public Map<Long, Integer> trackedMessages(String scope) {
+        return trackedMessages.computeIfAbsent(scope, key -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @return The scopes that have tracked messages, e.g. for encoding them
+     */
+    public Set<String> getTrackedScopes() {
+        return trackedMessages.keySet();
+    }
+
+    /**
+     * Registers a release action, typically the removal of a static registry entry.
+     * A registration under the same key by another owner supersedes this one, and
+     * the superseded action runs at that point; this catches states whose onExit
+     * was skipped.
+     *
+     * @param key Registration key, one per kind of registry
+     * @param owner The object the registration belongs to
+     * @param release The action undoing the registration
+     */
+    public void register(String key, Object owner, Runnable release) {
+        if (closed.get()) {
+            runSafely(key, release);
+            return;
+        }
+        Registration previous = registrations.put(key, new Registration(owner, release));
+        if (previous != null && previous.owner != owner) {
+            logger.info("Registration {} in lobby {} was superseded, releasing the previous owner", key, lobbyCode);
+            runSafely(key, previous.release);
+        }
+        if (closed.get()) {
+            release(key, owner);
+        }
+    }
+
+    /**
+     * Runs and removes a registration if it still belongs to the owner.
+     *
+     * @return True if the release action ran
+     */
+    public boolean release(String key, Object owner) {
+        Registration registration = registrations.get(key);
+        if (registration == null || registration.owner != owner || !registrations.remove(key, registration)) {
+            return false;
+        }
+        runSafely(key, registration.release);
+        return true;
+    }
+
+    /**
+     * Cancels all timers, runs all release actions and clears tracked messages.
+     * Safe to call more than once.
+     */
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        int cancelled = 0;
+        for (ScheduledFuture<?> timer : new ArrayList<>(timers)) {
+            if (timer.cancel(false)) {
+                cancelled++;
+            }
+        }
+        timers.clear();
+
+        List<String> keys = new ArrayList<>(registrations.keySet());
+        for (String key : keys) {
+            Registration registration = registrations.remove(key);
+            if (registration != null) {
+                runSafely(key, registration.release);
+            }
+        }
+
+        int messages = getTrackedMessageCount();
+        trackedMessages.clear();
+
+        logger.debug("Closed context of lobby {}: {} timers cancelled, {} registrations released, {} messages dropped",
+                lobbyCode, cancelled, keys.size(), messages);
+    }
+
+    /**
+     * Cancels pending timers but keeps the context open, for a lobby that is
+     * being handed to another process. States re-arm them with onRestore if
+     * the lobby stays here after all.
+     *
+     * @return The number of timers cancelled
+     */
+    public int cancelTimers() {
+        int cancelled = 0;
+        for (ScheduledFuture<?> timer : new ArrayList<>(timers)) {
+            if (timer.cancel(false)) {
+                cancelled++;
+            }
+        }
+        timers.clear();
+        return cancelled;
+    }
+
+    private void runSafely(String key, Runnable release) {
+        try {
+            release.run();
+        } catch (Exception e) {
+            logger.error("Error releasing {} in lobby {}: {}", key, lobbyCode, e.getMessage(), e);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * @return The number of timers that have not run yet
+     */
+    public int getPendingTimerCount() {
+        timers.removeIf(ScheduledFuture::isDone);
+        return timers.size();
+    }
+
+    public int getRegistrationCount() {
+        return registrations.size();
+    }
+
+    public int getTrackedMessageCount() {
+        int count = 0;
+        for (Map<Long, Integer> messages : trackedMessages.values()) {
+            count += messages.size();
+        }
+        return count;
+    }
+
+    private static final class Registration {
+        private final Object owner;
+        private final Runnable release;
+
+        private Registration(Object owner, Runnable release) {
+            this.owner = owner;
+            this.release = release;
+        }
+    }
+}
+// COMPLETED: LobbyContext class
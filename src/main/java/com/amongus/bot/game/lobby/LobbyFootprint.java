@@ -0,0 +1,145 @@
+package com.amongus.bot.game.lobby;
+
+import com.amongus.bot.game.tasks.Task;
+import com.amongus.bot.models.GameEvent;
+import com.amongus.bot.models.Player;
+
+import java.util.List;
+
+/**
+ * Approximate retained heap of one lobby, broken down by what holds it.
+ * Sizes are shallow estimates for a 64-bit JVM with compressed references;
+ * they are meant for comparing lobbies and spotting heavy ones, not for
+ * exact accounting.
+ */
+public final class LobbyFootprint {
+    // Rough shallow sizes of the objects involved
+    private static final long LOBBY_BYTES = 512;
+    private static final long PLAYER_BYTES = 160;
+    private static final long TASK_BYTES = 96;
+    private static final long EVENT_BYTES = 96;
+    private static final long STRING_BYTES = 40;
+    private static final long MAP_ENTRY_BYTES = 64;
+
+    private final String lobbyCode;
+    private final int players;
+    private final int tasks;
+    private final int events;
+    private final int stateEntries;
+    private final long playerBytes;
+    private final long taskBytes;
+    private final long eventBytes;
+    private final long stateBytes;
+
+    private LobbyFootprint(String lobbyCode, int players, int tasks, int events, int stateEntries,
+                           long playerBytes, long taskBytes, long eventBytes, long stateBytes) {
+        this.lobbyCode = lobbyCode;
+        this.players = players;
+        this.tasks = tasks;
+        this.events = events;
+        this.stateEntries = stateEntries;
+        this.playerBytes = playerBytes;
+        this.taskBytes = taskBytes;
+        this.eventBytes = eventBytes;
+        this.stateBytes = stateBytes;
+    }
+
+    /**
+     * Measures a lobby. Runs in time linear in its players, tasks and events.
+     *
+     * @param lobby The lobby to measure
+     * @return The footprint
+     */
+    public static LobbyFootprint measure(GameLobby lobby) {
+        int players = 0;
+        int tasks = 0;
+        long playerBytes = 0;
+        long taskBytes = 0;
+        for (Player player : lobby.getPlayerList()) {
+            players++;
+            playerBytes += PLAYER_BYTES + stringBytes(player.getUserName());
+            List<Task> playerTasks = player.getTasks();
+            if (playerTasks != null) {
+                for (Task task : playerTasks) {
+                    tasks++;
+                    taskBytes += TASK_BYTES + stringBytes(task.getName()) + stringBytes(task.getDescription());
+                }
+            }
+        }
+
+        List<GameEvent> gameEvents = lobby.getGameEvents();
+        long eventBytes = 0;
+        for (GameEvent event : gameEvents) {
+            eventBytes += EVENT_BYTES + stringBytes(event.getUserName()) + stringBytes(event.getAction())
+                    + stringBytes(event.getDetails()) + stringBytes(event.getPhotoFileId());
+        }
+
+        LobbyContext context = lobby.getContext();
+        int stateEntries = context.getTrackedMessageCount() + context.getRegistrationCount()
+                + context.getPendingTimerCount();
+        long stateBytes = MAP_ENTRY_BYTES * stateEntries;
+
+        return new LobbyFootprint(lobby.getLobbyCode(), players, tasks, gameEvents.size(), stateEntries,
+                playerBytes, taskBytes, eventBytes, stateBytes);
+    }
+
+    private static long stringBytes(String value) {
+        // Cyrillic text does not fit compact Latin-1 strings, so count two bytes per char
+        return value != null ? STRING_BYTES + 2L * value.length() : 0;
+    }
+
+    public String getLobbyCode() {
+        return lobbyCode;
+    }
+
+    public int getPlayerCount() {
+        return players;
+    }
+
+    public int getTaskCount() {
+        return tasks;
+    }
+
+    public int getEventCount() {
+        return events;
+    }
+
+    public int getStateEntryCount() {
+        return stateEntries;
+    }
+
+    public long getPlayerBytes() {
+        return playerBytes;
+    }
+
+    public long getTaskBytes() {
+        return taskBytes;
+    }
+
+    public long getEventBytes() {
+        return eventBytes;
+    }
+
+    public long getStateBytes() {
+        return stateBytes;
+    }
+
+    /**
+     * @return The number of objects the lobby keeps reachable, counting itself
+     */
+    public long getObjectCount() {
+        return 1L + players + tasks + events + stateEntries;
+    }
+
+    public long getTotalBytes() {
+        return LOBBY_BYTES + playerBytes + taskBytes + eventBytes + stateBytes;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: ~%d KB (events %d/%d B, players %d/%d B, tasks %d/%d B, state %d/%d B)",
+                lobbyCode, getTotalBytes() / 1024, events, eventBytes, players, playerBytes,
+                tasks, taskBytes, stateEntries, stateBytes);
+    }
+}
+// COMPLETED: LobbyFootprint class
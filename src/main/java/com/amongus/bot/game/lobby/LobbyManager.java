@@ -5,7 +5,6 @@ import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * Manages game lobbies for Among Us games.
@@ -13,20 +12,17 @@ import java.util.Random;
 public class LobbyManager {
     private static final Logger logger = LoggerFactory.getLogger(LobbyManager.class);
     
-    // Map of lobby codes to GameLobby instances
-    private final Map<String, GameLobby> lobbies;
-    // Map of user IDs to their current lobby code
-    private final Map<Long, String> userLobbies;
+    // Map of packed lobby codes to GameLobby instances
+    private final Map<Integer, GameLobby> lobbies;
+    // Map of user IDs to their current packed lobby code
+    private final Map<Long, Integer> userLobbies;
     
-    // Characters used for generating lobby codes
-    private static final String CODE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
-    private static final int CODE_LENGTH = 6;
-    private final Random random;
+    private final LobbyCodeAllocator codeAllocator;
     
     public LobbyManager() {
         this.lobbies = new HashMap<>();
         this.userLobbies = new HashMap<>();
-        this.random = new Random();
+        this.codeAllocator = new LobbyCodeAllocator();
         
         logger.info("LobbyManager initialized");
     }
@@ -39,15 +35,16 @@ public class LobbyManager {
      * @return The newly created GameLobby instance
      */
     public GameLobby createLobby(Long hostId, String hostName) {
-        // Generate a unique lobby code
-        String lobbyCode = generateLobbyCode();
+        // Allocate a unique lobby code
+        int lobbyKey = codeAllocator.nextKey(lobbies::containsKey);
+        String lobbyCode = LobbyCodeAllocator.format(lobbyKey);
         
         // Create a new lobby
         GameLobby lobby = new GameLobby(lobbyCode, hostId, hostName);
         
         // Store it in our maps
-        lobbies.put(lobbyCode, lobby);
-        userLobbies.put(hostId, lobbyCode);
+        lobbies.put(lobbyKey, lobby);
+        userLobbies.put(hostId, lobbyKey);
         
         logger.info("Created new lobby with code {} hosted by user {}", lobbyCode, hostId);
         
@@ -64,16 +61,18 @@ public class LobbyManager {
      */
     public GameLobby joinLobby(String lobbyCode, Long userId, String userName) {
         // Check if lobby exists
-        GameLobby lobby = lobbies.get(lobbyCode);
+        int lobbyKey = LobbyCodeAllocator.parse(lobbyCode);
+        GameLobby lobby = lobbyKey != LobbyCodeAllocator.INVALID_KEY ? lobbies.get(lobbyKey) : null;
         if (lobby == null) {
             logger.warn("User {} attempted to join non-existent lobby {}", userId, lobbyCode);
             return null;
         }
         
         // Check if the player is already in a different lobby
-        if (userLobbies.containsKey(userId) && !userLobbies.get(userId).equals(lobbyCode)) {
+        Integer currentLobbyKey = userLobbies.get(userId);
+        if (currentLobbyKey != null && currentLobbyKey != lobbyKey) {
             logger.warn("User {} attempted to join lobby {} while already in lobby {}", 
-                       userId, lobbyCode, userLobbies.get(userId));
+                       userId, lobbyCode, LobbyCodeAllocator.format(currentLobbyKey));
             return null;
         }
         
@@ -85,7 +84,7 @@ public class LobbyManager {
         }
         
         // Update the user's current lobby
-        userLobbies.put(userId, lobbyCode);
+        userLobbies.put(userId, lobbyKey);
         
         logger.info("User {} joined lobby {}", userId, lobbyCode);
         return lobby;
@@ -104,8 +103,9 @@ public class LobbyManager {
             return false;
         }
         
-        String lobbyCode = userLobbies.get(userId);
-        GameLobby lobby = lobbies.get(lobbyCode);
+        Integer lobbyKey = userLobbies.get(userId);
+        String lobbyCode = LobbyCodeAllocator.format(lobbyKey);
+        GameLobby lobby = lobbies.get(lobbyKey);
         
         if (lobby == null) {
             // This should not happen - inconsistent state
@@ -122,7 +122,7 @@ public class LobbyManager {
         
         // If the lobby is now empty, remove it
         if (lobby.isEmpty()) {
-            lobbies.remove(lobbyCode);
+            lobbies.remove(lobbyKey);
             logger.info("Removed empty lobby {}", lobbyCode);
         } else if (userId.equals(lobby.getHostId())) {
             // If the host left, assign a new host
@@ -145,8 +145,7 @@ public class LobbyManager {
             return null;
         }
         
-        String lobbyCode = userLobbies.get(userId);
-        return lobbies.get(lobbyCode);
+        return lobbies.get(userLobbies.get(userId));
     }
     
     /**
@@ -156,26 +155,8 @@ public class LobbyManager {
      * @return The GameLobby with the given code, or null if not found
      */
     public GameLobby getLobbyByCode(String lobbyCode) {
-        return lobbies.get(lobbyCode);
-    }
-    
-    /**
-     * Generates a unique lobby code.
-     * 
-     * @return A unique lobby code
-     */
-    private String generateLobbyCode() {
-        String code;
-        
-        do {
-            StringBuilder codeBuilder = new StringBuilder(CODE_LENGTH);
-            for (int i = 0; i < CODE_LENGTH; i++) {
-                codeBuilder.append(CODE_CHARS.charAt(random.nextInt(CODE_CHARS.length())));
-            }
-            code = codeBuilder.toString();
-        } while (lobbies.containsKey(code));
-        
-        return code;
+        int lobbyKey = LobbyCodeAllocator.parse(lobbyCode);
+        return lobbyKey != LobbyCodeAllocator.INVALID_KEY ? lobbies.get(lobbyKey) : null;
     }
 }
-// COMPLETED: LobbyManager class 
\ No newline at end of file
+// COMPLETED: LobbyManager class
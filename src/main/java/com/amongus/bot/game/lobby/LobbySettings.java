@@ -1,5 +1,7 @@
 package com.amongus.bot.game.lobby;
 
+import com.amongus.bot.game.GameConstants;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -19,6 +21,8 @@ public class LobbySettings {
     public static final int DEFAULT_VOTING_TIME = 60; // seconds
     public static final int DEFAULT_TASKS_PER_PLAYER = 3;
     public static final int DEFAULT_KILL_COOLDOWN = 45; // seconds
+    public static final int DEFAULT_READY_QUORUM = 100; // percent of alive players
+    public static final int DEFAULT_MAX_PLAYERS = GameConstants.DEFAULT_MAX_PLAYERS;
     
     // Setting keys
     public static final String IMPOSTOR_COUNT = "impostor_count";
@@ -27,6 +31,8 @@ public class LobbySettings {
     public static final String VOTING_TIME = "voting_time";
     public static final String TASKS_PER_PLAYER = "tasks_per_player";
     public static final String KILL_COOLDOWN = "kill_cooldown";
+    public static final String READY_QUORUM = "ready_quorum";
+    public static final String MAX_PLAYERS = "max_players";
     
     // Mapping from user-friendly names to internal keys
     private static final Map<String, String> SETTING_NAME_MAP = new HashMap<>();
@@ -54,6 +60,14 @@ public class LobbySettings {
         SETTING_NAME_MAP.put("cooldown", KILL_COOLDOWN);
         SETTING_NAME_MAP.put("kill_cooldown", KILL_COOLDOWN);
         SETTING_NAME_MAP.put("killcooldown", KILL_COOLDOWN);
+        
+        SETTING_NAME_MAP.put("quorum", READY_QUORUM);
+        SETTING_NAME_MAP.put("ready_quorum", READY_QUORUM);
+        SETTING_NAME_MAP.put("readyquorum", READY_QUORUM);
+        
+        SETTING_NAME_MAP.put("players", MAX_PLAYERS);
+        SETTING_NAME_MAP.put("max_players", MAX_PLAYERS);
+        SETTING_NAME_MAP.put("maxplayers", MAX_PLAYERS);
     }
     
     // Setting constraints
@@ -67,6 +81,8 @@ public class LobbySettings {
         MIN_VALUES.put(VOTING_TIME, 30);
         MIN_VALUES.put(TASKS_PER_PLAYER, 1);
         MIN_VALUES.put(KILL_COOLDOWN, 10);
+        MIN_VALUES.put(READY_QUORUM, 50);
+        MIN_VALUES.put(MAX_PLAYERS, GameConstants.MIN_PLAYERS);
         
         MAX_VALUES.put(IMPOSTOR_COUNT, 3);
         MAX_VALUES.put(EMERGENCY_MEETINGS, 5);
@@ -74,6 +90,8 @@ public class LobbySettings {
         MAX_VALUES.put(VOTING_TIME, 180);
         MAX_VALUES.put(TASKS_PER_PLAYER, 10);
         MAX_VALUES.put(KILL_COOLDOWN, 120);
+        MAX_VALUES.put(READY_QUORUM, 100);
+        MAX_VALUES.put(MAX_PLAYERS, GameConstants.LARGE_LOBBY_MAX_PLAYERS);
     }
     
     private final Map<String, Integer> settings;
@@ -93,6 +111,8 @@ public class LobbySettings {
         settings.put(VOTING_TIME, DEFAULT_VOTING_TIME);
         settings.put(TASKS_PER_PLAYER, DEFAULT_TASKS_PER_PLAYER);
         settings.put(KILL_COOLDOWN, DEFAULT_KILL_COOLDOWN);
+        settings.put(READY_QUORUM, DEFAULT_READY_QUORUM);
+        settings.put(MAX_PLAYERS, DEFAULT_MAX_PLAYERS);
         
         logger.info("Reset lobby settings to defaults");
     }
@@ -127,6 +147,16 @@ public class LobbySettings {
         return true;
     }
     
+    /**
+     * Sets a value read from a lobby snapshot. Unknown keys from older
+     * snapshots are ignored; values were validated when first set.
+     */
+    void restoreSetting(String settingKey, int value) {
+        if (settings.containsKey(settingKey)) {
+            settings.put(settingKey, value);
+        }
+    }
+    
     /**
      * Gets the current value of a setting.
      * 
@@ -190,6 +220,22 @@ public class LobbySettings {
         return settings.get(KILL_COOLDOWN);
     }
     
+    /**
+     * Gets the share of alive players (in percent) that must press "ready"
+     * to cut the discussion short.
+     */
+    public int getReadyQuorum() {
+        return settings.get(READY_QUORUM);
+    }
+    
+    /**
+     * Gets the lobby capacity. Voting keyboards page through the candidates,
+     * so lobbies above the classic limit need no separate mode.
+     */
+    public int getMaxPlayers() {
+        return settings.get(MAX_PLAYERS);
+    }
+    
     /**
      * Adjusts impostor count based on the number of players.
      * 
@@ -221,7 +267,9 @@ public class LobbySettings {
                "\nDiscussion Time: " + getDiscussionTime() + "s" +
                "\nVoting Time: " + getVotingTime() + "s" +
                "\nTasks Per Player: " + getTasksPerPlayer() +
-               "\nKill Cooldown: " + getKillCooldown() + "s";
+               "\nKill Cooldown: " + getKillCooldown() + "s" +
+               "\nReady Quorum: " + getReadyQuorum() + "%" +
+               "\nMax Players: " + getMaxPlayers();
     }
     
     /**
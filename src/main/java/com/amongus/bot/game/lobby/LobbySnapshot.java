@@ -0,0 +1,120 @@
+package com.amongus.bot.game.lobby;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, versioned view of a lobby for read-only screens.
+ * A new instance is published by {@link GameLobby} after every mutation, so
+ * readers can take it without locking or copying and always see a consistent
+ * combination of players, host and state.
+ */
+public final class LobbySnapshot {
+    private final long version;
+    private final String lobbyCode;
+    private final Long hostId;
+    private final String hostName;
+    private final String stateName;
+    private final List<PlayerView> players;
+    private final int aliveCount;
+
+    LobbySnapshot(long version, String lobbyCode, Long hostId, String hostName,
+                  String stateName, List<PlayerView> players) {
+        this.version = version;
+        this.lobbyCode = lobbyCode;
+        this.hostId = hostId;
+        this.hostName = hostName;
+        this.stateName = stateName;
+        this.players = Collections.unmodifiableList(players);
+        int alive = 0;
+        for (PlayerView player : players) {
+            if (player.isAlive()) {
+                alive++;
+            }
+        }
+        this.aliveCount = alive;
+    }
+
+    /**
+     * Monotonically increasing per lobby; a higher version is always newer.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public String getLobbyCode() {
+        return lobbyCode;
+    }
+
+    public Long getHostId() {
+        return hostId;
+    }
+
+    /**
+     * @return The host's name, or null if the host is not in the lobby
+     */
+    public String getHostName() {
+        return hostName;
+    }
+
+    /**
+     * @return The state name, or null if no game state is set
+     */
+    public String getStateName() {
+        return stateName;
+    }
+
+    public List<PlayerView> getPlayers() {
+        return players;
+    }
+
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    public int getAliveCount() {
+        return aliveCount;
+    }
+
+    public boolean hasEnoughPlayers() {
+        return players.size() >= GameLobby.MIN_PLAYERS;
+    }
+
+    public boolean isHost(Long userId) {
+        return userId != null && userId.equals(hostId);
+    }
+
+    /**
+     * Read-only copy of the player fields shown in lobby screens.
+     */
+    public static final class PlayerView {
+        private final Long userId;
+        private final String userName;
+        private final boolean alive;
+        private final boolean host;
+
+        PlayerView(Long userId, String userName, boolean alive, boolean host) {
+            this.userId = userId;
+            this.userName = userName;
+            this.alive = alive;
+            this.host = host;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public boolean isAlive() {
+            return alive;
+        }
+
+        public boolean isHost() {
+            return host;
+        }
+    }
+}
+// COMPLETED: LobbySnapshot class
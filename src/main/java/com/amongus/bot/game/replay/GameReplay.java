@@ -0,0 +1,309 @@
+package com.amongus.bot.game.replay;
+
+import com.amongus.bot.game.utils.SnapshotIO;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything needed to re-run one game: the lobby settings, the players, the
+ * seed for role and task assignment, and the ordered stream of player inputs
+ * with their times. The events the original game produced are kept too, so a
+ * re-run can be checked against them.
+ *
+ * <p>Binary format: magic "AURP", a version, the header fields, then the
+ * settings, players, inputs and expected events as counted lists. Times are
+ * milliseconds since the game started.
+ */
+public final class GameReplay {
+    private static final int MAGIC = 0x41555250; // "AURP"
+    private static final int FORMAT_VERSION = 1;
+
+    public static final byte INPUT_CALLBACK = 1;
+    public static final byte INPUT_TEXT = 2;
+    public static final byte INPUT_PHOTO = 3;
+
+    private final String lobbyCode;
+    private final long hostId;
+    private final long seed;
+    private final long startedAt;
+    private final String winner;
+    private final Map<String, Integer> settings;
+    private final List<PlayerEntry> players;
+    private final List<Input> inputs;
+    private final List<ExpectedEvent> expectedEvents;
+
+    GameReplay(String lobbyCode, long hostId, long seed, long startedAt, String winner, Map<String, Integer> settings,
+               List<PlayerEntry> players, List<Input> inputs, List<ExpectedEvent> expectedEvents) {
+        this.lobbyCode = lobbyCode;
+        this.hostId = hostId;
+        this.seed = seed;
+        this.startedAt = startedAt;
+        this.winner = winner;
+        this.settings = Collections.unmodifiableMap(settings);
+        this.players = Collections.unmodifiableList(players);
+        this.inputs = Collections.unmodifiableList(inputs);
+        this.expectedEvents = Collections.unmodifiableList(expectedEvents);
+    }
+
+    /**
+     * Writes the replay to a file.
+     *
+     * @param file The file
+     * @throws IOException If writing fails
+     */
+    public void writeTo(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            write(out);
+        }
+    }
+
+    /**
+     * Reads a replay written by {@link #writeTo(Path)}.
+     *
+     * @param file The file
+     * @return The replay
+     * @throws IOException If the file cannot be read or is not a replay
+     */
+    public static GameReplay readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            return read(in);
+        }
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(lobbyCode);
+        out.writeLong(hostId);
+        out.writeLong(seed);
+        out.writeLong(startedAt);
+        SnapshotIO.writeNullableString(out, winner);
+
+        out.writeInt(settings.size());
+        for (Map.Entry<String, Integer> entry : settings.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeInt(entry.getValue());
+        }
+
+        out.writeInt(players.size());
+        for (PlayerEntry player : players) {
+            out.writeLong(player.userId);
+            out.writeUTF(player.userName);
+            SnapshotIO.writeNullableLong(out, player.chatId);
+        }
+
+        out.writeInt(inputs.size());
+        for (Input input : inputs) {
+            out.writeInt(input.time);
+            out.writeByte(input.kind);
+            out.writeLong(input.userId);
+            out.writeLong(input.chatId);
+            out.writeUTF(input.data);
+        }
+
+        out.writeInt(expectedEvents.size());
+        for (ExpectedEvent event : expectedEvents) {
+            out.writeInt(event.time);
+            SnapshotIO.writeNullableLong(out, event.userId);
+            out.writeUTF(event.action);
+        }
+    }
+
+    static GameReplay read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        String lobbyCode = in.readUTF();
+        long hostId = in.readLong();
+        long seed = in.readLong();
+        long startedAt = in.readLong();
+        String winner = SnapshotIO.readNullableString(in);
+
+        int settingCount = SnapshotIO.readSize(in);
+        Map<String, Integer> settings = new LinkedHashMap<>();
+        for (int i = 0; i < settingCount; i++) {
+            settings.put(in.readUTF(), in.readInt());
+        }
+
+        int playerCount = SnapshotIO.readSize(in);
+        List<PlayerEntry> players = new ArrayList<>(playerCount);
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new PlayerEntry(in.readLong(), in.readUTF(), SnapshotIO.readNullableLong(in)));
+        }
+
+        int inputCount = SnapshotIO.readSize(in);
+        List<Input> inputs = new ArrayList<>(inputCount);
+        for (int i = 0; i < inputCount; i++) {
+            inputs.add(new Input(in.readInt(), in.readByte(), in.readLong(), in.readLong(), in.readUTF()));
+        }
+
+        int eventCount = SnapshotIO.readSize(in);
+        List<ExpectedEvent> events = new ArrayList<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            events.add(new ExpectedEvent(in.readInt(), SnapshotIO.readNullableLong(in), in.readUTF()));
+        }
+        return new GameReplay(lobbyCode, hostId, seed, startedAt, winner, settings, players, inputs, events);
+    }
+
+    public String getLobbyCode() {
+        return lobbyCode;
+    }
+
+    public long getHostId() {
+        return hostId;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * @return The side that won the recorded game, or null if it did not finish
+     */
+    public String getWinner() {
+        return winner;
+    }
+
+    public Map<String, Integer> getSettings() {
+        return settings;
+    }
+
+    public List<PlayerEntry> getPlayers() {
+        return players;
+    }
+
+    public List<Input> getInputs() {
+        return inputs;
+    }
+
+    public List<ExpectedEvent> getExpectedEvents() {
+        return expectedEvents;
+    }
+
+    /**
+     * A player as they were when the game started.
+     */
+    public static final class PlayerEntry {
+        private final long userId;
+        private final String userName;
+        private final Long chatId;
+
+        public PlayerEntry(long userId, String userName, Long chatId) {
+            this.userId = userId;
+            this.userName = userName;
+            this.chatId = chatId;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public Long getChatId() {
+            return chatId;
+        }
+    }
+
+    /**
+     * One input from a player: a button press, a text message or a photo.
+     */
+    public static final class Input {
+        private final int time;
+        private final byte kind;
+        private final long userId;
+        private final long chatId;
+        private final String data;
+
+        /**
+         * @param time Milliseconds since the game started
+         * @param kind {@link #INPUT_CALLBACK}, {@link #INPUT_TEXT} or {@link #INPUT_PHOTO}
+         * @param userId The sender
+         * @param chatId The chat the input came from
+         * @param data The callback data, the message text or the photo's file ID
+         */
+        public Input(int time, byte kind, long userId, long chatId, String data) {
+            this.time = time;
+            this.kind = kind;
+            this.userId = userId;
+            this.chatId = chatId;
+            this.data = data;
+        }
+
+        public int getTime() {
+            return time;
+        }
+
+        public byte getKind() {
+            return kind;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public long getChatId() {
+            return chatId;
+        }
+
+        public String getData() {
+            return data;
+        }
+    }
+
+    /**
+     * A game event the recorded game produced.
+     */
+    public static final class ExpectedEvent {
+        private final int time;
+        private final Long userId;
+        private final String action;
+
+        public ExpectedEvent(int time, Long userId, String action) {
+            this.time = time;
+            this.userId = userId;
+            this.action = action;
+        }
+
+        public int getTime() {
+            return time;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getAction() {
+            return action;
+        }
+
+        @Override
+        public String toString() {
+            return time + "ms " + action + (userId != null ? " by " + userId : "");
+        }
+    }
+}
+// COMPLETED: GameReplay class
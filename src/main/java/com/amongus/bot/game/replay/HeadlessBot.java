@@ -0,0 +1,141 @@
+package com.amongus.bot.game.replay;
+
+import com.amongus.bot.analytics.EventColumnStore;
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.managers.GameArchive;
+import com.amongus.bot.managers.LobbyJournal;
+import com.amongus.bot.managers.LobbyScavenger;
+import com.amongus.bot.managers.LobbySnapshotStore;
+import com.amongus.bot.managers.MessageLifecycle;
+import com.amongus.bot.managers.MessageOutbox;
+import com.amongus.bot.managers.PlayerStatsStore;
+import com.amongus.bot.managers.ReplayStore;
+
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.send.SendMediaGroup;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The bot with Telegram I/O stubbed out, for re-running recorded games.
+ * Outgoing API calls are counted instead of sent; sent messages get
+ * increasing fake message IDs so edit and delete paths still run. Stores
+ * are hidden, so a simulated game writes no statistics, archives or replays.
+ * Photos are checked by unique ID only, which decides them inline and keeps
+ * the run deterministic. Messages are deleted right away instead of by the
+ * lifecycle sweeper. The bot is built without its background threads, so a
+ * run leaves none behind.
+ */
+public class HeadlessBot extends AmongUsBot {
+    private final AtomicInteger nextMessageId = new AtomicInteger(1);
+    private final Map<String, Integer> calls = new TreeMap<>();
+
+    public HeadlessBot() {
+        super(false);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Serializable, Method extends BotApiMethod<T>> T execute(Method method) {
+        count(method.getClass().getSimpleName());
+        if (method instanceof SendMessage) {
+            return (T) fakeMessage(((SendMessage) method).getChatId());
+        }
+        return (T) Boolean.TRUE;
+    }
+
+    @Override
+    public Message sendPhoto(SendPhoto photo) {
+        count(SendPhoto.class.getSimpleName());
+        return fakeMessage(photo.getChatId());
+    }
+
+    @Override
+    public List<Message> sendMediaGroup(SendMediaGroup album) {
+        count(SendMediaGroup.class.getSimpleName());
+        List<Message> sent = new ArrayList<>();
+        for (int i = 0; i < album.getMedias().size(); i++) {
+            sent.add(fakeMessage(album.getChatId()));
+        }
+        return sent;
+    }
+
+    private Message fakeMessage(String chatId) {
+        Message message = new Message();
+        message.setMessageId(nextMessageId.getAndIncrement());
+        Chat chat = new Chat();
+        try {
+            chat.setId(Long.parseLong(chatId));
+        } catch (NumberFormatException e) {
+            chat.setId(0L);
+        }
+        message.setChat(chat);
+        return message;
+    }
+
+    private synchronized void count(String method) {
+        calls.merge(method, 1, Integer::sum);
+    }
+
+    /**
+     * @return Outgoing API calls by method name
+     */
+    public synchronized Map<String, Integer> getCalls() {
+        return new TreeMap<>(calls);
+    }
+
+    @Override
+    public LobbyScavenger getLobbyScavenger() {
+        return null;
+    }
+
+    @Override
+    public LobbySnapshotStore getSnapshotStore() {
+        return null;
+    }
+
+    @Override
+    public LobbyJournal getJournal() {
+        return null;
+    }
+
+    @Override
+    public PlayerStatsStore getPlayerStatsStore() {
+        return null;
+    }
+
+    @Override
+    public GameArchive getGameArchive() {
+        return null;
+    }
+
+    @Override
+    public EventColumnStore getEventColumnStore() {
+        return null;
+    }
+
+    @Override
+    public ReplayStore getReplayStore() {
+        return null;
+    }
+
+    @Override
+    public MessageLifecycle getMessageLifecycle() {
+        return null;
+    }
+
+    @Override
+    public MessageOutbox getMessageOutbox() {
+        return null;
+    }
+}
+// COMPLETED: HeadlessBot class
@@ -0,0 +1,89 @@
+package com.amongus.bot.game.replay;
+
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.models.GameEvent;
+import com.amongus.bot.models.Player;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the inputs of one running game. Started when roles are about to be
+ * assigned, turned into a {@link GameReplay} at game over.
+ */
+public final class ReplayRecorder {
+    private final String lobbyCode;
+    private final long hostId;
+    private final long seed;
+    private final long startedAt;
+    private final Map<String, Integer> settings;
+    private final List<GameReplay.PlayerEntry> players = new ArrayList<>();
+    private final List<GameReplay.Input> inputs = new ArrayList<>();
+
+    /**
+     * Captures the lobby as the game starts.
+     *
+     * @param lobby The lobby
+     * @param seed The seed for role and task assignment
+     * @param startedAt When the game started, in epoch milliseconds
+     */
+    public ReplayRecorder(GameLobby lobby, long seed, long startedAt) {
+        this.lobbyCode = lobby.getLobbyCode();
+        this.hostId = lobby.getHostId();
+        this.seed = seed;
+        this.startedAt = startedAt;
+        this.settings = new LinkedHashMap<>(lobby.getSettings().getAllSettings());
+        List<Player> sorted = new ArrayList<>(lobby.getPlayerList());
+        sorted.sort(Comparator.comparing(Player::getUserId));
+        for (Player player : sorted) {
+            players.add(new GameReplay.PlayerEntry(player.getUserId(), player.getUserName(), player.getChatId()));
+        }
+    }
+
+    /**
+     * Records one input.
+     *
+     * @param now The lobby clock's current time
+     * @param kind The input kind, see {@link GameReplay}
+     * @param userId The sender
+     * @param chatId The chat the input came from
+     * @param data The callback data, message text or photo file ID
+     */
+    public void record(long now, byte kind, long userId, long chatId, String data) {
+        int time = (int) Math.max(0, Math.min(Integer.MAX_VALUE, now - startedAt));
+        synchronized (inputs) {
+            inputs.add(new GameReplay.Input(time, kind, userId, chatId, data != null ? data : ""));
+        }
+    }
+
+    public int getInputCount() {
+        synchronized (inputs) {
+            return inputs.size();
+        }
+    }
+
+    /**
+     * Builds the replay of the finished game.
+     *
+     * @param winner The winning side
+     * @param events The game's events, used to check a re-run
+     * @return The replay
+     */
+    public GameReplay finish(String winner, List<GameEvent> events) {
+        List<GameReplay.ExpectedEvent> expected = new ArrayList<>(events.size());
+        for (GameEvent event : events) {
+            int time = (int) Math.max(0, event.getTimestamp().getTime() - startedAt);
+            expected.add(new GameReplay.ExpectedEvent(time, event.getUserId(), event.getAction()));
+        }
+        List<GameReplay.Input> recorded;
+        synchronized (inputs) {
+            recorded = new ArrayList<>(inputs);
+        }
+        return new GameReplay(lobbyCode, hostId, seed, startedAt, winner, settings, new ArrayList<>(players),
+                recorded, expected);
+    }
+}
+// COMPLETED: ReplayRecorder class
@@ -0,0 +1,121 @@
+package com.amongus.bot.game.replay;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Outcome of re-running a replay: the state trace, the events the run
+ * produced next to the recorded ones, and counters for benchmarking.
+ */
+public final class ReplayResult {
+    private final String finalState;
+    private final List<String> stateTrace;
+    private final List<GameReplay.ExpectedEvent> events;
+    private final List<GameReplay.ExpectedEvent> expectedEvents;
+    private final List<Long> impostorIds;
+    private final Map<String, Integer> apiCalls;
+    private final int timersFired;
+    private final int inputs;
+    private final long elapsedNanos;
+
+    ReplayResult(String finalState, List<String> stateTrace, List<GameReplay.ExpectedEvent> events,
+                 List<GameReplay.ExpectedEvent> expectedEvents, List<Long> impostorIds,
+                 Map<String, Integer> apiCalls, int timersFired,
+                 int inputs, long elapsedNanos) {
+        this.finalState = finalState;
+        this.stateTrace = Collections.unmodifiableList(stateTrace);
+        this.events = Collections.unmodifiableList(events);
+        this.expectedEvents = expectedEvents;
+        this.impostorIds = Collections.unmodifiableList(impostorIds);
+        this.apiCalls = Collections.unmodifiableMap(apiCalls);
+        this.timersFired = timersFired;
+        this.inputs = inputs;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return The name of the state the game ended in
+     */
+    public String getFinalState() {
+        return finalState;
+    }
+
+    /**
+     * @return Every state change with its game time, e.g. "61000ms GAME_OVER"
+     */
+    public List<String> getStateTrace() {
+        return stateTrace;
+    }
+
+    /**
+     * @return How often the game entered a state; more than one GAME_OVER means the game ended twice
+     */
+    public int countState(String stateName) {
+        int count = 0;
+        for (String entry : stateTrace) {
+            if (entry.endsWith(" " + stateName)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public List<GameReplay.ExpectedEvent> getEvents() {
+        return events;
+    }
+
+    public List<GameReplay.ExpectedEvent> getExpectedEvents() {
+        return expectedEvents;
+    }
+
+    /**
+     * Compares the run's events with the recorded game's: same actions by the
+     * same players at the same game times.
+     *
+     * @return True if they are identical
+     */
+    public boolean matchesRecording() {
+        if (events.size() != expectedEvents.size()) {
+            return false;
+        }
+        for (int i = 0; i < events.size(); i++) {
+            GameReplay.ExpectedEvent actual = events.get(i);
+            GameReplay.ExpectedEvent expected = expectedEvents.get(i);
+            if (actual.getTime() != expected.getTime()
+                    || !Objects.equals(actual.getUserId(), expected.getUserId())
+                    || !actual.getAction().equals(expected.getAction())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The players the recorded seed made impostors
+     */
+    public List<Long> getImpostorIds() {
+        return impostorIds;
+    }
+
+    public Map<String, Integer> getApiCalls() {
+        return apiCalls;
+    }
+
+    public int getTimersFired() {
+        return timersFired;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ReplayResult{final=%s, states=%d, events=%d/%d, inputs=%d, timers=%d, calls=%s, %.1f ms}",
+                finalState, stateTrace.size(), events.size(), expectedEvents.size(), inputs, timersFired,
+                apiCalls, elapsedNanos / 1_000_000.0);
+    }
+}
+// COMPLETED: ReplayResult class
@@ -0,0 +1,186 @@
+package com.amongus.bot.game.replay;
+
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.states.GameState;
+import com.amongus.bot.game.states.LobbyState;
+import com.amongus.bot.game.states.SetupState;
+import com.amongus.bot.managers.LobbyManager;
+import com.amongus.bot.models.GameEvent;
+import com.amongus.bot.models.Player;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
+import org.telegram.telegrambots.meta.api.objects.Chat;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.PhotoSize;
+import org.telegram.telegrambots.meta.api.objects.Update;
+import org.telegram.telegrambots.meta.api.objects.User;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Re-runs a recorded game headless: the same handlers and {@link GameState}
+ * classes as the live bot, with Telegram I/O stubbed by {@link HeadlessBot}
+ * and time driven by a {@link SimulatedClock}. Roles and tasks come from the
+ * recorded seed and the inputs are fed at their recorded times, so the run
+ * follows the original game and timer bugs (a meltdown ending a game twice,
+ * a vote closing early) show up in the state trace.
+ *
+ * <p>Run it from the command line with a replay file to print the trace.
+ */
+public class ReplaySimulator {
+    private static final Logger logger = LoggerFactory.getLogger(ReplaySimulator.class);
+
+    // How long timers keep running after the last recorded input or event
+    private static final long TAIL_MILLIS = 15 * 60 * 1000L;
+
+    /**
+     * Re-runs a replay.
+     *
+     * @param replay The replay
+     * @return What happened
+     */
+    public ReplayResult run(GameReplay replay) {
+        long wallStart = System.nanoTime();
+        HeadlessBot bot = new HeadlessBot();
+        SimulatedClock clock = new SimulatedClock(replay.getStartedAt());
+
+        List<GameReplay.PlayerEntry> players = replay.getPlayers();
+        GameReplay.PlayerEntry host = players.stream()
+                .filter(player -> player.getUserId() == replay.getHostId())
+                .findFirst().orElse(players.get(0));
+        GameLobby lobby = new GameLobby(replay.getLobbyCode(), host.getUserId(), host.getUserName());
+        lobby.getContext().setClock(clock);
+        for (GameReplay.PlayerEntry entry : players) {
+            if (entry != host) {
+                lobby.addPlayer(entry.getUserId(), entry.getUserName());
+            }
+            lobby.getPlayer(entry.getUserId()).setChatId(entry.getChatId());
+        }
+        for (Map.Entry<String, Integer> setting : replay.getSettings().entrySet()) {
+            lobby.getSettings().updateSetting(setting.getKey(), setting.getValue());
+        }
+
+        LobbyManager lobbyManager = bot.getLobbyManager();
+        lobbyManager.restoreLobby(lobby);
+
+        LobbyState lobbyState = new LobbyState();
+        lobby.setGameState(lobbyState);
+
+        // Replaces the journal listener the manager attached: the trace is all a simulation keeps
+        List<String> stateTrace = Collections.synchronizedList(new ArrayList<>());
+        lobby.setChangeListener((changed, command, userId, details) -> {
+            if ("STATE".equals(command)) {
+                stateTrace.add((clock.millis() - replay.getStartedAt()) + "ms " + details);
+            }
+        });
+
+        // Start the game the way the host's start button does, with the recorded seed
+        lobbyState.onExit(bot, lobby);
+        SetupState setupState = new SetupState(replay.getSeed());
+        lobby.setGameState(setupState);
+        setupState.onEnter(bot, lobby);
+
+        long lastTime = 0;
+        for (GameReplay.Input input : replay.getInputs()) {
+            clock.advanceTo(replay.getStartedAt() + input.getTime());
+            bot.onUpdateReceived(toUpdate(input, lobby.getPlayer(input.getUserId())));
+            lastTime = Math.max(lastTime, input.getTime());
+        }
+        for (GameReplay.ExpectedEvent event : replay.getExpectedEvents()) {
+            lastTime = Math.max(lastTime, event.getTime());
+        }
+        clock.advanceTo(replay.getStartedAt() + lastTime + TAIL_MILLIS);
+
+        List<GameReplay.ExpectedEvent> events = new ArrayList<>();
+        for (GameEvent event : lobby.getSortedGameEvents()) {
+            events.add(new GameReplay.ExpectedEvent((int) (event.getTimestamp().getTime() - replay.getStartedAt()),
+                    event.getUserId(), event.getAction()));
+        }
+        List<Long> impostorIds = new ArrayList<>();
+        for (Player player : lobby.getPlayerList()) {
+            if (player.isImpostor()) {
+                impostorIds.add(player.getUserId());
+            }
+        }
+        Collections.sort(impostorIds);
+        GameState finalState = lobby.getGameState();
+        String finalStateName = finalState != null ? finalState.getStateName() : null;
+
+        lobbyManager.closeLobby(lobby.getLobbyCode());
+        ReplayResult result = new ReplayResult(finalStateName, stateTrace, events, replay.getExpectedEvents(),
+                impostorIds, bot.getCalls(), clock.getTimersFired(), replay.getInputs().size(), System.nanoTime() - wallStart);
+        logger.info("Simulated game of lobby {}: {}", replay.getLobbyCode(), result);
+        return result;
+    }
+
+    private Update toUpdate(GameReplay.Input input, Player player) {
+        User user = new User();
+        user.setId(input.getUserId());
+        user.setFirstName(player != null ? player.getUserName() : String.valueOf(input.getUserId()));
+        user.setUserName(user.getFirstName());
+        Chat chat = new Chat();
+        chat.setId(input.getChatId());
+        chat.setType("private");
+
+        Message message = new Message();
+        message.setMessageId(0);
+        message.setFrom(user);
+        message.setChat(chat);
+
+        Update update = new Update();
+        switch (input.getKind()) {
+            case GameReplay.INPUT_CALLBACK:
+                CallbackQuery callback = new CallbackQuery();
+                callback.setId(String.valueOf(input.getTime()));
+                callback.setFrom(user);
+                callback.setMessage(message);
+                callback.setData(input.getData());
+                update.setCallbackQuery(callback);
+                break;
+            case GameReplay.INPUT_PHOTO:
+                PhotoSize photo = new PhotoSize();
+                photo.setFileId(input.getData());
+                photo.setFileUniqueId(input.getData());
+                message.setPhoto(List.of(photo));
+                update.setMessage(message);
+                break;
+            default:
+                message.setText(input.getData());
+                update.setMessage(message);
+        }
+        return update;
+    }
+
+    /**
+     * Prints the result of re-running a replay file.
+     *
+     * @param args The replay file
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: ReplaySimulator <file.replay>");
+            System.exit(2);
+        }
+        Path file = Paths.get(args[0]);
+        ReplayResult result = new ReplaySimulator().run(GameReplay.readFrom(file));
+        System.out.println(result);
+        for (String state : result.getStateTrace()) {
+            System.out.println("  " + state);
+        }
+        if (!result.matchesRecording()) {
+            System.out.println("Events differ from the recording:");
+            System.out.println("  recorded:  " + result.getExpectedEvents());
+            System.out.println("  simulated: " + result.getEvents());
+        }
+        // Timer threads of the live schedulers are daemons, but the bot's may not be
+        System.exit(result.matchesRecording() ? 0 : 1);
+    }
+}
+// COMPLETED: ReplaySimulator class
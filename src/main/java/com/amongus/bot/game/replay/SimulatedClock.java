@@ -0,0 +1,158 @@
+package com.amongus.bot.game.replay;
+
+import com.amongus.bot.game.lobby.GameClock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.PriorityQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A clock that only moves when told to. Timers are queued instead of handed
+ * to a scheduler and run on the caller's thread as {@link #advanceTo(long)}
+ * passes their due time, in due-time order, so a simulated game is
+ * single-threaded and deterministic.
+ */
+public final class SimulatedClock implements GameClock {
+    private static final Logger logger = LoggerFactory.getLogger(SimulatedClock.class);
+
+    private final PriorityQueue<SimulatedTimer> timers = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+    private int timersFired;
+
+    public SimulatedClock(long startMillis) {
+        this.now = startMillis;
+    }
+
+    @Override
+    public synchronized long millis() {
+        return now;
+    }
+
+    @Override
+    public synchronized ScheduledFuture<?> schedule(ScheduledExecutorService scheduler, Runnable task,
+                                                    long delay, TimeUnit unit) {
+        SimulatedTimer timer = new SimulatedTimer(task, now + Math.max(0, unit.toMillis(delay)), sequence++);
+        timers.add(timer);
+        return timer;
+    }
+
+    /**
+     * Moves the clock forward, running every timer that falls due on the way,
+     * including timers those timers schedule.
+     *
+     * @param target The time to move to
+     */
+    public void advanceTo(long target) {
+        while (true) {
+            SimulatedTimer next;
+            synchronized (this) {
+                next = timers.peek();
+                if (next == null || next.due > target) {
+                    now = Math.max(now, target);
+                    return;
+                }
+                timers.poll();
+                now = Math.max(now, next.due);
+            }
+            next.run();
+        }
+    }
+
+    /**
+     * @return The number of timers waiting to run
+     */
+    public synchronized int getPendingTimers() {
+        return timers.size();
+    }
+
+    /**
+     * @return The number of timers that have run
+     */
+    public synchronized int getTimersFired() {
+        return timersFired;
+    }
+
+    private synchronized void cancelled(SimulatedTimer timer) {
+        timers.remove(timer);
+    }
+
+    private synchronized void fired() {
+        timersFired++;
+    }
+
+    private final class SimulatedTimer implements ScheduledFuture<Object> {
+        private final Runnable task;
+        private final long due;
+        private final long order;
+        private volatile boolean cancelled;
+        private volatile boolean done;
+
+        private SimulatedTimer(Runnable task, long due, long order) {
+            this.task = task;
+            this.due = due;
+            this.order = order;
+        }
+
+        private void run() {
+            if (cancelled) {
+                return;
+            }
+            fired();
+            try {
+                task.run();
+            } catch (Exception e) {
+                logger.error("Simulated timer failed: {}", e.getMessage(), e);
+            } finally {
+                done = true;
+            }
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(due - millis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            SimulatedTimer that = (SimulatedTimer) other;
+            return due != that.due ? Long.compare(due, that.due) : Long.compare(order, that.order);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (done || cancelled) {
+                return false;
+            }
+            cancelled = true;
+            cancelled(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done || cancelled;
+        }
+
+        @Override
+        public Object get() {
+            return null;
+        }
+
+        @Override
+        public Object get(long timeout, TimeUnit unit) {
+            return null;
+        }
+    }
+}
+// COMPLETED: SimulatedClock class
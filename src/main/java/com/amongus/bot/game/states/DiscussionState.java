@@ -3,14 +3,22 @@ package com.amongus.bot.game.states;
 import com.amongus.bot.core.AmongUsBot;
 import com.amongus.bot.game.GameConstants;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyContext;
 import com.amongus.bot.game.lobby.LobbySettings;
 import com.amongus.bot.game.states.GameActiveState;
 import com.amongus.bot.models.Player;
+import com.amongus.bot.game.utils.CallbackReply;
+import com.amongus.bot.game.utils.MessageBroadcaster;
+import com.amongus.bot.managers.GroupDashboard;
+import com.amongus.bot.managers.MessageLifecycle;
 import com.amongus.bot.game.utils.PlayerUtils;
 import com.amongus.bot.game.utils.ResourceManager;
+import com.amongus.bot.game.utils.SnapshotIO;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.methods.polls.SendPoll;
+import org.telegram.telegrambots.meta.api.methods.polls.StopPoll;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
 import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
@@ -20,9 +28,15 @@ import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKe
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.User;
+import org.telegram.telegrambots.meta.api.objects.polls.PollAnswer;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -31,7 +45,6 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -45,18 +58,42 @@ public class DiscussionState implements GameState {
     // Instance-based collections to prevent memory leaks
     private final Set<Long> hasVoted = ConcurrentHashMap.newKeySet();
     private final Map<Long, Long> votes = new ConcurrentHashMap<>();
-    private final Map<Long, Integer> votingMessageIds = new ConcurrentHashMap<>();
+    private volatile Map<Long, Integer> votingMessageIds = new ConcurrentHashMap<>(); // owned by the lobby context once entered
+    private final Set<Long> readyPlayers = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Integer> votingPages = new ConcurrentHashMap<>();
     
     // Global state management with proper cleanup
     private static final Map<String, DiscussionState> activeDiscussions = new ConcurrentHashMap<>();
     
     // Thread-safe timing management
     private final AtomicBoolean votingPhase = new AtomicBoolean(false);
+    private final AtomicBoolean resultsProcessed = new AtomicBoolean(false);
     private volatile ScheduledFuture<?> discussionTimer;
     private volatile ScheduledFuture<?> votingTimer;
+    private final Object timerLock = new Object();
+    private volatile long votingDeadlineMillis;
+    private final AtomicBoolean discussionCutShort = new AtomicBoolean(false);
+    
+    // Live tally, created when the meeting starts
+    private volatile VoteTally voteTally;
+    
+    // Candidates in a fixed order for the whole meeting, so keyboard pages stay stable
+    private volatile List<Long> candidateIds = Collections.emptyList();
+    private volatile List<String> candidateNames = Collections.emptyList();
+    private volatile Map<Long, Integer> candidatePositions = Collections.emptyMap();
+    private volatile int eligibleVoters;
+    private volatile int readyRequired = 1;
+    
+    // Meeting poll of a group lobby; null when voting runs on private keyboards
+    private volatile String pollId;
+    private volatile Integer pollMessageId;
     
     // Shared thread pool for all discussions
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+    private static final ScheduledExecutorService scheduler = LobbyContext.newScheduler(4, "AmongUs-Discussion");
+    
+    // Keys of the resources this state keeps in the lobby context
+    private static final String CONTEXT_KEY = "discussion";
+    private static final String VOTING_MESSAGES = "voting";
     
     // Discussion settings
     private final String reportedBy;
@@ -77,17 +114,47 @@ public class DiscussionState implements GameState {
         String lobbyCode = lobby.getLobbyCode();
         logger.info("Entered discussion state for game {}", lobbyCode);
         
-        // Register this discussion instance
+        // Register this discussion instance; the context releases it if onExit is skipped
         activeDiscussions.put(lobbyCode, this);
+        LobbyContext context = lobby.getContext();
+        context.register(CONTEXT_KEY, this, () -> cleanup(lobbyCode));
+        votingMessageIds = context.trackedMessages(VOTING_MESSAGES);
         
-        // Send discussion message with voting buttons immediately to all alive players
-        String discussionMessage = createDiscussionMessage();
-        
+        // Every alive player is both a voter and a candidate for this meeting
+        List<Player> alivePlayers = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        Map<Long, Integer> positions = new HashMap<>();
         for (Player player : lobby.getPlayerList()) {
-            if (player.isAlive() && player.getChatId() != null) {
-                sendDiscussionWithVotingMessage(bot, lobby, player, discussionMessage);
+            if (player.isAlive()) {
+                alivePlayers.add(player);
+                positions.put(player.getUserId(), ids.size());
+                ids.add(player.getUserId());
+                names.add(player.getUserName());
             }
         }
+        candidateIds = Collections.unmodifiableList(ids);
+        candidateNames = Collections.unmodifiableList(names);
+        candidatePositions = Collections.unmodifiableMap(positions);
+        eligibleVoters = ids.size();
+        voteTally = new VoteTally(ids, ids.size());
+        
+        // Quorum is fixed for the meeting so each ready press is O(1)
+        int quorumPercent = lobby.getSettings().getReadyQuorum();
+        readyRequired = Math.max(1, (eligibleVoters * quorumPercent + 99) / 100);
+        
+        // A group lobby votes in one poll; otherwise every alive player gets a voting keyboard
+        boolean poll = usesPoll(bot, lobby) && sendMeetingPoll(bot, lobby);
+        if (!poll) {
+            sendDiscussionWithVotingMessages(bot, lobby, alivePlayers, createDiscussionMessage());
+        }
+        
+        GroupDashboard dashboard = GroupDashboard.forLobby(bot, lobby);
+        if (dashboard != null) {
+            dashboard.announce(lobby, createDiscussionMessage() + (poll 
+                    ? "\n\n🗳️ Голосуйте в опросе ниже." 
+                    : "\n\n🗳️ Голосуйте в личных сообщениях с ботом."));
+        }
         
         // Start combined discussion + voting timer (no separate phases)
         int totalTime = lobby.getSettings().getDiscussionTime() + lobby.getSettings().getVotingTime();
@@ -101,8 +168,113 @@ public class DiscussionState implements GameState {
         String lobbyCode = lobby.getLobbyCode();
         logger.info("Exited discussion state for game {}", lobbyCode);
         
-        // Clean up resources
-        cleanup(lobbyCode);
+        // Clean up resources through the context so the registration goes with them
+        if (!lobby.getContext().release(CONTEXT_KEY, this)) {
+            cleanup(lobbyCode);
+        }
+    }
+    
+    String getReportedBy() {
+        return reportedBy;
+    }
+    
+    Long getReportedPlayerId() {
+        return reportedPlayerId;
+    }
+    
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        List<Long> ids = candidateIds;
+        List<String> names = candidateNames;
+        out.writeInt(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            out.writeLong(ids.get(i));
+            out.writeUTF(names.get(i));
+        }
+        out.writeInt(eligibleVoters);
+        out.writeInt(readyRequired);
+        SnapshotIO.writeLongs(out, hasVoted);
+        SnapshotIO.writeLongMap(out, votes);
+        SnapshotIO.writeLongs(out, readyPlayers);
+        out.writeBoolean(discussionCutShort.get());
+        out.writeBoolean(resultsProcessed.get());
+        out.writeLong(votingDeadlineMillis);
+        SnapshotIO.writeNullableString(out, pollId);
+        SnapshotIO.writeNullableLong(out, pollMessageId != null ? pollMessageId.longValue() : null);
+    }
+    
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        int count = SnapshotIO.readSize(in);
+        List<Long> ids = new ArrayList<>(count);
+        List<String> names = new ArrayList<>(count);
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Long id = in.readLong();
+            positions.put(id, ids.size());
+            ids.add(id);
+            names.add(in.readUTF());
+        }
+        candidateIds = Collections.unmodifiableList(ids);
+        candidateNames = Collections.unmodifiableList(names);
+        candidatePositions = Collections.unmodifiableMap(positions);
+        eligibleVoters = in.readInt();
+        readyRequired = in.readInt();
+        SnapshotIO.readLongs(in, hasVoted);
+        SnapshotIO.readLongMap(in, votes);
+        SnapshotIO.readLongs(in, readyPlayers);
+        discussionCutShort.set(in.readBoolean());
+        resultsProcessed.set(in.readBoolean());
+        votingDeadlineMillis = in.readLong();
+        pollId = SnapshotIO.readNullableString(in);
+        Long messageId = SnapshotIO.readNullableLong(in);
+        pollMessageId = messageId != null ? messageId.intValue() : null;
+        
+        // The tally is derived state: replay the recorded votes
+        VoteTally tally = new VoteTally(ids, eligibleVoters);
+        for (Long target : votes.values()) {
+            if (target == -1L) {
+                tally.recordSkip();
+            } else {
+                tally.recordVote(target);
+            }
+        }
+        voteTally = tally;
+        votingPhase.set(true);
+    }
+    
+    @Override
+    public void onRestore(AmongUsBot bot, GameLobby lobby) {
+        String lobbyCode = lobby.getLobbyCode();
+        activeDiscussions.put(lobbyCode, this);
+        LobbyContext context = lobby.getContext();
+        context.register(CONTEXT_KEY, this, () -> cleanup(lobbyCode));
+        votingMessageIds = context.trackedMessages(VOTING_MESSAGES);
+        
+        if (resultsProcessed.get()) {
+            return;
+        }
+        // Keep the original deadline; an overdue meeting is closed right away
+        synchronized (timerLock) {
+            long remaining = Math.max(0, votingDeadlineMillis - context.currentTimeMillis());
+            votingTimer = context.schedule(scheduler, () -> finishVotingByTimer(bot, lobby),
+                    remaining, TimeUnit.MILLISECONDS);
+        }
+        logger.info("Restored discussion for game {} with {} of {} votes cast", 
+                lobbyCode, votes.size(), eligibleVoters);
+    }
+    
+    @Override
+    public void resendControls(AmongUsBot bot, GameLobby lobby) {
+        if (pollId != null) {
+            // The poll is still open in the group
+            return;
+        }
+        for (Player player : lobby.getPlayerList()) {
+            if (player.isAlive() && !hasVoted.contains(player.getUserId())) {
+                sendVotingKeyboard(bot, lobby, player);
+            }
+        }
     }
     
     /**
@@ -121,9 +293,10 @@ public class DiscussionState implements GameState {
         hasVoted.clear();
         votes.clear();
         votingMessageIds.clear();
+        readyPlayers.clear();
         
         // Remove from active discussions
-        activeDiscussions.remove(lobbyCode);
+        activeDiscussions.remove(lobbyCode, this);
         
         logger.debug("Cleaned up discussion resources for game {}", lobbyCode);
     }
@@ -135,26 +308,81 @@ public class DiscussionState implements GameState {
         return activeDiscussions.get(lobbyCode);
     }
     
+    /**
+     * Gets the codes of all lobbies with a registered discussion.
+     */
+    public static Set<String> getRegisteredLobbyCodes() {
+        return new HashSet<>(activeDiscussions.keySet());
+    }
+    
+    /**
+     * Cleans up the discussion registered for a lobby unless it is still the
+     * lobby's current state. Catches instances whose onExit was skipped.
+     * 
+     * @param lobbyCode The lobby code
+     * @param lobby The live lobby, or null if it no longer exists
+     * @return True if a stale instance was purged
+     */
+    public static boolean purgeStale(String lobbyCode, GameLobby lobby) {
+        DiscussionState discussion = activeDiscussions.get(lobbyCode);
+        // Registration happens after setGameState, so a registered instance that
+        // is not current any more has been superseded for good
+        if (discussion == null || (lobby != null && lobby.getGameState() == discussion)) {
+            return false;
+        }
+        if (!activeDiscussions.remove(lobbyCode, discussion)) {
+            return false;
+        }
+        discussion.cleanup(lobbyCode);
+        logger.info("Purged stale discussion for lobby {}", lobbyCode);
+        return true;
+    }
+    
+    /**
+     * Cleans up whatever discussion is registered for a lobby that is being closed.
+     * 
+     * @param lobbyCode The lobby code
+     * @return True if an instance was purged
+     */
+    public static boolean purgeLobby(String lobbyCode) {
+        DiscussionState discussion = activeDiscussions.remove(lobbyCode);
+        if (discussion == null) {
+            return false;
+        }
+        discussion.cleanup(lobbyCode);
+        return true;
+    }
+    
     /**
      * Static cleanup method for emergency situations
      */
     public static void forceCleanupAll() {
-        for (DiscussionState discussion : activeDiscussions.values()) {
-            discussion.cleanup("");
+        for (Map.Entry<String, DiscussionState> entry : activeDiscussions.entrySet()) {
+            entry.getValue().cleanup(entry.getKey());
         }
         activeDiscussions.clear();
         logger.info("Force cleaned up all discussion resources");
     }
     
     @Override
-    public GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update) {
-        if (!update.hasCallbackQuery()) {
+    public GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update, CallbackReply.Holder reply) {
+        String callbackData;
+        Long userId;
+        if (update.hasPollAnswer()) {
+            callbackData = toVoteCallback(update.getPollAnswer());
+            userId = update.getPollAnswer().getUser().getId();
+            if (callbackData == null) {
+                logger.debug("Ignoring poll answer {} from user {} in game {}", 
+                        update.getPollAnswer().getOptionIds(), userId, lobby.getLobbyCode());
+                return null;
+            }
+        } else if (update.hasCallbackQuery()) {
+            callbackData = update.getCallbackQuery().getData();
+            userId = update.getCallbackQuery().getFrom().getId();
+        } else {
             return null;
         }
         
-        String callbackData = update.getCallbackQuery().getData();
-        Long userId = update.getCallbackQuery().getFrom().getId();
-        
         // Validate player
         Player player = lobby.getPlayer(userId);
         if (player == null) {
@@ -167,6 +395,16 @@ public class DiscussionState implements GameState {
             return null;
         }
         
+        if (callbackData.equals("ready_vote")) {
+            handleReady(bot, lobby, player);
+            return null;
+        }
+        
+        if (callbackData.startsWith("vote_page:")) {
+            handleVotingPage(bot, player, callbackData);
+            return null;
+        }
+        
         if (callbackData.startsWith("vote:")) {
             if (hasVoted.contains(userId)) {
                 logger.info("Player {} already voted in game {}", userId, lobby.getLobbyCode());
@@ -178,9 +416,11 @@ public class DiscussionState implements GameState {
             
             handleVote(bot, lobby, userId, callbackData);
             
-            // Check if all players have voted
-            if (allPlayersVoted(lobby)) {
-                logger.info("All players voted in game {}, processing results", lobby.getLobbyCode());
+            // Close the meeting once everyone voted or the remaining votes cannot change the outcome
+            VoteTally tally = voteTally;
+            if (allPlayersVoted(lobby) || (tally != null && tally.isDecided())) {
+                logger.info("Voting outcome settled in game {} ({} votes cast), processing results", 
+                        lobby.getLobbyCode(), hasVoted.size());
                 if (votingTimer != null) {
                     votingTimer.cancel(true);
                 }
@@ -191,6 +431,28 @@ public class DiscussionState implements GameState {
         return null;
     }
     
+    /**
+     * Translates an answer to this meeting's poll into the vote callback a
+     * voting keyboard would have sent.
+     * 
+     * @param answer The poll answer
+     * @return "vote:&lt;id&gt;" or "vote:skip", or null if the answer is for
+     *         another poll or retracts a vote
+     */
+    public String toVoteCallback(PollAnswer answer) {
+        String currentPoll = pollId;
+        if (currentPoll == null || !currentPoll.equals(answer.getPollId()) 
+                || answer.getOptionIds() == null || answer.getOptionIds().isEmpty()) {
+            return null;
+        }
+        int option = answer.getOptionIds().get(0);
+        List<Long> ids = candidateIds;
+        if (option == ids.size()) {
+            return "vote:skip";
+        }
+        return option >= 0 && option < ids.size() ? "vote:" + ids.get(option) : null;
+    }
+    
     @Override
     public boolean canPerformAction(GameLobby lobby, Long userId, String action) {
         Player player = lobby.getPlayer(userId);
@@ -229,35 +491,101 @@ public class DiscussionState implements GameState {
         bot.executeMethod(message);
     }
     
-    private void sendDiscussionWithVotingMessage(AmongUsBot bot, GameLobby lobby, Player player, String discussionMessage) {
-        if (player.getChatId() == null) {
-            logger.warn("Player {} has no chatId, skipping discussion with voting message", player.getUserId());
-            return;
-        }
-
+    private void sendDiscussionWithVotingMessages(AmongUsBot bot, GameLobby lobby, List<Player> voters, String discussionMessage) {
         // Immediately set voting phase to true since we're combining phases
         votingPhase.set(true);
 
         String combinedMessage = discussionMessage + "\n\n🗳️ Время голосования! Выберите, за кого голосовать:";
-        InlineKeyboardMarkup keyboard = createVotingKeyboard(lobby, player);
-
-        SendMessage message = new SendMessage();
-        message.setChatId(player.getChatId());
-        message.setText(combinedMessage);
-        message.setReplyMarkup(keyboard);
+        
+        List<Player> recipients = new ArrayList<>();
+        List<SendMessage> messages = new ArrayList<>();
+        for (Player player : voters) {
+            if (player.getChatId() == null) {
+                logger.warn("Player {} has no chatId, skipping discussion with voting message", player.getUserId());
+                continue;
+            }
+            SendMessage message = new SendMessage();
+            message.setChatId(player.getChatId());
+            message.setText(combinedMessage);
+            message.setReplyMarkup(createVotingKeyboard(player));
+            recipients.add(player);
+            messages.add(message);
+        }
 
-        try {
-            org.telegram.telegrambots.meta.api.objects.Message sentMessage = bot.executeMethod(message);
+        // Sent as one batch; results come back in recipient order
+        List<Message> sentMessages = MessageBroadcaster.executeAll(bot, messages);
+        for (int i = 0; i < sentMessages.size(); i++) {
+            Message sentMessage = sentMessages.get(i);
             if (sentMessage != null) {
-                votingMessageIds.put(player.getUserId(), sentMessage.getMessageId());
+                votingMessageIds.put(recipients.get(i).getUserId(), sentMessage.getMessageId());
+                trackPhaseMessage(bot, lobby, recipients.get(i).getChatId(), sentMessage.getMessageId());
+            } else {
+                logger.error("Error sending discussion with voting message to player {}", recipients.get(i).getUserId());
             }
-        } catch (Exception e) {
-            logger.error("Error sending discussion with voting message to player {}", player.getUserId(), e);
+        }
+    }
+    
+    /**
+     * Whether this meeting votes in a group poll: the lobby is played in a
+     * group and every candidate plus skip fits into one poll.
+     */
+    private boolean usesPoll(AmongUsBot bot, GameLobby lobby) {
+        return lobby.isGroupMode() && bot.isPollVotingEnabled() 
+                && candidateIds.size() + 1 <= GameConstants.POLL_MAX_OPTIONS;
+    }
+    
+    /**
+     * Posts the meeting's poll to the group. It is not anonymous, so every
+     * answer arrives as a poll answer with its voter; answers of players who
+     * are dead or not in the lobby are ignored.
+     * 
+     * @return True if the poll was posted
+     */
+    private boolean sendMeetingPoll(AmongUsBot bot, GameLobby lobby) {
+        List<String> options = new ArrayList<>();
+        for (String name : candidateNames) {
+            options.add(name.length() > GameConstants.POLL_OPTION_MAX_LENGTH 
+                    ? name.substring(0, GameConstants.POLL_OPTION_MAX_LENGTH) : name);
+        }
+        options.add("⏭ Пропустить");
+        
+        SendPoll poll = new SendPoll();
+        poll.setChatId(lobby.getGroupChatId());
+        poll.setQuestion("🗳️ Кого исключить? Голосуют только живые игроки, голос нельзя изменить.");
+        poll.setOptions(options);
+        poll.setIsAnonymous(false);
+        poll.setAllowMultipleAnswers(false);
+        
+        Message sent = bot.executeMethod(poll);
+        if (sent == null || sent.getPoll() == null) {
+            logger.warn("Could not post meeting poll in game {}, falling back to voting keyboards", 
+                    lobby.getLobbyCode());
+            return false;
+        }
+        pollId = sent.getPoll().getId();
+        pollMessageId = sent.getMessageId();
+        votingPhase.set(true);
+        logger.info("Posted meeting poll {} with {} options in game {}", pollId, options.size(), lobby.getLobbyCode());
+        return true;
+    }
+    
+    /**
+     * Closes the meeting poll so its results freeze in the group.
+     */
+    private void stopMeetingPoll(AmongUsBot bot, GameLobby lobby) {
+        Integer messageId = pollMessageId;
+        Long groupChatId = lobby.getGroupChatId();
+        if (messageId == null || groupChatId == null) {
+            return;
+        }
+        StopPoll stop = new StopPoll(groupChatId.toString(), messageId);
+        if (bot.executeMethod(stop) == null) {
+            logger.warn("Could not stop meeting poll {} in game {}", pollId, lobby.getLobbyCode());
         }
     }
     
     private void startDiscussionTimer(AmongUsBot bot, GameLobby lobby, int discussionTimeSeconds) {
-        discussionTimer = scheduler.schedule(() -> {
+        discussionTimer = lobby.getContext().schedule(scheduler, () -> {
             try {
                 logger.info("Discussion time ended for game {}, starting voting phase", lobby.getLobbyCode());
                 startVotingPhase(bot, lobby);
@@ -285,7 +613,7 @@ public class DiscussionState implements GameState {
     }
     
     private void startVotingTimer(AmongUsBot bot, GameLobby lobby, int votingTimeSeconds) {
-        votingTimer = scheduler.schedule(() -> {
+        votingTimer = lobby.getContext().schedule(scheduler, () -> {
             try {
                 logger.info("Voting time ended for game {}, processing results", lobby.getLobbyCode());
                 GameState nextState = processVotingResults(bot, lobby);
@@ -306,7 +634,7 @@ public class DiscussionState implements GameState {
         }
         
         String text = "🗳️ Время голосования! Выберите, за кого голосовать:";
-        InlineKeyboardMarkup keyboard = createVotingKeyboard(lobby, voter);
+        InlineKeyboardMarkup keyboard = createVotingKeyboard(voter);
         
         SendMessage message = new SendMessage();
         message.setChatId(voter.getChatId());
@@ -317,30 +645,62 @@ public class DiscussionState implements GameState {
             org.telegram.telegrambots.meta.api.objects.Message sentMessage = bot.executeMethod(message);
             if (sentMessage != null) {
                 votingMessageIds.put(voter.getUserId(), sentMessage.getMessageId());
+                trackPhaseMessage(bot, lobby, voter.getChatId(), sentMessage.getMessageId());
             }
         } catch (Exception e) {
             logger.error("Error sending voting keyboard to player {}", voter.getUserId(), e);
         }
     }
     
-    private InlineKeyboardMarkup createVotingKeyboard(GameLobby lobby, Player voter) {
+    /**
+     * Builds one page of the voting keyboard. Only the candidates of the
+     * voter's current page are rendered, so large lobbies stay within a
+     * readable keyboard and the cost does not grow with the player count.
+     */
+    private InlineKeyboardMarkup createVotingKeyboard(Player voter) {
         InlineKeyboardMarkup keyboardMarkup = new InlineKeyboardMarkup();
         List<List<InlineKeyboardButton>> keyboard = new ArrayList<>();
         
-        // Thread-safe iteration over players
-        List<Player> players = new ArrayList<>(lobby.getPlayerList());
+        List<Long> ids = candidateIds;
+        List<String> names = candidateNames;
         
-        // Add a button for each alive player
-        for (Player player : players) {
-            // Cannot vote for yourself and cannot vote for dead players
-            if (!player.getUserId().equals(voter.getUserId()) && player.isAlive()) {
-                List<InlineKeyboardButton> row = new ArrayList<>();
-                InlineKeyboardButton button = new InlineKeyboardButton();
-                button.setText(player.getUserName());
-                button.setCallbackData("vote:" + player.getUserId());
-                row.add(button);
-                keyboard.add(row);
+        // Cannot vote for yourself; the voter's own slot is skipped by index arithmetic
+        Integer ownPosition = candidatePositions.get(voter.getUserId());
+        int targetCount = ids.size() - (ownPosition != null ? 1 : 0);
+        int pageSize = GameConstants.KEYBOARD_PAGE_SIZE;
+        int pageCount = Math.max(1, (targetCount + pageSize - 1) / pageSize);
+        int page = Math.min(votingPages.getOrDefault(voter.getUserId(), 0), pageCount - 1);
+        
+        int end = Math.min(targetCount, (page + 1) * pageSize);
+        for (int i = page * pageSize; i < end; i++) {
+            int index = (ownPosition != null && i >= ownPosition) ? i + 1 : i;
+            List<InlineKeyboardButton> row = new ArrayList<>();
+            InlineKeyboardButton button = new InlineKeyboardButton();
+            button.setText(names.get(index));
+            button.setCallbackData("vote:" + ids.get(index));
+            row.add(button);
+            keyboard.add(row);
+        }
+        
+        if (pageCount > 1) {
+            List<InlineKeyboardButton> navigationRow = new ArrayList<>();
+            if (page > 0) {
+                InlineKeyboardButton previousButton = new InlineKeyboardButton();
+                previousButton.setText("◀️");
+                previousButton.setCallbackData("vote_page:" + (page - 1));
+                navigationRow.add(previousButton);
             }
+            InlineKeyboardButton pageButton = new InlineKeyboardButton();
+            pageButton.setText((page + 1) + "/" + pageCount);
+            pageButton.setCallbackData("vote_page:" + page);
+            navigationRow.add(pageButton);
+            if (page < pageCount - 1) {
+                InlineKeyboardButton nextButton = new InlineKeyboardButton();
+                nextButton.setText("▶️");
+                nextButton.setCallbackData("vote_page:" + (page + 1));
+                navigationRow.add(nextButton);
+            }
+            keyboard.add(navigationRow);
         }
         
         // Add a skip vote button
@@ -351,6 +711,18 @@ public class DiscussionState implements GameState {
         skipRow.add(skipButton);
         keyboard.add(skipRow);
         
+        // Ready check, shown until the discussion part is over
+        if (!discussionCutShort.get()) {
+            List<InlineKeyboardButton> readyRow = new ArrayList<>();
+            InlineKeyboardButton readyButton = new InlineKeyboardButton();
+            readyButton.setText(readyPlayers.contains(voter.getUserId())
+                    ? "✅ Вы готовы (" + readyPlayers.size() + ")"
+                    : "✋ Готов к голосованию");
+            readyButton.setCallbackData("ready_vote");
+            readyRow.add(readyButton);
+            keyboard.add(readyRow);
+        }
+        
         keyboardMarkup.setKeyboard(keyboard);
         return keyboardMarkup;
     }
@@ -380,15 +752,20 @@ public class DiscussionState implements GameState {
             return;
         }
         
-        // Check if player already voted (additional safety check)
-        if (votes.containsKey(voterId)) {
-            logger.warn("Player {} tried to vote again in game {}, ignoring", voterId, lobbyCode);
+        VoteTally tally = voteTally;
+        if (tally == null) {
+            logger.error("Vote from player {} arrived before the meeting started in game {}", voterId, lobbyCode);
             return;
         }
         
         // Record the vote
         if (target.equals("skip")) {
-            votes.put(voterId, -1L); // -1 represents a skip vote
+            // -1 represents a skip vote
+            if (votes.putIfAbsent(voterId, -1L) != null) {
+                logger.warn("Player {} tried to vote again in game {}, ignoring", voterId, lobbyCode);
+                return;
+            }
+            tally.recordSkip();
             updateVotingMessage(bot, lobby, voter, "Вы пропустили голосование.");
             logger.info("Player {} voted to skip in game {}", voterId, lobbyCode);
             lobby.addGameEvent(voterId, "VOTE", "Пропустил голосование");
@@ -398,7 +775,14 @@ public class DiscussionState implements GameState {
                 Player targetPlayer = lobby.getPlayer(targetId);
                 
                 if (targetPlayer != null && targetPlayer.isAlive()) {
-                    votes.put(voterId, targetId);
+                    if (votes.putIfAbsent(voterId, targetId) != null) {
+                        logger.warn("Player {} tried to vote again in game {}, ignoring", voterId, lobbyCode);
+                        return;
+                    }
+                    if (!tally.recordVote(targetId)) {
+                        logger.warn("Player {} voted for {} who is not a candidate in game {}", 
+                                voterId, targetId, lobbyCode);
+                    }
                     updateVotingMessage(bot, lobby, voter, "Вы проголосовали за " + targetPlayer.getUserName() + ".");
                     logger.info("Player {} voted for player {} in game {}", voterId, targetId, lobbyCode);
                     lobby.addGameEvent(voterId, "VOTE", "Проголосовал за " + targetPlayer.getUserName());
@@ -412,15 +796,34 @@ public class DiscussionState implements GameState {
         }
         
         // Log the vote count
-        int voteCount = hasVoted.size();
         logger.debug("Vote count in game {}: {} out of {} alive players", 
-                lobbyCode, voteCount, countAlivePlayers(lobby));
+                lobbyCode, tally.getCastVotes(), eligibleVoters);
+    }
+    
+    /**
+     * Leaves a voting keyboard that is never answered to the game-end purge.
+     */
+    private void trackPhaseMessage(AmongUsBot bot, GameLobby lobby, Long chatId, Integer messageId) {
+        MessageLifecycle lifecycle = bot.getMessageLifecycle();
+        if (lifecycle != null) {
+            lifecycle.track(lobby, chatId, messageId, MessageLifecycle.Scope.PHASE);
+        }
     }
     
     private void updateVotingMessage(AmongUsBot bot, GameLobby lobby, Player voter, String text) {
+        if (pollId != null) {
+            // The poll itself shows the vote
+            return;
+        }
         Integer messageId = votingMessageIds.get(voter.getUserId());
+        MessageLifecycle lifecycle = bot.getMessageLifecycle();
         
-        if (messageId != null && voter.getChatId() != null) {
+        if (messageId != null && voter.getChatId() != null && lifecycle != null) {
+            // The keyboard goes with the next delete batch instead of holding up the vote
+            lifecycle.delete(voter.getChatId(), messageId);
+            bot.sendTextMessage(voter.getChatId(), text);
+            votingMessageIds.remove(voter.getUserId());
+        } else if (messageId != null && voter.getChatId() != null) {
             try {
                 boolean deleted = bot.deleteMessage(voter.getChatId(), messageId);
                 if (deleted) {
@@ -450,65 +853,107 @@ public class DiscussionState implements GameState {
         }
     }
     
-    private int countAlivePlayers(GameLobby lobby) {
-        return (int) lobby.getPlayerList().stream()
-                .filter(Player::isAlive)
-                .count();
-    }
-    
-    private boolean allPlayersVoted(GameLobby lobby) {
-        return hasVoted.size() >= countAlivePlayers(lobby);
+    /**
+     * Switches the voter's keyboard to another page of candidates.
+     */
+    private void handleVotingPage(AmongUsBot bot, Player player, String callbackData) {
+        Integer messageId = votingMessageIds.get(player.getUserId());
+        if (messageId == null || player.getChatId() == null || hasVoted.contains(player.getUserId())) {
+            return;
+        }
+        
+        int page;
+        try {
+            page = Integer.parseInt(callbackData.substring("vote_page:".length()));
+        } catch (NumberFormatException e) {
+            logger.error("Invalid voting page callback: '{}' from player {}", callbackData, player.getUserId());
+            return;
+        }
+        if (page < 0) {
+            return;
+        }
+        
+        Integer previousPage = votingPages.put(player.getUserId(), page);
+        if (previousPage != null && previousPage == page) {
+            return;
+        }
+        bot.editMessageReplyMarkup(player.getChatId(), messageId, createVotingKeyboard(player));
     }
     
-    private GameState processVotingResults(AmongUsBot bot, GameLobby lobby) {
-        logger.info("Processing voting results for game {}", lobby.getLobbyCode());
-        
+    /**
+     * Marks a player as done discussing. Once the ready quorum is reached the
+     * remaining discussion time is dropped and only the voting window is left.
+     */
+    private void handleReady(AmongUsBot bot, GameLobby lobby, Player player) {
         String lobbyCode = lobby.getLobbyCode();
-        Map<Long, Long> votes = this.votes;
-        
-        if (votes == null) {
-            logger.error("No votes found for lobby {}", lobbyCode);
-            return new GameActiveState();
+        if (discussionCutShort.get() || !readyPlayers.add(player.getUserId())) {
+            logger.debug("Ignoring ready from player {} in game {}", player.getUserId(), lobbyCode);
+            return;
         }
         
-        // Count votes for each player
-        Map<Long, Integer> voteCounts = new HashMap<>();
-        int skipVotes = 0;
+        int required = readyRequired;
+        logger.info("Player {} is ready to vote in game {} ({}/{} needed)", 
+                player.getUserId(), lobbyCode, readyPlayers.size(), required);
         
-        for (Long targetId : votes.values()) {
-            if (targetId == -1L) {
-                skipVotes++;
-            } else {
-                voteCounts.put(targetId, voteCounts.getOrDefault(targetId, 0) + 1);
-            }
+        // Refresh the button so the player sees the ready state
+        Integer messageId = votingMessageIds.get(player.getUserId());
+        if (messageId != null && player.getChatId() != null) {
+            bot.editMessageReplyMarkup(player.getChatId(), messageId, createVotingKeyboard(player));
+        }
+        
+        if (readyPlayers.size() < required || !discussionCutShort.compareAndSet(false, true)) {
+            return;
         }
         
-        // Find the player with the most votes
-        Long ejectedId = null;
-        int maxVotes = 0;
+        int votingTime = lobby.getSettings().getVotingTime();
+        long remainingSeconds = rescheduleVotingTimer(bot, lobby, votingTime);
+        if (remainingSeconds < 0) {
+            return;
+        }
         
-        for (Map.Entry<Long, Integer> entry : voteCounts.entrySet()) {
-            if (entry.getValue() > maxVotes) {
-                maxVotes = entry.getValue();
-                ejectedId = entry.getKey();
-            } else if (entry.getValue() == maxVotes) {
-                // Tie - no one gets ejected
-                ejectedId = null;
+        lobby.addGameEvent(null, "DISCUSSION_SKIPPED", "Игроки готовы к голосованию досрочно");
+        String notice = "✋ Игроки готовы к голосованию! Обсуждение завершено, на голосование осталось " 
+                + remainingSeconds + " сек.";
+        List<Player> alivePlayers = new ArrayList<>();
+        for (Player p : lobby.getPlayerList()) {
+            if (p.isAlive()) {
+                alivePlayers.add(p);
             }
         }
+        MessageBroadcaster.announce(bot, lobby, alivePlayers, notice);
+    }
+    
+    private boolean allPlayersVoted(GameLobby lobby) {
+        return hasVoted.size() >= eligibleVoters;
+    }
+    
+    private GameState processVotingResults(AmongUsBot bot, GameLobby lobby) {
+        String lobbyCode = lobby.getLobbyCode();
+        
+        // Timer and last vote can race; only the first caller produces the results
+        if (!resultsProcessed.compareAndSet(false, true)) {
+            logger.debug("Voting results already processed for game {}", lobbyCode);
+            return null;
+        }
+        logger.info("Processing voting results for game {}", lobbyCode);
+        stopMeetingPoll(bot, lobby);
         
-        // Check if skip has the most votes
-        if (skipVotes > maxVotes) {
-            ejectedId = null;
+        VoteTally tally = voteTally;
+        if (tally == null) {
+            tally = new VoteTally(new ArrayList<>(), 0);
         }
         
+        // Tie, skip majority or no votes all resolve to null
+        Long ejectedId = tally.getEjectedId();
+        int skipVotes = tally.getSkipVotes();
+        
         // Announce the results to all players
         StringBuilder resultMessage = new StringBuilder("🗳️ Результаты голосования:\n\n");
         
         // Show vote counts
         List<Player> players = new ArrayList<>(lobby.getPlayerList());
         for (Player player : players) {
-            int voteCount = voteCounts.getOrDefault(player.getUserId(), 0);
+            int voteCount = tally.getVotes(player.getUserId());
             if (voteCount > 0) {
                 resultMessage.append(player.getUserName()).append(": ").append(voteCount).append(" голосов\n");
             }
@@ -528,6 +973,7 @@ public class DiscussionState implements GameState {
             Player ejectedPlayer = lobby.getPlayer(ejectedId);
             if (ejectedPlayer != null) {
                 ejectedPlayer.eject(); // Use eject() instead of kill() for voted-out players
+                lobby.publishSnapshot();
                 String roleName = ejectedPlayer.isImpostor() ? "Предатель" : "Член экипажа";
                 resultMessage.append(ejectedPlayer.getUserName())
                         .append(" был исключён. Он был ")
@@ -542,11 +988,7 @@ public class DiscussionState implements GameState {
         }
         
         // Send results to all players
-        for (Player player : players) {
-            if (player.getChatId() != null) {
-                bot.sendTextMessage(player.getChatId(), resultMessage.toString());
-            }
-        }
+        MessageBroadcaster.announce(bot, lobby, players, resultMessage.toString());
         
         // Check win conditions
         GameState winCondition = checkWinConditions(lobby);
@@ -585,18 +1027,66 @@ public class DiscussionState implements GameState {
     }
 
     private void startCombinedVotingTimer(AmongUsBot bot, GameLobby lobby, int totalTimeSeconds) {
-        votingTimer = scheduler.schedule(() -> {
-            try {
-                logger.info("Combined discussion/voting time ended for game {}, processing results", lobby.getLobbyCode());
-                GameState nextState = processVotingResults(bot, lobby);
-                if (nextState != null) {
-                    lobby.setGameState(nextState);
-                    nextState.onEnter(bot, lobby);
-                }
-            } catch (Exception e) {
-                logger.error("Error during combined voting timer execution for game {}", lobby.getLobbyCode(), e);
+        synchronized (timerLock) {
+            votingDeadlineMillis = lobby.getContext().currentTimeMillis() + TimeUnit.SECONDS.toMillis(totalTimeSeconds);
+            votingTimer = lobby.getContext().schedule(scheduler, () -> finishVotingByTimer(bot, lobby), 
+                    totalTimeSeconds, TimeUnit.SECONDS);
+        }
+        showDeadline(bot, lobby);
+    }
+    
+    /**
+     * Moves the voting deadline forward to at most {@code maxRemainingSeconds} from now.
+     * The old timer is only replaced if it could still be cancelled, so results are never
+     * processed twice.
+     * 
+     * @return The seconds left until the new deadline, or -1 if the timer already fired
+     */
+    private long rescheduleVotingTimer(AmongUsBot bot, GameLobby lobby, int maxRemainingSeconds) {
+        synchronized (timerLock) {
+            if (resultsProcessed.get()) {
+                return -1;
+            }
+            
+            long remainingMillis = votingDeadlineMillis - lobby.getContext().currentTimeMillis();
+            long newDelayMillis = Math.max(0, Math.min(remainingMillis, TimeUnit.SECONDS.toMillis(maxRemainingSeconds)));
+            
+            ScheduledFuture<?> current = votingTimer;
+            if (current != null && !current.cancel(false)) {
+                // Already running or done - it owns result processing
+                return -1;
             }
-        }, totalTimeSeconds, TimeUnit.SECONDS);
+            
+            votingDeadlineMillis = lobby.getContext().currentTimeMillis() + newDelayMillis;
+            votingTimer = lobby.getContext().schedule(scheduler, () -> finishVotingByTimer(bot, lobby), 
+                    newDelayMillis, TimeUnit.MILLISECONDS);
+            logger.info("Voting deadline for game {} moved to {} ms from now", lobby.getLobbyCode(), newDelayMillis);
+            showDeadline(bot, lobby);
+            return TimeUnit.MILLISECONDS.toSeconds(newDelayMillis);
+        }
+    }
+    
+    /**
+     * Shows the voting deadline on the group dashboard, if the lobby has one.
+     */
+    private void showDeadline(AmongUsBot bot, GameLobby lobby) {
+        GroupDashboard dashboard = GroupDashboard.forLobby(bot, lobby);
+        if (dashboard != null) {
+            dashboard.setDeadline(lobby, "Голосование", votingDeadlineMillis);
+        }
+    }
+    
+    private void finishVotingByTimer(AmongUsBot bot, GameLobby lobby) {
+        try {
+            logger.info("Combined discussion/voting time ended for game {}, processing results", lobby.getLobbyCode());
+            GameState nextState = processVotingResults(bot, lobby);
+            if (nextState != null) {
+                lobby.setGameState(nextState);
+                nextState.onEnter(bot, lobby);
+            }
+        } catch (Exception e) {
+            logger.error("Error during combined voting timer execution for game {}", lobby.getLobbyCode(), e);
+        }
     }
 }
 // COMPLETED: DiscussionState class 
\ No newline at end of file
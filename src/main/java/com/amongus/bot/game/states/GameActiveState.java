@@ -1,32 +1,43 @@
 package com.amongus.bot.game.states;
 
 import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.game.lobby.GameClock;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyContext;
 import com.amongus.bot.game.lobby.LobbySettings;
 import com.amongus.bot.models.Player;
 import com.amongus.bot.game.tasks.Task;
 import com.amongus.bot.game.tasks.SimpleTask;
 import com.amongus.bot.game.tasks.TaskDifficulty;
+import com.amongus.bot.game.utils.CallbackReply;
+import com.amongus.bot.game.utils.MessageBroadcaster;
+import com.amongus.bot.managers.GroupDashboard;
+import com.amongus.bot.managers.MessageLifecycle;
+import com.amongus.bot.game.utils.SnapshotIO;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
-import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessage;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.api.objects.Message;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 import java.util.Map;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 
 /**
@@ -62,8 +73,16 @@ public class GameActiveState implements GameState {
     private volatile Long reactorSabotageStartTime = null;
     private volatile ScheduledFuture<?> reactorMeltdownTimer = null;
     
+    // The lobby's clock, simulated when a replay is re-run
+    private volatile GameClock clock = GameClock.SYSTEM;
+    
     // Shared thread pool for all game instances
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+    private static final ScheduledExecutorService scheduler = LobbyContext.newScheduler(4, "AmongUs-GameActive");
+    
+    // Keys of the resources this state keeps in the lobby context
+    private static final String CONTEXT_KEY = "game_active";
+    private static final String SABOTAGE_MENU_MESSAGES = "sabotage_menu";
+    private static final String ACTION_MESSAGES = "actions";
     
     // Map to track the last time each player used the scan feature
     private final Map<Long, Long> lastScanTimeByPlayer = new ConcurrentHashMap<>();
@@ -76,7 +95,11 @@ public class GameActiveState implements GameState {
     private final Map<Long, List<Boolean>> fakeTaskCompletionByImpostor = new ConcurrentHashMap<>();
     
     // Map to store sabotage menu message IDs for deletion
-    private final Map<Long, Integer> sabotageMenuMessageIds = new ConcurrentHashMap<>();
+    // Owned by the lobby context once the state is entered
+    private volatile Map<Long, Integer> sabotageMenuMessageIds = new ConcurrentHashMap<>();
+    
+    // Latest action keyboard of each player; the previous one is deleted when a new one is sent
+    private volatile Map<Long, Integer> actionMessageIds = new ConcurrentHashMap<>();
     
     // Instance-based emergency meeting synchronization
     private final AtomicBoolean emergencyMeetingInProgress = new AtomicBoolean(false);
@@ -99,14 +122,24 @@ public class GameActiveState implements GameState {
         String lobbyCode = lobby.getLobbyCode();
         logger.info("Entered active game state for game {}", lobbyCode);
         
-        // Register this game instance
+        // Register this game instance; the context releases it if onExit is skipped
         activeGames.put(lobbyCode, this);
+        LobbyContext context = lobby.getContext();
+        clock = context.getClock();
+        context.register(CONTEXT_KEY, this, () -> cleanup(lobbyCode));
+        sabotageMenuMessageIds = context.trackedMessages(SABOTAGE_MENU_MESSAGES);
+        actionMessageIds = context.trackedMessages(ACTION_MESSAGES);
         
         // Initialize game state
         initializeGameState(lobby);
         
         // Send game start messages and action keyboards to all players
         sendGameStartMessages(bot, lobby);
+        
+        GroupDashboard dashboard = GroupDashboard.forLobby(bot, lobby);
+        if (dashboard != null) {
+            dashboard.setDeadline(lobby, null, 0);
+        }
     }
     
     private void initializeGameState(GameLobby lobby) {
@@ -158,7 +191,8 @@ public class GameActiveState implements GameState {
                 
                 // Initialize fake tasks for this impostor if they don't exist yet
                 if (!fakeTasksByImpostor.containsKey(player.getUserId())) {
-                    initializeFakeTasksForImpostor(player.getUserId(), lobby.getSettings().getTasksPerPlayer());
+                    initializeFakeTasksForImpostor(player.getUserId(), lobby.getSettings().getTasksPerPlayer(),
+                            new Random(lobby.getGameSeed() ^ player.getUserId()));
                 }
                 
                 List<String> impostor_tasks = fakeTasksByImpostor.get(player.getUserId());
@@ -183,7 +217,12 @@ public class GameActiveState implements GameState {
             message.setParseMode("Markdown");
             message.setReplyMarkup(createActionKeyboard(lobby, player));
             
-            bot.executeMethod(message);
+            Message sent = bot.executeMethod(message);
+            if (sent != null && bot.getMessageLifecycle() != null) {
+                // Keeps the task list until the game ends
+                bot.getMessageLifecycle().track(lobby, player.getChatId(), sent.getMessageId(),
+                        MessageLifecycle.Scope.PHASE);
+            }
             logger.debug("Sent game start message with keyboard to player {} ({})", player.getUserName(), player.getUserId());
             
             // Send detailed task information message for both crewmates and impostors
@@ -257,8 +296,95 @@ public class GameActiveState implements GameState {
         String lobbyCode = lobby.getLobbyCode();
         logger.info("Exited active game state for game {}", lobbyCode);
         
-        // Clean up resources
-        cleanup(lobbyCode);
+        // Clean up resources through the context so the registration goes with them
+        if (!lobby.getContext().release(CONTEXT_KEY, this)) {
+            cleanup(lobbyCode);
+        }
+    }
+    
+    @Override
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeUTF(activeSabotage.name());
+        SnapshotIO.writeNullableLong(out, playerFixingLights);
+        SnapshotIO.writeNullableLong(out, playerAtReactorLocation1);
+        SnapshotIO.writeNullableLong(out, playerAtReactorLocation2);
+        out.writeBoolean(photoReceivedFromLocation1);
+        out.writeBoolean(photoReceivedFromLocation2);
+        SnapshotIO.writeNullableLong(out, reactorSabotageStartTime);
+        SnapshotIO.writeLongMap(out, lastScanTimeByPlayer);
+        SnapshotIO.writeLongMap(out, lastKillTimeByImpostor);
+        
+        List<Map.Entry<Long, List<String>>> fakeTasks = new ArrayList<>(fakeTasksByImpostor.entrySet());
+        out.writeInt(fakeTasks.size());
+        for (Map.Entry<Long, List<String>> entry : fakeTasks) {
+            out.writeLong(entry.getKey());
+            List<String> names = new ArrayList<>(entry.getValue());
+            List<Boolean> completion = fakeTaskCompletionByImpostor.getOrDefault(entry.getKey(), Collections.emptyList());
+            out.writeInt(names.size());
+            for (int i = 0; i < names.size(); i++) {
+                out.writeUTF(names.get(i));
+                out.writeBoolean(i < completion.size() && completion.get(i));
+            }
+        }
+    }
+    
+    @Override
+    public void readSnapshot(DataInput in) throws IOException {
+        activeSabotage = SabotageType.valueOf(in.readUTF());
+        playerFixingLights = SnapshotIO.readNullableLong(in);
+        playerAtReactorLocation1 = SnapshotIO.readNullableLong(in);
+        playerAtReactorLocation2 = SnapshotIO.readNullableLong(in);
+        photoReceivedFromLocation1 = in.readBoolean();
+        photoReceivedFromLocation2 = in.readBoolean();
+        reactorSabotageStartTime = SnapshotIO.readNullableLong(in);
+        SnapshotIO.readLongMap(in, lastScanTimeByPlayer);
+        SnapshotIO.readLongMap(in, lastKillTimeByImpostor);
+        
+        int impostors = SnapshotIO.readSize(in);
+        for (int i = 0; i < impostors; i++) {
+            Long impostorId = in.readLong();
+            int count = SnapshotIO.readSize(in);
+            List<String> names = new ArrayList<>(count);
+            List<Boolean> completion = new ArrayList<>(count);
+            for (int j = 0; j < count; j++) {
+                names.add(in.readUTF());
+                completion.add(in.readBoolean());
+            }
+            fakeTasksByImpostor.put(impostorId, names);
+            fakeTaskCompletionByImpostor.put(impostorId, completion);
+        }
+    }
+    
+    @Override
+    public void onRestore(AmongUsBot bot, GameLobby lobby) {
+        String lobbyCode = lobby.getLobbyCode();
+        activeGames.put(lobbyCode, this);
+        LobbyContext context = lobby.getContext();
+        clock = context.getClock();
+        context.register(CONTEXT_KEY, this, () -> cleanup(lobbyCode));
+        sabotageMenuMessageIds = context.trackedMessages(SABOTAGE_MENU_MESSAGES);
+        actionMessageIds = context.trackedMessages(ACTION_MESSAGES);
+        
+        // The meltdown keeps its original deadline; an overdue one fires right away
+        if (activeSabotage == SabotageType.REACTOR && reactorSabotageStartTime != null) {
+            long remaining = reactorSabotageStartTime + REACTOR_MELTDOWN_TIME_MS - clock.millis();
+            armReactorMeltdownTimer(bot, lobby, Math.max(0, remaining));
+        }
+        logger.info("Restored active game state for game {} (sabotage: {})", lobbyCode, activeSabotage);
+    }
+    
+    @Override
+    public void resendControls(AmongUsBot bot, GameLobby lobby) {
+        for (Player player : lobby.getPlayerList()) {
+            if (player.getChatId() == null || !player.isAlive()) {
+                continue;
+            }
+            SendMessage message = new SendMessage();
+            message.setChatId(player.getChatId());
+            message.setText("🔄 Бот был перезапущен, игра продолжается. Используйте кнопки ниже.");
+            message.setReplyMarkup(createActionKeyboard(lobby, player));
+            sendActionKeyboard(bot, lobby, player, message);
+        }
     }
     
     /**
@@ -280,6 +406,7 @@ public class GameActiveState implements GameState {
         fakeTasksByImpostor.clear();
         fakeTaskCompletionByImpostor.clear();
         sabotageMenuMessageIds.clear();
+        actionMessageIds.clear();
         
         // Reset sabotage state
         activeSabotage = SabotageType.NONE;
@@ -291,7 +418,7 @@ public class GameActiveState implements GameState {
         reactorSabotageStartTime = null;
         
         // Remove from active games
-        activeGames.remove(lobbyCode);
+        activeGames.remove(lobbyCode, this);
         
         logger.debug("Cleaned up game resources for game {}", lobbyCode);
     }
@@ -303,19 +430,64 @@ public class GameActiveState implements GameState {
         return activeGames.get(lobbyCode);
     }
     
+    /**
+     * Gets the codes of all lobbies with a registered game.
+     */
+    public static Set<String> getRegisteredLobbyCodes() {
+        return new HashSet<>(activeGames.keySet());
+    }
+    
+    /**
+     * Cleans up the game registered for a lobby unless it is still the
+     * lobby's current state. Catches instances whose onExit was skipped.
+     * 
+     * @param lobbyCode The lobby code
+     * @param lobby The live lobby, or null if it no longer exists
+     * @return True if a stale instance was purged
+     */
+    public static boolean purgeStale(String lobbyCode, GameLobby lobby) {
+        GameActiveState game = activeGames.get(lobbyCode);
+        // Registration happens after setGameState, so a registered instance that
+        // is not current any more has been superseded for good
+        if (game == null || (lobby != null && lobby.getGameState() == game)) {
+            return false;
+        }
+        if (!activeGames.remove(lobbyCode, game)) {
+            return false;
+        }
+        game.cleanup(lobbyCode);
+        logger.info("Purged stale game for lobby {}", lobbyCode);
+        return true;
+    }
+    
+    /**
+     * Cleans up whatever game is registered for a lobby that is being closed.
+     * 
+     * @param lobbyCode The lobby code
+     * @return True if an instance was purged
+     */
+    public static boolean purgeLobby(String lobbyCode) {
+        GameActiveState game = activeGames.remove(lobbyCode);
+        if (game == null) {
+            return false;
+        }
+        game.cleanup(lobbyCode);
+        return true;
+    }
+    
     /**
      * Static cleanup method for emergency situations
      */
     public static void forceCleanupAll() {
-        for (GameActiveState game : activeGames.values()) {
-            game.cleanup("");
+        for (Map.Entry<String, GameActiveState> entry : activeGames.entrySet()) {
+            entry.getValue().cleanup(entry.getKey());
         }
         activeGames.clear();
         logger.info("Force cleaned up all game resources");
     }
     
     @Override
-    public GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update) {
+    public GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update, CallbackReply.Holder reply) {
         if (lobby == null || !update.hasCallbackQuery()) {
             return null;
         }
@@ -346,6 +518,7 @@ public class GameActiveState implements GameState {
 
         // Track if a state transition already occurred in a handler
         boolean stateChanged = false;
+        // Short answers to rejected actions go in the callback answer toast
         
         // Handle actions based on the callback data
         if (callbackData.startsWith("task:")) {
@@ -359,11 +532,11 @@ public class GameActiveState implements GameState {
         } else if (callbackData.equals("emergency_meeting_confirm")) {
             return handleEmergencyMeetingActionConfirmed(bot, lobby, player);
         } else if (callbackData.startsWith("kill:")) {
-            handleKillAction(bot, lobby, player, callbackData);
+            reply.set(handleKillAction(bot, lobby, player, callbackData));
         } else if (callbackData.startsWith("fake_task:")) {
             handleFakeTaskAction(bot, lobby, player, callbackData);
         } else if (callbackData.equals("sabotage_menu")) {
-            handleSabotageMenuAction(bot, lobby, player);
+            reply.set(handleSabotageMenuAction(bot, lobby, player));
         } else if (callbackData.startsWith("sabotage:")) {
             handleSpecificSabotage(bot, lobby, player, callbackData);
         } else if (callbackData.equals("fix_lights")) {
@@ -376,7 +549,7 @@ public class GameActiveState implements GameState {
             // This case is no longer used since we removed kill_menu callback
             updatePlayerActionKeyboard(bot, lobby, player); // Just update the keyboard
         } else if (callbackData.equals("kill_cooldown")) {
-            handleKillCooldownAction(bot, lobby, player);
+            reply.set(handleKillCooldownAction(bot, lobby, player));
         } else if (callbackData.equals("i_was_killed")) {
             showConfirmationDialog(bot, player, "i_was_killed_confirm", "Вы действительно были убиты?");
         } else if (callbackData.equals("i_was_killed_confirm")) {
@@ -384,9 +557,9 @@ public class GameActiveState implements GameState {
             // Check if game state was changed to GameOverState by the handler
             stateChanged = (lobby.getGameState() instanceof GameOverState);
         } else if (callbackData.equals("scan")) {
-            handleScanAction(bot, lobby, player);
+            reply.set(handleScanAction(bot, lobby, player));
         } else if (callbackData.equals("check")) {
-            handleCheckAction(bot, lobby, player);
+            reply.set(handleCheckAction(bot, lobby, player));
         } else if (callbackData.equals("back_to_main")) {
             handleBackToMainAction(bot, lobby, player);
         } else if (callbackData.equals("confirmation_cancel")) {
@@ -463,7 +636,8 @@ public class GameActiveState implements GameState {
         
         // Initialize fake tasks for this impostor if they don't exist yet
         if (!fakeTasksByImpostor.containsKey(player.getUserId())) {
-            initializeFakeTasksForImpostor(player.getUserId(), lobby.getSettings().getTasksPerPlayer());
+            initializeFakeTasksForImpostor(player.getUserId(), lobby.getSettings().getTasksPerPlayer(),
+                    new Random(lobby.getGameSeed() ^ player.getUserId()));
         }
         
         // Add fake task buttons with appropriate status icons
@@ -576,7 +750,7 @@ public class GameActiveState implements GameState {
             return false;
         }
         
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.millis();
         long timeSinceLastScan = currentTime - lastScanTime;
         return timeSinceLastScan < SCAN_COOLDOWN_MS;
     }
@@ -593,7 +767,7 @@ public class GameActiveState implements GameState {
             return 0;
         }
         
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.millis();
         long timeSinceLastScan = currentTime - lastScanTime;
         
         if (timeSinceLastScan >= SCAN_COOLDOWN_MS) {
@@ -799,13 +973,7 @@ public class GameActiveState implements GameState {
         logger.info("Player {} reported a body in game {}", player.getUserId(), lobby.getLobbyCode());
         
         // Notify all players about the report
-        for (Player p : lobby.getPlayerList()) {
-            try {
-                bot.sendTextMessage(p.getChatId(), reportMessage);
-            } catch (Exception e) {
-                logger.error("Failed to send report notification to player: " + p.getUserId(), e);
-            }
-        }
+        MessageBroadcaster.announce(bot, lobby, lobby.getPlayerList(), reportMessage);
         
         // Create and return a new discussion state
         return new DiscussionState(player.getUserName(), player.getUserId());
@@ -864,15 +1032,8 @@ public class GameActiveState implements GameState {
             logger.info("Player {} called an emergency meeting in game {}", player.getUserId(), lobbyCode);
 
             // Notify all players
-            for (Player p : lobby.getPlayerList()) {
-                if (p.getChatId() == null) {
-                    logger.warn("Player {} has no chatId, skipping emergency meeting notification", p.getUserId());
-                    continue;
-                }
-
-                bot.sendTextMessage(p.getChatId(), 
-                        player.getUserName() + " созвал экстренное собрание! Начинаем обсуждение...");
-            }
+            MessageBroadcaster.announce(bot, lobby, lobby.getPlayerList(),
+                    player.getUserName() + " созвал экстренное собрание! Начинаем обсуждение...");
 
             // Create and return a new discussion state
             return new DiscussionState(player.getUserName(), null);
@@ -900,6 +1061,7 @@ public class GameActiveState implements GameState {
         
         // Mark the player as dead
         player.kill();
+        lobby.publishSnapshot();
         
         // Регистрируем событие убийства
         lobby.addGameEvent(player.getUserId(), "KILL", "Был убит");
@@ -926,19 +1088,17 @@ public class GameActiveState implements GameState {
      * @param lobby The game lobby
      * @param player The player performing the action
      * @param callbackData The callback data from the button
+     * @return The reply to a rejected kill, or null
      */
-    private void handleKillAction(AmongUsBot bot, GameLobby lobby, Player killer, String callbackData) {
+    private CallbackReply handleKillAction(AmongUsBot bot, GameLobby lobby, Player killer, String callbackData) {
         try {
             // Check if kill is on cooldown
             if (isKillOnCooldown(killer.getUserId(), lobby)) {
-                if (killer.getChatId() != null) {
-                    int remainingCooldown = getKillCooldownRemaining(killer.getUserId(), lobby);
-                    bot.sendTextMessage(killer.getChatId(), 
-                            "Способность убийства перезаряжается. Пожалуйста, подождите " + remainingCooldown + " секунд.");
-                }
+                int remainingCooldown = getKillCooldownRemaining(killer.getUserId(), lobby);
                 logger.debug("Player {} attempted to kill while on cooldown in game {}", 
                         killer.getUserId(), lobby.getLobbyCode());
-                return;
+                return CallbackReply.toast("Способность убийства перезаряжается. Пожалуйста, подождите " 
+                        + remainingCooldown + " секунд.");
             }
             
             // Extract the target user ID from the callback data
@@ -948,6 +1108,7 @@ public class GameActiveState implements GameState {
             if (target != null && target.isAlive() && !target.isImpostor()) {
                 // Kill the target
                 target.kill();
+                lobby.publishSnapshot();
                 
                 // Регистрируем событие убийства
                 lobby.addGameEvent(killer.getUserId(), "KILL", "Убил " + target.getUserName());
@@ -969,7 +1130,7 @@ public class GameActiveState implements GameState {
                 }
                 
                 // Set kill cooldown
-                lastKillTimeByImpostor.put(killer.getUserId(), System.currentTimeMillis());
+                lastKillTimeByImpostor.put(killer.getUserId(), clock.millis());
                 
                 logger.info("Player {} killed player {} in game {}", 
                         killer.getUserId(), target.getUserId(), lobby.getLobbyCode());
@@ -990,15 +1151,14 @@ public class GameActiveState implements GameState {
                     logger.warn("Victim {} has no chatId, cannot send death notification", target.getUserId());
                 }
             } else {
-                if (killer.getChatId() != null) {
-                    bot.sendTextMessage(killer.getChatId(), "Неверная цель или цель уже мертва.");
-                }
                 logger.debug("Player {} attempted to kill invalid target {} in game {}", 
                         killer.getUserId(), targetId, lobby.getLobbyCode());
+                return CallbackReply.toast("Неверная цель или цель уже мертва.");
             }
         } catch (Exception e) {
             logger.error("Error handling kill action: {}", e.getMessage(), e);
         }
+        return null;
     }
     
     /**
@@ -1079,30 +1239,30 @@ public class GameActiveState implements GameState {
      * @param bot The bot instance
      * @param lobby The game lobby
      * @param player The player
+     * @return The reply if the menu cannot open, or null
      */
-    private void handleSabotageMenuAction(AmongUsBot bot, GameLobby lobby, Player player) {
+    private CallbackReply handleSabotageMenuAction(AmongUsBot bot, GameLobby lobby, Player player) {
         if (!player.isImpostor()) {
             logger.warn("Non-impostor player {} attempted to open sabotage menu in game {}", 
                     player.getUserId(), lobby.getLobbyCode());
-            return;
+            return null;
         }
         
         if (player.getChatId() == null) {
             logger.warn("Player {} has no chatId, cannot send sabotage menu", player.getUserId());
-            return;
+            return null;
         }
         
         // Check if there's already an active sabotage
         if (activeSabotage != SabotageType.NONE) {
-            bot.sendTextMessage(player.getChatId(), 
-                    "Саботаж уже активен! Дождитесь его устранения или истечения времени.");
-            return;
+            return CallbackReply.toast("Саботаж уже активен! Дождитесь его устранения или истечения времени.");
         }
         
         // Instead of sending a menu message, just update the player's keyboard with sabotage options
-        sendSabotageMenu(bot, player);
+        sendSabotageMenu(bot, lobby, player);
         logger.info("Impostor {} opened sabotage menu in game {}", 
                 player.getUserId(), lobby.getLobbyCode());
+        return null;
     }
     
     /**
@@ -1111,7 +1271,7 @@ public class GameActiveState implements GameState {
      * @param bot The bot instance
      * @param player The player to send the menu to
      */
-    private void sendSabotageMenu(AmongUsBot bot, Player player) {
+    private void sendSabotageMenu(AmongUsBot bot, GameLobby lobby, Player player) {
         SendMessage message = new SendMessage();
         message.setChatId(player.getChatId());
         message.setText("Выберите систему для саботажа:");
@@ -1145,6 +1305,10 @@ public class GameActiveState implements GameState {
         Message sentMessage = bot.executeMethod(message);
         if (sentMessage != null) {
             sabotageMenuMessageIds.put(player.getUserId(), sentMessage.getMessageId());
+            if (bot.getMessageLifecycle() != null) {
+                bot.getMessageLifecycle().track(lobby, player.getChatId(), sentMessage.getMessageId(),
+                        MessageLifecycle.Scope.PHASE);
+            }
             logger.debug("Stored sabotage menu message ID {} for player {}", 
                     sentMessage.getMessageId(), player.getUserId());
         }
@@ -1173,15 +1337,7 @@ public class GameActiveState implements GameState {
         }
         
         // Delete the sabotage menu message if we have its ID
-        Integer menuMessageId = sabotageMenuMessageIds.get(player.getUserId());
-        if (menuMessageId != null && player.getChatId() != null) {
-            boolean deleted = bot.deleteMessage(player.getChatId(), menuMessageId);
-            if (deleted) {
-                sabotageMenuMessageIds.remove(player.getUserId());
-                logger.debug("Deleted sabotage menu message {} for player {}", 
-                        menuMessageId, player.getUserId());
-            }
-        }
+        deleteSabotageMenu(bot, player);
         
         String sabotageType = callbackData.split(":")[1];
         
@@ -1253,7 +1409,7 @@ public class GameActiveState implements GameState {
      */
     private void activateReactorSabotage(AmongUsBot bot, GameLobby lobby, Player player) {
         activeSabotage = SabotageType.REACTOR;
-        reactorSabotageStartTime = System.currentTimeMillis();
+        reactorSabotageStartTime = clock.millis();
         
         // Сбрасываем состояние локаций и флаги фотографий
         playerAtReactorLocation1 = null;
@@ -1265,18 +1421,7 @@ public class GameActiveState implements GameState {
                 player.getUserId(), lobby.getLobbyCode());
         
         // Remove the sabotage menu message
-        Integer messageId = sabotageMenuMessageIds.remove(player.getUserId());
-        if (messageId != null && player.getChatId() != null) {
-            try {
-                DeleteMessage deleteMessage = new DeleteMessage();
-                deleteMessage.setChatId(player.getChatId());
-                deleteMessage.setMessageId(messageId);
-                bot.execute(deleteMessage);
-            } catch (Exception e) {
-                logger.debug("Could not delete sabotage menu message for player {}: {}", 
-                        player.getUserId(), e.getMessage());
-            }
-        }
+        deleteSabotageMenu(bot, player);
         
         // Notify all players about the reactor sabotage and provide fix buttons
         for (Player p : lobby.getPlayerList()) {
@@ -1314,7 +1459,16 @@ public class GameActiveState implements GameState {
         }
         
         // Start reactor meltdown timer using ScheduledExecutorService
-        reactorMeltdownTimer = scheduler.schedule(() -> {
+        armReactorMeltdownTimer(bot, lobby, REACTOR_MELTDOWN_TIME_MS);
+    }
+    
+    /**
+     * Schedules the reactor meltdown; impostors win if the sabotage is still active when it fires.
+     * 
+     * @param delayMillis Time left until the meltdown
+     */
+    private void armReactorMeltdownTimer(AmongUsBot bot, GameLobby lobby, long delayMillis) {
+        reactorMeltdownTimer = lobby.getContext().schedule(scheduler, () -> {
             try {
                 logger.info("Reactor meltdown timer expired in game {}, checking if sabotage is still active", lobby.getLobbyCode());
                 
@@ -1323,12 +1477,8 @@ public class GameActiveState implements GameState {
                     logger.info("Reactor sabotage not fixed in time, impostors win in game {}", lobby.getLobbyCode());
                     
                     // Notify all players that impostors won due to reactor meltdown
-                    for (Player p : lobby.getPlayerList()) {
-                        if (p.getChatId() != null) {
-                            bot.sendTextMessage(p.getChatId(), 
-                                    "💥 Реактор взорвался! Предатели победили!");
-                        }
-                    }
+                    MessageBroadcaster.announce(bot, lobby, lobby.getPlayerList(),
+                            "💥 Реактор взорвался! Предатели победили!");
                     
                     // Transition to game over state
                     GameOverState gameOverState = new GameOverState("Предатели", "Реактор взорвался!");
@@ -1338,7 +1488,7 @@ public class GameActiveState implements GameState {
             } catch (Exception e) {
                 logger.error("Error in reactor meltdown timer for game {}", lobby.getLobbyCode(), e);
             }
-        }, REACTOR_MELTDOWN_TIME_MS, java.util.concurrent.TimeUnit.MILLISECONDS);
+        }, delayMillis, java.util.concurrent.TimeUnit.MILLISECONDS);
     }
     
     /**
@@ -1347,27 +1497,26 @@ public class GameActiveState implements GameState {
      * @param bot The bot instance
      * @param lobby The game lobby
      * @param player The player
+     * @return The reply to a rejected scan, or null
      */
-    private void handleScanAction(AmongUsBot bot, GameLobby lobby, Player player) {
+    private CallbackReply handleScanAction(AmongUsBot bot, GameLobby lobby, Player player) {
         if (player.getChatId() == null) {
             logger.warn("Player {} has no chatId, cannot send scan results", player.getUserId());
-            return;
+            return null;
         }
         
         // Check if lights are out
         if (activeSabotage == SabotageType.LIGHTS && !player.isImpostor()) {
-            bot.sendTextMessage(player.getChatId(), "Сканер не работает при отключенном свете!");
-            return;
+            return CallbackReply.toast("Сканер не работает при отключенном свете!");
         }
         
         // Check if scan is on cooldown
         if (isScanOnCooldown(player.getUserId())) {
             int remainingSeconds = getRemainingCooldownSeconds(player.getUserId());
-            bot.sendTextMessage(player.getChatId(), 
-                    "Сканер всё ещё перезаряжается. Подождите " + remainingSeconds + " секунд перед следующим сканированием.");
             logger.debug("Player {} attempted to use scanner while on cooldown in game {}", 
                     player.getUserId(), lobby.getLobbyCode());
-            return;
+            return CallbackReply.toast("Сканер всё ещё перезаряжается. Подождите " + remainingSeconds 
+                    + " секунд перед следующим сканированием.");
         }
         
         // Get some game statistics
@@ -1405,10 +1554,11 @@ public class GameActiveState implements GameState {
                 player.getUserId(), lobby.getLobbyCode());
         
         // Update the last scan time
-        lastScanTimeByPlayer.put(player.getUserId(), System.currentTimeMillis());
+        lastScanTimeByPlayer.put(player.getUserId(), clock.millis());
         
         // Update the player's keyboard to reflect the new cooldown status
         updatePlayerActionKeyboard(bot, lobby, player);
+        return null;
     }
     
     /**
@@ -1417,17 +1567,17 @@ public class GameActiveState implements GameState {
      * @param bot The bot instance
      * @param lobby The game lobby
      * @param player The player
+     * @return The reply if the check cannot run, or null
      */
-    private void handleCheckAction(AmongUsBot bot, GameLobby lobby, Player player) {
+    private CallbackReply handleCheckAction(AmongUsBot bot, GameLobby lobby, Player player) {
         if (player.getChatId() == null) {
             logger.warn("Player {} has no chatId, cannot send check results", player.getUserId());
-            return;
+            return null;
         }
         
         // Для предателей перенаправляем на меню саботажа
         if (player.isImpostor()) {
-            handleSabotageMenuAction(bot, lobby, player);
-            return;
+            return handleSabotageMenuAction(bot, lobby, player);
         }
         
         // Для членов экипажа предоставляем полезную информацию о заданиях
@@ -1458,6 +1608,7 @@ public class GameActiveState implements GameState {
         bot.executeMethod(sendMessage);
         logger.info("Player {} performed system check in game {}", 
                 player.getUserId(), lobby.getLobbyCode());
+        return null;
     }
     
     /**
@@ -1681,11 +1832,45 @@ public class GameActiveState implements GameState {
         message.setText("Ваши задания обновлены. Прогресс: " + progressPercent + "%");
         message.setReplyMarkup(createActionKeyboard(lobby, player));
         
-        bot.executeMethod(message);
+        sendActionKeyboard(bot, lobby, player, message);
         logger.debug("Updated action keyboard for player {} in game {}", 
                 player.getUserId(), lobby.getLobbyCode());
     }
     
+    /**
+     * Sends a fresh action keyboard and deletes the one it replaces, so the
+     * chat holds a single set of live buttons.
+     */
+    private void sendActionKeyboard(AmongUsBot bot, GameLobby lobby, Player player, SendMessage message) {
+        Message sent = bot.executeMethod(message);
+        MessageLifecycle lifecycle = bot.getMessageLifecycle();
+        if (sent == null || lifecycle == null) {
+            return;
+        }
+        Integer previous = actionMessageIds.put(player.getUserId(), sent.getMessageId());
+        if (previous != null) {
+            lifecycle.delete(player.getChatId(), previous);
+        }
+        lifecycle.track(lobby, player.getChatId(), sent.getMessageId(), MessageLifecycle.Scope.PHASE);
+    }
+    
+    /**
+     * Deletes the player's open sabotage menu, if any.
+     */
+    private void deleteSabotageMenu(AmongUsBot bot, Player player) {
+        Integer menuMessageId = sabotageMenuMessageIds.remove(player.getUserId());
+        if (menuMessageId == null || player.getChatId() == null) {
+            return;
+        }
+        MessageLifecycle lifecycle = bot.getMessageLifecycle();
+        if (lifecycle != null) {
+            lifecycle.delete(player.getChatId(), menuMessageId);
+        } else if (bot.deleteMessage(player.getChatId(), menuMessageId)) {
+            logger.debug("Deleted sabotage menu message {} for player {}", 
+                    menuMessageId, player.getUserId());
+        }
+    }
+    
     /**
      * Checks win conditions and updates game state if needed.
      * 
@@ -1856,7 +2041,7 @@ public class GameActiveState implements GameState {
             return false;
         }
         
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.millis();
         long timeSinceLastKill = currentTime - lastKillTime;
         long killCooldownMs = lobby.getSettings().getKillCooldown() * 1000L;
         
@@ -1876,7 +2061,7 @@ public class GameActiveState implements GameState {
             return 0;
         }
         
-        long currentTime = System.currentTimeMillis();
+        long currentTime = clock.millis();
         long timeSinceLastKill = currentTime - lastKillTime;
         long killCooldownMs = lobby.getSettings().getKillCooldown() * 1000L;
         
@@ -1893,17 +2078,13 @@ public class GameActiveState implements GameState {
      * @param bot The bot instance
      * @param lobby The game lobby
      * @param player The player
+     * @return The cooldown status, or null
      */
-    private void handleKillCooldownAction(AmongUsBot bot, GameLobby lobby, Player player) {
+    private CallbackReply handleKillCooldownAction(AmongUsBot bot, GameLobby lobby, Player player) {
         if (!player.isImpostor()) {
             logger.warn("Non-impostor player {} attempted to check kill cooldown in game {}", 
                     player.getUserId(), lobby.getLobbyCode());
-            return;
-        }
-        
-        if (player.getChatId() == null) {
-            logger.warn("Player {} has no chatId, cannot send cooldown message", player.getUserId());
-            return;
+            return null;
         }
         
         int remainingCooldown = getKillCooldownRemaining(player.getUserId(), lobby);
@@ -1918,9 +2099,9 @@ public class GameActiveState implements GameState {
             updatePlayerActionKeyboard(bot, lobby, player);
         }
         
-        bot.sendTextMessage(player.getChatId(), message);
         logger.debug("Sent kill cooldown status to player {} in game {}: {} seconds remaining", 
                 player.getUserId(), lobby.getLobbyCode(), remainingCooldown);
+        return CallbackReply.toast(message);
     }
     
     /**
@@ -2020,15 +2201,7 @@ public class GameActiveState implements GameState {
      */
     private void handleBackToMainAction(AmongUsBot bot, GameLobby lobby, Player player) {
         // Delete the sabotage menu message if we have its ID
-        Integer menuMessageId = sabotageMenuMessageIds.get(player.getUserId());
-        if (menuMessageId != null && player.getChatId() != null) {
-            boolean deleted = bot.deleteMessage(player.getChatId(), menuMessageId);
-            if (deleted) {
-                sabotageMenuMessageIds.remove(player.getUserId());
-                logger.debug("Deleted sabotage menu message {} for player {}", 
-                        menuMessageId, player.getUserId());
-            }
-        }
+        deleteSabotageMenu(bot, player);
         
         // Update the player's keyboard
         updatePlayerActionKeyboard(bot, lobby, player);
@@ -2124,8 +2297,9 @@ public class GameActiveState implements GameState {
      * 
      * @param impostorId The impostor's user ID
      * @param taskCount The number of tasks to assign (from lobby settings)
+     * @param random Source of randomness derived from the game seed
      */
-    private void initializeFakeTasksForImpostor(Long impostorId, int taskCount) {
+    private void initializeFakeTasksForImpostor(Long impostorId, int taskCount, Random random) {
         List<String> fakeTasks = Arrays.asList(
             "Сочный насос", "Наклейка", "Разукрашка", "Холст", "Фотограф", 
             "Черепашья меткость", "Спайдер-мен", "Пазл", "Кольцеброс", "Математика", "Стихоплет"
@@ -2133,7 +2307,7 @@ public class GameActiveState implements GameState {
         
         // Create a shuffled copy of the fake tasks list
         List<String> shuffledTasks = new ArrayList<>(fakeTasks);
-        Collections.shuffle(shuffledTasks);
+        Collections.shuffle(shuffledTasks, random);
         
         // Select the correct number of fake tasks based on settings
         int actualTaskCount = Math.min(taskCount, shuffledTasks.size());
@@ -1,18 +1,27 @@
 package com.amongus.bot.game.states;
 
+import com.amongus.bot.analytics.EventColumnStore;
 import com.amongus.bot.core.AmongUsBot;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.replay.ReplayRecorder;
+import com.amongus.bot.game.utils.CallbackReply;
+import com.amongus.bot.game.utils.MessageBroadcaster;
+import com.amongus.bot.game.utils.PhotoAlbum;
+import com.amongus.bot.managers.GameArchive;
+import com.amongus.bot.managers.GroupDashboard;
+import com.amongus.bot.managers.MessageLifecycle;
+import com.amongus.bot.managers.PlayerStatsStore;
+import com.amongus.bot.managers.ReplayStore;
 import com.amongus.bot.models.Player;
 import com.amongus.bot.models.GameEvent;
+import com.amongus.bot.utils.GameUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
-import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
-import org.telegram.telegrambots.meta.api.objects.InputFile;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -41,6 +50,14 @@ public class GameOverState implements GameState {
         this.winReason = winReason;
     }
     
+    String getWinner() {
+        return winner;
+    }
+    
+    String getWinReason() {
+        return winReason;
+    }
+    
     @Override
     public String getStateName() {
         return STATE_NAME;
@@ -50,22 +67,62 @@ public class GameOverState implements GameState {
     public void onEnter(AmongUsBot bot, GameLobby lobby) {
         logger.info("Entered game over state for game {}, winner: {}", lobby.getLobbyCode(), winner);
         
+        // Сохраняем итоги игры в пожизненную статистику игроков (запись на диск идет в фоне)
+        PlayerStatsStore statsStore = bot.getPlayerStatsStore();
+        if (statsStore != null) {
+            statsStore.recordGame(lobby, winner);
+        }
+        
+        // В групповом режиме итоги показываются и на закрепленной панели
+        GroupDashboard dashboard = GroupDashboard.forLobby(bot, lobby);
+        if (dashboard != null) {
+            dashboard.announce(lobby, "🏁 " + winner + " победили! " + winReason);
+        }
+        
+        // Убираем клавиатуры и меню партии одним проходом, итоги остаются в чате
+        MessageLifecycle lifecycle = bot.getMessageLifecycle();
+        if (lifecycle != null) {
+            lifecycle.purge(lobby);
+        }
+        
         // Отправляем краткие результаты игры
-        sendGameSummary(bot, lobby);
+        String summary = sendGameSummary(bot, lobby);
         
         // Отправляем подробный отчет о событиях в игре
-        sendGameReport(bot, lobby);
+        String report = sendGameReport(bot, lobby);
+        
+        // Экспортируем реплей игры: seed, настройки и поток действий игроков
+        ReplayRecorder recorder = lobby.finishReplay();
+        ReplayStore replayStore = bot.getReplayStore();
+        if (recorder != null && replayStore != null) {
+            replayStore.save(recorder.finish(winner, lobby.getSortedGameEvents()));
+        }
+        
+        // Копируем события в колоночное хранилище для аналитики
+        EventColumnStore columnStore = bot.getEventColumnStore();
+        if (columnStore != null) {
+            columnStore.record(lobby, winner);
+        }
+        
+        // Переносим игру в холодный архив и освобождаем историю событий в памяти
+        GameArchive archive = bot.getGameArchive();
+        if (archive != null) {
+            archive.archive(lobby, winner, winReason, summary, report);
+            lobby.clearGameEvents();
+        }
     }
     
     /**
      * Отправляет краткие результаты игры всем игрокам.
+     * 
+     * @return Текст сводки
      */
-    private void sendGameSummary(AmongUsBot bot, GameLobby lobby) {
+    private String sendGameSummary(AmongUsBot bot, GameLobby lobby) {
         StringBuilder message = new StringBuilder();
         message.append("🏁 **ИГРА ОКОНЧЕНА!**\n\n");
         
         // Результат игры
-        String winnerEmoji = winner.equalsIgnoreCase("Crewmates") ? "👨‍🚀" : "🔪";
+        String winnerEmoji = GameUtils.isCrewmateWin(winner) ? "👨‍🚀" : "🔪";
         message.append(winnerEmoji).append(" **").append(winner).append(" ПОБЕДИЛИ!**\n");
         message.append("📋 Причина: ").append(winReason).append("\n\n");
         
@@ -88,6 +145,12 @@ public class GameOverState implements GameState {
             message.append("\n");
         }
         
+        // В групповом режиме сводка отправляется один раз в общий чат
+        if (lobby.isGroupMode()) {
+            bot.sendTextMessage(lobby.getGroupChatId(), message.toString());
+            return message.toString();
+        }
+        
         // Отправляем сводку всем игрокам
         for (Player player : lobby.getPlayerList()) {
             try {
@@ -97,6 +160,7 @@ public class GameOverState implements GameState {
                 logger.error("Failed to send game summary to player {}: {}", player.getUserId(), e.getMessage());
             }
         }
+        return message.toString();
     }
     
     /**
@@ -104,8 +168,9 @@ public class GameOverState implements GameState {
      * 
      * @param bot Бот для отправки сообщений
      * @param lobby Игровое лобби
+     * @return Текст отчета
      */
-    private void sendGameReport(AmongUsBot bot, GameLobby lobby) {
+    private String sendGameReport(AmongUsBot bot, GameLobby lobby) {
         logger.info("Preparing game report for lobby {}", lobby.getLobbyCode());
         
         List<GameEvent> events = lobby.getSortedGameEvents();
@@ -300,7 +365,26 @@ public class GameOverState implements GameState {
         logger.info("Sending game report to {} players in lobby {}", lobby.getPlayerCount(), lobby.getLobbyCode());
         
         // Разбиваем отчет на части по 4096 символов
-        List<String> reportParts = splitMessage(report, 4096);
+        List<String> reportParts = GameUtils.splitMessage(report, 4096);
+        
+        // В групповом режиме отчет один на всех, а кнопка новой игры приходит хосту лично
+        if (lobby.isGroupMode()) {
+            for (String part : reportParts) {
+                bot.sendTextMessage(lobby.getGroupChatId(), part);
+            }
+            Player host = lobby.getPlayer(lobby.getHostId());
+            if (host != null) {
+                SendMessage newGameMessage = new SendMessage();
+                newGameMessage.setChatId(host.getChatId() != null ? host.getChatId() : host.getUserId());
+                newGameMessage.setText("🎮 **Готовы к новой игре?**");
+                newGameMessage.setReplyMarkup(createNewGameKeyboard());
+                bot.executeMethod(newGameMessage);
+            }
+            if (!events.isEmpty()) {
+                sendEventPhotos(bot, lobby, events);
+            }
+            return report;
+        }
         
         for (Player player : lobby.getPlayerList()) {
             try {
@@ -310,11 +394,6 @@ public class GameOverState implements GameState {
                 }
                 logger.info("Sent game report to player {} ({})", player.getUserName(), chatId);
                 
-                // Отправляем фотографии событий, если они есть
-                if (!events.isEmpty()) {
-                    sendEventPhotos(bot, lobby, player, events);
-                }
-                
                 // Добавляем кнопку новой игры только для хоста после отчета
                 if (lobby.isHost(player.getUserId())) {
                     InlineKeyboardMarkup newGameKeyboard = createNewGameKeyboard();
@@ -337,6 +416,12 @@ public class GameOverState implements GameState {
                 }
             }
         }
+        
+        // Фотоотчет идет последним через фоновую очередь, чтобы не задерживать экран итогов
+        if (!events.isEmpty()) {
+            sendEventPhotos(bot, lobby, events);
+        }
+        return report;
     }
     
     /**
@@ -377,61 +462,42 @@ public class GameOverState implements GameState {
     }
     
     /**
-     * Отправляет фотографии событий игроку.
+     * Отправляет фотоотчет игры всем игрокам альбомами до 10 фото.
+     * Альбом собирается один раз на игру и ставится в фоновую очередь
+     * рассылки, поэтому итоги и кнопка новой игры приходят раньше.
      * 
      * @param bot Бот для отправки сообщений
      * @param lobby Игровое лобби
-     * @param player Игрок, которому отправляются фото
      * @param events Список событий
      */
-    private void sendEventPhotos(AmongUsBot bot, GameLobby lobby, Player player, List<GameEvent> events) {
-        List<GameEvent> eventsWithPhotos = new ArrayList<>();
-        
-        // Фильтруем события с фотографиями
-        for (GameEvent event : events) {
-            if (event != null && event.hasPhoto()) {
-                eventsWithPhotos.add(event);
-            }
-        }
-        
-        if (eventsWithPhotos.isEmpty()) {
-            logger.debug("No events with photos found for player {} in lobby {}", 
-                    player.getUserId(), lobby.getLobbyCode());
+    private void sendEventPhotos(AmongUsBot bot, GameLobby lobby, List<GameEvent> events) {
+        PhotoAlbum album = PhotoAlbum.of(events);
+        if (album.isEmpty()) {
+            logger.debug("No events with photos found in lobby {}", lobby.getLobbyCode());
             return;
         }
         
-        // Отправляем сообщение о наличии фотографий
-        Long chatId = player.getChatId();
-        if (chatId == null) {
-            chatId = player.getUserId();
+        List<Long> chatIds = new ArrayList<>();
+        if (lobby.isGroupMode()) {
+            chatIds.add(lobby.getGroupChatId());
+        } else {
+            for (Player player : lobby.getPlayerList()) {
+                chatIds.add(player.getChatId() != null ? player.getChatId() : player.getUserId());
+            }
         }
         
-        try {
-            bot.sendTextMessage(chatId, "Фотоотчет игры:");
-            logger.info("Sending {} photos to player {} in lobby {}", 
-                    eventsWithPhotos.size(), player.getUserName(), lobby.getLobbyCode());
-            
-            // Отправляем каждую фотографию с подписью
-            for (GameEvent event : eventsWithPhotos) {
-                try {
-                    SendPhoto sendPhoto = new SendPhoto();
-                    sendPhoto.setChatId(chatId);
-                    sendPhoto.setPhoto(new InputFile(event.getPhotoFileId()));
-                    sendPhoto.setCaption(event.getFormattedDescription());
-                    
-                    bot.execute(sendPhoto);
-                    
-                    // Делаем небольшую задержку, чтобы не превысить лимиты Telegram API
-                    Thread.sleep(100);
-                } catch (Exception e) {
-                    logger.error("Failed to send photo for event {}: {}", 
-                            event.getFormattedDescription(), e.getMessage());
+        String lobbyCode = lobby.getLobbyCode();
+        logger.info("Queueing {} photos in {} albums for {} players in lobby {}", 
+                album.getPhotoCount(), album.getGroups().size(), chatIds.size(), lobbyCode);
+        MessageBroadcaster.queueBulk("photo report of lobby " + lobbyCode, () -> {
+            for (Long chatId : chatIds) {
+                bot.sendTextMessage(chatId, "Фотоотчет игры:");
+                int failed = album.sendTo(bot, chatId);
+                if (failed > 0) {
+                    logger.error("Failed to send {} photo albums to chat {} in lobby {}", failed, chatId, lobbyCode);
                 }
             }
-        } catch (Exception e) {
-            logger.error("Failed to send photo report to player {}: {}", 
-                    player.getUserId(), e.getMessage());
-        }
+        });
     }
     
     @Override
@@ -443,7 +509,7 @@ public class GameOverState implements GameState {
     }
     
     @Override
-    public GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update) {
+    public GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update, CallbackReply.Holder reply) {
         if (update.hasCallbackQuery()) {
             String callbackData = update.getCallbackQuery().getData();
             Long userId = update.getCallbackQuery().getFrom().getId();
@@ -452,12 +518,9 @@ public class GameOverState implements GameState {
                 // Create a new game with the same players
                 logger.info("Starting a new game from game {}", lobby.getLobbyCode());
                 
-                // Reset all players
+                // Reset all players and start from a cleared lobby
+                lobby.prepareRematch();
                 for (Player player : lobby.getPlayerList()) {
-                    player.reset();
-                    logger.debug("Reset player {} state for new game in lobby {}", 
-                            player.getUserId(), lobby.getLobbyCode());
-                    
                     if (player.getChatId() != null) {
                         bot.sendTextMessage(player.getChatId(), 
                                 "🎮 Новая игра создана! Возвращаемся в лобби...");
@@ -499,17 +562,5 @@ public class GameOverState implements GameState {
         keyboardMarkup.setKeyboard(keyboard);
         return keyboardMarkup;
     }
-    
-    /**
-     * Разбивает длинное сообщение на части по maxLength символов.
-     */
-    private List<String> splitMessage(String message, int maxLength) {
-        List<String> parts = new ArrayList<>();
-        int length = message.length();
-        for (int i = 0; i < length; i += maxLength) {
-            parts.add(message.substring(i, Math.min(length, i + maxLength)));
-        }
-        return parts;
-    }
 }
 // COMPLETED: GameOverState class 
\ No newline at end of file
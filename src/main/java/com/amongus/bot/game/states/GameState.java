@@ -2,8 +2,13 @@ package com.amongus.bot.game.states;
 
 import com.amongus.bot.core.AmongUsBot;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.utils.CallbackReply;
 import org.telegram.telegrambots.meta.api.objects.Update;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Interface representing a state in the Among Us game.
  */
@@ -38,9 +43,23 @@ public interface GameState {
      * @param bot The bot instance
      * @param lobby The game lobby
      * @param update The Telegram update
+     * @param reply Receives the short answer to the update's button press, if any
+     * @return The next state to transition to, or null to stay in this state
+     */
+    GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update, CallbackReply.Holder reply);
+    
+    /**
+     * Handles an update that is not answered with a {@link CallbackReply},
+     * like a poll answer or a command.
+     * 
+     * @param bot The bot instance
+     * @param lobby The game lobby
+     * @param update The Telegram update
      * @return The next state to transition to, or null to stay in this state
      */
-    GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update);
+    default GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update) {
+        return handleUpdate(bot, lobby, update, new CallbackReply.Holder());
+    }
     
     /**
      * Checks if a specific user can perform an action in this state.
@@ -51,4 +70,45 @@ public interface GameState {
      * @return True if the action is allowed
      */
     boolean canPerformAction(GameLobby lobby, Long userId, String action);
-} 
\ No newline at end of file
+    
+    /**
+     * Writes the fields needed to resume this state after a restart.
+     * Times are written as absolute epoch milliseconds so a record stays valid
+     * however long it waits on disk. States without such fields write nothing.
+     * 
+     * @param out The snapshot record
+     * @throws IOException If writing fails
+     */
+    default void writeSnapshot(DataOutput out) throws IOException {
+    }
+    
+    /**
+     * Reads the fields written by {@link #writeSnapshot(DataOutput)}.
+     * 
+     * @param in The snapshot record
+     * @throws IOException If the record is malformed
+     */
+    default void readSnapshot(DataInput in) throws IOException {
+    }
+    
+    /**
+     * Called instead of {@link #onEnter} when a lobby is restored from a snapshot.
+     * Re-registers the state and re-arms its timers with the time they had left.
+     * Must not send messages, since it runs before the bot starts serving.
+     * 
+     * @param bot The bot instance
+     * @param lobby The restored lobby
+     */
+    default void onRestore(AmongUsBot bot, GameLobby lobby) {
+    }
+    
+    /**
+     * Re-sends each player's control message after a restore, since the
+     * keyboards sent before the restart may be stale. Runs in the background.
+     * 
+     * @param bot The bot instance
+     * @param lobby The restored lobby
+     */
+    default void resendControls(AmongUsBot bot, GameLobby lobby) {
+    }
+}
@@ -1,19 +1,32 @@
 package com.amongus.bot.game.states;
 
 import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.game.GameConstants;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyContext;
+import com.amongus.bot.game.lobby.LobbySnapshot;
+import com.amongus.bot.game.utils.CallbackReply;
+import com.amongus.bot.game.utils.MessageBroadcaster;
+import com.amongus.bot.managers.GroupDashboard;
 import com.amongus.bot.models.Player;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Game state for when players are in the lobby waiting for the game to start.
@@ -23,6 +36,15 @@ public class LobbyState implements GameState {
     
     private static final String STATE_NAME = "LOBBY";
     
+    // Status message of each player, edited on roster changes
+    private static final String STATUS_MESSAGES = "lobby";
+    
+    // Shared thread pool for roster updates of all lobbies
+    private static final ScheduledExecutorService scheduler = LobbyContext.newScheduler(1, "AmongUs-Roster");
+    
+    private final Object rosterLock = new Object();
+    private ScheduledFuture<?> pendingRoster; // guarded by rosterLock
+    
     @Override
     public String getStateName() {
         return STATE_NAME;
@@ -32,40 +54,179 @@ public class LobbyState implements GameState {
     public void onEnter(AmongUsBot bot, GameLobby lobby) {
         logger.debug("LobbyState.onEnter: Entering lobby state for game {}", lobby.getLobbyCode());
         
-        // Send a welcome message to all players
-        String message = buildLobbyStatusMessage(lobby);
+        // In a group chat the pinned dashboard replaces the per-player status
+        GroupDashboard dashboard = GroupDashboard.forLobby(bot, lobby);
+        if (dashboard != null) {
+            dashboard.setDeadline(lobby, null, 0);
+            logger.info("Entered lobby state for game {} in group {}", lobby.getLobbyCode(), lobby.getGroupChatId());
+            return;
+        }
+        
+        // Send a fresh status message to all players
+        sendStatus(bot, lobby, false);
         
-        // Send to all players in the lobby
+        logger.info("Entered lobby state for game {}", lobby.getLobbyCode());
+    }
+    
+    /**
+     * Reports a join or leave. Changes within the debounce window are shown
+     * together, as an edit of each player's status message, so a burst of N
+     * joins costs about N edits instead of N² messages.
+     * 
+     * @param bot The bot instance
+     * @param lobby The lobby whose roster changed
+     */
+    public void rosterChanged(AmongUsBot bot, GameLobby lobby) {
+        GroupDashboard dashboard = GroupDashboard.forLobby(bot, lobby);
+        if (dashboard != null) {
+            dashboard.refresh(lobby);
+            return;
+        }
+        LobbyContext context = lobby.getContext();
+        if (context == null) {
+            sendStatus(bot, lobby, true);
+            return;
+        }
+        synchronized (rosterLock) {
+            if (pendingRoster != null) {
+                return;
+            }
+            pendingRoster = context.schedule(scheduler, () -> flushRoster(bot, lobby),
+                    GameConstants.ROSTER_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Makes a message the player's status message, to be edited on the next
+     * roster change instead of sending another one.
+     * 
+     * @param lobby The lobby
+     * @param userId The player
+     * @param messageId The message in the player's private chat
+     */
+    public void trackStatusMessage(GameLobby lobby, Long userId, Integer messageId) {
+        LobbyContext context = lobby.getContext();
+        if (context != null && messageId != null) {
+            context.trackedMessages(STATUS_MESSAGES).put(userId, messageId);
+        }
+    }
+    
+    private void flushRoster(AmongUsBot bot, GameLobby lobby) {
+        synchronized (rosterLock) {
+            pendingRoster = null;
+        }
+        if (lobby.getGameState() != this) {
+            // The game started or the lobby closed within the window
+            return;
+        }
+        try {
+            sendStatus(bot, lobby, true);
+        } catch (Exception e) {
+            logger.error("Error updating roster of lobby {}: {}", lobby.getLobbyCode(), e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Shows the lobby status to every player.
+     * 
+     * @param edit Whether tracked status messages are edited; otherwise every
+     *             player gets a new one
+     */
+    private void sendStatus(AmongUsBot bot, GameLobby lobby, boolean edit) {
+        LobbySnapshot snapshot = lobby.getSnapshot();
+        String message = buildLobbyStatusMessage(snapshot);
+        LobbyContext context = lobby.getContext();
+        Map<Long, Integer> statusIds = context != null ? context.trackedMessages(STATUS_MESSAGES) : null;
+        
+        List<Player> edited = new ArrayList<>();
+        List<EditMessageText> edits = new ArrayList<>();
+        List<Player> recipients = new ArrayList<>();
         for (Player player : lobby.getPlayerList()) {
             // Skip players without chatId
             if (player.getChatId() == null) {
                 logger.warn("Player {} has no chatId, skipping message", player.getUserId());
                 continue;
             }
-            
+            Integer messageId = edit && statusIds != null ? statusIds.get(player.getUserId()) : null;
+            if (messageId == null) {
+                recipients.add(player);
+                continue;
+            }
+            EditMessageText editMessage = new EditMessageText();
+            editMessage.setChatId(player.getChatId());
+            editMessage.setMessageId(messageId);
+            editMessage.setText(message);
+            editMessage.setParseMode("Markdown");
+            editMessage.setReplyMarkup(createLobbyKeyboard(snapshot, snapshot.isHost(player.getUserId())));
+            edited.add(player);
+            edits.add(editMessage);
+        }
+        
+        // A message that can no longer be edited is replaced by a new one
+        List<Serializable> editResults = MessageBroadcaster.executeAll(bot, edits);
+        int failedEdits = 0;
+        for (int i = 0; i < editResults.size(); i++) {
+            if (editResults.get(i) == null) {
+                recipients.add(edited.get(i));
+                failedEdits++;
+            }
+        }
+        
+        List<SendMessage> sends = new ArrayList<>();
+        for (Player player : recipients) {
             SendMessage sendMessage = new SendMessage();
             sendMessage.setChatId(player.getChatId());
             sendMessage.setText(message);
             sendMessage.setParseMode("Markdown");
             
             // Show different keyboards based on whether player is host
-            boolean isHost = lobby.isHost(player.getUserId());
-            sendMessage.setReplyMarkup(createLobbyKeyboard(lobby, isHost));
-            
-            bot.executeMethod(sendMessage);
-            logger.debug("Sent lobby status to player {} ({})", player.getUserName(), player.getUserId());
+            boolean isHost = snapshot.isHost(player.getUserId());
+            sendMessage.setReplyMarkup(createLobbyKeyboard(snapshot, isHost));
+            sends.add(sendMessage);
         }
-        
-        logger.info("Entered lobby state for game {}", lobby.getLobbyCode());
+        List<Message> sent = MessageBroadcaster.executeAll(bot, sends);
+        for (int i = 0; i < sent.size(); i++) {
+            if (sent.get(i) != null && statusIds != null) {
+                statusIds.put(recipients.get(i).getUserId(), sent.get(i).getMessageId());
+            }
+        }
+        logger.debug("Lobby {} status: {} edited, {} sent", lobby.getLobbyCode(), 
+                edits.size() - failedEdits, sends.size());
+    }
+    
+    /**
+     * Re-sends the lobby status, whose keyboard holds the host controls.
+     */
+    @Override
+    public void resendControls(AmongUsBot bot, GameLobby lobby) {
+        onEnter(bot, lobby);
     }
     
     @Override
     public void onExit(AmongUsBot bot, GameLobby lobby) {
         logger.debug("LobbyState.onExit: Exiting lobby state for game {}", lobby.getLobbyCode());
         
+        // Roster changes still waiting are moot, and the next lobby gets fresh status messages
+        synchronized (rosterLock) {
+            if (pendingRoster != null) {
+                pendingRoster.cancel(false);
+                pendingRoster = null;
+            }
+        }
+        if (lobby.getContext() != null) {
+            lobby.getContext().trackedMessages(STATUS_MESSAGES).clear();
+        }
+        
         // Notify all players that the game is starting
         String message = "🎮 Игра начинается! Назначаем роли...";
         
+        GroupDashboard dashboard = GroupDashboard.forLobby(bot, lobby);
+        if (dashboard != null) {
+            dashboard.announce(lobby, "🎮 Игра начинается! Роли и задания отправлены в личные сообщения.");
+            logger.info("Exited lobby state for game {}", lobby.getLobbyCode());
+            return;
+        }
+        
         for (Player player : lobby.getPlayerList()) {
             if (player.getChatId() != null) {
                 bot.sendTextMessage(player.getChatId(), message);
@@ -78,7 +239,7 @@ public class LobbyState implements GameState {
     }
     
     @Override
-    public GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update) {
+    public GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update, CallbackReply.Holder reply) {
         // If update is null, it might be a direct call to start the game
         if (update == null) {
             logger.debug("LobbyState.handleUpdate: Received null update, starting game for lobby {}", 
@@ -119,7 +280,7 @@ public class LobbyState implements GameState {
                         bot.sendTextMessage(chatId, "Ошибка при открытии настроек. Попробуйте использовать команду /settings.");
                     }
                 } else {
-                    bot.sendTextMessage(chatId, "Только хост может изменять настройки игры.");
+                    reply.set(CallbackReply.toast("Только хост может изменять настройки игры."));
                 }
             } else if (callbackData.startsWith("settings_")) {
                 // Handle settings-related callbacks by delegating to SettingsHandler
@@ -137,11 +298,11 @@ public class LobbyState implements GameState {
                 } else {
                     logger.warn("Non-host user {} attempted to use settings callback {} in lobby {}", 
                             userId, callbackData, lobby.getLobbyCode());
-                    bot.sendTextMessage(chatId, "Только хост может изменять настройки игры.");
+                    reply.set(CallbackReply.toast("Только хост может изменять настройки игры."));
                 }
             } else if (callbackData.equals("view_players")) {
                 // Handle view players button
-                String playersMessage = buildPlayersListMessage(lobby);
+                String playersMessage = buildPlayersListMessage(lobby.getSnapshot());
                 bot.sendTextMessage(chatId, playersMessage);
             }
         }
@@ -164,10 +325,10 @@ public class LobbyState implements GameState {
     /**
      * Builds a status message showing information about the lobby.
      * 
-     * @param lobby The game lobby
+     * @param lobby Snapshot of the game lobby
      * @return A formatted message with lobby information
      */
-    private String buildLobbyStatusMessage(GameLobby lobby) {
+    private String buildLobbyStatusMessage(LobbySnapshot lobby) {
         logger.debug("Building lobby status message for lobby {}", lobby.getLobbyCode());
         
         StringBuilder message = new StringBuilder();
@@ -176,8 +337,8 @@ public class LobbyState implements GameState {
         
         message.append("*Игроки (").append(lobby.getPlayerCount()).append("):*\n");
         
-        for (Player player : lobby.getPlayerList()) {
-            String hostMark = lobby.isHost(player.getUserId()) ? " 👑" : "";
+        for (LobbySnapshot.PlayerView player : lobby.getPlayers()) {
+            String hostMark = player.isHost() ? " 👑" : "";
             // Escape markdown characters in usernames
             String escapedUserName = escapeMarkdown(player.getUserName());
             message.append("- ").append(escapedUserName).append(hostMark).append("\n");
@@ -192,11 +353,11 @@ public class LobbyState implements GameState {
     /**
      * Creates an inline keyboard for players in the lobby.
      * 
-     * @param lobby The game lobby
+     * @param lobby Snapshot of the game lobby
      * @param isHost Whether the player is the host
      * @return An inline keyboard markup
      */
-    private InlineKeyboardMarkup createLobbyKeyboard(GameLobby lobby, boolean isHost) {
+    private InlineKeyboardMarkup createLobbyKeyboard(LobbySnapshot lobby, boolean isHost) {
         logger.debug("Creating lobby keyboard for lobby {}, isHost: {}", lobby.getLobbyCode(), isHost);
         
         InlineKeyboardMarkup keyboardMarkup = new InlineKeyboardMarkup();
@@ -250,15 +411,15 @@ public class LobbyState implements GameState {
     /**
      * Builds a message with the list of players in the lobby.
      * 
-     * @param lobby The game lobby
+     * @param lobby Snapshot of the game lobby
      * @return A formatted message with players list
      */
-    private String buildPlayersListMessage(GameLobby lobby) {
+    private String buildPlayersListMessage(LobbySnapshot lobby) {
         StringBuilder message = new StringBuilder();
         message.append("👥 *Игроки в лобби:*\n\n");
         
-        for (Player player : lobby.getPlayerList()) {
-            String hostMark = lobby.isHost(player.getUserId()) ? " 👑" : "";
+        for (LobbySnapshot.PlayerView player : lobby.getPlayers()) {
+            String hostMark = player.isHost() ? " 👑" : "";
             // Escape markdown characters in usernames
             String escapedUserName = escapeMarkdown(player.getUserName());
             message.append("• ").append(escapedUserName).append(hostMark).append("\n");
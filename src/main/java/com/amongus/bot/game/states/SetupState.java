@@ -1,7 +1,9 @@
 package com.amongus.bot.game.states;
 
 import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.game.GameConstants;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyContext;
 import com.amongus.bot.game.lobby.LobbySettings;
 import com.amongus.bot.game.roles.Crewmate;
 import com.amongus.bot.game.roles.Impostor;
@@ -9,6 +11,9 @@ import com.amongus.bot.game.roles.Role;
 import com.amongus.bot.game.tasks.SimpleTask;
 import com.amongus.bot.game.tasks.Task;
 import com.amongus.bot.game.tasks.TaskDifficulty;
+import com.amongus.bot.game.utils.CallbackReply;
+import com.amongus.bot.managers.GroupDashboard;
+import com.amongus.bot.managers.MessageLifecycle;
 import com.amongus.bot.models.Player;
 
 import org.slf4j.Logger;
@@ -19,10 +24,11 @@ import org.telegram.telegrambots.meta.api.objects.Update;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -32,8 +38,24 @@ public class SetupState implements GameState {
     private static final Logger logger = LoggerFactory.getLogger(SetupState.class);
     
     private static final String STATE_NAME = "SETUP";
-    private final Random random = new Random();
-    private static final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+    private static final ScheduledExecutorService scheduler = LobbyContext.newScheduler(2, "AmongUs-Setup");
+    
+    // Seed to use instead of a random one, when re-running a recorded game
+    private final Long fixedSeed;
+    
+    public SetupState() {
+        this(null);
+    }
+    
+    /**
+     * Creates a setup state that assigns roles and tasks from a given seed,
+     * reproducing a recorded game's assignment.
+     * 
+     * @param fixedSeed The seed, or null for a random one
+     */
+    public SetupState(Long fixedSeed) {
+        this.fixedSeed = fixedSeed;
+    }
     
     @Override
     public String getStateName() {
@@ -47,17 +69,28 @@ public class SetupState implements GameState {
         // Ensure settings are appropriate for player count
         adjustSettingsForPlayerCount(lobby);
         
+        // Draw and record the seed first so the assignment can be replayed exactly
+        long seed = fixedSeed != null ? fixedSeed : ThreadLocalRandom.current().nextLong();
+        lobby.setGameSeed(seed);
+        lobby.startReplay();
+        Random random = new Random(seed);
+        
         // Assign roles
         logger.debug("Assigning roles for players in lobby {}", lobby.getLobbyCode());
-        assignRoles(lobby);
+        assignRoles(lobby, random);
         
         // Assign tasks
         logger.debug("Assigning tasks for players in lobby {}", lobby.getLobbyCode());
-        assignTasks(lobby);
+        assignTasks(lobby, random);
         
         // Send initial information to each player
         logger.debug("Sending initial game information to players in lobby {}", lobby.getLobbyCode());
         sendInitialInformation(bot, lobby);
+        
+        GroupDashboard dashboard = GroupDashboard.forLobby(bot, lobby);
+        if (dashboard != null) {
+            dashboard.refresh(lobby);
+        }
     }
     
     @Override
@@ -65,8 +98,29 @@ public class SetupState implements GameState {
         logger.info("Exited setup state for game {}", lobby.getLobbyCode());
     }
     
+    /**
+     * Setup only lasts a couple of seconds, so a restart in the middle of it
+     * finishes the step that was cut off: with roles assigned the game starts,
+     * otherwise the players are sent back to the lobby.
+     */
+    @Override
+    public void resendControls(AmongUsBot bot, GameLobby lobby) {
+        boolean rolesAssigned = true;
+        for (Player player : lobby.getPlayerList()) {
+            if (player.getRole() == null) {
+                rolesAssigned = false;
+                break;
+            }
+        }
+        
+        GameState nextState = rolesAssigned ? new GameActiveState() : new LobbyState();
+        logger.info("Resuming interrupted setup of lobby {} in {}", lobby.getLobbyCode(), nextState.getStateName());
+        lobby.setGameState(nextState);
+        nextState.onEnter(bot, lobby);
+    }
+    
     @Override
-    public GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update) {
+    public GameState handleUpdate(AmongUsBot bot, GameLobby lobby, Update update, CallbackReply.Holder reply) {
         // In this state, we are just waiting for all players to view their roles
         // Then we automatically transition to the game state
         logger.info("Setup complete, transitioning to GameActiveState for lobby {}", lobby.getLobbyCode());
@@ -94,9 +148,10 @@ public class SetupState implements GameState {
      * Assigns roles (Crewmate or Impostor) to all players.
      * 
      * @param lobby The game lobby
+     * @param random The seeded source of randomness for this game
      */
-    private void assignRoles(GameLobby lobby) {
-        List<Player> players = lobby.getPlayerList();
+    void assignRoles(GameLobby lobby, Random random) {
+        List<Player> players = playersInStableOrder(lobby);
         int playerCount = players.size();
         
         // Get impostor count from lobby settings
@@ -106,7 +161,7 @@ public class SetupState implements GameState {
                 lobby.getLobbyCode(), impostorCount, playerCount - impostorCount);
         
         // Shuffle players to randomize role assignment
-        Collections.shuffle(players);
+        Collections.shuffle(players, random);
         
         // Assign roles
         for (int i = 0; i < playerCount; i++) {
@@ -126,6 +181,16 @@ public class SetupState implements GameState {
         }
     }
     
+    /**
+     * Lists players in a stable order, since the player map iterates in hash
+     * order and the same seed must give the same assignment.
+     */
+    private List<Player> playersInStableOrder(GameLobby lobby) {
+        List<Player> players = lobby.getPlayerList();
+        players.sort(Comparator.comparing(Player::getUserId));
+        return players;
+    }
+    
     /**
      * Calculates the number of impostors based on player count.
      * 
@@ -147,8 +212,9 @@ public class SetupState implements GameState {
      * For impostors, tasks are only for disguise and don't count toward crew victory.
      * 
      * @param lobby The game lobby
+     * @param random The seeded source of randomness for this game
      */
-    private void assignTasks(GameLobby lobby) {
+    void assignTasks(GameLobby lobby, Random random) {
         // In a full implementation, we would have a database of tasks
         // For now, we'll create some sample tasks
         List<Task> availableTasks = createSampleTasks();
@@ -156,12 +222,12 @@ public class SetupState implements GameState {
         // Get tasks per player from settings
         int tasksPerPlayer = lobby.getSettings().getTasksPerPlayer();
         
-        for (Player player : lobby.getPlayerList()) {
+        for (Player player : playersInStableOrder(lobby)) {
             if (player.getRole() != null) {
                 List<Task> playerTasks = new ArrayList<>();
                 
                 // Assign random tasks to the player (both crewmates and impostors)
-                Collections.shuffle(availableTasks);
+                Collections.shuffle(availableTasks, random);
                 for (int i = 0; i < Math.min(tasksPerPlayer, availableTasks.size()); i++) {
                     // Create a unique copy of the task for this player
                     Task taskCopy = availableTasks.get(i).duplicate();
@@ -269,10 +335,16 @@ public class SetupState implements GameState {
                 logger.debug("Scheduling deletion of role message {} for player {} in 10 seconds", 
                         messageId, player.getUserId());
                 
-                scheduler.schedule(() -> {
-                    bot.deleteMessage(chatId, messageId);
-                    logger.debug("Deleted role message {} for player {}", messageId, player.getUserId());
-                }, 10, TimeUnit.SECONDS);
+                MessageLifecycle lifecycle = bot.getMessageLifecycle();
+                if (lifecycle != null) {
+                    // Deleted with the batch of its bucket
+                    lifecycle.expire(chatId, messageId, GameConstants.ROLE_MESSAGE_TTL_MILLIS);
+                } else {
+                    lobby.getContext().schedule(scheduler, () -> {
+                        bot.deleteMessage(chatId, messageId);
+                        logger.debug("Deleted role message {} for player {}", messageId, player.getUserId());
+                    }, GameConstants.ROLE_MESSAGE_TTL_MILLIS, TimeUnit.MILLISECONDS);
+                }
             }
             
             logger.debug("Sent role information to player {} ({})", player.getUserName(), player.getUserId());
@@ -284,8 +356,8 @@ public class SetupState implements GameState {
         logger.info("Setup complete, scheduling transition to GameActiveState for lobby {} in 2 seconds", 
                 lobby.getLobbyCode());
         
-        // Schedule transition with bot instance preserved
-        scheduler.schedule(() -> {
+        // Schedule transition with bot instance preserved; cancelled if the lobby closes first
+        lobby.getContext().schedule(scheduler, () -> {
             // Automatically transition to the active game state
             logger.info("Transitioning to GameActiveState for lobby {}", lobby.getLobbyCode());
             GameActiveState activeState = new GameActiveState();
@@ -0,0 +1,60 @@
+package com.amongus.bot.game.states;
+
+import com.amongus.bot.game.utils.SnapshotIO;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes and reads game states in lobby snapshot records. The state name
+ * selects the class; constructor arguments come next, followed by whatever
+ * the state writes in {@link GameState#writeSnapshot}.
+ */
+public final class StateCodec {
+
+    private StateCodec() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    public static void write(GameState state, DataOutput out) throws IOException {
+        out.writeUTF(state.getStateName());
+        if (state instanceof DiscussionState) {
+            DiscussionState discussion = (DiscussionState) state;
+            SnapshotIO.writeNullableString(out, discussion.getReportedBy());
+            SnapshotIO.writeNullableLong(out, discussion.getReportedPlayerId());
+        } else if (state instanceof GameOverState) {
+            GameOverState gameOver = (GameOverState) state;
+            SnapshotIO.writeNullableString(out, gameOver.getWinner());
+            SnapshotIO.writeNullableString(out, gameOver.getWinReason());
+        }
+        state.writeSnapshot(out);
+    }
+
+    public static GameState read(DataInput in) throws IOException {
+        String stateName = in.readUTF();
+        GameState state;
+        switch (stateName) {
+            case "LOBBY":
+                state = new LobbyState();
+                break;
+            case "SETUP":
+                state = new SetupState();
+                break;
+            case "ACTIVE":
+                state = new GameActiveState();
+                break;
+            case "DISCUSSION":
+                state = new DiscussionState(SnapshotIO.readNullableString(in), SnapshotIO.readNullableLong(in));
+                break;
+            case "GAME_OVER":
+                state = new GameOverState(SnapshotIO.readNullableString(in), SnapshotIO.readNullableString(in));
+                break;
+            default:
+                throw new IOException("Unknown game state " + stateName);
+        }
+        state.readSnapshot(in);
+        return state;
+    }
+}
+// COMPLETED: StateCodec class
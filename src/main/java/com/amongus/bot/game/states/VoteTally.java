@@ -0,0 +1,121 @@
+package com.amongus.bot.game.states;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live vote tally for a single meeting.
+ * Every candidate gets a fixed counter slot when the meeting starts, and the
+ * leader / runner-up pair is maintained on each vote, so the outcome and the
+ * "is it already decided" check are O(1) and independent of arrival order.
+ */
+final class VoteTally {
+    private final Map<Long, Integer> slotByCandidate;
+    private final Long[] candidateBySlot;
+    private final int[] counts;
+    private final int eligibleVoters;
+
+    private int skipVotes;
+    private int castVotes;
+    private int leaderSlot = -1;
+    private int leaderVotes;
+    private int runnerUpVotes;
+
+    /**
+     * @param candidateIds Players that can be voted out
+     * @param eligibleVoters Number of players allowed to vote in this meeting
+     */
+    VoteTally(List<Long> candidateIds, int eligibleVoters) {
+        Map<Long, Integer> slots = new HashMap<>();
+        for (Long candidateId : candidateIds) {
+            slots.putIfAbsent(candidateId, slots.size());
+        }
+        this.slotByCandidate = Collections.unmodifiableMap(slots);
+        this.candidateBySlot = new Long[slots.size()];
+        slots.forEach((candidateId, slot) -> candidateBySlot[slot] = candidateId);
+        this.counts = new int[slots.size()];
+        this.eligibleVoters = eligibleVoters;
+    }
+
+    /**
+     * Records a vote against a candidate.
+     *
+     * @return false if the target is not a candidate of this meeting
+     */
+    synchronized boolean recordVote(Long targetId) {
+        Integer slot = slotByCandidate.get(targetId);
+        if (slot == null) {
+            return false;
+        }
+
+        int count = ++counts[slot];
+        castVotes++;
+
+        if (slot == leaderSlot) {
+            leaderVotes = count;
+        } else if (count > leaderVotes) {
+            runnerUpVotes = leaderVotes;
+            leaderSlot = slot;
+            leaderVotes = count;
+        } else if (count > runnerUpVotes) {
+            runnerUpVotes = count;
+        }
+        return true;
+    }
+
+    /**
+     * Records a skip vote.
+     */
+    synchronized void recordSkip() {
+        skipVotes++;
+        castVotes++;
+    }
+
+    synchronized int getVotes(Long candidateId) {
+        Integer slot = slotByCandidate.get(candidateId);
+        return slot == null ? 0 : counts[slot];
+    }
+
+    synchronized int getSkipVotes() {
+        return skipVotes;
+    }
+
+    synchronized int getCastVotes() {
+        return castVotes;
+    }
+
+    /**
+     * Returns the player to eject: a unique leader whose votes are not exceeded by skips.
+     *
+     * @return The candidate ID, or null for a tie, a skip majority or no votes
+     */
+    synchronized Long getEjectedId() {
+        if (leaderSlot < 0 || leaderVotes == runnerUpVotes || skipVotes > leaderVotes) {
+            return null;
+        }
+        return candidateBySlot[leaderSlot];
+    }
+
+    /**
+     * Checks whether the remaining votes can no longer change the outcome.
+     */
+    synchronized boolean isDecided() {
+        int remaining = Math.max(0, eligibleVoters - castVotes);
+        if (remaining == 0) {
+            return true;
+        }
+
+        // Skip is ahead of anything a candidate can still reach
+        if (skipVotes > leaderVotes + remaining) {
+            return true;
+        }
+
+        // Leader stays unique and at least level with skip whatever the rest vote
+        return leaderSlot >= 0
+                && leaderVotes > runnerUpVotes + remaining
+                && leaderVotes >= skipVotes + remaining;
+    }
+}
+// COMPLETED: VoteTally class
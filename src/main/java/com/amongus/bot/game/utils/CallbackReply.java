@@ -0,0 +1,86 @@
+package com.amongus.bot.game.utils;
+
+import com.amongus.bot.game.GameConstants;
+
+import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+
+/**
+ * The short answer to a button press: a toast, or an alert the player has to
+ * dismiss. Handlers return one instead of sending a chat message; it rides on
+ * the {@link AnswerCallbackQuery} every callback gets anyway, so a rejected
+ * action costs no extra send.
+ *
+ * <p>Game states only return their next state, so the handler that answers
+ * the query passes a {@link Holder} along with the update and the state sets
+ * its reply there.
+ */
+public final class CallbackReply {
+    private final String text;
+    private final boolean alert;
+
+    private CallbackReply(String text, boolean alert) {
+        this.text = text.length() <= GameConstants.CALLBACK_ANSWER_MAX_LENGTH
+                ? text
+                : text.substring(0, GameConstants.CALLBACK_ANSWER_MAX_LENGTH - 1) + "…";
+        this.alert = alert;
+    }
+
+    /**
+     * A notice shown briefly at the top of the chat.
+     */
+    public static CallbackReply toast(String text) {
+        return new CallbackReply(text, false);
+    }
+
+    /**
+     * A notice shown in a dialog the player has to close.
+     */
+    public static CallbackReply alert(String text) {
+        return new CallbackReply(text, true);
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isAlert() {
+        return alert;
+    }
+
+    /**
+     * Sets the reply on the answer to a callback query.
+     *
+     * @param answer The answer
+     */
+    public void applyTo(AnswerCallbackQuery answer) {
+        answer.setText(text);
+        answer.setShowAlert(alert);
+    }
+
+    /**
+     * The reply to one update, filled in while the update is handled.
+     */
+    public static final class Holder {
+        private CallbackReply reply;
+
+        /**
+         * Sets the reply. Does nothing for a null reply; a later reply
+         * replaces an earlier one.
+         *
+         * @param reply The reply, or null
+         */
+        public void set(CallbackReply reply) {
+            if (reply != null) {
+                this.reply = reply;
+            }
+        }
+
+        /**
+         * @return The reply, or null if none was set
+         */
+        public CallbackReply get() {
+            return reply;
+        }
+    }
+}
+// COMPLETED: CallbackReply class
@@ -0,0 +1,213 @@
+package com.amongus.bot.game.utils;
+
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.core.ApiRetrier;
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.managers.GroupDashboard;
+import com.amongus.bot.models.Player;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans per-player messages out over a small shared pool.
+ * Each call blocks until every message of the batch has been sent, so messages
+ * to the same chat keep their order across consecutive broadcasts, while a
+ * 100-player meeting costs a few round trips instead of one per player.
+ *
+ * <p>Bulk content that nobody waits for, like the photo report, goes on a
+ * separate single-threaded lane instead: it runs after the caller's own
+ * sends and never takes a slot from an interactive broadcast.
+ */
+public final class MessageBroadcaster {
+    private static final Logger logger = LoggerFactory.getLogger(MessageBroadcaster.class);
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ExecutorService sendPool = Executors.newFixedThreadPool(
+            GameConstants.BROADCAST_PARALLELISM, runnable -> {
+                Thread thread = new Thread(runnable, "AmongUs-Broadcast-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private static final ThreadPoolExecutor bulkLane = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(GameConstants.BULK_LANE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "AmongUs-BulkLane");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+    private static final AtomicLong bulkRejected = new AtomicLong();
+
+    private MessageBroadcaster() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Sends the same text to every player that has a chat.
+     *
+     * @param bot The bot instance
+     * @param recipients Players to notify
+     * @param text The message text
+     */
+    public static void broadcastText(AmongUsBot bot, Collection<Player> recipients, String text) {
+        List<Long> chatIds = new ArrayList<>(recipients.size());
+        for (Player player : recipients) {
+            if (player.getChatId() != null) {
+                chatIds.add(player.getChatId());
+            } else {
+                logger.warn("Player {} has no chatId, skipping broadcast", player.getUserId());
+            }
+        }
+
+        List<Callable<Void>> sends = new ArrayList<>(chatIds.size());
+        for (Long chatId : chatIds) {
+            sends.add(() -> {
+                bot.sendTextMessage(chatId, text);
+                return null;
+            });
+        }
+        runAll(bot, sends);
+    }
+
+    /**
+     * Sends public news of a game: to every recipient, or, for a lobby played
+     * in a group chat, onto the group's dashboard in a single edit.
+     *
+     * @param bot The bot instance
+     * @param lobby The lobby the news belongs to
+     * @param recipients Players to notify in private chats
+     * @param text The message text
+     */
+    public static void announce(AmongUsBot bot, GameLobby lobby, Collection<Player> recipients, String text) {
+        GroupDashboard dashboard = GroupDashboard.forLobby(bot, lobby);
+        if (dashboard != null) {
+            dashboard.announce(lobby, text);
+        } else {
+            broadcastText(bot, recipients, text);
+        }
+    }
+
+    /**
+     * Executes a batch of API methods and returns their results in input order.
+     * Failed calls yield null, matching {@link AmongUsBot#executeMethod}.
+     *
+     * @param bot The bot instance
+     * @param methods Methods to execute
+     * @return One result per method
+     */
+    public static <T extends Serializable, M extends BotApiMethod<T>> List<T> executeAll(AmongUsBot bot, List<M> methods) {
+        List<Callable<T>> calls = new ArrayList<>(methods.size());
+        for (M method : methods) {
+            calls.add(() -> bot.executeMethod(method));
+        }
+        return runAll(bot, calls);
+    }
+
+    /**
+     * Queues a low-priority job on the bulk lane. Jobs run one at a time in
+     * submission order.
+     *
+     * @param name What the job sends, for the logs
+     * @param job The sends to run
+     * @return False if the lane is full and the job was dropped
+     */
+    public static boolean queueBulk(String name, Runnable job) {
+        try {
+            bulkLane.execute(() -> {
+                try {
+                    job.run();
+                } catch (Exception e) {
+                    logger.error("Bulk job {} failed: {}", name, e.getMessage(), e);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            bulkRejected.incrementAndGet();
+            logger.warn("Bulk lane full, dropping {}", name);
+            return false;
+        }
+    }
+
+    /**
+     * Gets the bulk lane metrics.
+     *
+     * @return Statistics string
+     */
+    public static String getBulkStatistics() {
+        return String.format("Bulk Lane Stats - Queued: %d, Completed: %d, Dropped: %d",
+                bulkLane.getQueue().size(), bulkLane.getCompletedTaskCount(), bulkRejected.get());
+    }
+
+    private static <T> List<T> runAll(AmongUsBot bot, List<Callable<T>> calls) {
+        if (calls.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<T> results = new ArrayList<>(calls.size());
+
+        // Small batches are not worth the hand-off
+        if (calls.size() < GameConstants.BULK_OPERATION_THRESHOLD) {
+            for (Callable<T> call : calls) {
+                results.add(callSafely(call));
+            }
+            return results;
+        }
+
+        // Pool threads never hold the update lock, so the caller's wait budget goes along
+        ApiRetrier retrier = bot.getApiRetrier();
+        List<Callable<T>> pooled = calls;
+        if (retrier != null) {
+            pooled = new ArrayList<>(calls.size());
+            for (Callable<T> call : calls) {
+                pooled.add(retrier.withCallerBudget(call));
+            }
+        }
+        try {
+            for (Future<T> future : sendPool.invokeAll(pooled)) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    logger.error("Broadcast send failed: {}", e.getCause().getMessage(), e.getCause());
+                    results.add(null);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Broadcast interrupted after {} of {} sends", results.size(), calls.size());
+            while (results.size() < calls.size()) {
+                results.add(null);
+            }
+        }
+        return results;
+    }
+
+    private static <T> T callSafely(Callable<T> call) {
+        try {
+            return call.call();
+        } catch (Exception e) {
+            logger.error("Broadcast send failed: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+}
+// COMPLETED: MessageBroadcaster class
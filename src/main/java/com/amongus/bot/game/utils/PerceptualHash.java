@@ -0,0 +1,90 @@
+package com.amongus.bot.game.utils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+/**
+ * Difference hash (dHash) of an image: the picture is shrunk to a 9x8 grid
+ * of average luminance and each bit records whether a cell is brighter than
+ * its right neighbour. Re-encoding, rescaling and uniform brightness changes
+ * keep most bits, so a small Hamming distance means the same picture.
+ */
+public final class PerceptualHash {
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 8;
+
+    private PerceptualHash() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    /**
+     * Hashes an encoded image (JPEG, PNG and the other formats ImageIO reads).
+     *
+     * @param encoded The image file's bytes
+     * @return The 64-bit hash
+     * @throws IOException If the bytes are not a readable image
+     */
+    public static long of(byte[] encoded) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(encoded));
+        if (image == null) {
+            throw new IOException("Unsupported image format");
+        }
+        return of(image);
+    }
+
+    /**
+     * Hashes a decoded image.
+     *
+     * @param image The image
+     * @return The 64-bit hash
+     */
+    public static long of(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[] grid = new double[WIDTH * HEIGHT];
+        for (int cy = 0; cy < HEIGHT; cy++) {
+            int y0 = cy * height / HEIGHT;
+            int y1 = Math.max(y0 + 1, (cy + 1) * height / HEIGHT);
+            for (int cx = 0; cx < WIDTH; cx++) {
+                int x0 = cx * width / WIDTH;
+                int x1 = Math.max(x0 + 1, (cx + 1) * width / WIDTH);
+                grid[cy * WIDTH + cx] = averageLuminance(image, x0, Math.min(x1, width), y0, Math.min(y1, height));
+            }
+        }
+
+        long hash = 0;
+        for (int cy = 0; cy < HEIGHT; cy++) {
+            for (int cx = 0; cx < WIDTH - 1; cx++) {
+                hash <<= 1;
+                if (grid[cy * WIDTH + cx] > grid[cy * WIDTH + cx + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static double averageLuminance(BufferedImage image, int x0, int x1, int y0, int y1) {
+        long sum = 0;
+        int count = 0;
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int rgb = image.getRGB(x, y);
+                // Integer Rec. 601 weights: 0.299 R + 0.587 G + 0.114 B
+                sum += (299 * ((rgb >> 16) & 0xFF) + 587 * ((rgb >> 8) & 0xFF) + 114 * (rgb & 0xFF)) / 1000;
+                count++;
+            }
+        }
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @return The number of differing bits between two hashes
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+}
+// COMPLETED: PerceptualHash class
@@ -0,0 +1,114 @@
+package com.amongus.bot.game.utils;
+
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.models.GameEvent;
+
+import org.telegram.telegrambots.meta.api.methods.send.SendMediaGroup;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.objects.InputFile;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.media.InputMedia;
+import org.telegram.telegrambots.meta.api.objects.media.InputMediaPhoto;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The photos of a game's events, split into media group albums. Built once
+ * per game and sent to every player: the photos are already on Telegram's
+ * servers, so each album is one call per recipient however many photos it
+ * holds.
+ */
+public final class PhotoAlbum {
+    private final List<List<InputMedia>> groups;
+    private final int photoCount;
+
+    private PhotoAlbum(List<List<InputMedia>> groups, int photoCount) {
+        this.groups = groups;
+        this.photoCount = photoCount;
+    }
+
+    /**
+     * Collects the photos of the events, in event order, each captioned with
+     * its event. Photos are spread evenly over as few albums as the size
+     * limit allows, so no album is left with a single photo.
+     *
+     * @param events The game's events
+     * @return The album, empty if no event has a photo
+     */
+    public static PhotoAlbum of(List<GameEvent> events) {
+        List<InputMedia> photos = new ArrayList<>();
+        for (GameEvent event : events) {
+            if (event != null && event.hasPhoto()) {
+                InputMediaPhoto photo = new InputMediaPhoto(event.getPhotoFileId());
+                photo.setCaption(caption(event.getFormattedDescription()));
+                photos.add(photo);
+            }
+        }
+
+        int groupCount = (photos.size() + GameConstants.MEDIA_GROUP_SIZE - 1) / GameConstants.MEDIA_GROUP_SIZE;
+        List<List<InputMedia>> groups = new ArrayList<>(groupCount);
+        int start = 0;
+        for (int i = 0; i < groupCount; i++) {
+            int end = start + (photos.size() - start) / (groupCount - i);
+            groups.add(Collections.unmodifiableList(new ArrayList<>(photos.subList(start, end))));
+            start = end;
+        }
+        return new PhotoAlbum(Collections.unmodifiableList(groups), photos.size());
+    }
+
+    private static String caption(String text) {
+        if (text.length() <= GameConstants.MAX_CAPTION_LENGTH) {
+            return text;
+        }
+        return text.substring(0, GameConstants.MAX_CAPTION_LENGTH - 1) + "…";
+    }
+
+    public boolean isEmpty() {
+        return photoCount == 0;
+    }
+
+    public int getPhotoCount() {
+        return photoCount;
+    }
+
+    public List<List<InputMedia>> getGroups() {
+        return groups;
+    }
+
+    /**
+     * Sends the album to a chat. A lone photo goes as a plain photo, since
+     * a media group needs at least two.
+     *
+     * @param bot The bot instance
+     * @param chatId The recipient
+     * @return The number of albums that failed to send
+     */
+    public int sendTo(AmongUsBot bot, Long chatId) {
+        int failed = 0;
+        for (List<InputMedia> group : groups) {
+            if (group.size() == 1) {
+                InputMedia media = group.get(0);
+                SendPhoto photo = new SendPhoto();
+                photo.setChatId(chatId);
+                photo.setPhoto(new InputFile(media.getMedia()));
+                photo.setCaption(media.getCaption());
+                if (bot.sendPhoto(photo) == null) {
+                    failed++;
+                }
+            } else {
+                SendMediaGroup album = new SendMediaGroup();
+                album.setChatId(chatId);
+                album.setMedias(group);
+                List<Message> sent = bot.sendMediaGroup(album);
+                if (sent == null) {
+                    failed++;
+                }
+            }
+        }
+        return failed;
+    }
+}
+// COMPLETED: PhotoAlbum class
@@ -0,0 +1,96 @@
+package com.amongus.bot.game.utils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for the binary lobby snapshot records: nullable values and the
+ * collection shapes the game states keep.
+ */
+public final class SnapshotIO {
+
+    private SnapshotIO() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    public static void writeNullableString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    public static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    public static void writeNullableLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    public static Long readNullableLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    public static void writeNullableInt(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    public static Integer readNullableInt(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    public static void writeLongs(DataOutput out, Collection<Long> values) throws IOException {
+        List<Long> copy = new ArrayList<>(values);
+        out.writeInt(copy.size());
+        for (Long value : copy) {
+            out.writeLong(value);
+        }
+    }
+
+    public static void readLongs(DataInput in, Collection<Long> target) throws IOException {
+        int size = readSize(in);
+        for (int i = 0; i < size; i++) {
+            target.add(in.readLong());
+        }
+    }
+
+    public static void writeLongMap(DataOutput out, Map<Long, Long> values) throws IOException {
+        List<Map.Entry<Long, Long>> copy = new ArrayList<>(values.entrySet());
+        out.writeInt(copy.size());
+        for (Map.Entry<Long, Long> entry : copy) {
+            out.writeLong(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    public static void readLongMap(DataInput in, Map<Long, Long> target) throws IOException {
+        int size = readSize(in);
+        for (int i = 0; i < size; i++) {
+            target.put(in.readLong(), in.readLong());
+        }
+    }
+
+    /**
+     * Reads a collection size, rejecting values a corrupt record could produce.
+     */
+    public static int readSize(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0 || size > 1_000_000) {
+            throw new IOException("Invalid collection size " + size);
+        }
+        return size;
+    }
+}
+// COMPLETED: SnapshotIO class
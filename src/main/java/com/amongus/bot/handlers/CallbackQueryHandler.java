@@ -2,12 +2,14 @@ package com.amongus.bot.handlers;
 
 import com.amongus.bot.core.AmongUsBot;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbySnapshot;
 import com.amongus.bot.managers.LobbyManager;
 import com.amongus.bot.game.states.DiscussionState;
 import com.amongus.bot.game.states.GameActiveState;
 import com.amongus.bot.game.states.GameState;
 import com.amongus.bot.game.states.LobbyState;
 import com.amongus.bot.game.states.SetupState;
+import com.amongus.bot.game.utils.CallbackReply;
 import com.amongus.bot.models.Player;
 
 import org.slf4j.Logger;
@@ -39,6 +41,36 @@ public class CallbackQueryHandler {
         this.lobbyManager = lobbyManager;
     }
     
+    /**
+     * Handles an answer to a meeting poll of a group lobby. The voter's
+     * lobby state turns it into a vote.
+     */
+    public void handlePollAnswer(Update update) {
+        Long userId = update.getPollAnswer().getUser().getId();
+        GameLobby lobby = lobbyManager.getLobbyForPlayer(userId);
+        // Polls are stopped when the meeting ends, but an answer may still be in flight
+        if (lobby == null || !(lobby.getGameState() instanceof DiscussionState)) {
+            logger.debug("Ignoring poll answer from user {} outside a meeting", userId);
+            return;
+        }
+        applyTransition(lobby, lobby.getGameState().handleUpdate(bot, lobby, update));
+    }
+    
+    private void applyTransition(GameLobby lobby, GameState nextState) {
+        if (nextState == null) {
+            return;
+        }
+        GameState currentState = lobby.getGameState();
+        logger.info("Game state transition from {} to {} for lobby {}", 
+                currentState.getClass().getSimpleName(),
+                nextState.getClass().getSimpleName(),
+                lobby.getLobbyCode());
+        
+        currentState.onExit(bot, lobby);
+        lobby.setGameState(nextState);
+        nextState.onEnter(bot, lobby);
+    }
+    
     public void handle(Update update) {
         CallbackQuery callbackQuery = update.getCallbackQuery();
         String callbackData = callbackQuery.getData();
@@ -56,12 +88,14 @@ public class CallbackQueryHandler {
         String action = parts[0];
         
         logger.debug("Parsed callback action: {}", action);
+        // Filled in by whatever handles the press, and sent with the answer
+        CallbackReply.Holder reply = new CallbackReply.Holder();
         
         // Сначала проверяем, является ли это командным callback
         if (action.equals("command")) {
             logger.debug("Handling command callback: {}", parts.length > 1 ? parts[1] : "");
-            handleCommandCallbacks(callbackQuery, parts.length > 1 ? parts[1] : "");
-            acknowledgeCallbackQuery(callbackId);
+            handleCommandCallbacks(callbackQuery, parts.length > 1 ? parts[1] : "", reply);
+            acknowledgeCallbackQuery(callbackId, reply.get());
             return;
         }
         
@@ -71,23 +105,16 @@ public class CallbackQueryHandler {
             logger.debug("Delegating callback to game state handler for state: {}", 
                     lobby.getGameState().getClass().getSimpleName());
             
-            // Let the game state handle this callback
-            GameState nextState = lobby.getGameState().handleUpdate(bot, lobby, update);
-            
-            // Process state transition if needed
-            if (nextState != null) {
-                GameState currentState = lobby.getGameState();
-                logger.info("Game state transition from {} to {} for lobby {}", 
-                        currentState.getClass().getSimpleName(),
-                        nextState.getClass().getSimpleName(),
-                        lobby.getLobbyCode());
+            try {
+                // Let the game state handle this callback
+                GameState nextState = lobby.getGameState().handleUpdate(bot, lobby, update, reply);
                 
-                currentState.onExit(bot, lobby);
-                lobby.setGameState(nextState);
-                nextState.onEnter(bot, lobby);
+                // Process state transition if needed
+                applyTransition(lobby, nextState);
+            } finally {
+                // Also sends any reply the state set, even if it failed halfway
+                acknowledgeCallbackQuery(callbackId, reply.get());
             }
-            
-            acknowledgeCallbackQuery(callbackId);
             return;
         }
         
@@ -128,7 +155,7 @@ public class CallbackQueryHandler {
         }
         
         // Always acknowledge the callback query to stop the loading animation
-        acknowledgeCallbackQuery(callbackId);
+        acknowledgeCallbackQuery(callbackId, reply.get());
     }
     
     private void handleStartGameAction(Long chatId, Long userId) {
@@ -568,9 +595,13 @@ public class CallbackQueryHandler {
         logger.info("Host {} started a new game in lobby {}", userId, lobby.getLobbyCode());
     }
     
-    private void acknowledgeCallbackQuery(String callbackId) {
+    private void acknowledgeCallbackQuery(String callbackId, CallbackReply reply) {
         AnswerCallbackQuery answer = new AnswerCallbackQuery();
         answer.setCallbackQueryId(callbackId);
+        // A short reply of the handler is shown as a toast instead of a chat message
+        if (reply != null) {
+            reply.applyTo(answer);
+        }
         try {
             bot.execute(answer);
             logger.debug("Acknowledged callback query: {}", callbackId);
@@ -584,8 +615,9 @@ public class CallbackQueryHandler {
      * 
      * @param callbackQuery The callback query
      * @param commandData The command data (after the "command_" prefix)
+     * @param reply Receives the answer to the button press
      */
-    private void handleCommandCallbacks(CallbackQuery callbackQuery, String commandData) {
+    private void handleCommandCallbacks(CallbackQuery callbackQuery, String commandData, CallbackReply.Holder reply) {
         Long chatId = callbackQuery.getMessage().getChatId();
         Long userId = callbackQuery.getFrom().getId();
         String userName = callbackQuery.getFrom().getUserName() != null 
@@ -710,22 +742,24 @@ public class CallbackQueryHandler {
                 sendGameStatus(chatId, userId);
                 break;
             
+            case "groupjoin":
+                // Join button on a group dashboard
+                GameLobby groupLobby = lobbyManager.getLobby(params);
+                String joinError = groupLobby == null || !chatId.equals(groupLobby.getGroupChatId())
+                        ? "Это лобби больше не существует."
+                        : CommandHandler.joinGroupLobby(bot, lobbyManager, groupLobby, userId, userName);
+                reply.set(CallbackReply.toast(joinError == null
+                        ? "Вы в игре! Роль придет в личные сообщения от бота."
+                        : "Не получилось: " + joinError));
+                break;
+            
             case "copycode":
                 // Copy lobby code to clipboard
                 GameLobby lobbyForCode = lobbyManager.getLobbyForPlayer(userId);
                 if (lobbyForCode != null) {
                     String lobbyCode = params.isEmpty() ? lobbyForCode.getLobbyCode() : params;
-                    AnswerCallbackQuery answer = new AnswerCallbackQuery();
-                    answer.setCallbackQueryId(callbackQuery.getId());
-                    answer.setText("/join " + lobbyCode);
-                    answer.setShowAlert(true);
-                    
-                    try {
-                        bot.execute(answer);
-                        logger.info("Displayed lobby code {} to user {}", lobbyCode, userId);
-                    } catch (TelegramApiException e) {
-                        logger.error("Error showing lobby code", e);
-                    }
+                    reply.set(CallbackReply.alert("/join " + lobbyCode));
+                    logger.info("Displayed lobby code {} to user {}", lobbyCode, userId);
                 } else {
                     logger.warn("User {} tried to copy lobby code but is not in any lobby", userId);
                     bot.sendTextMessage(chatId, "Вы не находитесь в лобби.");
@@ -818,10 +852,15 @@ public class CallbackQueryHandler {
                 }
             }
             
-            // Notify all remaining players
-            for (Player player : lobby.getPlayerList()) {
-                if (player.getChatId() != null && !player.getUserId().equals(userId)) {
-                    bot.sendTextMessage(player.getChatId(), userName + " покинул лобби.");
+            if (lobby.getGameState() instanceof LobbyState) {
+                // The roster update shows who left
+                ((LobbyState) lobby.getGameState()).rosterChanged(bot, lobby);
+            } else if (!lobby.isGroupMode()) {
+                // Notify all remaining players
+                for (Player player : lobby.getPlayerList()) {
+                    if (player.getChatId() != null && !player.getUserId().equals(userId)) {
+                        bot.sendTextMessage(player.getChatId(), userName + " покинул лобби.");
+                    }
                 }
             }
         }
@@ -836,12 +875,12 @@ public class CallbackQueryHandler {
         }
         
         // Build player list
-        List<Player> players = lobby.getPlayerList();
+        LobbySnapshot snapshot = lobby.getSnapshot();
         StringBuilder playerList = new StringBuilder();
-        playerList.append("*Игроки в лобби ").append(lobby.getLobbyCode()).append(":*\n\n");
+        playerList.append("*Игроки в лобби ").append(snapshot.getLobbyCode()).append(":*\n\n");
         
-        for (Player player : players) {
-            String hostMark = lobby.isHost(player.getUserId()) ? " 👑" : "";
+        for (LobbySnapshot.PlayerView player : snapshot.getPlayers()) {
+            String hostMark = player.isHost() ? " 👑" : "";
             playerList.append("• ").append(player.getUserName()).append(hostMark).append("\n");
         }
         
@@ -860,7 +899,7 @@ public class CallbackQueryHandler {
         backButton.setCallbackData("command_status");
         row.add(backButton);
         
-        if (lobby.isHost(userId)) {
+        if (snapshot.isHost(userId)) {
             InlineKeyboardButton startButton = new InlineKeyboardButton();
             startButton.setText("▶️ Начать игру");
             startButton.setCallbackData("command_startgame");
@@ -890,11 +929,12 @@ public class CallbackQueryHandler {
         }
         
         // Build status message
+        LobbySnapshot snapshot = lobby.getSnapshot();
         String status = "*Информация о лобби:*\n" +
-                "Код: `/join " + lobby.getLobbyCode() + "`\n" +
-                "Игроков: " + lobby.getPlayerCount() + "\n" +
-                "Хост: " + lobby.getPlayer(lobby.getHostId()).getUserName() + "\n" +
-                "Состояние: " + (lobby.getGameState() != null ? lobby.getGameState().getStateName() : "Не начата");
+                "Код: `/join " + snapshot.getLobbyCode() + "`\n" +
+                "Игроков: " + snapshot.getPlayerCount() + "\n" +
+                "Хост: " + (snapshot.getHostName() != null ? snapshot.getHostName() : "-") + "\n" +
+                "Состояние: " + (snapshot.getStateName() != null ? snapshot.getStateName() : "Не начата");
         
         // Add lobby management buttons
         SendMessage message = new SendMessage();
@@ -904,10 +944,10 @@ public class CallbackQueryHandler {
         
         // Create keyboard based on whether user is host
         InlineKeyboardMarkup keyboard;
-        if (lobby.isHost(userId)) {
-            keyboard = createLobbyHostKeyboard(lobby.getLobbyCode());
+        if (snapshot.isHost(userId)) {
+            keyboard = createLobbyHostKeyboard(snapshot.getLobbyCode());
         } else {
-            keyboard = createLobbyPlayerKeyboard(lobby.getLobbyCode());
+            keyboard = createLobbyPlayerKeyboard(snapshot.getLobbyCode());
         }
         
         message.setReplyMarkup(keyboard);
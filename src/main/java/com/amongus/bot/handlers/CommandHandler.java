@@ -2,10 +2,17 @@ package com.amongus.bot.handlers;
 
 import com.amongus.bot.core.AmongUsBot;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyFootprint;
+import com.amongus.bot.game.lobby.LobbySnapshot;
+import com.amongus.bot.managers.GameArchive;
 import com.amongus.bot.managers.LobbyManager;
+import com.amongus.bot.managers.PlayerStatsStore;
 import com.amongus.bot.game.states.LobbyState;
+import com.amongus.bot.game.utils.MessageBroadcaster;
 import com.amongus.bot.models.Player;
+import com.amongus.bot.models.PlayerStats;
 import com.amongus.bot.handlers.SettingsHandler;
+import com.amongus.bot.utils.GameUtils;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,7 +24,10 @@ import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMa
 import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Handler for bot commands that start with /.
@@ -28,12 +38,44 @@ public class CommandHandler {
     private final AmongUsBot bot;
     private final LobbyManager lobbyManager;
     private final SettingsHandler settingsHandler;
+    private final Set<Long> adminIds;
+    
+    // Number of heaviest lobbies listed by /memory
+    private static final int MEMORY_REPORT_TOP = 10;
     
     public CommandHandler(AmongUsBot bot, LobbyManager lobbyManager) {
+        this(bot, lobbyManager, parseAdminIds(System.getenv("AMONGUS_ADMIN_IDS")));
+    }
+    
+    /**
+     * @param bot The bot instance
+     * @param lobbyManager The lobby manager
+     * @param adminIds Telegram user ids allowed to use admin commands
+     */
+    public CommandHandler(AmongUsBot bot, LobbyManager lobbyManager, Set<Long> adminIds) {
         this.bot = bot;
         this.lobbyManager = lobbyManager;
         this.settingsHandler = new SettingsHandler(bot, lobbyManager);
-        logger.debug("CommandHandler initialized");
+        this.adminIds = Collections.unmodifiableSet(new HashSet<>(adminIds));
+        logger.debug("CommandHandler initialized with {} admins", this.adminIds.size());
+    }
+    
+    /**
+     * Parses a comma-separated list of user ids, skipping malformed entries.
+     */
+    static Set<Long> parseAdminIds(String value) {
+        Set<Long> ids = new HashSet<>();
+        if (value == null || value.isBlank()) {
+            return ids;
+        }
+        for (String part : value.split(",")) {
+            try {
+                ids.add(Long.parseLong(part.trim()));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid admin id '{}'", part);
+            }
+        }
+        return ids;
     }
     
     public void handle(Update update) {
@@ -43,10 +85,14 @@ public class CommandHandler {
         User user = message.getFrom();
         Long userId = user.getId();
         String userName = user.getUserName() != null ? user.getUserName() : user.getFirstName();
+        boolean groupChat = message.isGroupMessage() || message.isSuperGroupMessage();
         
-        // Extract command and arguments
+        // Extract command and arguments; in groups commands may carry the bot's name
         String[] parts = text.split("\\s+", 2);
         String command = parts[0].toLowerCase();
+        if (command.contains("@")) {
+            command = command.substring(0, command.indexOf('@'));
+        }
         String args = parts.length > 1 ? parts[1].trim() : "";
         
         logger.info("Handling command '{}' from user {} ({}), args: [{}]", command, userName, userId, args);
@@ -60,10 +106,18 @@ public class CommandHandler {
                     handleHelpCommand(chatId);
                     break;
                 case "/newgame":
-                    handleNewGameCommand(chatId, userId, userName);
+                    if (groupChat) {
+                        handleGroupNewGameCommand(chatId, userId, userName);
+                    } else {
+                        handleNewGameCommand(chatId, userId, userName);
+                    }
                     break;
                 case "/join":
-                    handleJoinCommand(chatId, userId, userName, args);
+                    if (groupChat) {
+                        handleGroupJoinCommand(chatId, userId, userName);
+                    } else {
+                        handleJoinCommand(chatId, userId, userName, args);
+                    }
                     break;
                 case "/leave":
                     handleLeaveCommand(chatId, userId);
@@ -86,6 +140,15 @@ public class CommandHandler {
                 case "/reset":
                     handleResetSettingsCommand(chatId, userId);
                     break;
+                case "/stats":
+                    handleStatsCommand(chatId, userId);
+                    break;
+                case "/lastgame":
+                    handleLastGameCommand(chatId, userId);
+                    break;
+                case "/memory":
+                    handleMemoryCommand(chatId, userId);
+                    break;
                 default:
                     handleUnknownCommand(chatId);
             }
@@ -170,9 +233,13 @@ public class CommandHandler {
                 "/startgame - Начать игру (только для хоста лобби)\n" +
                 "/status - Проверить текущий статус игры\n" +
                 "/players - Список игроков в текущем лобби\n" +
+                "/stats - Ваша статистика за все игры\n" +
+                "/lastgame - Отчет о вашей последней игре\n" +
                 "/endgame - Завершить текущую игру (только для хоста лобби)\n" +
                 "/settings - Настроить параметры игры с помощью интерактивных кнопок\n" +
-                "/reset - Сбросить все настройки игры на значения по умолчанию";
+                "/reset - Сбросить все настройки игры на значения по умолчанию\n\n" +
+                "В групповом чате /newgame создает лобби для всей группы, а /join присоединяет к нему. " +
+                "Общая информация показывается в закрепленном сообщении группы, роль и задания приходят в личные сообщения.";
         
         bot.sendTextMessage(chatId, helpMessage);
         logger.debug("Sent help message to chat: {}", chatId);
@@ -226,6 +293,91 @@ public class CommandHandler {
         logger.info("Successfully created new game lobby {} for user {}", lobby.getLobbyCode(), userId);
     }
     
+    /**
+     * Creates a lobby bound to a group chat. The group gets the pinned
+     * dashboard instead of a confirmation; the host's secrets go to their
+     * private chat, whose ID equals their user ID.
+     */
+    private void handleGroupNewGameCommand(Long groupChatId, Long userId, String userName) {
+        GameLobby groupLobby = lobbyManager.getLobbyForGroup(groupChatId);
+        if (groupLobby != null) {
+            bot.sendTextMessage(groupChatId, "В этой группе уже есть лобби " + groupLobby.getLobbyCode() +
+                    ". Нажмите «Присоединиться» в закрепленном сообщении.");
+            return;
+        }
+        GameLobby existingLobby = lobbyManager.getLobbyForPlayer(userId);
+        if (existingLobby != null) {
+            bot.sendTextMessage(groupChatId, userName + ", вы уже находитесь в лобби " +
+                    existingLobby.getLobbyCode() + ". Сначала покиньте его командой /leave.");
+            return;
+        }
+        
+        GameLobby lobby = lobbyManager.createLobby(userId, userName);
+        Player player = lobby.getPlayer(userId);
+        if (player != null) {
+            player.setChatId(userId);
+        }
+        lobby.setGroupChatId(groupChatId);
+        lobby.setGameState(new LobbyState());
+        if (bot.getGroupDashboard() != null) {
+            bot.getGroupDashboard().refresh(lobby);
+        }
+        
+        // Settings stay with the host; this also tells whether the bot can write to them
+        SendMessage hostMessage = new SendMessage();
+        hostMessage.setChatId(userId);
+        hostMessage.setText("Вы создали лобби " + lobby.getLobbyCode() + " в группе.\n" +
+                "Настройки игры: /settings. Роль и задания придут сюда.");
+        if (bot.executeMethod(hostMessage) == null) {
+            bot.sendTextMessage(groupChatId, userName + ", напишите боту /start в личные сообщения, " +
+                    "иначе он не сможет прислать вам роль.");
+        }
+        logger.info("Created group lobby {} in chat {} for user {}", lobby.getLobbyCode(), groupChatId, userId);
+    }
+    
+    /**
+     * Joins the lobby of a group chat. Success shows on the dashboard, so
+     * only problems are answered.
+     */
+    private void handleGroupJoinCommand(Long groupChatId, Long userId, String userName) {
+        GameLobby lobby = lobbyManager.getLobbyForGroup(groupChatId);
+        if (lobby == null) {
+            bot.sendTextMessage(groupChatId, "В этой группе нет лобби. Создайте его командой /newgame.");
+            return;
+        }
+        String error = joinGroupLobby(bot, lobbyManager, lobby, userId, userName);
+        if (error != null) {
+            bot.sendTextMessage(groupChatId, userName + ": " + error);
+        }
+    }
+    
+    /**
+     * Adds a player to a group lobby and refreshes its dashboard.
+     * 
+     * @return Null on success, otherwise why the player could not join
+     */
+    static String joinGroupLobby(AmongUsBot bot, LobbyManager lobbyManager, GameLobby lobby,
+                                 Long userId, String userName) {
+        GameLobby existingLobby = lobbyManager.getLobbyForPlayer(userId);
+        if (existingLobby == lobby) {
+            return "вы уже в этом лобби.";
+        }
+        if (existingLobby != null) {
+            return "вы уже находитесь в лобби " + existingLobby.getLobbyCode() + ".";
+        }
+        if (!(lobby.getGameState() instanceof LobbyState)
+                || !lobbyManager.addPlayerToLobby(lobby.getLobbyCode(), userId, userName)) {
+            return "не удалось присоединиться, игра уже началась или лобби заполнено.";
+        }
+        Player player = lobby.getPlayer(userId);
+        if (player != null) {
+            player.setChatId(userId);
+        }
+        ((LobbyState) lobby.getGameState()).rosterChanged(bot, lobby);
+        logger.info("User {} joined group lobby {}", userId, lobby.getLobbyCode());
+        return null;
+    }
+    
     /**
      * Creates a keyboard for a lobby host with game control buttons.
      * 
@@ -509,23 +661,18 @@ public class CommandHandler {
         boolean isHost = lobby.isHost(userId);
         sendMessage.setReplyMarkup(createLobbyKeyboardForPlayer(lobbyCode, isHost));
         
-        bot.executeMethod(sendMessage);
+        Message sent = bot.executeMethod(sendMessage);
         logger.info("User {} successfully joined lobby {}", userId, lobbyCode);
         
-        // Notify the host
-        Long hostId = lobby.getHostId();
-        if (hostId != null && !hostId.equals(userId)) {
-            Player host = lobby.getPlayer(hostId);
-            if (host != null && host.getChatId() != null) {
-                bot.sendTextMessage(host.getChatId(), userName + " присоединился к вашему лобби.");
-                logger.debug("Notified host {} about user {} joining", hostId, userId);
+        // The roster update tells everyone, the host included; the confirmation
+        // becomes the joiner's status message
+        if (lobby.getGameState() instanceof LobbyState) {
+            LobbyState lobbyState = (LobbyState) lobby.getGameState();
+            if (sent != null) {
+                lobbyState.trackStatusMessage(lobby, userId, sent.getMessageId());
             }
-        }
-        
-        // If the lobby has a game state, notify it about the player joining
-        if (lobby.getGameState() != null && lobby.getGameState() instanceof LobbyState) {
-            lobby.getGameState().onEnter(bot, lobby);
-            logger.debug("Triggered onEnter for LobbyState after user {} joined lobby {}", userId, lobbyCode);
+            lobbyState.rosterChanged(bot, lobby);
+            logger.debug("Scheduled roster update after user {} joined lobby {}", userId, lobbyCode);
         }
     }
     
@@ -573,19 +720,19 @@ public class CommandHandler {
                 }
             }
             
-            // Notify remaining players
-            for (Player player : lobby.getPlayerList()) {
-                if (player.getChatId() != null && !player.getUserId().equals(userId)) {
-                    bot.sendTextMessage(player.getChatId(), userName + " покинул лобби.");
-                    logger.debug("Notified player {} about user {} leaving", player.getUserId(), userId);
+            if (lobby.getGameState() instanceof LobbyState) {
+                // The roster update shows who left
+                ((LobbyState) lobby.getGameState()).rosterChanged(bot, lobby);
+                logger.debug("Scheduled roster update after user {} left lobby {}", userId, lobbyCode);
+            } else if (!lobby.isGroupMode()) {
+                // Notify remaining players; a group lobby shows the roster on its dashboard
+                for (Player player : lobby.getPlayerList()) {
+                    if (player.getChatId() != null && !player.getUserId().equals(userId)) {
+                        bot.sendTextMessage(player.getChatId(), userName + " покинул лобби.");
+                        logger.debug("Notified player {} about user {} leaving", player.getUserId(), userId);
+                    }
                 }
             }
-            
-            // If the lobby has a game state, update it
-            if (lobby.getGameState() != null && lobby.getGameState() instanceof LobbyState) {
-                lobby.getGameState().onEnter(bot, lobby);
-                logger.debug("Triggered onEnter for LobbyState after user {} left lobby {}", userId, lobbyCode);
-            }
         }
     }
     
@@ -642,10 +789,11 @@ public class CommandHandler {
         }
         
         // Get game status
-        String status = "Лобби: " + lobby.getLobbyCode() + "\n" +
-                "Игроков: " + lobby.getPlayerCount() + "\n" +
-                "Хост: " + lobby.getPlayer(lobby.getHostId()).getUserName() + "\n" +
-                "Состояние игры: " + (lobby.getGameState() != null ? lobby.getGameState().getStateName() : "Нет");
+        LobbySnapshot snapshot = lobby.getSnapshot();
+        String status = "Лобби: " + snapshot.getLobbyCode() + "\n" +
+                "Игроков: " + snapshot.getPlayerCount() + "\n" +
+                "Хост: " + (snapshot.getHostName() != null ? snapshot.getHostName() : "-") + "\n" +
+                "Состояние игры: " + (snapshot.getStateName() != null ? snapshot.getStateName() : "Нет");
         
         bot.sendTextMessage(chatId, status);
         logger.debug("Sent status information for lobby {} to user {}", lobby.getLobbyCode(), userId);
@@ -663,12 +811,12 @@ public class CommandHandler {
         }
         
         // Get player list
-        List<Player> players = lobby.getPlayerList();
+        LobbySnapshot snapshot = lobby.getSnapshot();
         StringBuilder playerList = new StringBuilder();
-        playerList.append("Игроки в лобби ").append(lobby.getLobbyCode()).append(":\n\n");
+        playerList.append("Игроки в лобби ").append(snapshot.getLobbyCode()).append(":\n\n");
         
-        for (Player player : players) {
-            String hostMark = lobby.isHost(player.getUserId()) ? " (Хост)" : "";
+        for (LobbySnapshot.PlayerView player : snapshot.getPlayers()) {
+            String hostMark = player.isHost() ? " (Хост)" : "";
             playerList.append("- ").append(player.getUserName()).append(hostMark).append("\n");
         }
         
@@ -676,6 +824,117 @@ public class CommandHandler {
         logger.debug("Sent player list for lobby {} to user {}", lobby.getLobbyCode(), userId);
     }
     
+    private void handleStatsCommand(Long chatId, Long userId) {
+        logger.debug("Handling /stats command from user {} in chat: {}", userId, chatId);
+        
+        PlayerStatsStore statsStore = bot.getPlayerStatsStore();
+        PlayerStats stats = statsStore != null ? statsStore.get(userId) : null;
+        if (stats == null || stats.getGamesPlayed() == 0) {
+            bot.sendTextMessage(chatId, "📊 У вас пока нет завершённых игр. Сыграйте партию, и здесь появится статистика!");
+            return;
+        }
+        
+        String message = "📊 Статистика игрока " + (stats.getUserName() != null ? stats.getUserName() : userId) + ":\n\n" +
+                "🎮 Сыграно игр: " + stats.getGamesPlayed() + "\n" +
+                "🏆 Побед: " + stats.getWins() + " (" + stats.getWinRate() + "%)\n" +
+                "👨‍🚀 За экипаж: " + stats.getCrewmateWins() + " из " + stats.getCrewmateGames() + "\n" +
+                "🔪 За предателя: " + stats.getImpostorWins() + " из " + stats.getImpostorGames() + "\n" +
+                "🗡️ Убийств: " + stats.getKills() + "\n" +
+                "💀 Погиб: " + stats.getDeaths() + "\n" +
+                "📋 Выполнено заданий: " + stats.getTasksCompleted() + "\n" +
+                "🚪 Исключён голосованием: " + stats.getEjections() + "\n" +
+                "📢 Созвано собраний: " + stats.getMeetingsCalled();
+        
+        bot.sendTextMessage(chatId, message);
+        logger.debug("Sent stats to user {}", userId);
+    }
+    
+    private void handleLastGameCommand(Long chatId, Long userId) {
+        logger.debug("Handling /lastgame command from user {} in chat: {}", userId, chatId);
+        
+        GameArchive archive = bot.getGameArchive();
+        GameArchive.ArchivedGame game = archive != null ? archive.readLastGame(userId) : null;
+        if (game == null) {
+            bot.sendTextMessage(chatId, "📜 У вас пока нет завершённых игр в архиве.");
+            return;
+        }
+        
+        bot.sendTextMessage(chatId, game.getSummary());
+        for (String part : GameUtils.splitMessage(game.getReport(), 4096)) {
+            bot.sendTextMessage(chatId, part);
+        }
+        logger.debug("Sent archived game {} to user {}", game.getGameId(), userId);
+    }
+    
+    /**
+     * Admin command: estimated memory per lobby, heaviest first.
+     * Not listed in /help; other users get the unknown command reply.
+     */
+    private void handleMemoryCommand(Long chatId, Long userId) {
+        if (!adminIds.contains(userId)) {
+            logger.warn("User {} tried to use /memory without admin rights", userId);
+            handleUnknownCommand(chatId);
+            return;
+        }
+        
+        StringBuilder report = new StringBuilder();
+        report.append("🧠 Память лобби\n\n");
+        report.append(lobbyManager.getMemoryStatistics()).append("\n\n");
+        
+        List<LobbyFootprint> footprints = lobbyManager.getFootprints();
+        if (footprints.isEmpty()) {
+            report.append("Открытых лобби нет.\n");
+        }
+        for (int i = 0; i < Math.min(MEMORY_REPORT_TOP, footprints.size()); i++) {
+            report.append(i + 1).append(". ").append(footprints.get(i)).append("\n");
+        }
+        
+        report.append("\n").append(lobbyManager.getLeakDetector().getStatistics());
+        if (bot.getLobbyScavenger() != null) {
+            report.append("\n").append(bot.getLobbyScavenger().getStatistics());
+        }
+        if (bot.getSnapshotStore() != null) {
+            report.append("\n").append(bot.getSnapshotStore().getStatistics());
+        }
+        if (bot.getPlayerStatsStore() != null) {
+            report.append("\n").append(bot.getPlayerStatsStore().getStatistics());
+        }
+        if (lobbyManager.getJournal() != null) {
+            report.append("\n").append(lobbyManager.getJournal().getStatistics());
+        }
+        if (bot.getGameArchive() != null) {
+            report.append("\n").append(bot.getGameArchive().getStatistics());
+        }
+        if (bot.getEventColumnStore() != null) {
+            report.append("\n").append(bot.getEventColumnStore().getStatistics());
+        }
+        if (bot.getReplayStore() != null) {
+            report.append("\n").append(bot.getReplayStore().getStatistics());
+        }
+        if (bot.getPhotoProofPipeline() != null) {
+            report.append("\n").append(bot.getPhotoProofPipeline().getStatistics());
+        }
+        if (bot.getGroupDashboard() != null) {
+            report.append("\n").append(bot.getGroupDashboard().getStatistics());
+        }
+        if (bot.getMessageLifecycle() != null) {
+            report.append("\n").append(bot.getMessageLifecycle().getStatistics());
+        }
+        if (bot.getTransport() != null) {
+            report.append("\n").append(bot.getTransport().getStatistics());
+        }
+        if (bot.getApiRetrier() != null) {
+            report.append("\n").append(bot.getApiRetrier().getStatistics());
+        }
+        if (bot.getMessageOutbox() != null) {
+            report.append("\n").append(bot.getMessageOutbox().getStatistics());
+        }
+        report.append("\n").append(MessageBroadcaster.getBulkStatistics());
+        
+        bot.sendTextMessage(chatId, report.toString());
+        logger.info("Sent memory report for {} lobbies to admin {}", footprints.size(), userId);
+    }
+    
     private void handleUnknownCommand(Long chatId) {
         logger.debug("Handling unknown command in chat: {}", chatId);
         bot.sendTextMessage(chatId, "Неизвестная команда. Используйте /help, чтобы увидеть доступные команды.");
@@ -2,8 +2,11 @@ package com.amongus.bot.handlers;
 
 import com.amongus.bot.core.AmongUsBot;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.managers.GroupDashboard;
 import com.amongus.bot.managers.LobbyManager;
+import com.amongus.bot.managers.PhotoProofPipeline;
 import com.amongus.bot.game.states.GameActiveState;
+import com.amongus.bot.game.states.GameState;
 import com.amongus.bot.models.Player;
 import com.amongus.bot.models.GameEvent;
 
@@ -15,6 +18,7 @@ import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Handler for regular text messages and photos.
@@ -125,10 +129,8 @@ public class MessageHandler {
         if (gameState.isPlayerFixingLights(userId)) {
             logger.info("Processing photo for lights fix from player {} in lobby {}", userId, lobby.getLobbyCode());
             // Добавляем событие починки света
-            GameEvent fixEvent = lobby.addGameEvent(userId, "FIX_LIGHTS", "Починка света");
+            GameEvent fixEvent = lobby.addGameEvent(userId, "FIX_LIGHTS", "Починка света", photoFileId);
             if (fixEvent != null) {
-                // Прикрепляем фото к событию
-                fixEvent.setPhotoFileId(photoFileId);
                 logger.debug("Added photo to FIX_LIGHTS event for player {}", userId);
             }
             
@@ -138,10 +140,8 @@ public class MessageHandler {
         } else if (gameState.isPlayerAtReactorLocation(userId)) {
             logger.info("Processing photo for reactor location confirmation from player {} in lobby {}", userId, lobby.getLobbyCode());
             // Добавляем событие починки реактора
-            GameEvent fixEvent = lobby.addGameEvent(userId, "FIX_REACTOR", "Починка реактора");
+            GameEvent fixEvent = lobby.addGameEvent(userId, "FIX_REACTOR", "Починка реактора", photoFileId);
             if (fixEvent != null) {
-                // Прикрепляем фото к событию
-                fixEvent.setPhotoFileId(photoFileId);
                 logger.debug("Added photo to FIX_REACTOR event for player {}", userId);
             }
             
@@ -155,42 +155,8 @@ public class MessageHandler {
             Integer fakeTaskIndex = player.getAwaitingPhotoForFakeTask();
             logger.info("Processing photo for fake task from impostor {} for fake task {} in lobby {}", 
                     userId, fakeTaskIndex, lobby.getLobbyCode());
-            
-            // Mark the task as completed
-            boolean completed = gameState.completeFakeTask(userId, fakeTaskIndex);
-            
-            // Clear the awaiting status
-            player.setAwaitingPhotoForFakeTask(null);
-            
-            if (completed) {
-                // Get the fake task name
-                String fakeTaskName = gameState.getFakeTaskName(userId, fakeTaskIndex);
-                int completedCount = gameState.getCompletedFakeTaskCount(userId);
-                int totalCount = gameState.getTotalFakeTaskCount(userId);
-                
-                // Добавляем событие выполнения фейкового задания
-                GameEvent fakeTaskEvent = lobby.addGameEvent(userId, "FAKE_TASK", fakeTaskName);
-                if (fakeTaskEvent != null) {
-                    // Прикрепляем фото к событию
-                    fakeTaskEvent.setPhotoFileId(photoFileId);
-                    logger.debug("Added photo to FAKE_TASK event for player {}", userId);
-                }
-                
-                // Send confirmation message to impostor (using same format as for crewmates)
-                bot.sendTextMessage(chatId, 
-                    "✅ Проверка фото принята! Задание \"" + fakeTaskName + "\" выполнено!\n" +
-                    "Прогресс: " + completedCount + "/" + totalCount + " заданий");
-            } else {
-                // This should not happen normally, but handle it just in case
-                bot.sendTextMessage(chatId, "Это задание уже выполнено или недействительно.");
-                logger.warn("Impostor {} attempted to complete invalid fake task {} with photo", 
-                        userId, fakeTaskIndex);
-            }
-            
-            // Update player's action keyboard
-            gameState.updatePlayerActionKeyboard(bot, lobby, player);
-            
-            logger.info("Impostor {} completed fake task {} with photo confirmation", userId, fakeTaskIndex);
+            validatePhoto(lobby, player, chatId, photos,
+                    current -> completeFakeTask(lobby, current, player, chatId, fakeTaskIndex, photoFileId));
             return;
         }
         
@@ -204,22 +170,125 @@ public class MessageHandler {
         
         logger.info("Processing photo for task completion from player {} for task {} in lobby {}", 
                 userId, taskIndex, lobby.getLobbyCode());
+        validatePhoto(lobby, player, chatId, photos,
+                current -> completeTask(lobby, current, player, chatId, taskIndex, photoFileId));
+    }
+    
+    /**
+     * Runs a task proof photo through the photo pipeline and completes the
+     * task once it passes. A photo already used in this game, or one too
+     * similar to it, is refused and the player keeps waiting for a new one.
+     * A verdict that arrives during a meeting or after the game ended is
+     * dropped and the photo forgotten, so the player can send it again; one
+     * that arrives after a meeting completes the task in the current phase.
+     * 
+     * @param lobby The player's game lobby
+     * @param player The player who sent the photo
+     * @param chatId The player's chat
+     * @param photos The photo's sizes
+     * @param complete Completes the task in the active state current at the verdict
+     */
+    private void validatePhoto(GameLobby lobby, Player player, Long chatId,
+                               List<PhotoSize> photos, Consumer<GameActiveState> complete) {
+        PhotoProofPipeline pipeline = bot.getPhotoProofPipeline();
+        if (pipeline == null) {
+            complete.accept((GameActiveState) lobby.getGameState());
+            return;
+        }
+        
+        // Meetings replace the active state, so the game is told apart by its seed
+        long gameSeed = lobby.getGameSeed();
+        pipeline.submit(lobby, player.getUserId(), photos, verdict -> {
+            GameState current = lobby.getGameState();
+            if (lobby.getGameSeed() != gameSeed || !(current instanceof GameActiveState)) {
+                logger.info("Dropping photo verdict for player {} in lobby {}: the game moved on", 
+                        player.getUserId(), lobby.getLobbyCode());
+                if (verdict != PhotoProofPipeline.Verdict.DUPLICATE) {
+                    pipeline.release(lobby, gameSeed, photos);
+                }
+                return;
+            }
+            switch (verdict) {
+                case ACCEPTED:
+                    complete.accept((GameActiveState) current);
+                    break;
+                case DUPLICATE:
+                    bot.sendTextMessage(chatId, "❌ Это фото уже использовалось в этой игре. " +
+                            "Сделайте новое фото выполненного задания.");
+                    break;
+                default:
+                    bot.sendTextMessage(chatId, "❌ Это фото слишком похоже на уже отправленное. " +
+                            "Сделайте новое фото выполненного задания.");
+            }
+        });
+    }
+    
+    /**
+     * Completes an impostor's fake task after its photo passed validation.
+     */
+    private void completeFakeTask(GameLobby lobby, GameActiveState gameState, Player player, Long chatId,
+                                  Integer fakeTaskIndex, String photoFileId) {
+        Long userId = player.getUserId();
+        
+        // Mark the task as completed
+        boolean completed = gameState.completeFakeTask(userId, fakeTaskIndex);
+        
+        // Clear the awaiting status, unless the player already picked another task
+        if (fakeTaskIndex.equals(player.getAwaitingPhotoForFakeTask())) {
+            player.setAwaitingPhotoForFakeTask(null);
+        }
+        
+        if (completed) {
+            // Get the fake task name
+            String fakeTaskName = gameState.getFakeTaskName(userId, fakeTaskIndex);
+            int completedCount = gameState.getCompletedFakeTaskCount(userId);
+            int totalCount = gameState.getTotalFakeTaskCount(userId);
+            
+            // Добавляем событие выполнения фейкового задания
+            GameEvent fakeTaskEvent = lobby.addGameEvent(userId, "FAKE_TASK", fakeTaskName, photoFileId);
+            if (fakeTaskEvent != null) {
+                logger.debug("Added photo to FAKE_TASK event for player {}", userId);
+            }
+            
+            // Send confirmation message to impostor (using same format as for crewmates)
+            bot.sendTextMessage(chatId, 
+                "✅ Проверка фото принята! Задание \"" + fakeTaskName + "\" выполнено!\n" +
+                "Прогресс: " + completedCount + "/" + totalCount + " заданий");
+        } else {
+            // This should not happen normally, but handle it just in case
+            bot.sendTextMessage(chatId, "Это задание уже выполнено или недействительно.");
+            logger.warn("Impostor {} attempted to complete invalid fake task {} with photo", 
+                    userId, fakeTaskIndex);
+        }
+        
+        // Update player's action keyboard
+        gameState.updatePlayerActionKeyboard(bot, lobby, player);
+        
+        logger.info("Impostor {} completed fake task {} with photo confirmation", userId, fakeTaskIndex);
+    }
+    
+    /**
+     * Completes a player's task after its photo passed validation.
+     */
+    private void completeTask(GameLobby lobby, GameActiveState gameState, Player player, Long chatId,
+                              Integer taskIndex, String photoFileId) {
+        Long userId = player.getUserId();
         
         // Complete the task
         boolean completed = player.completeTask(taskIndex);
         
-        if (completed) {
-            // Clear the awaiting status
+        // Clear the awaiting status, unless the player already picked another task
+        if (taskIndex.equals(player.getAwaitingPhotoForTaskIndex())) {
             player.setAwaitingPhotoForTaskIndex(null);
-            
+        }
+        
+        if (completed) {
             // Update the player
             String taskName = player.getTasks().get(taskIndex).getName();
             
             // Добавляем событие выполнения задания
-            GameEvent taskEvent = lobby.addGameEvent(userId, "TASK", taskName);
+            GameEvent taskEvent = lobby.addGameEvent(userId, "TASK", taskName, photoFileId);
             if (taskEvent != null) {
-                // Прикрепляем фото к событию
-                taskEvent.setPhotoFileId(photoFileId);
                 logger.debug("Added photo to TASK event for player {}", userId);
             }
             
@@ -232,11 +301,16 @@ public class MessageHandler {
             
             logger.info("Player {} completed task {} with photo confirmation", userId, taskIndex);
             
+            // The group dashboard shows the shared task bar
+            GroupDashboard dashboard = GroupDashboard.forLobby(bot, lobby);
+            if (dashboard != null) {
+                dashboard.refresh(lobby);
+            }
+            
             // Check win conditions
             gameState.checkAndUpdateWinConditions(bot, lobby);
         } else {
             // This should not happen normally, but handle it just in case
-            player.setAwaitingPhotoForTaskIndex(null);
             bot.sendTextMessage(chatId, "Это задание уже выполнено или недействительно.");
             logger.warn("Player {} attempted to complete already completed task {} with photo", 
                     userId, taskIndex);
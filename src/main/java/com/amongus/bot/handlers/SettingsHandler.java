@@ -38,6 +38,8 @@ public class SettingsHandler {
         SETTING_KEY_MAP.put("voting_time", LobbySettings.VOTING_TIME);
         SETTING_KEY_MAP.put("tasks_per_player", LobbySettings.TASKS_PER_PLAYER);
         SETTING_KEY_MAP.put("kill_cooldown", LobbySettings.KILL_COOLDOWN);
+        SETTING_KEY_MAP.put("ready_quorum", LobbySettings.READY_QUORUM);
+        SETTING_KEY_MAP.put("max_players", LobbySettings.MAX_PLAYERS);
     }
     
     public SettingsHandler(AmongUsBot bot, LobbyManager lobbyManager) {
@@ -65,6 +67,8 @@ public class SettingsHandler {
         if (setting.contains("voting")) return LobbySettings.VOTING_TIME;
         if (setting.contains("tasks")) return LobbySettings.TASKS_PER_PLAYER;
         if (setting.contains("kill")) return LobbySettings.KILL_COOLDOWN;
+        if (setting.contains("ready") || setting.contains("quorum")) return LobbySettings.READY_QUORUM;
+        if (setting.contains("max")) return LobbySettings.MAX_PLAYERS;
         
         // Fallback to original setting if no mapping found
         return setting;
@@ -84,6 +88,8 @@ public class SettingsHandler {
             case LobbySettings.VOTING_TIME: return 180;
             case LobbySettings.TASKS_PER_PLAYER: return 10;
             case LobbySettings.KILL_COOLDOWN: return 360;
+            case LobbySettings.READY_QUORUM: return 100;
+            case LobbySettings.MAX_PLAYERS: return 100;
             default: return Integer.MAX_VALUE;
         }
     }
@@ -102,6 +108,8 @@ public class SettingsHandler {
             case LobbySettings.VOTING_TIME: return 30;
             case LobbySettings.TASKS_PER_PLAYER: return 1;
             case LobbySettings.KILL_COOLDOWN: return 10;
+            case LobbySettings.READY_QUORUM: return 50;
+            case LobbySettings.MAX_PLAYERS: return 4;
             default: return 0;
         }
     }
@@ -273,8 +281,11 @@ public class SettingsHandler {
         int step = 1;
         if (settingKey.equals(LobbySettings.DISCUSSION_TIME) || 
             settingKey.equals(LobbySettings.VOTING_TIME) || 
-            settingKey.equals(LobbySettings.KILL_COOLDOWN)) {
+            settingKey.equals(LobbySettings.KILL_COOLDOWN) ||
+            settingKey.equals(LobbySettings.MAX_PLAYERS)) {
             step = 5;
+        } else if (settingKey.equals(LobbySettings.READY_QUORUM)) {
+            step = 10;
         }
         
         // Проверяем, что новое значение не превысит максимум
@@ -327,8 +338,11 @@ public class SettingsHandler {
         int step = 1;
         if (settingKey.equals(LobbySettings.DISCUSSION_TIME) || 
             settingKey.equals(LobbySettings.VOTING_TIME) || 
-            settingKey.equals(LobbySettings.KILL_COOLDOWN)) {
+            settingKey.equals(LobbySettings.KILL_COOLDOWN) ||
+            settingKey.equals(LobbySettings.MAX_PLAYERS)) {
             step = 5;
+        } else if (settingKey.equals(LobbySettings.READY_QUORUM)) {
+            step = 10;
         }
         
         // Проверяем, что новое значение не будет меньше минимума
@@ -425,6 +439,13 @@ public class SettingsHandler {
             case LobbySettings.KILL_COOLDOWN:
                 message = "Время в секундах между убийствами Предателя\nДиапазон: " + min + " сек - " + max + " сек";
                 break;
+            case LobbySettings.READY_QUORUM:
+                message = "Доля живых игроков, нажавших «Готов», после которой обсуждение заканчивается досрочно\nДиапазон: " + min + "% - " + max + "%";
+                break;
+            case LobbySettings.MAX_PLAYERS:
+                message = "Максимальное число игроков в лобби. Больше " + LobbySettings.DEFAULT_MAX_PLAYERS 
+                        + " — режим большого лобби с постраничными кнопками\nДиапазон: " + min + " - " + max;
+                break;
             default:
                 message = "Значение настройки может быть между " + min + " и " + max;
         }
@@ -447,6 +468,9 @@ public class SettingsHandler {
           .append("*\n\n");
         
         sb.append("*🔧 Конфигурация игры:*\n")
+          .append("• Максимум игроков: ")
+          .append(settings.getMaxPlayers())
+          .append("\n")
           .append("• Предатели: ")
           .append(settings.getImpostorCount())
           .append("\n")
@@ -466,7 +490,10 @@ public class SettingsHandler {
           .append(" сек\n")
           .append("• Время голосования: ")
           .append(settings.getVotingTime())
-          .append(" сек\n\n");
+          .append(" сек\n")
+          .append("• Кворум готовности: ")
+          .append(settings.getReadyQuorum())
+          .append("%\n\n");
         
         sb.append("_Используйте кнопки ниже для изменения настроек_");
         
@@ -485,6 +512,11 @@ public class SettingsHandler {
         List<List<InlineKeyboardButton>> keyboard = new ArrayList<>();
         
         // Game settings
+        keyboard.add(createSettingRow("Максимум игроков", LobbySettings.MAX_PLAYERS, 
+                settings.getMaxPlayers(), 
+                settings.getMinValue(LobbySettings.MAX_PLAYERS), 
+                settings.getMaxValue(LobbySettings.MAX_PLAYERS)));
+        
         keyboard.add(createSettingRow("Предатели", LobbySettings.IMPOSTOR_COUNT, 
                 settings.getImpostorCount(), 
                 settings.getMinValue(LobbySettings.IMPOSTOR_COUNT), 
@@ -516,6 +548,11 @@ public class SettingsHandler {
                 settings.getMinValue(LobbySettings.VOTING_TIME), 
                 settings.getMaxValue(LobbySettings.VOTING_TIME)));
         
+        keyboard.add(createSettingRow("Кворум готовности", LobbySettings.READY_QUORUM, 
+                settings.getReadyQuorum(), 
+                settings.getMinValue(LobbySettings.READY_QUORUM), 
+                settings.getMaxValue(LobbySettings.READY_QUORUM)));
+        
         // Action buttons
         List<InlineKeyboardButton> actionRow = new ArrayList<>();
         
@@ -565,7 +602,8 @@ public class SettingsHandler {
         InlineKeyboardButton valueButton = new InlineKeyboardButton();
         
         // Add units for time-based settings
-        String displayValue = value + (setting.endsWith("time") ? " сек" : "");
+        String displayValue = value + (setting.endsWith("time") ? " сек" : "")
+                + (setting.equals(LobbySettings.READY_QUORUM) ? "%" : "");
         valueButton.setText(label + ": " + displayValue);
         valueButton.setCallbackData("settings_info_" + setting);
         row.add(valueButton);
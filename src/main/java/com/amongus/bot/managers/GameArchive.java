@@ -0,0 +1,581 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.utils.SnapshotIO;
+import com.amongus.bot.models.GameEvent;
+import com.amongus.bot.models.Player;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Append-only cold archive of finished games.
+ *
+ * <p>Each game is written once at game over as a deflate-compressed record
+ * (players, events and the rendered summary and report) appended to
+ * {@code games.dat}. {@code games.idx} holds the offset, length and player IDs
+ * of every record, so the in-memory index is a few longs per game and the
+ * game itself can leave the heap. Reads map just the record's region of the
+ * data file and inflate it on demand.
+ *
+ * <p>Appends run on a single background thread; {@link #flush()} waits for
+ * them.
+ */
+public class GameArchive {
+    private static final Logger logger = LoggerFactory.getLogger(GameArchive.class);
+
+    private static final String DATA_FILE = "games.dat";
+    private static final String INDEX_FILE = "games.idx";
+
+    private final Path directory;
+    private final ExecutorService writer;
+
+    // Guards the channels and the index loading
+    private final Object lock = new Object();
+    private FileChannel dataChannel;
+    private FileChannel indexChannel;
+    private boolean loaded;
+
+    private final Map<Long, IndexEntry> index = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lastGameByPlayer = new ConcurrentHashMap<>();
+    private final AtomicLong nextGameId = new AtomicLong(1);
+
+    // Metrics
+    private final AtomicLong gamesArchived = new AtomicLong();
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private final AtomicLong reads = new AtomicLong();
+
+    /**
+     * @param directory The directory holding the archive files
+     */
+    public GameArchive(Path directory) {
+        this.directory = directory;
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AmongUs-GameArchive");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Copies a finished game out of its lobby and queues it for the archive.
+     * Call before the lobby's events are cleared.
+     *
+     * @param lobby The finished game's lobby
+     * @param winner The winning side
+     * @param winReason Why the game ended
+     * @param summary The summary text sent to the players
+     * @param report The detailed report text sent to the players
+     * @return The archived game
+     */
+    public ArchivedGame archive(GameLobby lobby, String winner, String winReason, String summary, String report) {
+        ensureLoaded();
+        List<PlayerResult> players = new ArrayList<>();
+        for (Player player : lobby.getPlayerList()) {
+            players.add(new PlayerResult(player.getUserId(), player.getUserName(), player.isImpostor(),
+                    player.isAlive(), player.getCompletedTaskCount(), player.getTotalTaskCount()));
+        }
+        ArchivedGame game = new ArchivedGame(nextGameId.getAndIncrement(), lobby.getLobbyCode(),
+                System.currentTimeMillis(), winner, winReason, players, lobby.getSortedGameEvents(),
+                summary, report);
+        writer.execute(() -> {
+            try {
+                append(game);
+            } catch (Exception e) {
+                logger.error("Failed to archive game {} of lobby {}: {}", game.getGameId(), game.getLobbyCode(),
+                        e.getMessage(), e);
+            }
+        });
+        return game;
+    }
+
+    private void append(ArchivedGame game) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(4096);
+        DataOutputStream rawOut = new DataOutputStream(raw);
+        game.write(rawOut);
+        rawOut.flush();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.size() / 3 + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream deflated = new DeflaterOutputStream(compressed, deflater)) {
+            raw.writeTo(deflated);
+        } finally {
+            deflater.end();
+        }
+        byte[] record = compressed.toByteArray();
+
+        synchronized (lock) {
+            openLocked();
+            long offset = dataChannel.size();
+            ByteBuffer data = ByteBuffer.wrap(record);
+            while (data.hasRemaining()) {
+                dataChannel.write(data, offset + data.position());
+            }
+            dataChannel.force(false);
+
+            // The index entry goes last, so a crash in between leaves an unreferenced tail only
+            IndexEntry entry = new IndexEntry(game.getGameId(), offset, record.length, game.getPlayerIds());
+            ByteBuffer indexBytes = entry.encode();
+            long indexOffset = indexChannel.size();
+            while (indexBytes.hasRemaining()) {
+                indexChannel.write(indexBytes, indexOffset + indexBytes.position());
+            }
+            indexChannel.force(false);
+            addToIndex(entry);
+        }
+
+        gamesArchived.incrementAndGet();
+        rawBytes.addAndGet(raw.size());
+        compressedBytes.addAndGet(record.length);
+        logger.info("Archived game {} of lobby {} ({} -> {} bytes)", game.getGameId(), game.getLobbyCode(),
+                raw.size(), record.length);
+    }
+
+    /**
+     * Reads the last archived game a player took part in.
+     *
+     * @param userId The Telegram user ID
+     * @return The game, or null if there is none
+     */
+    public ArchivedGame readLastGame(Long userId) {
+        ensureLoaded();
+        Long gameId = lastGameByPlayer.get(userId);
+        return gameId != null ? read(gameId) : null;
+    }
+
+    /**
+     * Reads an archived game by its ID through a read-only mapping of its record.
+     *
+     * @param gameId The game ID
+     * @return The game, or null if it is not archived or cannot be read
+     */
+    public ArchivedGame read(long gameId) {
+        ensureLoaded();
+        IndexEntry entry = index.get(gameId);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            MappedByteBuffer mapped;
+            synchronized (lock) {
+                openLocked();
+                mapped = dataChannel.map(FileChannel.MapMode.READ_ONLY, entry.offset, entry.length);
+            }
+            reads.incrementAndGet();
+            try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteBufferInputStream(mapped)))) {
+                return ArchivedGame.read(in);
+            }
+        } catch (IOException e) {
+            logger.error("Failed to read archived game {}: {}", gameId, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Waits until every queued game is written.
+     */
+    public void flush() {
+        try {
+            writer.submit(() -> { }).get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            logger.warn("Timed out waiting for the game archive: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes queued games and closes the archive files.
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            closeQuietly(dataChannel);
+            closeQuietly(indexChannel);
+            dataChannel = null;
+            indexChannel = null;
+        }
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close archive file: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Loads the index on first use. The files are created by the first append;
+     * a torn tail left by a crash is cut off so later appends follow the last
+     * valid entry instead of the garbage.
+     */
+    private void ensureLoaded() {
+        synchronized (lock) {
+            if (loaded) {
+                return;
+            }
+            loaded = true;
+            Path indexFile = directory.resolve(INDEX_FILE);
+            Path dataFile = directory.resolve(DATA_FILE);
+            if (!Files.exists(indexFile) || !Files.exists(dataFile)) {
+                return;
+            }
+            try {
+                long dataSize = Files.size(dataFile);
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+                long validIndexSize = 0;
+                long validDataSize = 0;
+                while (buffer.hasRemaining()) {
+                    IndexEntry entry = IndexEntry.decode(buffer);
+                    if (entry == null || entry.offset + entry.length > dataSize) {
+                        logger.warn("Game archive index ends with an incomplete entry");
+                        break;
+                    }
+                    addToIndex(entry);
+                    validIndexSize = buffer.position();
+                    validDataSize = Math.max(validDataSize, entry.offset + entry.length);
+                }
+                truncate(indexFile, validIndexSize);
+                truncate(dataFile, validDataSize);
+                logger.info("Loaded game archive index with {} games", index.size());
+            } catch (IOException e) {
+                logger.error("Failed to load game archive index: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void truncate(Path file, long size) throws IOException {
+        if (Files.size(file) <= size) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(false);
+        }
+        logger.warn("Truncated {} to its last valid {} bytes", file.getFileName(), size);
+    }
+
+    private void addToIndex(IndexEntry entry) {
+        index.put(entry.gameId, entry);
+        for (long playerId : entry.playerIds) {
+            lastGameByPlayer.merge(playerId, entry.gameId, Math::max);
+        }
+        nextGameId.accumulateAndGet(entry.gameId + 1, Math::max);
+    }
+
+    private void openLocked() throws IOException {
+        if (dataChannel != null) {
+            return;
+        }
+        Files.createDirectories(directory);
+        dataChannel = FileChannel.open(directory.resolve(DATA_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        indexChannel = FileChannel.open(directory.resolve(INDEX_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    public int getGameCount() {
+        ensureLoaded();
+        return index.size();
+    }
+
+    /**
+     * Gets the archive metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        return String.format("GameArchive Stats - Games: %d, Archived: %d, Raw: %d bytes, Compressed: %d bytes, Reads: %d",
+                index.size(), gamesArchived.get(), rawBytes.get(), compressedBytes.get(), reads.get());
+    }
+
+    private static void writeText(DataOutput out, String text) throws IOException {
+        // writeUTF caps at 64 KB, which long reports can exceed
+        byte[] bytes = (text != null ? text : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(DataInput in) throws IOException {
+        byte[] bytes = new byte[SnapshotIO.readSize(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class IndexEntry {
+        private final long gameId;
+        private final long offset;
+        private final int length;
+        private final long[] playerIds;
+
+        private IndexEntry(long gameId, long offset, int length, long[] playerIds) {
+            this.gameId = gameId;
+            this.offset = offset;
+            this.length = length;
+            this.playerIds = playerIds;
+        }
+
+        private ByteBuffer encode() {
+            ByteBuffer buffer = ByteBuffer.allocate(24 + 8 * playerIds.length);
+            buffer.putLong(gameId).putLong(offset).putInt(length).putInt(playerIds.length);
+            for (long playerId : playerIds) {
+                buffer.putLong(playerId);
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        private static IndexEntry decode(ByteBuffer buffer) {
+            if (buffer.remaining() < 24) {
+                return null;
+            }
+            long gameId = buffer.getLong();
+            long offset = buffer.getLong();
+            int length = buffer.getInt();
+            int players = buffer.getInt();
+            if (players < 0 || buffer.remaining() < 8L * players) {
+                return null;
+            }
+            long[] playerIds = new long[players];
+            for (int i = 0; i < players; i++) {
+                playerIds[i] = buffer.getLong();
+            }
+            return new IndexEntry(gameId, offset, length, playerIds);
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+
+    /**
+     * One player's outcome in an archived game.
+     */
+    public static final class PlayerResult {
+        private final long userId;
+        private final String userName;
+        private final boolean impostor;
+        private final boolean alive;
+        private final int tasksCompleted;
+        private final int tasksTotal;
+
+        PlayerResult(long userId, String userName, boolean impostor, boolean alive, int tasksCompleted, int tasksTotal) {
+            this.userId = userId;
+            this.userName = userName;
+            this.impostor = impostor;
+            this.alive = alive;
+            this.tasksCompleted = tasksCompleted;
+            this.tasksTotal = tasksTotal;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public String getUserName() {
+            return userName;
+        }
+
+        public boolean isImpostor() {
+            return impostor;
+        }
+
+        public boolean isAlive() {
+            return alive;
+        }
+
+        public int getTasksCompleted() {
+            return tasksCompleted;
+        }
+
+        public int getTasksTotal() {
+            return tasksTotal;
+        }
+    }
+
+    /**
+     * A finished game as stored in the archive.
+     */
+    public static final class ArchivedGame {
+        private final long gameId;
+        private final String lobbyCode;
+        private final long finishedAt;
+        private final String winner;
+        private final String winReason;
+        private final List<PlayerResult> players;
+        private final List<GameEvent> events;
+        private final String summary;
+        private final String report;
+
+        ArchivedGame(long gameId, String lobbyCode, long finishedAt, String winner, String winReason,
+                     List<PlayerResult> players, List<GameEvent> events, String summary, String report) {
+            this.gameId = gameId;
+            this.lobbyCode = lobbyCode;
+            this.finishedAt = finishedAt;
+            this.winner = winner;
+            this.winReason = winReason;
+            this.players = Collections.unmodifiableList(players);
+            this.events = Collections.unmodifiableList(events);
+            this.summary = summary;
+            this.report = report;
+        }
+
+        private void write(DataOutput out) throws IOException {
+            out.writeLong(gameId);
+            out.writeUTF(lobbyCode);
+            out.writeLong(finishedAt);
+            SnapshotIO.writeNullableString(out, winner);
+            SnapshotIO.writeNullableString(out, winReason);
+            out.writeInt(players.size());
+            for (PlayerResult player : players) {
+                out.writeLong(player.userId);
+                out.writeUTF(player.userName);
+                out.writeBoolean(player.impostor);
+                out.writeBoolean(player.alive);
+                out.writeInt(player.tasksCompleted);
+                out.writeInt(player.tasksTotal);
+            }
+            out.writeInt(events.size());
+            for (GameEvent event : events) {
+                SnapshotIO.writeNullableLong(out, event.getUserId());
+                SnapshotIO.writeNullableString(out, event.getUserName());
+                out.writeUTF(event.getAction());
+                SnapshotIO.writeNullableString(out, event.getDetails());
+                out.writeLong(event.getTimestamp().getTime());
+                SnapshotIO.writeNullableString(out, event.getPhotoFileId());
+            }
+            writeText(out, summary);
+            writeText(out, report);
+        }
+
+        private static ArchivedGame read(DataInput in) throws IOException {
+            long gameId = in.readLong();
+            String lobbyCode = in.readUTF();
+            long finishedAt = in.readLong();
+            String winner = SnapshotIO.readNullableString(in);
+            String winReason = SnapshotIO.readNullableString(in);
+            int playerCount = SnapshotIO.readSize(in);
+            List<PlayerResult> players = new ArrayList<>(playerCount);
+            for (int i = 0; i < playerCount; i++) {
+                players.add(new PlayerResult(in.readLong(), in.readUTF(), in.readBoolean(), in.readBoolean(),
+                        in.readInt(), in.readInt()));
+            }
+            int eventCount = SnapshotIO.readSize(in);
+            List<GameEvent> events = new ArrayList<>(eventCount);
+            for (int i = 0; i < eventCount; i++) {
+                Long userId = SnapshotIO.readNullableLong(in);
+                String userName = SnapshotIO.readNullableString(in);
+                String action = in.readUTF();
+                String details = SnapshotIO.readNullableString(in);
+                GameEvent event = new GameEvent(userId, userName, action, details, new Date(in.readLong()));
+                event.setPhotoFileId(SnapshotIO.readNullableString(in));
+                events.add(event);
+            }
+            return new ArchivedGame(gameId, lobbyCode, finishedAt, winner, winReason, players, events,
+                    readText(in), readText(in));
+        }
+
+        private long[] getPlayerIds() {
+            long[] ids = new long[players.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = players.get(i).userId;
+            }
+            return ids;
+        }
+
+        public long getGameId() {
+            return gameId;
+        }
+
+        public String getLobbyCode() {
+            return lobbyCode;
+        }
+
+        public long getFinishedAt() {
+            return finishedAt;
+        }
+
+        public String getWinner() {
+            return winner;
+        }
+
+        public String getWinReason() {
+            return winReason;
+        }
+
+        public List<PlayerResult> getPlayers() {
+            return players;
+        }
+
+        public List<GameEvent> getEvents() {
+            return events;
+        }
+
+        public String getSummary() {
+            return summary;
+        }
+
+        public String getReport() {
+            return report;
+        }
+    }
+}
+// COMPLETED: GameArchive class
@@ -0,0 +1,371 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.core.ApiRetrier;
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyContext;
+import com.amongus.bot.game.lobby.LobbySnapshot;
+import com.amongus.bot.models.Player;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.methods.pinnedmessages.PinChatMessage;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The pinned status message of lobbies played in a group chat.
+ *
+ * <p>Roster, phase, timer, task bar and the latest public event live in a
+ * single message that is edited instead of broadcasting to every player.
+ * Changes are coalesced: a refresh only marks the dashboard dirty, and the
+ * edit runs once the minimum interval since the previous one has passed,
+ * rendering whatever the lobby looks like by then. An edit that would not
+ * change the text is skipped. A new dashboard is posted only when Telegram
+ * says the old one is gone or can no longer be edited; other failed edits
+ * leave the dashboard dirty for the next attempt.
+ */
+public class GroupDashboard {
+    private static final Logger logger = LoggerFactory.getLogger(GroupDashboard.class);
+
+    private static final String CONTEXT_KEY = "group-dashboard";
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+    private static final int TASK_BAR_WIDTH = 10;
+
+    private final AmongUsBot bot;
+    private final ScheduledExecutorService scheduler = LobbyContext.newScheduler(1, "AmongUs-Dashboard");
+    private final Map<String, Panel> panels = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong edits = new AtomicLong();
+    private final AtomicLong sends = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * @param bot The bot sending and editing the dashboards
+     */
+    public GroupDashboard(AmongUsBot bot) {
+        this.bot = bot;
+    }
+
+    /**
+     * Gets the dashboard of a lobby played in a group chat.
+     *
+     * @param bot The bot instance; may be null
+     * @param lobby The lobby
+     * @return The dashboard, or null if the lobby is played in private chats
+     */
+    public static GroupDashboard forLobby(AmongUsBot bot, GameLobby lobby) {
+        if (bot == null || lobby == null || !lobby.isGroupMode()) {
+            return null;
+        }
+        return bot.getGroupDashboard();
+    }
+
+    /**
+     * Schedules an update of the lobby's dashboard. Calls within the
+     * minimum edit interval collapse into one edit.
+     *
+     * @param lobby The lobby
+     */
+    public void refresh(GameLobby lobby) {
+        if (!lobby.isGroupMode()) {
+            return;
+        }
+        refreshes.incrementAndGet();
+        Panel panel = panelFor(lobby);
+        synchronized (panel) {
+            if (panel.pending != null) {
+                return;
+            }
+            long now = lobby.getContext().currentTimeMillis();
+            long delay = Math.max(0, panel.lastFlushAt + GameConstants.DASHBOARD_MIN_EDIT_MILLIS - now);
+            panel.pending = lobby.getContext().schedule(scheduler, () -> flush(lobby, panel),
+                    delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Shows a public event (a meeting, a vote result, the winner) on the
+     * dashboard in place of a message to every player.
+     *
+     * @param lobby The lobby
+     * @param text The event
+     */
+    public void announce(GameLobby lobby, String text) {
+        Panel panel = panelFor(lobby);
+        panel.lastEvent = text;
+        refresh(lobby);
+    }
+
+    /**
+     * Shows a countdown on the dashboard, as the time it ends, so it needs no
+     * edit every second.
+     *
+     * @param lobby The lobby
+     * @param label What ends, e.g. "Голосование"
+     * @param endsAt When it ends, on the lobby's clock; 0 removes the timer
+     */
+    public void setDeadline(GameLobby lobby, String label, long endsAt) {
+        Panel panel = panelFor(lobby);
+        panel.deadlineLabel = label;
+        panel.deadlineAt = endsAt;
+        refresh(lobby);
+    }
+
+    private Panel panelFor(GameLobby lobby) {
+        String lobbyCode = lobby.getLobbyCode();
+        Panel panel = panels.get(lobbyCode);
+        if (panel != null) {
+            return panel;
+        }
+        Panel created = new Panel();
+        panel = panels.putIfAbsent(lobbyCode, created);
+        if (panel != null) {
+            return panel;
+        }
+        lobby.getContext().register(CONTEXT_KEY, this, () -> panels.remove(lobbyCode));
+        return created;
+    }
+
+    private void flush(GameLobby lobby, Panel panel) {
+        String text;
+        InlineKeyboardMarkup keyboard;
+        synchronized (panel) {
+            panel.pending = null;
+            panel.lastFlushAt = lobby.getContext().currentTimeMillis();
+            text = render(lobby, panel);
+            keyboard = createKeyboard(lobby);
+            if (text.equals(panel.lastText) && lobby.getDashboardMessageId() != null) {
+                unchanged.incrementAndGet();
+                return;
+            }
+            panel.lastText = text;
+        }
+
+        Long groupChatId = lobby.getGroupChatId();
+        if (groupChatId == null) {
+            return;
+        }
+        Integer messageId = lobby.getDashboardMessageId();
+        if (messageId != null) {
+            EditMessageText edit = new EditMessageText();
+            edit.setChatId(groupChatId);
+            edit.setMessageId(messageId);
+            edit.setText(text);
+            edit.setReplyMarkup(keyboard);
+            try {
+                bot.executeChecked(edit);
+                edits.incrementAndGet();
+                return;
+            } catch (TelegramApiException e) {
+                if (isNotModified(e)) {
+                    unchanged.incrementAndGet();
+                    return;
+                }
+                failures.incrementAndGet();
+                if (!isMessageGone(e)) {
+                    retryLater(lobby, panel, e);
+                    return;
+                }
+                logger.warn("Dashboard {} of lobby {} is gone, posting a new one: {}", messageId,
+                        lobby.getLobbyCode(), e.getMessage());
+            }
+        }
+
+        SendMessage message = new SendMessage();
+        message.setChatId(groupChatId);
+        message.setText(text);
+        message.setReplyMarkup(keyboard);
+        Message sent = bot.executeMethod(message);
+        if (sent == null) {
+            failures.incrementAndGet();
+            return;
+        }
+        sends.incrementAndGet();
+        lobby.setDashboardMessageId(sent.getMessageId());
+
+        PinChatMessage pin = new PinChatMessage();
+        pin.setChatId(groupChatId);
+        pin.setMessageId(sent.getMessageId());
+        pin.setDisableNotification(true);
+        if (bot.executeMethod(pin) == null) {
+            logger.info("Could not pin dashboard of lobby {}; the bot may not be a group admin", lobby.getLobbyCode());
+        }
+    }
+
+    /**
+     * Keeps the panel dirty after a failed edit. A transient failure is
+     * retried after the minimum interval; anything else waits for the next
+     * refresh.
+     */
+    private void retryLater(GameLobby lobby, Panel panel, TelegramApiException e) {
+        synchronized (panel) {
+            panel.lastText = null;
+        }
+        boolean retryable = ApiRetrier.isRetryable(e);
+        logger.warn("Could not edit dashboard of lobby {}{}: {}", lobby.getLobbyCode(),
+                retryable ? ", retrying" : "", e.getMessage());
+        if (retryable) {
+            refresh(lobby);
+        }
+    }
+
+    private static boolean isMessageGone(TelegramApiException e) {
+        String description = apiDescription(e);
+        return description.contains("message to edit not found")
+                || description.contains("message can't be edited")
+                || description.contains("message_id_invalid");
+    }
+
+    private static boolean isNotModified(TelegramApiException e) {
+        return apiDescription(e).contains("message is not modified");
+    }
+
+    private static String apiDescription(TelegramApiException e) {
+        String description = e instanceof TelegramApiRequestException
+                ? ((TelegramApiRequestException) e).getApiResponse() : null;
+        return description != null ? description.toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Builds the dashboard text from the lobby's current state.
+     */
+    private String render(GameLobby lobby, Panel panel) {
+        LobbySnapshot snapshot = lobby.getSnapshot();
+        String stateName = snapshot.getStateName();
+        StringBuilder text = new StringBuilder();
+        text.append("🛸 Among Us — лобби ").append(snapshot.getLobbyCode()).append("\n");
+        text.append("Фаза: ").append(phaseName(stateName)).append("\n");
+
+        if (panel.deadlineAt > 0 && panel.deadlineAt > lobby.getContext().currentTimeMillis()) {
+            text.append("⏱ ").append(panel.deadlineLabel).append(" до ")
+                .append(TIME_FORMAT.format(Instant.ofEpochMilli(panel.deadlineAt))).append("\n");
+        }
+
+        if ("ACTIVE".equals(stateName) || "DISCUSSION".equals(stateName)) {
+            int percentage = lobby.getTaskCompletionPercentage();
+            int filled = percentage * TASK_BAR_WIDTH / 100;
+            text.append("📋 Задания: ").append("▓".repeat(filled)).append("░".repeat(TASK_BAR_WIDTH - filled))
+                .append(" ").append(percentage).append("%\n");
+        }
+
+        text.append("\n👥 Игроки (").append(snapshot.getPlayerCount()).append("):\n");
+        for (LobbySnapshot.PlayerView view : snapshot.getPlayers()) {
+            Player player = lobby.getPlayer(view.getUserId());
+            // Only ejections are public; kills stay hidden until a body is reported
+            String mark = player != null && player.isEjected() ? " 🚪" : "";
+            text.append("• ").append(view.getUserName()).append(view.isHost() ? " 👑" : "").append(mark).append("\n");
+        }
+
+        if (panel.lastEvent != null) {
+            text.append("\n📢 ").append(panel.lastEvent).append("\n");
+        }
+        if ("LOBBY".equals(stateName)) {
+            text.append("\nНажмите «Присоединиться» и напишите боту в личные сообщения /start — " +
+                    "туда придут роль и задания.");
+        }
+        return text.toString();
+    }
+
+    private static String phaseName(String stateName) {
+        if (stateName == null) {
+            return "—";
+        }
+        switch (stateName) {
+            case "LOBBY":
+                return "Набор игроков";
+            case "SETUP":
+                return "Распределение ролей";
+            case "ACTIVE":
+                return "Игра идёт";
+            case "DISCUSSION":
+                return "Обсуждение";
+            case "GAME_OVER":
+                return "Игра окончена";
+            default:
+                return stateName;
+        }
+    }
+
+    private InlineKeyboardMarkup createKeyboard(GameLobby lobby) {
+        List<List<InlineKeyboardButton>> rows = new ArrayList<>();
+        String stateName = lobby.getSnapshot().getStateName();
+        if ("LOBBY".equals(stateName)) {
+            List<InlineKeyboardButton> row = new ArrayList<>();
+            InlineKeyboardButton joinButton = new InlineKeyboardButton();
+            joinButton.setText("✋ Присоединиться");
+            joinButton.setCallbackData("command_groupjoin_" + lobby.getLobbyCode());
+            row.add(joinButton);
+
+            // The lobby state only lets the host start
+            InlineKeyboardButton startButton = new InlineKeyboardButton();
+            startButton.setText("🚀 Начать игру");
+            startButton.setCallbackData(lobby.hasEnoughPlayers() ? "start_game" : "start_game_not_enough_players");
+            row.add(startButton);
+            rows.add(row);
+        } else if ("DISCUSSION".equals(stateName)) {
+            // Counts towards the ready quorum like the button of the private voting keyboard
+            InlineKeyboardButton readyButton = new InlineKeyboardButton();
+            readyButton.setText("✋ Готов к голосованию");
+            readyButton.setCallbackData("ready_vote");
+            rows.add(List.of(readyButton));
+        }
+        InlineKeyboardMarkup keyboard = new InlineKeyboardMarkup();
+        keyboard.setKeyboard(rows);
+        return keyboard;
+    }
+
+    /**
+     * @return The number of lobbies with a dashboard
+     */
+    public int getPanelCount() {
+        return panels.size();
+    }
+
+    /**
+     * Gets the dashboard metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        return String.format("GroupDashboard Stats - Lobbies: %d, Refreshes: %d, Edits: %d, Sends: %d, " +
+                "Unchanged: %d, Failures: %d",
+                panels.size(), refreshes.get(), edits.get(), sends.get(), unchanged.get(), failures.get());
+    }
+
+    /**
+     * Dashboard bookkeeping of one lobby; guarded by itself.
+     */
+    private static final class Panel {
+        private ScheduledFuture<?> pending;
+        private long lastFlushAt = Long.MIN_VALUE / 2;
+        private String lastText;
+        private volatile String lastEvent;
+        private volatile String deadlineLabel;
+        private volatile long deadlineAt;
+    }
+}
+// COMPLETED: GroupDashboard class
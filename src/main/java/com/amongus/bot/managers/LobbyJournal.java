@@ -0,0 +1,673 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyChangeListener;
+import com.amongus.bot.game.lobby.LobbyCodec;
+import com.amongus.bot.game.utils.SnapshotIO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of lobby commands.
+ *
+ * <p>Every state-changing command reaches the journal through
+ * {@link LobbyChangeListener} and is queued without blocking the caller. A
+ * background writer group-commits the queue every
+ * {@link GameConstants#JOURNAL_COMMIT_MILLIS} ms with one gathering channel
+ * write and one force. Each commit writes the commands in order, followed by
+ * one image of every lobby they touched (a {@link LobbyCodec} record), so a
+ * lobby can be rebuilt exactly from its latest image without re-running game
+ * logic; the commands and the recorded game seed are kept to reproduce how it
+ * got there.
+ *
+ * <p>The journal is split into segments named by their first sequence
+ * number. Once a snapshot covers a segment it is deleted
+ * ({@link #compact(long)}). A torn frame at the end of a segment, left by a
+ * crash mid-write, ends that segment's replay.
+ *
+ * <p>A {@link CommitListener} sees every committed batch of frames exactly as
+ * written, which is how a standby process follows the journal.
+ */
+public class LobbyJournal implements LobbyChangeListener {
+    private static final Logger logger = LoggerFactory.getLogger(LobbyJournal.class);
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    static final byte KIND_COMMAND = 1;
+    static final byte KIND_IMAGE = 2;
+    static final byte KIND_CLOSE = 3;
+
+    private final Path directory;
+    private final Queue<PendingEntry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object commitLock = new Object();
+
+    // Handing out a sequence number and queuing its entry happen under enqueueLock,
+    // so the queue is always in sequence order. Closed lobbies are remembered so a
+    // change that raced the close cannot bring the lobby back with a later image.
+    private final Object enqueueLock = new Object();
+    private final Set<GameLobby> closedLobbies = Collections.newSetFromMap(new WeakHashMap<>());
+
+    // Segments on disk and the highest sequence each one holds (guarded by commitLock)
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final Map<Path, Long> segmentMaxSeq = new HashMap<>();
+    private FileChannel currentChannel;
+    private Path currentSegment;
+    private long currentSegmentBytes;
+
+    private ScheduledExecutorService writer;
+    private volatile CommitListener commitListener;
+
+    // Metrics
+    private final AtomicLong commandsWritten = new AtomicLong();
+    private final AtomicLong imagesWritten = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong segmentsCompacted = new AtomicLong();
+
+    /**
+     * @param directory The directory holding the journal segments
+     */
+    public LobbyJournal(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Starts the background group commit.
+     */
+    public synchronized void start() {
+        if (writer != null) {
+            return;
+        }
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AmongUs-Journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::runScheduledCommit, GameConstants.JOURNAL_COMMIT_MILLIS,
+                GameConstants.JOURNAL_COMMIT_MILLIS, TimeUnit.MILLISECONDS);
+        logger.info("Lobby journal started in {}", directory);
+    }
+
+    /**
+     * Stops the background commit, writes what is still queued and closes
+     * the current segment.
+     */
+    public synchronized void stop() {
+        if (writer != null) {
+            writer.shutdownNow();
+            writer = null;
+        }
+        synchronized (commitLock) {
+            try {
+                commit();
+            } catch (IOException e) {
+                logger.error("Failed to write journal on stop: {}", e.getMessage(), e);
+            }
+            closeCurrentSegment();
+        }
+        logger.info("Lobby journal stopped");
+    }
+
+    private void runScheduledCommit() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error committing lobby journal: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onLobbyChange(GameLobby lobby, String command, Long userId, String details) {
+        synchronized (enqueueLock) {
+            if (closedLobbies.contains(lobby)) {
+                return;
+            }
+            pending.add(new PendingEntry(sequence.incrementAndGet(), System.currentTimeMillis(),
+                    lobby.getLobbyCode(), lobby, command, userId, details));
+        }
+    }
+
+    /**
+     * Records that a lobby was closed, so replay does not bring it back.
+     * Changes of the lobby that arrive afterwards are dropped.
+     *
+     * @param lobby The closed lobby
+     */
+    public void recordClose(GameLobby lobby) {
+        synchronized (enqueueLock) {
+            closedLobbies.add(lobby);
+            pending.add(new PendingEntry(sequence.incrementAndGet(), System.currentTimeMillis(),
+                    lobby.getLobbyCode(), null, "CLOSE", null, null));
+        }
+    }
+
+    /**
+     * Writes everything queued so far and forces it to disk.
+     *
+     * @throws IOException If the journal cannot be written
+     */
+    public void flush() throws IOException {
+        synchronized (commitLock) {
+            commit();
+        }
+    }
+
+    private void commit() throws IOException {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<PendingEntry> batch = new ArrayList<>();
+        // Lobbies touched by this batch, in the order they were last touched
+        Map<String, GameLobby> touched = new LinkedHashMap<>();
+        long imageSeq;
+        synchronized (enqueueLock) {
+            PendingEntry polled;
+            while ((polled = pending.poll()) != null) {
+                batch.add(polled);
+                touched.remove(polled.lobbyCode);
+                if (polled.lobby != null && !closedLobbies.contains(polled.lobby)) {
+                    touched.put(polled.lobbyCode, polled.lobby);
+                }
+            }
+            // Images take the next numbers, so frames reach the file in sequence order
+            imageSeq = sequence.get() + 1;
+            sequence.addAndGet(touched.size());
+        }
+
+        List<byte[]> frames = new ArrayList<>();
+        long minSeq = Long.MAX_VALUE;
+        long maxSeq = 0;
+        int commandCount = 0;
+        for (PendingEntry entry : batch) {
+            byte kind = entry.lobby == null ? KIND_CLOSE : KIND_COMMAND;
+            frames.add(frame(entry.seq, entry.timestamp, kind, entry.lobbyCode, out -> {
+                if (kind == KIND_COMMAND) {
+                    out.writeUTF(entry.command);
+                    SnapshotIO.writeNullableLong(out, entry.userId);
+                    SnapshotIO.writeNullableString(out, entry.details);
+                }
+            }));
+            minSeq = Math.min(minSeq, entry.seq);
+            maxSeq = Math.max(maxSeq, entry.seq);
+            commandCount++;
+        }
+
+        // One image per lobby, taken after all of its commands in the batch
+        int imageCount = 0;
+        for (GameLobby lobby : touched.values()) {
+            byte[] image;
+            try {
+                image = LobbyCodec.encode(lobby);
+            } catch (Exception e) {
+                logger.error("Failed to encode journal image of lobby {}: {}", lobby.getLobbyCode(), e.getMessage(), e);
+                continue;
+            }
+            long seq = imageSeq++;
+            frames.add(frame(seq, System.currentTimeMillis(), KIND_IMAGE, lobby.getLobbyCode(), out -> {
+                out.writeInt(image.length);
+                out.write(image);
+            }));
+            maxSeq = Math.max(maxSeq, seq);
+            imageCount++;
+        }
+
+        FileChannel channel = currentChannel(minSeq);
+        ByteBuffer[] buffers = new ByteBuffer[frames.size()];
+        for (int i = 0; i < frames.size(); i++) {
+            buffers[i] = ByteBuffer.wrap(frames.get(i));
+        }
+        long written = 0;
+        while (buffers[buffers.length - 1].hasRemaining()) {
+            written += channel.write(buffers);
+        }
+        channel.force(false);
+
+        CommitListener listener = commitListener;
+        if (listener != null) {
+            listener.onCommit(frames);
+        }
+
+        currentSegmentBytes += written;
+        segmentMaxSeq.merge(currentSegment, maxSeq, Math::max);
+        commits.incrementAndGet();
+        commandsWritten.addAndGet(commandCount);
+        imagesWritten.addAndGet(imageCount);
+        bytesWritten.addAndGet(written);
+
+        if (currentSegmentBytes >= GameConstants.JOURNAL_SEGMENT_BYTES) {
+            closeCurrentSegment();
+        }
+    }
+
+    private FileChannel currentChannel(long firstSeq) throws IOException {
+        if (currentChannel == null) {
+            Files.createDirectories(directory);
+            currentSegment = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX));
+            currentChannel = FileChannel.open(currentSegment, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            currentSegmentBytes = currentChannel.size();
+            segments.put(firstSeq, currentSegment);
+        }
+        return currentChannel;
+    }
+
+    private void closeCurrentSegment() {
+        if (currentChannel == null) {
+            return;
+        }
+        try {
+            currentChannel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close journal segment {}: {}", currentSegment, e.getMessage());
+        }
+        currentChannel = null;
+        currentSegment = null;
+        currentSegmentBytes = 0;
+    }
+
+    /**
+     * Frame layout: length, CRC32 of the payload, then the payload (sequence,
+     * timestamp, kind, lobby code and the kind-specific body).
+     */
+    private static byte[] frame(long seq, long timestamp, byte kind, String lobbyCode, BodyWriter body)
+            throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(64);
+        DataOutputStream payload = new DataOutputStream(payloadBytes);
+        payload.writeLong(seq);
+        payload.writeLong(timestamp);
+        payload.writeByte(kind);
+        payload.writeUTF(lobbyCode);
+        body.write(payload);
+        payload.flush();
+        byte[] bytes = payloadBytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer frame = ByteBuffer.allocate(8 + bytes.length);
+        frame.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        return frame.array();
+    }
+
+    /**
+     * Deletes segments whose every entry is at or below the given sequence,
+     * i.e. already covered by a snapshot. The current segment is closed
+     * first if it is fully covered.
+     *
+     * @param coveredSeq The last sequence the snapshot includes
+     * @return The number of segments deleted
+     */
+    public int compact(long coveredSeq) {
+        synchronized (commitLock) {
+            if (currentSegment != null && segmentMaxSeq.getOrDefault(currentSegment, Long.MAX_VALUE) <= coveredSeq) {
+                closeCurrentSegment();
+            }
+
+            int deleted = 0;
+            for (Map.Entry<Long, Path> segment : new ArrayList<>(segments.entrySet())) {
+                Path path = segment.getValue();
+                Long maxSeq = segmentMaxSeq.get(path);
+                if (path.equals(currentSegment) || maxSeq == null || maxSeq > coveredSeq) {
+                    continue;
+                }
+                try {
+                    Files.deleteIfExists(path);
+                    segments.remove(segment.getKey());
+                    segmentMaxSeq.remove(path);
+                    deleted++;
+                } catch (IOException e) {
+                    logger.warn("Failed to delete journal segment {}: {}", path, e.getMessage());
+                }
+            }
+            if (deleted > 0) {
+                segmentsCompacted.addAndGet(deleted);
+                logger.debug("Compacted {} journal segments up to sequence {}", deleted, coveredSeq);
+            }
+            return deleted;
+        }
+    }
+
+    /**
+     * Reads every segment on disk in sequence order. Also registers the
+     * segments for compaction and moves the sequence counter past them, so
+     * call it once at startup before new commands are recorded.
+     *
+     * @return All readable entries, ordered by sequence
+     * @throws IOException If the directory cannot be listed
+     */
+    public List<Entry> readAll() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return entries;
+        }
+
+        TreeMap<Long, Path> found = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    found.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())), path);
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring unexpected journal file {}", path);
+                }
+            }
+        }
+
+        synchronized (commitLock) {
+            for (Map.Entry<Long, Path> segment : found.entrySet()) {
+                Path path = segment.getValue();
+                long maxSeq = readSegment(path, entries);
+                segments.put(segment.getKey(), path);
+                segmentMaxSeq.merge(path, maxSeq, Math::max);
+                sequence.accumulateAndGet(maxSeq, Math::max);
+            }
+        }
+        entries.sort((a, b) -> Long.compare(a.getSeq(), b.getSeq()));
+        return entries;
+    }
+
+    private long readSegment(Path path, List<Entry> entries) throws IOException {
+        return parseFrames(ByteBuffer.wrap(Files.readAllBytes(path)), "Journal segment " + path.getFileName(), entries);
+    }
+
+    /**
+     * Parses consecutive frames, stopping at the first torn or corrupt one.
+     *
+     * @param buffer The frames
+     * @param source Where the frames came from, for log messages
+     * @param entries Receives the parsed entries
+     * @return The highest sequence parsed, or 0
+     */
+    static long parseFrames(ByteBuffer buffer, String source, List<Entry> entries) throws IOException {
+        long maxSeq = 0;
+        while (buffer.remaining() >= 8) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                logger.warn("{} ends with a torn frame", source);
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                logger.warn("{} has a corrupt frame, ignoring the rest", source);
+                break;
+            }
+            Entry entry = Entry.parse(payload);
+            entries.add(entry);
+            maxSeq = Math.max(maxSeq, entry.getSeq());
+        }
+        return maxSeq;
+    }
+
+    /**
+     * Rebuilds lobbies from the journal: for each lobby, the latest image
+     * after {@code afterSeq}, unless a later close removed it.
+     *
+     * @param entries Entries from {@link #readAll()}
+     * @param afterSeq Entries at or below this sequence are skipped (covered by a snapshot)
+     * @return Lobby images by code, and null values for lobbies closed after the snapshot
+     */
+    public static Map<String, GameLobby> replay(List<Entry> entries, long afterSeq) {
+        Map<String, Entry> latest = new HashMap<>();
+        for (Entry entry : entries) {
+            if (entry.getSeq() > afterSeq && entry.getKind() != KIND_COMMAND) {
+                latest.merge(entry.getLobbyCode(), entry, (a, b) -> a.getSeq() >= b.getSeq() ? a : b);
+            }
+        }
+
+        Map<String, GameLobby> lobbies = new HashMap<>();
+        for (Entry entry : latest.values()) {
+            if (entry.getKind() == KIND_CLOSE) {
+                lobbies.put(entry.getLobbyCode(), null);
+                continue;
+            }
+            try {
+                lobbies.put(entry.getLobbyCode(), LobbyCodec.decode(entry.getImage()));
+            } catch (IOException e) {
+                logger.error("Skipping unreadable journal image of lobby {}: {}", entry.getLobbyCode(), e.getMessage());
+            }
+        }
+        return lobbies;
+    }
+
+    /**
+     * Rebuilds one lobby as it was at a given point, for reproducing bugs.
+     *
+     * @param entries Entries from {@link #readAll()}
+     * @param lobbyCode The lobby code
+     * @param upToSeq The last sequence to apply
+     * @return The lobby, or null if it had no image by then or was closed
+     */
+    public static GameLobby rebuild(List<Entry> entries, String lobbyCode, long upToSeq) {
+        Entry image = null;
+        for (Entry entry : entries) {
+            if (entry.getSeq() > upToSeq || !entry.getLobbyCode().equals(lobbyCode)) {
+                continue;
+            }
+            if (entry.getKind() == KIND_IMAGE) {
+                image = entry;
+            } else if (entry.getKind() == KIND_CLOSE) {
+                image = null;
+            }
+        }
+        if (image == null) {
+            return null;
+        }
+        try {
+            return LobbyCodec.decode(image.getImage());
+        } catch (IOException e) {
+            logger.error("Unreadable journal image of lobby {} at {}: {}", lobbyCode, image.getSeq(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Moves the sequence counter to at least the given value, so commands
+     * recorded after a restart sort after everything a snapshot covers even
+     * when the journal itself was compacted away.
+     *
+     * @param seq The sequence to continue from
+     */
+    public void advanceSequence(long seq) {
+        sequence.accumulateAndGet(seq, Math::max);
+    }
+
+    /**
+     * @return The highest sequence number handed out so far
+     */
+    public long getLastSeq() {
+        return sequence.get();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public int getSegmentCount() {
+        synchronized (commitLock) {
+            return segments.size();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets the listener told about every commit, e.g. a replication link.
+     *
+     * @param commitListener The listener, or null for none
+     */
+    public void setCommitListener(CommitListener commitListener) {
+        this.commitListener = commitListener;
+    }
+
+    /**
+     * Gets the journal metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        return String.format("LobbyJournal Stats - Commits: %d, Commands: %d, Images: %d, Bytes: %d, " +
+                "Segments: %d, Compacted: %d, Pending: %d",
+                commits.get(), commandsWritten.get(), imagesWritten.get(), bytesWritten.get(),
+                getSegmentCount(), segmentsCompacted.get(), pending.size());
+    }
+
+    /**
+     * Receives each batch of frames right after it is forced to disk. Called
+     * on the writer thread with the commit lock held, so it must not block.
+     */
+    @FunctionalInterface
+    public interface CommitListener {
+        void onCommit(List<byte[]> frames);
+    }
+
+    @FunctionalInterface
+    private interface BodyWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static final class PendingEntry {
+        private final long seq;
+        private final long timestamp;
+        private final String lobbyCode;
+        private final GameLobby lobby;
+        private final String command;
+        private final Long userId;
+        private final String details;
+
+        private PendingEntry(long seq, long timestamp, String lobbyCode, GameLobby lobby,
+                             String command, Long userId, String details) {
+            this.seq = seq;
+            this.timestamp = timestamp;
+            this.lobbyCode = lobbyCode;
+            this.lobby = lobby;
+            this.command = command;
+            this.userId = userId;
+            this.details = details;
+        }
+    }
+
+    /**
+     * One journal entry as read back from disk.
+     */
+    public static final class Entry {
+        private final long seq;
+        private final long timestamp;
+        private final byte kind;
+        private final String lobbyCode;
+        private final String command;
+        private final Long userId;
+        private final String details;
+        private final byte[] image;
+
+        private Entry(long seq, long timestamp, byte kind, String lobbyCode,
+                      String command, Long userId, String details, byte[] image) {
+            this.seq = seq;
+            this.timestamp = timestamp;
+            this.kind = kind;
+            this.lobbyCode = lobbyCode;
+            this.command = command;
+            this.userId = userId;
+            this.details = details;
+            this.image = image;
+        }
+
+        private static Entry parse(byte[] payload) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            long seq = in.readLong();
+            long timestamp = in.readLong();
+            byte kind = in.readByte();
+            String lobbyCode = in.readUTF();
+            if (kind == KIND_COMMAND) {
+                return new Entry(seq, timestamp, kind, lobbyCode, in.readUTF(),
+                        SnapshotIO.readNullableLong(in), SnapshotIO.readNullableString(in), null);
+            }
+            if (kind == KIND_IMAGE) {
+                byte[] image = new byte[in.readInt()];
+                in.readFully(image);
+                return new Entry(seq, timestamp, kind, lobbyCode, "IMAGE", null, null, image);
+            }
+            return new Entry(seq, timestamp, kind, lobbyCode, "CLOSE", null, null, null);
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        byte getKind() {
+            return kind;
+        }
+
+        public String getLobbyCode() {
+            return lobbyCode;
+        }
+
+        /**
+         * @return The command, or {@code IMAGE} / {@code CLOSE} for lobby images and closes
+         */
+        public String getCommand() {
+            return command;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getDetails() {
+            return details;
+        }
+
+        byte[] getImage() {
+            return image;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("#%d %s %s user=%s %s", seq, lobbyCode, command, userId,
+                    details != null ? details : "");
+        }
+    }
+}
+// COMPLETED: LobbyJournal class
@@ -0,0 +1,183 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.states.GameState;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches closed lobbies and their game states through weak references and
+ * reports instances that are still reachable some time after the close.
+ * A reported instance is only a suspect, since the collector may simply not
+ * have run yet; in test mode a collection is requested before every check,
+ * which makes the report exact enough to assert on.
+ */
+public class LobbyLeakDetector {
+    private static final Logger logger = LoggerFactory.getLogger(LobbyLeakDetector.class);
+
+    private final long graceMillis;
+    private final boolean testMode;
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+    private final Set<Watch> watches = ConcurrentHashMap.newKeySet();
+
+    // Metrics
+    private final AtomicLong watchedTotal = new AtomicLong();
+    private final AtomicLong collectedTotal = new AtomicLong();
+    private final AtomicLong flaggedTotal = new AtomicLong();
+
+    public LobbyLeakDetector() {
+        this(TimeUnit.SECONDS.toMillis(GameConstants.LEAK_CHECK_GRACE_SECONDS), false);
+    }
+
+    /**
+     * @param graceMillis How long a closed instance may stay reachable before it is flagged
+     * @param testMode Whether to request a garbage collection before each check
+     */
+    public LobbyLeakDetector(long graceMillis, boolean testMode) {
+        this.graceMillis = graceMillis;
+        this.testMode = testMode;
+    }
+
+    /**
+     * Starts watching a closed lobby and its current game state.
+     *
+     * @param lobby The lobby that was just closed
+     */
+    public void watchLobby(GameLobby lobby) {
+        watch(lobby, "GameLobby " + lobby.getLobbyCode());
+        GameState state = lobby.getGameState();
+        if (state != null) {
+            watchState(state, lobby.getLobbyCode());
+        }
+    }
+
+    /**
+     * Starts watching a game state that belonged to a closed lobby.
+     */
+    public void watchState(GameState state, String lobbyCode) {
+        watch(state, state.getClass().getSimpleName() + " of lobby " + lobbyCode);
+    }
+
+    /**
+     * Starts watching an object that is expected to become unreachable.
+     *
+     * @param instance The object to watch
+     * @param label Label used when the object is reported
+     */
+    public void watch(Object instance, String label) {
+        watches.add(new Watch(instance, label, System.currentTimeMillis(), collected));
+        watchedTotal.incrementAndGet();
+    }
+
+    /**
+     * Reports watched objects that are still reachable after the grace period.
+     * Each object is reported once and then no longer watched.
+     *
+     * @param nowMillis The current time in epoch milliseconds
+     * @return Labels of the objects reported by this check
+     */
+    public List<String> check(long nowMillis) {
+        if (testMode) {
+            System.gc();
+        }
+        drainCollected();
+
+        List<String> flagged = new ArrayList<>();
+        for (Watch watch : watches) {
+            if (nowMillis - watch.closedAtMillis < graceMillis || watch.get() == null) {
+                continue;
+            }
+            if (watches.remove(watch)) {
+                flagged.add(watch.label);
+                flaggedTotal.incrementAndGet();
+                logger.warn("Possible leak: {} is still reachable {} ms after its lobby was closed",
+                        watch.label, nowMillis - watch.closedAtMillis);
+            }
+        }
+        return flagged;
+    }
+
+    /**
+     * Test mode helper: requests collections until every watched object is gone
+     * or the timeout expires.
+     *
+     * @param timeoutMillis Maximum time to wait
+     * @return The number of watched objects still reachable
+     */
+    public int awaitCollection(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            System.gc();
+            drainCollected();
+            watches.removeIf(watch -> watch.get() == null);
+            if (watches.isEmpty() || System.currentTimeMillis() >= deadline) {
+                return watches.size();
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private void drainCollected() {
+        Reference<?> reference;
+        while ((reference = collected.poll()) != null) {
+            if (watches.remove(reference)) {
+                collectedTotal.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @return Labels of the objects still watched and not yet collected
+     */
+    public List<String> getRetainedLabels() {
+        List<String> labels = new ArrayList<>();
+        for (Watch watch : watches) {
+            if (watch.get() != null) {
+                labels.add(watch.label);
+            }
+        }
+        return labels;
+    }
+
+    public int getWatchedCount() {
+        return watches.size();
+    }
+
+    public long getFlaggedCount() {
+        return flaggedTotal.get();
+    }
+
+    /**
+     * Gets the leak detector metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        return String.format("LobbyLeakDetector Stats - Watched: %d, Collected: %d, Flagged: %d, Pending: %d",
+                watchedTotal.get(), collectedTotal.get(), flaggedTotal.get(), watches.size());
+    }
+
+    private static final class Watch extends WeakReference<Object> {
+        private final String label;
+        private final long closedAtMillis;
+
+        private Watch(Object referent, String label, long closedAtMillis, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.label = label;
+            this.closedAtMillis = closedAtMillis;
+        }
+    }
+}
+// COMPLETED: LobbyLeakDetector class
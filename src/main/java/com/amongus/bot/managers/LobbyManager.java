@@ -1,32 +1,56 @@
 package com.amongus.bot.managers;
 
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyCodeAllocator;
+import com.amongus.bot.game.lobby.LobbyFootprint;
+import com.amongus.bot.game.states.DiscussionState;
+import com.amongus.bot.game.states.GameActiveState;
+import com.amongus.bot.game.states.GameState;
+import com.amongus.bot.game.states.LobbyState;
 import com.amongus.bot.models.Player;
 import com.amongus.bot.game.GameConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
-import java.util.Objects;
+import java.util.function.Predicate;
 
 /**
  * Manages game lobbies for the Among Us bot.
- * Thread-safe implementation using ConcurrentHashMap.
+ * Thread-safe implementation using ConcurrentHashMap. Membership changes take
+ * the striped lock of every lobby they touch, so both maps always change together.
  */
 public class LobbyManager {
     private static final Logger logger = LoggerFactory.getLogger(LobbyManager.class);
-    private static final int LOBBY_CODE_LENGTH = 6;
-    private static final String LOBBY_CODE_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
     
-    // Thread-safe collections
-    private final Map<String, GameLobby> lobbiesByCode;
-    private final Map<Long, String> playerLobbies;
+    // Thread-safe collections keyed by packed lobby codes (see LobbyCodeAllocator)
+    private final Map<Integer, GameLobby> lobbiesByCode;
+    private final Map<Long, Integer> playerLobbies;
+    private final LobbyCodeAllocator codeAllocator;
+    
+    // Lock striping: lobbies hashing to the same stripe share a lock (power of two)
+    private static final int LOCK_STRIPES = 64;
+    private final ReentrantLock[] lobbyLocks;
+    
+    private final LobbyLeakDetector leakDetector;
+    
+    // Write-ahead journal of lobby commands; null when journaling is off
+    private volatile LobbyJournal journal;
     
     public LobbyManager() {
         this.lobbiesByCode = new ConcurrentHashMap<>();
         this.playerLobbies = new ConcurrentHashMap<>();
+        this.codeAllocator = new LobbyCodeAllocator();
+        this.leakDetector = new LobbyLeakDetector();
+        this.lobbyLocks = new ReentrantLock[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            lobbyLocks[i] = new ReentrantLock();
+        }
         logger.info("LobbyManager initialized with thread-safe collections");
     }
     
@@ -47,22 +71,75 @@ public class LobbyManager {
             throw new IllegalArgumentException("Host name cannot be null or empty");
         }
         
-        // Check if host is already in a lobby
-        if (playerLobbies.containsKey(hostId)) {
-            String existingLobbyCode = playerLobbies.get(hostId);
-            logger.warn("Host {} is already in lobby {}, removing from previous lobby", 
-                    hostId, existingLobbyCode);
-            removePlayerFromLobby(hostId);
-        }
-        
-        String lobbyCode = generateLobbyCode();
+        int lobbyKey = codeAllocator.nextKey(lobbiesByCode::containsKey);
+        String lobbyCode = LobbyCodeAllocator.format(lobbyKey);
         GameLobby lobby = new GameLobby(lobbyCode, hostId, hostName);
         
-        lobbiesByCode.put(lobbyCode, lobby);
-        playerLobbies.put(hostId, lobbyCode);
+        while (true) {
+            Integer existingLobbyKey = playerLobbies.get(hostId);
+            GameLobby emptied = null;
+            ReentrantLock[] held = lockLobbies(lobbyKey, existingLobbyKey);
+            try {
+                if (!claimMembership(hostId, existingLobbyKey, lobbyKey)) {
+                    continue; // Host moved concurrently, re-read and retry
+                }
+                lobbiesByCode.put(lobbyKey, lobby);
+                
+                // Check if host was already in a lobby
+                if (existingLobbyKey != null) {
+                    logger.warn("Host {} is already in lobby {}, removing from previous lobby", 
+                            hostId, LobbyCodeAllocator.format(existingLobbyKey));
+                    emptied = detachPlayer(hostId, existingLobbyKey);
+                }
+            } finally {
+                unlock(held);
+            }
+            if (emptied != null) {
+                disposeLobby(emptied);
+            }
+            
+            LobbyJournal currentJournal = journal;
+            if (currentJournal != null) {
+                lobby.setChangeListener(currentJournal);
+                currentJournal.onLobbyChange(lobby, "CREATE", hostId, hostName);
+            }
+            
+            logger.info("Created new lobby {} with host {} ({})", lobbyCode, hostName, hostId);
+            return lobby;
+        }
+    }
+    
+    /**
+     * Registers a lobby restored from a snapshot under its original code.
+     * Players already mapped to another lobby keep that mapping.
+     * 
+     * @param lobby The decoded lobby
+     * @return True if the lobby was registered, false if its code is invalid or taken
+     */
+    public boolean restoreLobby(GameLobby lobby) {
+        int lobbyKey = LobbyCodeAllocator.parse(lobby.getLobbyCode());
+        if (lobbyKey == LobbyCodeAllocator.INVALID_KEY) {
+            logger.warn("Cannot restore lobby with invalid code {}", lobby.getLobbyCode());
+            return false;
+        }
         
-        logger.info("Created new lobby {} with host {} ({})", lobbyCode, hostName, hostId);
-        return lobby;
+        ReentrantLock[] held = lockLobbies(lobbyKey, null);
+        try {
+            if (lobbiesByCode.putIfAbsent(lobbyKey, lobby) != null) {
+                logger.warn("Cannot restore lobby {}: code already in use", lobby.getLobbyCode());
+                return false;
+            }
+            for (Player player : lobby.getPlayerList()) {
+                if (playerLobbies.putIfAbsent(player.getUserId(), lobbyKey) != null) {
+                    logger.warn("Player {} of restored lobby {} is already in another lobby", 
+                            player.getUserId(), lobby.getLobbyCode());
+                }
+            }
+        } finally {
+            unlock(held);
+        }
+        lobby.setChangeListener(journal);
+        return true;
     }
     
     /**
@@ -77,7 +154,8 @@ public class LobbyManager {
             return null;
         }
         
-        return lobbiesByCode.get(lobbyCode.trim().toUpperCase());
+        int lobbyKey = LobbyCodeAllocator.parse(lobbyCode);
+        return lobbyKey != LobbyCodeAllocator.INVALID_KEY ? lobbiesByCode.get(lobbyKey) : null;
     }
     
     /**
@@ -92,8 +170,47 @@ public class LobbyManager {
             return null;
         }
         
-        String lobbyCode = playerLobbies.get(userId);
-        return lobbyCode != null ? lobbiesByCode.get(lobbyCode) : null;
+        Integer lobbyKey = playerLobbies.get(userId);
+        return lobbyKey != null ? lobbiesByCode.get(lobbyKey) : null;
+    }
+    
+    /**
+     * Gets the lobby played in a group chat.
+     * 
+     * @param groupChatId The group chat ID
+     * @return The game lobby, or null if no lobby is bound to the group
+     */
+    public GameLobby getLobbyForGroup(Long groupChatId) {
+        if (groupChatId == null) {
+            return null;
+        }
+        for (GameLobby lobby : lobbiesByCode.values()) {
+            if (groupChatId.equals(lobby.getGroupChatId())) {
+                return lobby;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Marks the player's lobby as active, if they are in one.
+     * 
+     * @param userId The player's user ID
+     */
+    public void recordActivity(Long userId) {
+        GameLobby lobby = getLobbyForPlayer(userId);
+        if (lobby != null) {
+            lobby.touch();
+        }
+    }
+    
+    /**
+     * Gets a point-in-time copy of all open lobbies.
+     * 
+     * @return The open lobbies
+     */
+    public List<GameLobby> getLobbies() {
+        return new ArrayList<>(lobbiesByCode.values());
     }
     
     /**
@@ -121,31 +238,55 @@ public class LobbyManager {
         }
         
         String normalizedLobbyCode = lobbyCode.trim().toUpperCase();
-        GameLobby lobby = lobbiesByCode.get(normalizedLobbyCode);
-        if (lobby == null) {
+        int lobbyKey = LobbyCodeAllocator.parse(normalizedLobbyCode);
+        if (lobbyKey == LobbyCodeAllocator.INVALID_KEY) {
             logger.warn("Player {} tried to join non-existent lobby {}", userId, normalizedLobbyCode);
             return false;
         }
         
-        // Remove player from previous lobby if exists
-        if (playerLobbies.containsKey(userId)) {
-            String previousLobby = playerLobbies.get(userId);
-            if (!Objects.equals(previousLobby, normalizedLobbyCode)) {
-                logger.info("Player {} is moving from lobby {} to {}", 
-                        userId, previousLobby, normalizedLobbyCode);
-                removePlayerFromLobby(userId);
+        while (true) {
+            Integer previousLobbyKey = playerLobbies.get(userId);
+            if (previousLobbyKey != null && previousLobbyKey == lobbyKey) {
+                logger.warn("Player {} is already in lobby {}", userId, normalizedLobbyCode);
+                return false;
+            }
+            
+            GameLobby emptied = null;
+            ReentrantLock[] held = lockLobbies(lobbyKey, previousLobbyKey);
+            try {
+                GameLobby lobby = lobbiesByCode.get(lobbyKey);
+                if (lobby == null) {
+                    logger.warn("Player {} tried to join non-existent lobby {}", userId, normalizedLobbyCode);
+                    return false;
+                }
+                
+                if (!claimMembership(userId, previousLobbyKey, lobbyKey)) {
+                    continue; // Player moved concurrently, re-read and retry
+                }
+                
+                if (!lobby.addPlayer(userId, userName.trim())) {
+                    releaseMembership(userId, lobbyKey, previousLobbyKey);
+                    logger.warn("Failed to add player {} to lobby {} (lobby may be full or game in progress)", 
+                            userId, normalizedLobbyCode);
+                    return false;
+                }
+                
+                // Remove player from previous lobby only once the join succeeded
+                if (previousLobbyKey != null) {
+                    logger.info("Player {} is moving from lobby {} to {}", 
+                            userId, LobbyCodeAllocator.format(previousLobbyKey), normalizedLobbyCode);
+                    emptied = detachPlayer(userId, previousLobbyKey);
+                }
+                
+                logger.info("Player {} ({}) joined lobby {}", userId, userName, normalizedLobbyCode);
+                return true;
+            } finally {
+                unlock(held);
+                if (emptied != null) {
+                    disposeLobby(emptied);
+                }
             }
         }
-        
-        if (lobby.addPlayer(userId, userName.trim())) {
-            playerLobbies.put(userId, normalizedLobbyCode);
-            logger.info("Player {} ({}) joined lobby {}", userId, userName, normalizedLobbyCode);
-            return true;
-        }
-        
-        logger.warn("Failed to add player {} to lobby {} (lobby may be full or game in progress)", 
-                userId, normalizedLobbyCode);
-        return false;
     }
     
     /**
@@ -160,32 +301,114 @@ public class LobbyManager {
             return false;
         }
         
-        String lobbyCode = playerLobbies.remove(userId);
-        if (lobbyCode == null) {
-            logger.debug("Player {} was not in any lobby", userId);
-            return false;
+        while (true) {
+            Integer lobbyKey = playerLobbies.get(userId);
+            if (lobbyKey == null) {
+                logger.debug("Player {} was not in any lobby", userId);
+                return false;
+            }
+            
+            GameLobby emptied;
+            ReentrantLock[] held = lockLobbies(lobbyKey, null);
+            try {
+                if (!playerLobbies.remove(userId, lobbyKey)) {
+                    continue; // Player moved concurrently, re-read and retry
+                }
+                
+                if (!lobbiesByCode.containsKey(lobbyKey)) {
+                    logger.warn("Player {} was in non-existent lobby {}", userId, LobbyCodeAllocator.format(lobbyKey));
+                    return false;
+                }
+                emptied = detachPlayer(userId, lobbyKey);
+            } finally {
+                unlock(held);
+            }
+            if (emptied != null) {
+                disposeLobby(emptied);
+            }
+            
+            logger.info("Player {} left lobby {}", userId, LobbyCodeAllocator.format(lobbyKey));
+            return true;
         }
-        
-        GameLobby lobby = lobbiesByCode.get(lobbyCode);
+    }
+    
+    /**
+     * Removes a player from a lobby object and tidies up the lobby.
+     * Caller must hold the lobby's stripe lock and has already updated playerLobbies.
+     * 
+     * @return The lobby if it became empty and was unregistered, for the caller
+     *         to {@link #disposeLobby} once the lock is released; otherwise null
+     */
+    private GameLobby detachPlayer(Long userId, int lobbyKey) {
+        GameLobby lobby = lobbiesByCode.get(lobbyKey);
         if (lobby == null) {
-            logger.warn("Player {} was in non-existent lobby {}", userId, lobbyCode);
-            return false;
+            return null;
         }
         
         lobby.removePlayer(userId);
         
         // If the lobby is empty or has no host, remove it
+        Long hostId = lobby.getHostId();
         if (lobby.isEmpty()) {
-            lobbiesByCode.remove(lobbyCode);
-            logger.info("Removed empty lobby {}", lobbyCode);
-        } else if (lobby.getHostId() == null || !lobby.getPlayerList().stream()
-                .anyMatch(player -> Objects.equals(player.getUserId(), lobby.getHostId()))) {
+            lobbiesByCode.remove(lobbyKey);
+            logger.info("Removed empty lobby {}", LobbyCodeAllocator.format(lobbyKey));
+            return lobby;
+        } else if (hostId == null || !lobby.hasPlayer(hostId)) {
             // Host left but lobby not empty - assign new host
             assignNewHost(lobby);
         }
-        
-        logger.info("Player {} left lobby {}", userId, lobbyCode);
-        return true;
+        return null;
+    }
+    
+    /**
+     * Atomically points a player at a new lobby, provided they are still where we last saw them.
+     */
+    private boolean claimMembership(Long userId, Integer expectedLobbyKey, int newLobbyKey) {
+        if (expectedLobbyKey == null) {
+            return playerLobbies.putIfAbsent(userId, newLobbyKey) == null;
+        }
+        return playerLobbies.replace(userId, expectedLobbyKey, newLobbyKey);
+    }
+    
+    /**
+     * Undoes {@link #claimMembership} after a failed join.
+     */
+    private void releaseMembership(Long userId, int claimedLobbyKey, Integer previousLobbyKey) {
+        if (previousLobbyKey == null) {
+            playerLobbies.remove(userId, claimedLobbyKey);
+        } else {
+            playerLobbies.replace(userId, claimedLobbyKey, previousLobbyKey);
+        }
+    }
+    
+    private static int stripeIndex(int lobbyKey) {
+        int h = lobbyKey ^ (lobbyKey >>> 16);
+        return h & (LOCK_STRIPES - 1);
+    }
+    
+    /**
+     * Locks the stripes of one or two lobbies in stripe order to avoid deadlocks.
+     * 
+     * @return The locks held, to be passed to {@link #unlock}
+     */
+    private ReentrantLock[] lockLobbies(int lobbyKey, Integer otherLobbyKey) {
+        int first = stripeIndex(lobbyKey);
+        int second = otherLobbyKey != null ? stripeIndex(otherLobbyKey) : first;
+        if (first == second) {
+            lobbyLocks[first].lock();
+            return new ReentrantLock[] {lobbyLocks[first]};
+        }
+        ReentrantLock lower = lobbyLocks[Math.min(first, second)];
+        ReentrantLock upper = lobbyLocks[Math.max(first, second)];
+        lower.lock();
+        upper.lock();
+        return new ReentrantLock[] {upper, lower};
+    }
+    
+    private static void unlock(ReentrantLock[] held) {
+        for (ReentrantLock lock : held) {
+            lock.unlock();
+        }
     }
     
     /**
@@ -218,30 +441,157 @@ public class LobbyManager {
             return false;
         }
         
-        String normalizedLobbyCode = lobbyCode.trim().toUpperCase();
-        GameLobby lobby = lobbiesByCode.remove(normalizedLobbyCode);
-        if (lobby == null) {
-            logger.warn("Attempted to close non-existent lobby {}", normalizedLobbyCode);
+        int lobbyKey = LobbyCodeAllocator.parse(lobbyCode);
+        if (lobbyKey == LobbyCodeAllocator.INVALID_KEY) {
+            logger.warn("Attempted to close lobby with malformed code {}", lobbyCode);
             return false;
         }
+        return closeLobby(lobbyKey, null);
+    }
+    
+    /**
+     * Closes a lobby only if the condition still holds once its lock is held.
+     * Used by the idle scavenger so a lobby that just became active again survives.
+     * 
+     * @param lobbyCode The lobby code
+     * @param condition Checked against the lobby under its lock
+     * @return True if the lobby was closed
+     */
+    public boolean closeLobbyIf(String lobbyCode, Predicate<GameLobby> condition) {
+        int lobbyKey = LobbyCodeAllocator.parse(lobbyCode);
+        if (lobbyKey == LobbyCodeAllocator.INVALID_KEY) {
+            return false;
+        }
+        return closeLobby(lobbyKey, condition);
+    }
+    
+    /**
+     * Closes a lobby by its packed code key and removes all players.
+     * 
+     * @param lobbyKey The packed lobby code
+     * @param condition Optional check made under the lobby lock; null closes unconditionally
+     * @return True if the lobby was closed, false if it didn't exist
+     */
+    private boolean closeLobby(int lobbyKey, Predicate<GameLobby> condition) {
+        String normalizedLobbyCode = LobbyCodeAllocator.format(lobbyKey);
+        GameLobby lobby;
+        ReentrantLock[] held = lockLobbies(lobbyKey, null);
+        try {
+            lobby = lobbiesByCode.get(lobbyKey);
+            if (lobby == null) {
+                logger.warn("Attempted to close non-existent lobby {}", normalizedLobbyCode);
+                return false;
+            }
+            if (condition != null && !condition.test(lobby)) {
+                return false;
+            }
+            lobbiesByCode.remove(lobbyKey);
+            
+            // Remove all players from their mappings, unless they already moved elsewhere
+            for (Player player : lobby.getPlayerList()) {
+                playerLobbies.remove(player.getUserId(), lobbyKey);
+            }
+        } finally {
+            unlock(held);
+        }
         
-        // Remove all players from their mappings
-        for (Player player : lobby.getPlayerList()) {
-            Long playerId = player.getUserId();
-            playerLobbies.remove(playerId);
+        disposeLobby(lobby);
+        logger.info("Closed lobby {} with {} players", normalizedLobbyCode, lobby.getPlayerCount());
+        return true;
+    }
+    
+    /**
+     * Releases everything a lobby that was just unregistered still holds:
+     * its journal entry, state registries, timers and context resources.
+     * Called without the lobby's stripe lock held.
+     * 
+     * @param lobby The lobby, already removed from the registry
+     */
+    private void disposeLobby(GameLobby lobby) {
+        String normalizedLobbyCode = lobby.getLobbyCode();
+        LobbyJournal currentJournal = journal;
+        if (currentJournal != null) {
+            lobby.setChangeListener(null);
+            currentJournal.recordClose(lobby);
         }
         
-        // Cleanup lobby resources
+        // Cleanup lobby resources; LobbyState.onExit announces a game start, so it is skipped
         try {
-            if (lobby.getGameState() != null) {
-                lobby.getGameState().onExit(null, lobby);
+            GameState state = lobby.getGameState();
+            if (state != null && !(state instanceof LobbyState)) {
+                state.onExit(null, lobby);
             }
         } catch (Exception e) {
             logger.error("Error during lobby {} cleanup: {}", normalizedLobbyCode, e.getMessage());
         }
         
-        logger.info("Closed lobby {} with {} players", normalizedLobbyCode, lobby.getPlayerCount());
-        return true;
+        // Drop registry entries even for states whose onExit was skipped earlier
+        GameActiveState.purgeLobby(normalizedLobbyCode);
+        DiscussionState.purgeLobby(normalizedLobbyCode);
+        
+        // Cancel remaining timers and release whatever the states registered
+        lobby.getContext().close();
+        leakDetector.watchLobby(lobby);
+    }
+    
+    /**
+     * Measures every open lobby, heaviest first.
+     * 
+     * @return Footprints sorted by estimated size, descending
+     */
+    public List<LobbyFootprint> getFootprints() {
+        List<LobbyFootprint> footprints = new ArrayList<>();
+        for (GameLobby lobby : lobbiesByCode.values()) {
+            footprints.add(LobbyFootprint.measure(lobby));
+        }
+        footprints.sort(Comparator.comparingLong(LobbyFootprint::getTotalBytes).reversed());
+        return footprints;
+    }
+    
+    /**
+     * Gets the estimated memory held by open lobbies. Walks every lobby, so it is
+     * meant for admin commands and periodic logging, not for hot paths.
+     * 
+     * @return Statistics string
+     */
+    public String getMemoryStatistics() {
+        long bytes = 0;
+        long events = 0;
+        long players = 0;
+        long tasks = 0;
+        long stateEntries = 0;
+        List<LobbyFootprint> footprints = getFootprints();
+        for (LobbyFootprint footprint : footprints) {
+            bytes += footprint.getTotalBytes();
+            events += footprint.getEventCount();
+            players += footprint.getPlayerCount();
+            tasks += footprint.getTaskCount();
+            stateEntries += footprint.getStateEntryCount();
+        }
+        return String.format("LobbyManager Memory - Lobbies: %d, Estimated Bytes: %d, Events: %d, " +
+                "Players: %d, Tasks: %d, State Entries: %d",
+                footprints.size(), bytes, events, players, tasks, stateEntries);
+    }
+    
+    /**
+     * Gets the detector watching closed lobbies for leaks.
+     */
+    public LobbyLeakDetector getLeakDetector() {
+        return leakDetector;
+    }
+    
+    /**
+     * Sets the journal that records every lobby command. Applies to lobbies
+     * created or restored afterwards, so set it before restoring.
+     * 
+     * @param journal The journal, or null to turn journaling off
+     */
+    public void setJournal(LobbyJournal journal) {
+        this.journal = journal;
+    }
+    
+    public LobbyJournal getJournal() {
+        return journal;
     }
     
     /**
@@ -257,6 +607,41 @@ public class LobbyManager {
                 totalLobbies, totalPlayers);
     }
     
+    /**
+     * Drops every lobby after another process took them over. Unlike closing,
+     * nothing is journaled and no state is exited: the games go on elsewhere,
+     * this process only releases its timers and registry entries.
+     * 
+     * @return The number of lobbies released
+     */
+    public int releaseAll() {
+        int released = 0;
+        for (Integer lobbyKey : new ArrayList<>(lobbiesByCode.keySet())) {
+            GameLobby lobby;
+            ReentrantLock[] held = lockLobbies(lobbyKey, null);
+            try {
+                lobby = lobbiesByCode.remove(lobbyKey);
+                if (lobby == null) {
+                    continue;
+                }
+                for (Player player : lobby.getPlayerList()) {
+                    playerLobbies.remove(player.getUserId(), lobbyKey);
+                }
+            } finally {
+                unlock(held);
+            }
+            
+            String lobbyCode = lobby.getLobbyCode();
+            lobby.setChangeListener(null);
+            GameActiveState.purgeLobby(lobbyCode);
+            DiscussionState.purgeLobby(lobbyCode);
+            lobby.getContext().close();
+            released++;
+        }
+        logger.info("Released {} lobbies to another process", released);
+        return released;
+    }
+    
     /**
      * Force cleanup of all lobbies (for shutdown).
      */
@@ -264,8 +649,8 @@ public class LobbyManager {
         logger.info("Shutting down LobbyManager...");
         
         // Close all lobbies
-        for (String lobbyCode : lobbiesByCode.keySet()) {
-            closeLobby(lobbyCode);
+        for (Integer lobbyKey : new ArrayList<>(lobbiesByCode.keySet())) {
+            closeLobby(lobbyKey, null);
         }
         
         // Clear collections
@@ -274,34 +659,4 @@ public class LobbyManager {
         
         logger.info("LobbyManager shutdown completed");
     }
-    
-    /**
-     * Generates a unique lobby code with collision detection.
-     * 
-     * @return A unique lobby code
-     */
-    private String generateLobbyCode() {
-        Random random = new Random();
-        String lobbyCode;
-        int attempts = 0;
-        final int maxAttempts = 100; // Prevent infinite loop
-        
-        do {
-            StringBuilder sb = new StringBuilder(LOBBY_CODE_LENGTH);
-            for (int i = 0; i < LOBBY_CODE_LENGTH; i++) {
-                int index = random.nextInt(LOBBY_CODE_CHARS.length());
-                sb.append(LOBBY_CODE_CHARS.charAt(index));
-            }
-            lobbyCode = sb.toString();
-            attempts++;
-            
-            if (attempts >= maxAttempts) {
-                logger.error("Failed to generate unique lobby code after {} attempts", maxAttempts);
-                throw new RuntimeException("Unable to generate unique lobby code");
-            }
-        } while (lobbiesByCode.containsKey(lobbyCode));
-        
-        logger.debug("Generated lobby code {} in {} attempts", lobbyCode, attempts);
-        return lobbyCode;
-    }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,257 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyFootprint;
+import com.amongus.bot.game.states.DiscussionState;
+import com.amongus.bot.game.states.GameActiveState;
+import com.amongus.bot.game.states.GameState;
+import com.amongus.bot.game.utils.MessageBroadcaster;
+import com.amongus.bot.models.Player;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background task that closes lobbies nobody has touched for too long.
+ * Idle limits are configured per game state. Each pass closes at most one
+ * batch of lobbies; when a batch fills up, the next pass follows shortly
+ * instead of after the full interval. Every pass also purges static state
+ * registries whose entries outlived their lobby or state, and reports
+ * closed lobbies that are still reachable.
+ */
+public class LobbyScavenger {
+    private static final Logger logger = LoggerFactory.getLogger(LobbyScavenger.class);
+
+    private final LobbyManager lobbyManager;
+    private final AmongUsBot bot;
+    private final Map<String, Long> idleLimitsByState = new ConcurrentHashMap<>();
+    private volatile long defaultIdleLimitMillis;
+    private final int batchSize;
+
+    private ScheduledExecutorService scheduler;
+
+    // Metrics
+    private final AtomicLong evictedLobbies = new AtomicLong();
+    private final AtomicLong evictedObjects = new AtomicLong();
+    private final AtomicLong evictedBytes = new AtomicLong();
+    private final AtomicLong purgedRegistrations = new AtomicLong();
+
+    /**
+     * @param lobbyManager The lobby manager to scan
+     * @param bot Used to tell players their lobby was closed; may be null
+     */
+    public LobbyScavenger(LobbyManager lobbyManager, AmongUsBot bot) {
+        this(lobbyManager, bot, GameConstants.SCAVENGER_BATCH_SIZE);
+    }
+
+    LobbyScavenger(LobbyManager lobbyManager, AmongUsBot bot, int batchSize) {
+        this.lobbyManager = lobbyManager;
+        this.bot = bot;
+        this.batchSize = batchSize;
+        this.defaultIdleLimitMillis = TimeUnit.MINUTES.toMillis(GameConstants.IDLE_LIMIT_LOBBY_MINUTES);
+
+        setIdleLimit("LOBBY", GameConstants.IDLE_LIMIT_LOBBY_MINUTES, TimeUnit.MINUTES);
+        setIdleLimit("SETUP", GameConstants.IDLE_LIMIT_SETUP_MINUTES, TimeUnit.MINUTES);
+        setIdleLimit("ACTIVE", GameConstants.IDLE_LIMIT_ACTIVE_MINUTES, TimeUnit.MINUTES);
+        setIdleLimit("DISCUSSION", GameConstants.IDLE_LIMIT_DISCUSSION_MINUTES, TimeUnit.MINUTES);
+        setIdleLimit("GAME_OVER", GameConstants.IDLE_LIMIT_GAME_OVER_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Sets how long a lobby may stay idle in the given state.
+     *
+     * @param stateName The state name as returned by {@link GameState#getStateName()}
+     * @param idleLimit The idle limit
+     * @param unit The unit of the limit
+     */
+    public void setIdleLimit(String stateName, long idleLimit, TimeUnit unit) {
+        idleLimitsByState.put(stateName, unit.toMillis(idleLimit));
+    }
+
+    /**
+     * Sets the idle limit for lobbies without a game state.
+     */
+    public void setDefaultIdleLimit(long idleLimit, TimeUnit unit) {
+        defaultIdleLimitMillis = unit.toMillis(idleLimit);
+    }
+
+    /**
+     * Gets the idle limit for a state.
+     *
+     * @param stateName The state name, or null for lobbies without a state
+     * @return The idle limit in milliseconds
+     */
+    public long getIdleLimitMillis(String stateName) {
+        if (stateName == null) {
+            return defaultIdleLimitMillis;
+        }
+        return idleLimitsByState.getOrDefault(stateName, defaultIdleLimitMillis);
+    }
+
+    /**
+     * Starts the background passes.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AmongUs-LobbyScavenger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.schedule(this::runScheduledPass, GameConstants.SCAVENGER_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        logger.info("Lobby scavenger started (interval {}s, batch {})",
+                GameConstants.SCAVENGER_INTERVAL_SECONDS, batchSize);
+    }
+
+    /**
+     * Stops the background passes.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            logger.info("Lobby scavenger stopped");
+        }
+    }
+
+    private void runScheduledPass() {
+        int evicted = 0;
+        try {
+            evicted = scavenge(System.currentTimeMillis());
+        } catch (Exception e) {
+            logger.error("Error during lobby scavenger pass: {}", e.getMessage(), e);
+        }
+
+        // A full batch means more idle lobbies are probably waiting
+        long delay = evicted >= batchSize
+                ? GameConstants.SCAVENGER_BATCH_PAUSE_SECONDS
+                : GameConstants.SCAVENGER_INTERVAL_SECONDS;
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.schedule(this::runScheduledPass, delay, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    /**
+     * Runs one pass: closes up to one batch of idle lobbies and purges stale
+     * registry entries.
+     *
+     * @param nowMillis The current time in epoch milliseconds
+     * @return The number of lobbies closed
+     */
+    public int scavenge(long nowMillis) {
+        int closed = 0;
+        for (GameLobby lobby : lobbyManager.getLobbies()) {
+            if (closed >= batchSize) {
+                logger.debug("Scavenger batch full, deferring remaining lobbies to the next pass");
+                break;
+            }
+            if (!isIdle(lobby, nowMillis)) {
+                continue;
+            }
+
+            // Footprint is measured before closing, since GameOverState clears events on exit
+            LobbyFootprint footprint = LobbyFootprint.measure(lobby);
+            long objects = footprint.getObjectCount();
+            long bytes = footprint.getTotalBytes();
+            List<Player> players = lobby.getPlayerList();
+
+            if (lobbyManager.closeLobbyIf(lobby.getLobbyCode(), l -> isIdle(l, nowMillis))) {
+                closed++;
+                evictedLobbies.incrementAndGet();
+                evictedObjects.addAndGet(objects);
+                evictedBytes.addAndGet(bytes);
+                logger.info("Evicted idle lobby {} ({} players, ~{} bytes)",
+                        lobby.getLobbyCode(), players.size(), bytes);
+                notifyPlayers(lobby, players);
+            }
+        }
+
+        int purged = purgeStaleRegistrations();
+        // Wall clock on purpose: lobbies closed in this pass are still referenced here
+        lobbyManager.getLeakDetector().check(System.currentTimeMillis());
+        if (closed > 0 || purged > 0) {
+            logger.info("Scavenger pass closed {} lobbies and purged {} stale registrations. {}",
+                    closed, purged, getStatistics());
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(lobbyManager.getMemoryStatistics());
+        }
+        return closed;
+    }
+
+    private boolean isIdle(GameLobby lobby, long nowMillis) {
+        GameState state = lobby.getGameState();
+        long limit = getIdleLimitMillis(state != null ? state.getStateName() : null);
+        return nowMillis - lobby.getLastActivityMillis() >= limit;
+    }
+
+    private int purgeStaleRegistrations() {
+        int purged = 0;
+        for (String lobbyCode : GameActiveState.getRegisteredLobbyCodes()) {
+            if (GameActiveState.purgeStale(lobbyCode, lobbyManager.getLobby(lobbyCode))) {
+                purged++;
+            }
+        }
+        for (String lobbyCode : DiscussionState.getRegisteredLobbyCodes()) {
+            if (DiscussionState.purgeStale(lobbyCode, lobbyManager.getLobby(lobbyCode))) {
+                purged++;
+            }
+        }
+        purgedRegistrations.addAndGet(purged);
+        return purged;
+    }
+
+    private void notifyPlayers(GameLobby lobby, List<Player> players) {
+        if (bot == null) {
+            return;
+        }
+        try {
+            MessageBroadcaster.broadcastText(bot, players,
+                    "⌛ Лобби " + lobby.getLobbyCode() + " закрыто из-за неактивности.");
+        } catch (Exception e) {
+            logger.error("Failed to notify players of evicted lobby {}: {}", lobby.getLobbyCode(), e.getMessage());
+        }
+    }
+
+    public long getEvictedLobbies() {
+        return evictedLobbies.get();
+    }
+
+    public long getEvictedObjects() {
+        return evictedObjects.get();
+    }
+
+    public long getEvictedBytes() {
+        return evictedBytes.get();
+    }
+
+    public long getPurgedRegistrations() {
+        return purgedRegistrations.get();
+    }
+
+    /**
+     * Gets the eviction metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        return String.format("LobbyScavenger Stats - Evicted Lobbies: %d, Evicted Objects: %d, " +
+                "Evicted Bytes: %d, Purged Registrations: %d",
+                getEvictedLobbies(), getEvictedObjects(), getEvictedBytes(), getPurgedRegistrations());
+    }
+}
+// COMPLETED: LobbyScavenger class
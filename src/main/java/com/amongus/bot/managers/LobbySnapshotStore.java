@@ -0,0 +1,428 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyCodec;
+import com.amongus.bot.game.states.GameState;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically writes every live lobby to a binary snapshot file and restores
+ * them on startup.
+ *
+ * <p>File layout: magic, format version, record count, creation time and the
+ * last journal sequence the snapshot covers, then one length-prefixed
+ * {@link LobbyCodec} record per lobby. Snapshots are incremental: a record is
+ * only re-encoded when the lobby was touched since, with a full re-encode
+ * every {@link GameConstants#SNAPSHOT_FULL_EVERY} passes. The file is written with a gathering channel write to a temporary
+ * file and moved into place, so a crash mid-write leaves the previous snapshot.
+ *
+ * <p>When the lobby manager has a {@link LobbyJournal}, each snapshot compacts
+ * the journal segments it covers, and restoring applies the journal written
+ * after the snapshot on top of it.
+ *
+ * <p>Restoring maps the file, decodes records in parallel, registers the
+ * lobbies and re-arms their timers before returning; control messages are
+ * re-sent in the background so serving can start right away.
+ */
+public class LobbySnapshotStore {
+    private static final Logger logger = LoggerFactory.getLogger(LobbySnapshotStore.class);
+
+    private static final int MAGIC = 0x41555331; // "AUS1"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = 28;
+
+    private final LobbyManager lobbyManager;
+    private final AmongUsBot bot;
+    private final Path file;
+
+    // Encoded records by lobby code, reused while the lobby stays idle
+    private final Map<String, CachedRecord> records = new HashMap<>();
+    private int passesSinceFullEncode;
+
+    private ScheduledExecutorService scheduler;
+
+    // Metrics
+    private final AtomicLong snapshotsWritten = new AtomicLong();
+    private final AtomicLong recordsEncoded = new AtomicLong();
+    private final AtomicLong recordsReused = new AtomicLong();
+    private final AtomicLong lastSnapshotBytes = new AtomicLong();
+    private final AtomicLong lastSnapshotMillis = new AtomicLong();
+    private final AtomicLong restoredLobbies = new AtomicLong();
+    private final AtomicLong journalReplayedLobbies = new AtomicLong();
+
+    /**
+     * @param lobbyManager The lobby manager to snapshot and restore into
+     * @param bot Used to re-send control messages after a restore; may be null
+     * @param file The snapshot file
+     */
+    public LobbySnapshotStore(LobbyManager lobbyManager, AmongUsBot bot, Path file) {
+        this.lobbyManager = lobbyManager;
+        this.bot = bot;
+        this.file = file;
+    }
+
+    /**
+     * Starts the periodic snapshots.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AmongUs-LobbySnapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runScheduledSnapshot, GameConstants.SNAPSHOT_INTERVAL_SECONDS,
+                GameConstants.SNAPSHOT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        logger.info("Lobby snapshots started (interval {}s, file {})", GameConstants.SNAPSHOT_INTERVAL_SECONDS, file);
+    }
+
+    /**
+     * Stops the periodic snapshots. Does not write a final snapshot.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            logger.info("Lobby snapshots stopped");
+        }
+    }
+
+    private void runScheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (Exception e) {
+            logger.error("Error writing lobby snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes all live lobbies to the snapshot file.
+     *
+     * @return The number of lobbies written
+     * @throws IOException If the file cannot be written
+     */
+    public int snapshot() throws IOException {
+        long started = System.nanoTime();
+        // Commands up to here are already applied to the lobbies encoded below
+        LobbyJournal journal = lobbyManager.getJournal();
+        long coveredSeq = journal != null ? journal.getLastSeq() : 0;
+        List<byte[]> encoded = new ArrayList<>();
+        synchronized (records) {
+            boolean full = ++passesSinceFullEncode >= GameConstants.SNAPSHOT_FULL_EVERY;
+            if (full) {
+                passesSinceFullEncode = 0;
+            }
+
+            Map<String, CachedRecord> current = new HashMap<>();
+            for (GameLobby lobby : lobbyManager.getLobbies()) {
+                CachedRecord record = records.get(lobby.getLobbyCode());
+                long activity = lobby.getActivityCount();
+                if (full || record == null || record.activityCount != activity) {
+                    try {
+                        record = new CachedRecord(activity, LobbyCodec.encode(lobby));
+                        recordsEncoded.incrementAndGet();
+                    } catch (Exception e) {
+                        // Keep the previous record rather than losing the lobby
+                        logger.error("Failed to encode lobby {}: {}", lobby.getLobbyCode(), e.getMessage(), e);
+                        if (record == null) {
+                            continue;
+                        }
+                    }
+                } else {
+                    recordsReused.incrementAndGet();
+                }
+                current.put(lobby.getLobbyCode(), record);
+                encoded.add(record.bytes);
+            }
+
+            // Drops closed lobbies along with their records
+            records.clear();
+            records.putAll(current);
+        }
+
+        long size = writeFile(encoded, coveredSeq);
+        if (journal != null) {
+            journal.compact(coveredSeq);
+        }
+        snapshotsWritten.incrementAndGet();
+        lastSnapshotBytes.set(size);
+        lastSnapshotMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        logger.debug("Wrote snapshot of {} lobbies ({} bytes) in {} ms", encoded.size(), size, lastSnapshotMillis.get());
+        return encoded.size();
+    }
+
+    private long writeFile(List<byte[]> encoded, long coveredSeq) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        ByteBuffer[] buffers = new ByteBuffer[1 + 2 * encoded.size()];
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(encoded.size()).putLong(System.currentTimeMillis())
+                .putLong(coveredSeq);
+        header.flip();
+        buffers[0] = header;
+        ByteBuffer lengths = ByteBuffer.allocate(4 * encoded.size());
+        for (int i = 0; i < encoded.size(); i++) {
+            lengths.putInt(encoded.get(i).length);
+        }
+        for (int i = 0; i < encoded.size(); i++) {
+            buffers[1 + 2 * i] = lengths.duplicate().position(4 * i).limit(4 * i + 4);
+            buffers[2 + 2 * i] = ByteBuffer.wrap(encoded.get(i));
+        }
+
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Gathering writes may be partial; loop until every buffer is drained
+            while (buffers[buffers.length - 1].hasRemaining()) {
+                written += channel.write(buffers);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return written;
+    }
+
+    /**
+     * Reads and decodes the snapshot file. Records that fail to decode are
+     * skipped so one bad lobby does not block the rest.
+     *
+     * @return The decoded lobbies, or an empty list if there is no snapshot
+     * @throws IOException If the file exists but cannot be read
+     */
+    public List<GameLobby> load() throws IOException {
+        return read().lobbies;
+    }
+
+    private Contents read() throws IOException {
+        if (!Files.exists(file)) {
+            return new Contents(new ArrayList<>(), 0);
+        }
+
+        List<byte[]> encoded = new ArrayList<>();
+        long coveredSeq;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Snapshot file " + file + " is truncated");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a lobby snapshot: " + file);
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            int count = buffer.getInt();
+            long createdAt = buffer.getLong();
+            coveredSeq = buffer.getLong();
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    logger.error("Snapshot record {} of {} is truncated, keeping the first {}", i + 1, count, i);
+                    break;
+                }
+                byte[] record = new byte[length];
+                buffer.get(record);
+                encoded.add(record);
+            }
+            logger.info("Read {} lobby records from snapshot taken {} s ago", encoded.size(),
+                    TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - createdAt));
+        }
+
+        List<GameLobby> lobbies = encoded.parallelStream()
+                .map(this::decodeSafely)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new Contents(lobbies, coveredSeq);
+    }
+
+    private GameLobby decodeSafely(byte[] record) {
+        try {
+            return LobbyCodec.decode(record);
+        } catch (Exception e) {
+            logger.error("Skipping unreadable lobby record: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Restores all lobbies from the snapshot file. Lobbies are registered and
+     * their timers re-armed before this returns; control messages are re-sent
+     * in the background.
+     *
+     * @return The number of lobbies restored
+     */
+    public int restore() {
+        long started = System.nanoTime();
+        Contents contents;
+        try {
+            contents = read();
+        } catch (IOException e) {
+            logger.error("Could not read lobby snapshot {}: {}", file, e.getMessage(), e);
+            contents = new Contents(new ArrayList<>(), 0);
+        }
+        List<GameLobby> lobbies = applyJournal(contents);
+
+        List<GameLobby> restored = new ArrayList<>(lobbies.size());
+        for (GameLobby lobby : lobbies) {
+            if (!lobbyManager.restoreLobby(lobby)) {
+                continue;
+            }
+            GameState state = lobby.getGameState();
+            try {
+                if (state != null) {
+                    state.onRestore(bot, lobby);
+                }
+                restored.add(lobby);
+            } catch (Exception e) {
+                logger.error("Failed to resume state of lobby {}: {}", lobby.getLobbyCode(), e.getMessage(), e);
+            }
+        }
+        restoredLobbies.addAndGet(restored.size());
+        logger.info("Restored {} of {} lobbies in {} ms", restored.size(), lobbies.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        if (bot != null && !restored.isEmpty()) {
+            resendControlsInBackground(restored);
+        }
+        return restored.size();
+    }
+
+    /**
+     * Brings snapshot lobbies up to date with the journal written after the
+     * snapshot: newer images replace them and journaled closes drop them.
+     */
+    private List<GameLobby> applyJournal(Contents contents) {
+        LobbyJournal journal = lobbyManager.getJournal();
+        if (journal == null) {
+            return contents.lobbies;
+        }
+
+        journal.advanceSequence(contents.coveredSeq);
+        Map<String, GameLobby> byCode = new LinkedHashMap<>();
+        for (GameLobby lobby : contents.lobbies) {
+            byCode.put(lobby.getLobbyCode(), lobby);
+        }
+        try {
+            Map<String, GameLobby> replayed = LobbyJournal.replay(journal.readAll(), contents.coveredSeq);
+            for (Map.Entry<String, GameLobby> entry : replayed.entrySet()) {
+                GameLobby fromJournal = entry.getValue();
+                GameLobby fromSnapshot = byCode.get(entry.getKey());
+                if (fromJournal == null) {
+                    byCode.remove(entry.getKey());
+                } else if (fromSnapshot == null
+                        || fromJournal.getLastActivityMillis() >= fromSnapshot.getLastActivityMillis()) {
+                    byCode.put(entry.getKey(), fromJournal);
+                }
+            }
+            journalReplayedLobbies.addAndGet(replayed.size());
+            logger.info("Applied journal on top of snapshot: {} lobbies changed after sequence {}",
+                    replayed.size(), contents.coveredSeq);
+        } catch (IOException e) {
+            logger.error("Could not read lobby journal {}: {}", journal.getDirectory(), e.getMessage(), e);
+        }
+        return new ArrayList<>(byCode.values());
+    }
+
+    private void resendControlsInBackground(List<GameLobby> lobbies) {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(GameConstants.RESTORE_RESEND_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "AmongUs-RestoreResend-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (GameLobby lobby : lobbies) {
+            executor.execute(() -> {
+                GameState state = lobby.getGameState();
+                if (state == null) {
+                    return;
+                }
+                try {
+                    state.resendControls(bot, lobby);
+                } catch (Exception e) {
+                    logger.error("Failed to re-send controls for lobby {}: {}", lobby.getLobbyCode(), e.getMessage(), e);
+                }
+            });
+        }
+        // Threads exit once the queued lobbies are done
+        executor.shutdown();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public long getRecordsEncoded() {
+        return recordsEncoded.get();
+    }
+
+    public long getRecordsReused() {
+        return recordsReused.get();
+    }
+
+    /**
+     * Gets the snapshot metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        return String.format("LobbySnapshotStore Stats - Snapshots: %d, Records Encoded: %d, Records Reused: %d, " +
+                "Last Size: %d bytes, Last Duration: %d ms, Restored Lobbies: %d, From Journal: %d",
+                snapshotsWritten.get(), recordsEncoded.get(), recordsReused.get(),
+                lastSnapshotBytes.get(), lastSnapshotMillis.get(), restoredLobbies.get(),
+                journalReplayedLobbies.get());
+    }
+
+    private static final class CachedRecord {
+        private final long activityCount;
+        private final byte[] bytes;
+
+        private CachedRecord(long activityCount, byte[] bytes) {
+            this.activityCount = activityCount;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class Contents {
+        private final List<GameLobby> lobbies;
+        private final long coveredSeq;
+
+        private Contents(List<GameLobby> lobbies, long coveredSeq) {
+            this.lobbies = lobbies;
+            this.coveredSeq = coveredSeq;
+        }
+    }
+}
+// COMPLETED: LobbySnapshotStore class
@@ -0,0 +1,334 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameClock;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyContext;
+import com.amongus.bot.game.utils.MessageBroadcaster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides when messages the bot sent are deleted.
+ *
+ * <p>Every tracked message has a lifecycle class: {@link Scope#EPHEMERAL}
+ * messages are deleted once their TTL runs out, {@link Scope#PHASE} messages
+ * are kept per lobby and chat until the game ends and {@link #purge} clears
+ * them in one pass, {@link Scope#PERMANENT} messages are never deleted.
+ *
+ * <p>Deletions are not sent as they come due. They are collected in buckets
+ * of {@link GameConstants#MESSAGE_DELETE_BUCKET_MILLIS} and a single sweeper
+ * sends at most {@link GameConstants#MESSAGE_DELETE_BATCH_SIZE} of them per
+ * bucket; the rest move on to the next one, so a game-end purge is spread
+ * out instead of competing with the game's own messages.
+ */
+public class MessageLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(MessageLifecycle.class);
+
+    private static final String CONTEXT_KEY = "message-lifecycle";
+
+    /**
+     * Lifecycle class of a message.
+     */
+    public enum Scope {
+        EPHEMERAL,
+        PHASE,
+        PERMANENT
+    }
+
+    private final AmongUsBot bot;
+    private final GameClock clock;
+    private volatile ScheduledExecutorService sweeper;
+
+    // Deletions by the bucket they fall due in. Adding to a bucket and
+    // draining it both hold bucketLock, so a bucket is never dropped while
+    // another thread is still adding to it.
+    private final Object bucketLock = new Object();
+    private final ConcurrentSkipListMap<Long, Queue<Pending>> buckets = new ConcurrentSkipListMap<>();
+
+    // Phase-scoped messages: lobby code -> chat ID -> message IDs
+    private final Map<String, Map<Long, Set<Integer>>> phaseMessages = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicLong tracked = new AtomicLong();
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+    private final AtomicLong purges = new AtomicLong();
+
+    /**
+     * @param bot The bot deleting the messages
+     * @param clock Source of time for TTLs and buckets
+     */
+    public MessageLifecycle(AmongUsBot bot, GameClock clock) {
+        this.bot = bot;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts sweeping due deletions once per bucket.
+     */
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AmongUs-MessageSweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::sweepSafely, GameConstants.MESSAGE_DELETE_BUCKET_MILLIS,
+                GameConstants.MESSAGE_DELETE_BUCKET_MILLIS, TimeUnit.MILLISECONDS);
+        sweeper = executor;
+    }
+
+    /**
+     * Registers a message the bot sent.
+     *
+     * @param lobby The lobby the message belongs to; only needed for {@link Scope#PHASE}
+     * @param chatId The chat
+     * @param messageId The message
+     * @param scope Its lifecycle class; ephemeral messages get the default TTL
+     */
+    public void track(GameLobby lobby, Long chatId, Integer messageId, Scope scope) {
+        if (chatId == null || messageId == null) {
+            return;
+        }
+        tracked.incrementAndGet();
+        switch (scope) {
+            case EPHEMERAL:
+                expire(chatId, messageId, GameConstants.EPHEMERAL_MESSAGE_TTL_MILLIS);
+                break;
+            case PHASE:
+                phaseMessagesOf(lobby)
+                        .computeIfAbsent(chatId, key -> ConcurrentHashMap.newKeySet())
+                        .add(messageId);
+                break;
+            default:
+                // Permanent messages are only counted
+        }
+    }
+
+    /**
+     * Deletes a message after a delay. A phase-scoped message is taken out of
+     * its lobby's registry so the purge does not delete it twice.
+     *
+     * @param chatId The chat
+     * @param messageId The message
+     * @param ttlMillis How long the message stays
+     */
+    public void expire(Long chatId, Integer messageId, long ttlMillis) {
+        if (chatId == null || messageId == null) {
+            return;
+        }
+        for (Map<Long, Set<Integer>> chats : phaseMessages.values()) {
+            Set<Integer> messageIds = chats.get(chatId);
+            if (messageIds != null) {
+                messageIds.remove(messageId);
+            }
+        }
+        scheduled.incrementAndGet();
+        enqueue(bucketOf(clock.millis() + Math.max(0, ttlMillis)), new Pending(chatId, messageId));
+    }
+
+    /**
+     * Deletes a stale message, e.g. a menu or keyboard that was replaced, with
+     * the next batch.
+     *
+     * @param chatId The chat
+     * @param messageId The message
+     */
+    public void delete(Long chatId, Integer messageId) {
+        expire(chatId, messageId, 0);
+    }
+
+    /**
+     * Deletes every phase-scoped message of a lobby, typically when its game
+     * ends. The messages go into the current bucket together and leave in
+     * batches.
+     *
+     * @param lobby The lobby
+     * @return The number of messages queued for deletion
+     */
+    public int purge(GameLobby lobby) {
+        Map<Long, Set<Integer>> chats = phaseMessages.get(lobby.getLobbyCode());
+        if (chats == null) {
+            return 0;
+        }
+        long bucket = currentBucket();
+        int count = 0;
+        for (Map.Entry<Long, Set<Integer>> chat : chats.entrySet()) {
+            for (Iterator<Integer> messageIds = chat.getValue().iterator(); messageIds.hasNext(); ) {
+                enqueue(bucket, new Pending(chat.getKey(), messageIds.next()));
+                messageIds.remove();
+                count++;
+            }
+        }
+        chats.clear();
+        purges.incrementAndGet();
+        scheduled.addAndGet(count);
+        logger.info("Purging {} phase messages of lobby {}", count, lobby.getLobbyCode());
+        return count;
+    }
+
+    private Map<Long, Set<Integer>> phaseMessagesOf(GameLobby lobby) {
+        String lobbyCode = lobby.getLobbyCode();
+        Map<Long, Set<Integer>> chats = phaseMessages.get(lobbyCode);
+        if (chats != null) {
+            return chats;
+        }
+        Map<Long, Set<Integer>> created = new ConcurrentHashMap<>();
+        chats = phaseMessages.putIfAbsent(lobbyCode, created);
+        if (chats != null) {
+            return chats;
+        }
+        LobbyContext context = lobby.getContext();
+        if (context != null) {
+            // A closed lobby's leftovers are simply forgotten
+            context.register(CONTEXT_KEY, this, () -> phaseMessages.remove(lobbyCode));
+        }
+        return created;
+    }
+
+    private long currentBucket() {
+        return clock.millis() / GameConstants.MESSAGE_DELETE_BUCKET_MILLIS;
+    }
+
+    /**
+     * The first bucket swept at or after the given time.
+     */
+    private static long bucketOf(long millis) {
+        long size = GameConstants.MESSAGE_DELETE_BUCKET_MILLIS;
+        return (millis + size - 1) / size;
+    }
+
+    private void enqueue(long bucket, Pending pending) {
+        synchronized (bucketLock) {
+            buckets.computeIfAbsent(bucket, key -> new ConcurrentLinkedQueue<>()).add(pending);
+        }
+    }
+
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            logger.error("Error deleting messages: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sends the deletions that are due, at most one batch; the rest are
+     * deferred to the next bucket.
+     *
+     * @return The number of deletions sent
+     */
+    public int sweep() {
+        long now = currentBucket();
+        List<Pending> batch = new ArrayList<>();
+        synchronized (bucketLock) {
+            Map.Entry<Long, Queue<Pending>> due;
+            while (batch.size() < GameConstants.MESSAGE_DELETE_BATCH_SIZE
+                    && (due = buckets.firstEntry()) != null && due.getKey() <= now) {
+                Pending pending = due.getValue().poll();
+                if (pending == null) {
+                    buckets.remove(due.getKey());
+                    continue;
+                }
+                batch.add(pending);
+            }
+
+            // Whatever is still due waits for the next bucket
+            Map.Entry<Long, Queue<Pending>> overdue;
+            while ((overdue = buckets.firstEntry()) != null && overdue.getKey() <= now) {
+                buckets.remove(overdue.getKey());
+                Pending pending;
+                while ((pending = overdue.getValue().poll()) != null) {
+                    enqueue(now + 1, pending);
+                    deferred.incrementAndGet();
+                }
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<DeleteMessage> deletes = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            DeleteMessage delete = new DeleteMessage();
+            delete.setChatId(pending.chatId);
+            delete.setMessageId(pending.messageId);
+            deletes.add(delete);
+        }
+        List<Boolean> results = MessageBroadcaster.executeAll(bot, deletes);
+        for (Boolean result : results) {
+            if (Boolean.TRUE.equals(result)) {
+                deleted.incrementAndGet();
+            } else {
+                // Already deleted by the user, or older than Telegram allows
+                failed.incrementAndGet();
+            }
+        }
+        logger.debug("Sent a batch of {} deletions", batch.size());
+        return batch.size();
+    }
+
+    /**
+     * @return The number of deletions waiting
+     */
+    public int getPendingCount() {
+        int count = 0;
+        for (Queue<Pending> bucket : buckets.values()) {
+            count += bucket.size();
+        }
+        return count;
+    }
+
+    /**
+     * Stops the sweeper; deletions still waiting are dropped.
+     */
+    public void close() {
+        ScheduledExecutorService executor = sweeper;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        logger.info("Message lifecycle closed with {} deletions pending: {}", getPendingCount(), getStatistics());
+    }
+
+    /**
+     * Gets the lifecycle metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        return String.format("MessageLifecycle Stats - Tracked: %d, Scheduled: %d, Deleted: %d, Failed: %d, " +
+                "Deferred: %d, Pending: %d, Purges: %d, Lobbies: %d",
+                tracked.get(), scheduled.get(), deleted.get(), failed.get(), deferred.get(),
+                getPendingCount(), purges.get(), phaseMessages.size());
+    }
+
+    private static final class Pending {
+        private final Long chatId;
+        private final Integer messageId;
+
+        Pending(Long chatId, Integer messageId) {
+            this.chatId = chatId;
+            this.messageId = messageId;
+        }
+    }
+}
+// COMPLETED: MessageLifecycle class
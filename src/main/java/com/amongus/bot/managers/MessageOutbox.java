@@ -0,0 +1,313 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameClock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Text messages that could not be delivered because Telegram was down or
+ * rate limiting, kept on disk until they are.
+ *
+ * <p>Each message is one file, named by its sequence number and written
+ * atomically, so the outbox survives a restart and a crash mid-write leaves
+ * no half message behind. A background drainer sends the messages in order
+ * once the API is available again and deletes each file after delivery.
+ * Messages older than {@link GameConstants#OUTBOX_MAX_AGE_MILLIS} are dropped
+ * instead: a kill notice from a game that has moved on only confuses.
+ *
+ * <p>Only chat, text and parse mode are kept, so messages with a keyboard
+ * are not queued: without its buttons a prompt would strand the player, and
+ * the failure has to reach the caller instead.
+ */
+public class MessageOutbox {
+    private static final Logger logger = LoggerFactory.getLogger(MessageOutbox.class);
+
+    private static final String SUFFIX = ".msg";
+
+    /**
+     * Sends a message from the outbox.
+     */
+    @FunctionalInterface
+    public interface Sender {
+        /**
+         * @param message The message
+         * @return True if it is done with: delivered, or failed for good
+         */
+        boolean deliver(SendMessage message);
+    }
+
+    /**
+     * Tells whether sending is worth trying right now.
+     */
+    @FunctionalInterface
+    public interface Availability {
+        boolean isAvailable();
+    }
+
+    private final Path directory;
+    private final GameClock clock;
+    private final Sender sender;
+    private final Availability availability;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Object drainLock = new Object();
+    private volatile ScheduledExecutorService drainer;
+
+    // Pending messages by sequence number, mirrored by their files
+    private final ConcurrentSkipListMap<Long, Entry> pending = new ConcurrentSkipListMap<>();
+
+    // Metrics
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong overflow = new AtomicLong();
+    private final AtomicLong writeFailures = new AtomicLong();
+
+    /**
+     * @param directory Where the messages are kept
+     * @param clock Source of time for expiry
+     * @param sender Sends a message
+     * @param availability Whether the API currently takes calls
+     */
+    public MessageOutbox(Path directory, GameClock clock, Sender sender, Availability availability) {
+        this.directory = directory;
+        this.clock = clock;
+        this.sender = sender;
+        this.availability = availability;
+    }
+
+    /**
+     * Loads the messages left by the previous run and starts draining.
+     *
+     * @return The number of messages loaded
+     */
+    public int start() {
+        int loaded = load();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AmongUs-Outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::drainSafely, GameConstants.OUTBOX_DRAIN_MILLIS,
+                GameConstants.OUTBOX_DRAIN_MILLIS, TimeUnit.MILLISECONDS);
+        drainer = executor;
+        return loaded;
+    }
+
+    /**
+     * Reads the messages on disk into the queue.
+     *
+     * @return The number of messages loaded
+     */
+    int load() {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        int loaded = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                    long seq = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                    long createdAt = in.readLong();
+                    long chatId = in.readLong();
+                    String text = in.readUTF();
+                    String parseMode = in.readBoolean() ? in.readUTF() : null;
+                    pending.put(seq, new Entry(createdAt, chatId, text, parseMode, file));
+                    sequence.accumulateAndGet(seq, Math::max);
+                    loaded++;
+                } catch (IOException | NumberFormatException e) {
+                    logger.warn("Dropping unreadable outbox file {}: {}", file, e.getMessage());
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Failed to load outbox from {}: {}", directory, e.getMessage(), e);
+        }
+        if (loaded > 0) {
+            logger.info("Loaded {} undelivered messages from {}", loaded, directory);
+        }
+        return loaded;
+    }
+
+    /**
+     * Keeps a message for later delivery. When the outbox is full, or the
+     * message has a keyboard, it is not queued.
+     *
+     * @param message The message that could not be sent
+     * @return True if the message was queued
+     */
+    public boolean add(SendMessage message) {
+        if (message.getChatId() == null || message.getText() == null || message.getReplyMarkup() != null) {
+            return false;
+        }
+        long chatId;
+        try {
+            chatId = Long.parseLong(message.getChatId());
+        } catch (NumberFormatException e) {
+            // Channel usernames are not used by the bot
+            return false;
+        }
+        if (pending.size() >= GameConstants.OUTBOX_CAPACITY) {
+            overflow.incrementAndGet();
+            logger.warn("Outbox full, dropping message to chat {}", message.getChatId());
+            return false;
+        }
+        long seq = sequence.incrementAndGet();
+        Path file = directory.resolve(String.format("%019d%s", seq, SUFFIX));
+        Entry entry = new Entry(clock.millis(), chatId, message.getText(), message.getParseMode(), file);
+        Path tmp = directory.resolve(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(tmp))) {
+                out.writeLong(entry.createdAt);
+                out.writeLong(entry.chatId);
+                out.writeUTF(entry.text);
+                out.writeBoolean(entry.parseMode != null);
+                if (entry.parseMode != null) {
+                    out.writeUTF(entry.parseMode);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // Still delivered if the process keeps running
+            writeFailures.incrementAndGet();
+            logger.error("Failed to persist outbox message to chat {}: {}", entry.chatId, e.getMessage());
+        }
+        pending.put(seq, entry);
+        queued.incrementAndGet();
+        logger.info("Queued message to chat {} in the outbox ({} pending)", entry.chatId, pending.size());
+        return true;
+    }
+
+    private void drainSafely() {
+        try {
+            drain();
+        } catch (Exception e) {
+            logger.error("Error draining outbox: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Sends pending messages in order while the API is available. Stops at
+     * the first message that still cannot be delivered.
+     *
+     * @return The number of messages delivered
+     */
+    public int drain() {
+        int sent = 0;
+        synchronized (drainLock) {
+            List<Long> done = new ArrayList<>();
+            for (Map.Entry<Long, Entry> next : pending.entrySet()) {
+                Entry entry = next.getValue();
+                if (clock.millis() - entry.createdAt > GameConstants.OUTBOX_MAX_AGE_MILLIS) {
+                    expired.incrementAndGet();
+                    done.add(next.getKey());
+                    continue;
+                }
+                if (!availability.isAvailable() || !sender.deliver(entry.toMessage())) {
+                    break;
+                }
+                delivered.incrementAndGet();
+                done.add(next.getKey());
+                sent++;
+            }
+            for (Long seq : done) {
+                Entry entry = pending.remove(seq);
+                try {
+                    Files.deleteIfExists(entry.file);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete outbox file {}: {}", entry.file, e.getMessage());
+                }
+            }
+        }
+        if (sent > 0) {
+            logger.info("Delivered {} messages from the outbox ({} pending)", sent, pending.size());
+        }
+        return sent;
+    }
+
+    /**
+     * @return True between {@link #start()} and {@link #close()}; nothing is drained otherwise
+     */
+    public boolean isRunning() {
+        ScheduledExecutorService executor = drainer;
+        return executor != null && !executor.isShutdown();
+    }
+
+    /**
+     * @return The number of messages waiting for delivery
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Stops draining; pending messages stay on disk for the next run.
+     */
+    public void close() {
+        ScheduledExecutorService executor = drainer;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (!pending.isEmpty()) {
+            logger.info("Outbox closed with {} undelivered messages kept in {}", pending.size(), directory);
+        }
+    }
+
+    /**
+     * Gets the outbox metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        return String.format("MessageOutbox Stats - Pending: %d, Queued: %d, Delivered: %d, Expired: %d, " +
+                "Overflow: %d, WriteFailures: %d",
+                pending.size(), queued.get(), delivered.get(), expired.get(), overflow.get(), writeFailures.get());
+    }
+
+    private static final class Entry {
+        private final long createdAt;
+        private final long chatId;
+        private final String text;
+        private final String parseMode;
+        private final Path file;
+
+        Entry(long createdAt, long chatId, String text, String parseMode, Path file) {
+            this.createdAt = createdAt;
+            this.chatId = chatId;
+            this.text = text;
+            this.parseMode = parseMode;
+            this.file = file;
+        }
+
+        SendMessage toMessage() {
+            SendMessage message = new SendMessage();
+            message.setChatId(chatId);
+            message.setText(text);
+            if (parseMode != null) {
+                message.setParseMode(parseMode);
+            }
+            return message;
+        }
+    }
+}
+// COMPLETED: MessageOutbox class
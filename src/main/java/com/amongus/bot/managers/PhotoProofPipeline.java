@@ -0,0 +1,380 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyContext;
+import com.amongus.bot.game.utils.PerceptualHash;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.objects.PhotoSize;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Validates task proof photos off the update thread.
+ *
+ * <p>Every photo is first checked against the {@code file_unique_id}s already
+ * sent in the same game of the lobby; that check is a set lookup and happens
+ * inline. If a {@link PhotoSource} is configured, the smallest size of a new
+ * photo is then downloaded on a bounded I/O pool and its
+ * {@link PerceptualHash} computed on a bounded CPU pool, which catches the
+ * same picture re-sent as a new upload. Verdicts of downloaded photos are
+ * delivered on a single thread through the {@link #setVerdictGate verdict
+ * gate}, which the bot uses to keep completions from running concurrently
+ * with update handling.
+ *
+ * <p>The pools never block the caller: when their queues are full, or a
+ * download or decode fails, the photo is accepted without the hash check.
+ */
+public class PhotoProofPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(PhotoProofPipeline.class);
+
+    private static final String CONTEXT_KEY = "photo-proofs";
+
+    /**
+     * Outcome of validating a photo.
+     */
+    public enum Verdict {
+        ACCEPTED,
+        DUPLICATE,
+        NEAR_DUPLICATE
+    }
+
+    /**
+     * Fetches a photo's bytes by its file ID.
+     */
+    @FunctionalInterface
+    public interface PhotoSource {
+        byte[] download(String fileId) throws Exception;
+    }
+
+    private final PhotoSource source;
+    private final ThreadPoolExecutor downloadPool;
+    private final ThreadPoolExecutor hashPool;
+    private final ExecutorService verdictExecutor;
+    private volatile Consumer<Runnable> verdictGate = Runnable::run;
+
+    // Photos of the current game by lobby code
+    private final Map<String, LobbyPhotos> indexes = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong nearDuplicates = new AtomicLong();
+    private final AtomicLong hashed = new AtomicLong();
+    private final AtomicLong unchecked = new AtomicLong();
+    private final AtomicLong hashNanos = new AtomicLong();
+
+    /**
+     * @param source Downloads photos for the hash check; null checks unique IDs only
+     * @param hashThreads Threads hashing photos
+     */
+    public PhotoProofPipeline(PhotoSource source, int hashThreads) {
+        this.source = source;
+        if (source != null) {
+            this.downloadPool = newPool(GameConstants.PHOTO_DOWNLOAD_THREADS, "AmongUs-PhotoDownload");
+            this.hashPool = newPool(Math.max(1, hashThreads), "AmongUs-PhotoHash");
+            this.verdictExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "AmongUs-PhotoVerdict");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.downloadPool = null;
+            this.hashPool = null;
+            this.verdictExecutor = null;
+        }
+    }
+
+    /**
+     * Sets how verdicts decided in the background are run: the gate receives
+     * the delivery and runs it, e.g. under the bot's update lock. Verdicts
+     * decided inline run on the caller's thread as before.
+     *
+     * @param verdictGate Runs a verdict delivery
+     */
+    public void setVerdictGate(Consumer<Runnable> verdictGate) {
+        this.verdictGate = verdictGate != null ? verdictGate : Runnable::run;
+    }
+
+    private static ThreadPoolExecutor newPool(int threads, String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(GameConstants.PHOTO_HASH_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Validates a photo sent as task proof. Returns at once; the verdict is
+     * delivered inline when no download is needed, otherwise later on the
+     * pipeline's verdict thread.
+     *
+     * @param lobby The player's lobby
+     * @param userId The sender
+     * @param sizes The photo's sizes as Telegram sent them, smallest first
+     * @param onVerdict Receives the verdict
+     */
+    public void submit(GameLobby lobby, Long userId, List<PhotoSize> sizes, Consumer<Verdict> onVerdict) {
+        submitted.incrementAndGet();
+        if (sizes == null || sizes.isEmpty()) {
+            deliver(Verdict.ACCEPTED, onVerdict);
+            return;
+        }
+
+        PhotoSize largest = sizes.get(sizes.size() - 1);
+        String uniqueId = largest.getFileUniqueId() != null ? largest.getFileUniqueId() : largest.getFileId();
+        LobbyPhotos photos = indexFor(lobby);
+        if (!photos.claim(uniqueId)) {
+            logger.info("Player {} in lobby {} re-sent photo {}", userId, lobby.getLobbyCode(), uniqueId);
+            deliver(Verdict.DUPLICATE, onVerdict);
+            return;
+        }
+        if (source == null) {
+            deliver(Verdict.ACCEPTED, onVerdict);
+            return;
+        }
+
+        // The smallest size is plenty for a 9x8 hash and the cheapest to fetch
+        String fileId = sizes.get(0).getFileId();
+        try {
+            downloadPool.execute(() -> download(lobby, userId, fileId, uniqueId, photos, onVerdict));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Photo download queue full, accepting photo of player {} without hash check", userId);
+            acceptUnchecked(onVerdict);
+        }
+    }
+
+    private void download(GameLobby lobby, Long userId, String fileId, String uniqueId, LobbyPhotos photos,
+                          Consumer<Verdict> onVerdict) {
+        byte[] bytes;
+        try {
+            bytes = source.download(fileId);
+        } catch (Exception e) {
+            logger.warn("Failed to download photo {} of player {}, accepting without hash check: {}",
+                    fileId, userId, e.getMessage());
+            acceptUnchecked(onVerdict);
+            return;
+        }
+        try {
+            hashPool.execute(() -> hash(lobby, userId, uniqueId, bytes, photos, onVerdict));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Photo hash queue full, accepting photo of player {} without hash check", userId);
+            acceptUnchecked(onVerdict);
+        }
+    }
+
+    private void hash(GameLobby lobby, Long userId, String uniqueId, byte[] bytes, LobbyPhotos photos,
+                      Consumer<Verdict> onVerdict) {
+        long hash;
+        long start = System.nanoTime();
+        try {
+            hash = PerceptualHash.of(bytes);
+        } catch (Exception e) {
+            logger.warn("Failed to decode photo of player {}, accepting without hash check: {}", userId, e.getMessage());
+            acceptUnchecked(onVerdict);
+            return;
+        }
+        hashNanos.addAndGet(System.nanoTime() - start);
+        hashed.incrementAndGet();
+
+        if (photos.admit(uniqueId, hash, GameConstants.PHOTO_HASH_MAX_DISTANCE)) {
+            dispatch(Verdict.ACCEPTED, onVerdict);
+        } else {
+            logger.info("Player {} in lobby {} sent a near-duplicate photo", userId, lobby.getLobbyCode());
+            dispatch(Verdict.NEAR_DUPLICATE, onVerdict);
+        }
+    }
+
+    private void acceptUnchecked(Consumer<Verdict> onVerdict) {
+        unchecked.incrementAndGet();
+        dispatch(Verdict.ACCEPTED, onVerdict);
+    }
+
+    private void dispatch(Verdict verdict, Consumer<Verdict> onVerdict) {
+        try {
+            verdictExecutor.execute(() -> verdictGate.accept(() -> deliver(verdict, onVerdict)));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Photo pipeline closed, dropping {} verdict", verdict);
+        }
+    }
+
+    private void deliver(Verdict verdict, Consumer<Verdict> onVerdict) {
+        switch (verdict) {
+            case ACCEPTED:
+                accepted.incrementAndGet();
+                break;
+            case DUPLICATE:
+                duplicates.incrementAndGet();
+                break;
+            default:
+                nearDuplicates.incrementAndGet();
+        }
+        try {
+            onVerdict.accept(verdict);
+        } catch (Exception e) {
+            logger.error("Error handling photo verdict {}: {}", verdict, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Forgets a photo whose verdict was not used, e.g. because a meeting
+     * started meanwhile, so the player can send it again. Does nothing once
+     * the lobby moved on to another game.
+     *
+     * @param lobby The player's lobby
+     * @param gameSeed The game the photo was sent in
+     * @param sizes The photo's sizes as passed to {@link #submit}
+     */
+    public void release(GameLobby lobby, long gameSeed, List<PhotoSize> sizes) {
+        if (sizes == null || sizes.isEmpty()) {
+            return;
+        }
+        LobbyPhotos photos = indexes.get(lobby.getLobbyCode());
+        if (photos == null || photos.gameSeed != gameSeed) {
+            return;
+        }
+        PhotoSize largest = sizes.get(sizes.size() - 1);
+        photos.release(largest.getFileUniqueId() != null ? largest.getFileUniqueId() : largest.getFileId());
+    }
+
+    /**
+     * Gets the lobby's photo index, starting a fresh one when a new game began.
+     */
+    private LobbyPhotos indexFor(GameLobby lobby) {
+        String lobbyCode = lobby.getLobbyCode();
+        long gameSeed = lobby.getGameSeed();
+        boolean[] created = new boolean[1];
+        LobbyPhotos photos = indexes.compute(lobbyCode, (code, current) -> {
+            if (current != null && current.gameSeed == gameSeed) {
+                return current;
+            }
+            created[0] = current == null;
+            return new LobbyPhotos(gameSeed);
+        });
+        LobbyContext context = lobby.getContext();
+        if (created[0] && context != null) {
+            context.register(CONTEXT_KEY, this, () -> indexes.remove(lobbyCode));
+        }
+        return photos;
+    }
+
+    /**
+     * @return The number of lobbies with an index
+     */
+    public int getIndexedLobbyCount() {
+        return indexes.size();
+    }
+
+    /**
+     * Stops the pools; photos still queued are dropped.
+     */
+    public void close() {
+        if (source == null) {
+            return;
+        }
+        downloadPool.shutdownNow();
+        hashPool.shutdownNow();
+        verdictExecutor.shutdown();
+        try {
+            verdictExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Photo proof pipeline closed: {}", getStatistics());
+    }
+
+    /**
+     * Gets the pipeline metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        long hashCount = hashed.get();
+        return String.format("PhotoProofPipeline Stats - Photos: %d, Accepted: %d, Duplicates: %d, " +
+                "Near Duplicates: %d, Unchecked: %d, Hashed: %d, Avg Hash: %.2f ms, Queued: %d, Lobbies: %d",
+                submitted.get(), accepted.get(), duplicates.get(), nearDuplicates.get(), unchecked.get(),
+                hashCount, hashCount == 0 ? 0.0 : hashNanos.get() / 1_000_000.0 / hashCount,
+                source == null ? 0 : downloadPool.getQueue().size() + hashPool.getQueue().size(),
+                indexes.size());
+    }
+
+    /**
+     * The photos sent during one game of a lobby.
+     */
+    private static final class LobbyPhotos {
+        private final long gameSeed;
+        private final Set<String> uniqueIds = new HashSet<>();
+        private final Map<String, Long> hashesById = new HashMap<>();
+        private long[] hashes = new long[8];
+        private int hashCount;
+
+        LobbyPhotos(long gameSeed) {
+            this.gameSeed = gameSeed;
+        }
+
+        /**
+         * @return False if the unique ID was already sent
+         */
+        synchronized boolean claim(String uniqueId) {
+            return uniqueIds.add(uniqueId);
+        }
+
+        /**
+         * Adds a hash unless a similar one is already known.
+         *
+         * @return False if a known hash is within the distance
+         */
+        synchronized boolean admit(String uniqueId, long hash, int maxDistance) {
+            for (int i = 0; i < hashCount; i++) {
+                if (PerceptualHash.distance(hashes[i], hash) <= maxDistance) {
+                    return false;
+                }
+            }
+            if (hashCount == hashes.length) {
+                long[] grown = new long[hashes.length * 2];
+                System.arraycopy(hashes, 0, grown, 0, hashCount);
+                hashes = grown;
+            }
+            hashes[hashCount++] = hash;
+            hashesById.put(uniqueId, hash);
+            return true;
+        }
+
+        /**
+         * Drops a photo's unique ID and hash.
+         */
+        synchronized void release(String uniqueId) {
+            uniqueIds.remove(uniqueId);
+            Long hash = hashesById.remove(uniqueId);
+            if (hash == null) {
+                return;
+            }
+            for (int i = 0; i < hashCount; i++) {
+                if (hashes[i] == hash) {
+                    hashes[i] = hashes[--hashCount];
+                    return;
+                }
+            }
+        }
+    }
+}
+// COMPLETED: PhotoProofPipeline class
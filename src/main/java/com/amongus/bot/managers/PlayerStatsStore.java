@@ -0,0 +1,478 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.models.GameEvent;
+import com.amongus.bot.models.Player;
+import com.amongus.bot.models.PlayerStats;
+import com.amongus.bot.utils.GameUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File-backed lifetime statistics per Telegram user.
+ *
+ * <p>The file holds one fixed-size record per player, so a player's record is
+ * read or rewritten with a single positional I/O; an in-memory index maps user
+ * IDs to record slots. Reads go through an LRU cache of recently seen players.
+ *
+ * <p>At game over the finished game's events are tallied once into per-game
+ * statistics and queued; nothing is rescanned later. A background thread adds
+ * queued games to the stored totals in batches, so game over never waits on
+ * the disk. Queued games are already visible to {@link #get(Long)}.
+ */
+public class PlayerStatsStore {
+    private static final Logger logger = LoggerFactory.getLogger(PlayerStatsStore.class);
+
+    private static final int MAGIC = 0x41555354; // "AUST"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int RECORD_BYTES = 128;
+    private static final int MAX_NAME_CHARS = 32;
+
+    private final Path file;
+    private final int cacheSize;
+
+    // Guards the cache, the index, unflushed totals and the channel
+    private final Object lock = new Object();
+    private final Map<Long, PlayerStats> cache;
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final Map<Long, PlayerStats> unflushed = new HashMap<>();
+    private FileChannel channel;
+    private boolean opened;
+
+    // Finished games not yet added to the totals, merged per player
+    private final Map<Long, PlayerStats> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService writer;
+
+    // Metrics
+    private final AtomicLong gamesRecorded = new AtomicLong();
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private final AtomicLong recordsWritten = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    public PlayerStatsStore(Path file) {
+        this(file, GameConstants.STATS_CACHE_SIZE);
+    }
+
+    PlayerStatsStore(Path file, int cacheSize) {
+        this.file = file;
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true);
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AmongUs-PlayerStats");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Tallies a finished game and queues it for the lifetime totals. Call
+     * once per game, before the lobby is reset for the next one.
+     *
+     * @param lobby The finished game's lobby
+     * @param winner The winning side ("Crewmates" or "Impostors")
+     */
+    public void recordGame(GameLobby lobby, String winner) {
+        for (PlayerStats game : tally(lobby, winner)) {
+            pending.merge(game.getUserId(), game, PlayerStats::plus);
+        }
+        gamesRecorded.incrementAndGet();
+        if (flushScheduled.compareAndSet(false, true)) {
+            writer.schedule(this::runScheduledFlush, GameConstants.STATS_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Turns one game's event stream into per-player statistics for that game.
+     * Tasks come from the players' own counters because routine task events
+     * may have been folded into the event summary, and deaths from the final
+     * player state because a kill is logged under the killer only.
+     */
+    static List<PlayerStats> tally(GameLobby lobby, String winner) {
+        boolean crewmatesWon = GameUtils.isCrewmateWin(winner);
+        Map<Long, int[]> counts = new HashMap<>(); // kills, ejections, meetings
+        List<GameEvent> events = lobby.getGameEvents();
+        for (GameEvent event : events) {
+            Long userId = event.getUserId();
+            if (userId == null) {
+                continue;
+            }
+            Player player = lobby.getPlayer(userId);
+            if (player == null) {
+                continue;
+            }
+            int[] playerCounts = counts.computeIfAbsent(userId, id -> new int[3]);
+            switch (event.getAction().toUpperCase()) {
+                case "KILL":
+                    // Crewmates may also log "I was killed"; only the impostor's entry is a kill
+                    if (player.isImpostor()) {
+                        playerCounts[0]++;
+                    }
+                    break;
+                case "EJECTED":
+                    playerCounts[1]++;
+                    break;
+                case "EMERGENCY_MEETING":
+                case "MEETING":
+                case "REPORT":
+                    playerCounts[2]++;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        List<PlayerStats> games = new ArrayList<>();
+        for (Player player : lobby.getPlayerList()) {
+            if (player.getRole() == null) {
+                continue;
+            }
+            int[] playerCounts = counts.getOrDefault(player.getUserId(), new int[3]);
+            boolean impostor = player.isImpostor();
+            boolean won = impostor != crewmatesWon;
+            games.add(new PlayerStats(player.getUserId(), player.getUserName(), 1,
+                    impostor ? 0 : 1, impostor ? 1 : 0,
+                    !impostor && won ? 1 : 0, impostor && won ? 1 : 0,
+                    playerCounts[0], player.wasKilled() ? 1 : 0,
+                    impostor ? 0 : player.getCompletedTaskCount(),
+                    playerCounts[1], playerCounts[2]));
+        }
+        return games;
+    }
+
+    /**
+     * Gets a player's lifetime statistics, including games still queued.
+     *
+     * @param userId The Telegram user ID
+     * @return The statistics, or null if the player has not finished a game
+     */
+    public PlayerStats get(Long userId) {
+        synchronized (lock) {
+            PlayerStats stored = loadLocked(userId);
+            PlayerStats queued = pending.get(userId);
+            if (queued == null) {
+                return stored;
+            }
+            return stored != null ? stored.plus(queued) : queued;
+        }
+    }
+
+    /**
+     * Adds all queued games to the stored totals and writes them.
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<PlayerStats> dirty = new ArrayList<>();
+        List<PlayerStats> batch = new ArrayList<>();
+        List<PlayerStats> previous = new ArrayList<>();
+        synchronized (lock) {
+            try {
+                // Index existing records before handing out slots to new players
+                openLocked(true);
+            } catch (IOException e) {
+                logger.error("Failed to open player stats file {}: {}", file, e.getMessage(), e);
+                return;
+            }
+            for (Long userId : new ArrayList<>(pending.keySet())) {
+                PlayerStats queued = pending.remove(userId);
+                if (queued == null) {
+                    continue;
+                }
+                PlayerStats stored = loadLocked(userId);
+                if (stored == null) {
+                    stored = PlayerStats.empty(userId, null);
+                }
+                PlayerStats total = stored.plus(queued);
+                putCacheLocked(total);
+                unflushed.put(userId, total);
+                if (!slots.containsKey(userId)) {
+                    slots.put(userId, slots.size());
+                }
+                dirty.add(total);
+                batch.add(queued);
+                previous.add(stored);
+            }
+        }
+        if (dirty.isEmpty()) {
+            return;
+        }
+
+        try {
+            writeRecords(dirty);
+            batchesWritten.incrementAndGet();
+            recordsWritten.addAndGet(dirty.size());
+        } catch (IOException e) {
+            logger.error("Failed to write player stats to {}: {}", file, e.getMessage(), e);
+            requeue(dirty, batch, previous);
+            return;
+        }
+        synchronized (lock) {
+            for (PlayerStats total : dirty) {
+                unflushed.remove(total.getUserId(), total);
+            }
+        }
+        logger.debug("Wrote stats of {} players", dirty.size());
+    }
+
+    /**
+     * Puts a batch that failed to write back into the queue so the next flush
+     * retries it. Part of the batch may have reached the file, so the totals
+     * from before the batch shadow the file until a write succeeds.
+     */
+    private void requeue(List<PlayerStats> dirty, List<PlayerStats> batch, List<PlayerStats> previous) {
+        synchronized (lock) {
+            for (int i = 0; i < dirty.size(); i++) {
+                Long userId = dirty.get(i).getUserId();
+                unflushed.put(userId, previous.get(i));
+                cache.remove(userId);
+                pending.merge(userId, batch.get(i), (newer, retried) -> retried.plus(newer));
+            }
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                writer.schedule(this::runScheduledFlush, GameConstants.STATS_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    private void runScheduledFlush() {
+        flushScheduled.set(false);
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Error flushing player stats: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes queued games and closes the file. A flush already running on
+     * the writer thread is allowed to finish first; interrupting it would
+     * close the channel under it.
+     */
+    public void close() {
+        writer.shutdown();
+        boolean interrupted = false;
+        try {
+            writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            // Restored after the final write, which an interrupted thread
+            // could not make
+            interrupted = true;
+        }
+        flush();
+        synchronized (lock) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close player stats file: {}", e.getMessage());
+                }
+                channel = null;
+                opened = false;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private PlayerStats loadLocked(Long userId) {
+        PlayerStats cached = cache.get(userId);
+        if (cached != null) {
+            cacheHits.incrementAndGet();
+            return cached;
+        }
+        cacheMisses.incrementAndGet();
+        PlayerStats stats = unflushed.get(userId);
+        if (stats == null) {
+            stats = readRecordLocked(userId);
+        }
+        if (stats != null) {
+            putCacheLocked(stats);
+        }
+        return stats;
+    }
+
+    private void putCacheLocked(PlayerStats stats) {
+        cache.put(stats.getUserId(), stats);
+        if (cache.size() > cacheSize) {
+            Long eldest = cache.keySet().iterator().next();
+            cache.remove(eldest);
+        }
+    }
+
+    private PlayerStats readRecordLocked(Long userId) {
+        try {
+            openLocked(false);
+        } catch (IOException e) {
+            logger.error("Failed to open player stats file {}: {}", file, e.getMessage(), e);
+            return null;
+        }
+        Integer slot = slots.get(userId);
+        if (slot == null || channel == null) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+            long position = HEADER_BYTES + (long) slot * RECORD_BYTES;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    return null;
+                }
+            }
+            buffer.flip();
+            return decode(buffer);
+        } catch (IOException e) {
+            logger.error("Failed to read stats of player {}: {}", userId, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    // Package-private so tests can make the write fail
+    void writeRecords(List<PlayerStats> records) throws IOException {
+        synchronized (lock) {
+            openLocked(true);
+            for (PlayerStats stats : records) {
+                ByteBuffer buffer = encode(stats);
+                long position = HEADER_BYTES + (long) slots.get(stats.getUserId()) * RECORD_BYTES;
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, position + buffer.position());
+                }
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Opens the file on first use and indexes its records. Reading a store
+     * whose file does not exist yet does not create it.
+     */
+    private void openLocked(boolean create) throws IOException {
+        if (opened && channel != null) {
+            return;
+        }
+        if (!Files.exists(file)) {
+            if (!create) {
+                return;
+            }
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(RECORD_BYTES).putInt(0).flip();
+            channel.write(header, 0);
+            opened = true;
+            return;
+        }
+
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION
+                || header.getInt() != RECORD_BYTES) {
+            channel.close();
+            channel = null;
+            throw new IOException("Not a player stats file: " + file);
+        }
+
+        long records = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+        ByteBuffer ids = ByteBuffer.allocate(8);
+        for (int slot = 0; slot < records; slot++) {
+            ids.clear();
+            channel.read(ids, HEADER_BYTES + (long) slot * RECORD_BYTES);
+            ids.flip();
+            slots.put(ids.getLong(), slot);
+        }
+        opened = true;
+        logger.info("Opened player stats store {} with {} players", file, records);
+    }
+
+    private static ByteBuffer encode(PlayerStats stats) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES);
+        buffer.putLong(stats.getUserId());
+        buffer.putInt(stats.getGamesPlayed());
+        buffer.putInt(stats.getCrewmateGames());
+        buffer.putInt(stats.getImpostorGames());
+        buffer.putInt(stats.getCrewmateWins());
+        buffer.putInt(stats.getImpostorWins());
+        buffer.putInt(stats.getKills());
+        buffer.putInt(stats.getDeaths());
+        buffer.putInt(stats.getTasksCompleted());
+        buffer.putInt(stats.getEjections());
+        buffer.putInt(stats.getMeetingsCalled());
+        String name = stats.getUserName() != null ? stats.getUserName() : "";
+        int length = Math.min(name.length(), MAX_NAME_CHARS);
+        buffer.putShort((short) length);
+        for (int i = 0; i < length; i++) {
+            buffer.putChar(name.charAt(i));
+        }
+        buffer.position(RECORD_BYTES);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static PlayerStats decode(ByteBuffer buffer) {
+        long userId = buffer.getLong();
+        int[] values = new int[10];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = buffer.getInt();
+        }
+        int length = Math.min(buffer.getShort(), MAX_NAME_CHARS);
+        char[] name = new char[Math.max(length, 0)];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = buffer.getChar();
+        }
+        return new PlayerStats(userId, name.length > 0 ? new String(name) : null, values[0], values[1], values[2],
+                values[3], values[4], values[5], values[6], values[7], values[8], values[9]);
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the store metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        synchronized (lock) {
+            return String.format("PlayerStatsStore Stats - Players: %d, Cached: %d, Games Recorded: %d, " +
+                    "Batches: %d, Records Written: %d, Cache Hits: %d, Cache Misses: %d, Pending: %d",
+                    slots.size(), cache.size(), gamesRecorded.get(), batchesWritten.get(), recordsWritten.get(),
+                    cacheHits.get(), cacheMisses.get(), pending.size());
+        }
+    }
+}
+// COMPLETED: PlayerStatsStore class
@@ -0,0 +1,64 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.replay.GameReplay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Directory of exported game replays, one file per finished game, named
+ * after the lobby code and the game's start time.
+ */
+public class ReplayStore {
+    private static final Logger logger = LoggerFactory.getLogger(ReplayStore.class);
+
+    private final Path directory;
+    private final AtomicLong saved = new AtomicLong();
+
+    public ReplayStore(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Writes a replay. The file appears atomically.
+     *
+     * @param replay The replay
+     * @return The file, or null if it could not be written
+     */
+    public Path save(GameReplay replay) {
+        Path file = directory.resolve(String.format("%s-%d.replay", replay.getLobbyCode(), replay.getStartedAt()));
+        Path tmp = directory.resolve(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            replay.writeTo(tmp);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            saved.incrementAndGet();
+            logger.info("Saved replay of lobby {} with {} inputs to {}", replay.getLobbyCode(),
+                    replay.getInputs().size(), file);
+            return file;
+        } catch (IOException e) {
+            logger.error("Failed to save replay of lobby {}: {}", replay.getLobbyCode(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the store metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        return String.format("ReplayStore Stats - Saved: %d, Directory: %s", saved.get(), directory);
+    }
+}
+// COMPLETED: ReplayStore class
@@ -0,0 +1,460 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.core.HandoffBotSession;
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyCodec;
+import com.amongus.bot.game.states.GameState;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Primary side of hot-standby replication. Listens on a loopback port for one
+ * standby process, sends it every lobby on connect and then streams each
+ * journal commit as it is written, so the standby always holds a warm copy.
+ *
+ * <p>On {@link #handoff()} the primary stops polling at a known update
+ * offset, cancels its timers, flushes the journal and sends a final sync with
+ * the offset. Once the handoff is on the wire the lobbies are released here,
+ * acknowledged or not: a standby whose acknowledgement got lost may already
+ * be polling, and two processes serving the same lobbies is worse than none.
+ * Only if the standby drops before the handoff was sent does the primary
+ * re-arm its timers and resume polling.
+ */
+public class ReplicationPrimary implements LobbyJournal.CommitListener {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationPrimary.class);
+
+    private final LobbyManager lobbyManager;
+    private final AmongUsBot bot;
+    private final int port;
+    private volatile HandoffBotSession session;
+
+    private ServerSocket serverSocket;
+    private Thread acceptor;
+    private volatile Link link;
+    private final AtomicBoolean handedOver = new AtomicBoolean(false);
+    private final Object handoffLock = new Object();
+
+    // Metrics
+    private final AtomicLong standbysConnected = new AtomicLong();
+    private final AtomicLong syncsSent = new AtomicLong();
+    private final AtomicLong commitsSent = new AtomicLong();
+    private final AtomicLong bytesQueued = new AtomicLong();
+
+    /**
+     * @param lobbyManager The lobbies to replicate
+     * @param bot Used to stop background tasks and re-arm timers; may be null
+     * @param port The loopback port to listen on, or 0 for any free port
+     */
+    public ReplicationPrimary(LobbyManager lobbyManager, AmongUsBot bot, int port) {
+        this.lobbyManager = lobbyManager;
+        this.bot = bot;
+        this.port = port;
+    }
+
+    /**
+     * Sets the polling session to drain on handoff. Without one the handoff
+     * offset is 0, i.e. the standby polls whatever is unconfirmed.
+     *
+     * @param session The session the bot was registered with
+     */
+    public void setSession(HandoffBotSession session) {
+        this.session = session;
+    }
+
+    /**
+     * Starts listening for a standby.
+     *
+     * @throws IOException If the port cannot be bound
+     */
+    public synchronized void start() throws IOException {
+        if (serverSocket != null) {
+            return;
+        }
+        serverSocket = new ServerSocket(port, 1, InetAddress.getLoopbackAddress());
+        LobbyJournal journal = lobbyManager.getJournal();
+        if (journal != null) {
+            journal.setCommitListener(this);
+        }
+        acceptor = new Thread(this::acceptLoop, "AmongUs-ReplicationAccept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        logger.info("Replication listening on {}", serverSocket.getLocalSocketAddress());
+    }
+
+    /**
+     * Stops listening and drops the standby connection.
+     */
+    public synchronized void stop() {
+        LobbyJournal journal = lobbyManager.getJournal();
+        if (journal != null) {
+            journal.setCommitListener(null);
+        }
+        if (serverSocket != null) {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close replication socket: {}", e.getMessage());
+            }
+            serverSocket = null;
+        }
+        Link current = link;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private void acceptLoop() {
+        ServerSocket server = serverSocket;
+        while (server != null && !server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                accept(socket);
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    logger.warn("Failed to accept standby: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void accept(Socket socket) throws IOException {
+        socket.setTcpNoDelay(true);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        socket.setSoTimeout(5000);
+        if (in.readInt() != ReplicationProtocol.MAGIC || in.readInt() != ReplicationProtocol.VERSION) {
+            logger.warn("Rejected replication peer {}: bad greeting", socket.getRemoteSocketAddress());
+            socket.close();
+            return;
+        }
+        socket.setSoTimeout(0);
+
+        Link previous = link;
+        if (previous != null) {
+            logger.warn("A new standby connected, dropping the previous one");
+            previous.close();
+        }
+        // Commits from here on are queued behind the sync below
+        Link created = new Link(socket, in);
+        link = created;
+        created.offer(syncMessage());
+        created.start();
+        standbysConnected.incrementAndGet();
+        logger.info("Standby connected from {}", socket.getRemoteSocketAddress());
+    }
+
+    @Override
+    public void onCommit(List<byte[]> frames) {
+        Link current = link;
+        if (current == null) {
+            return;
+        }
+        int size = 0;
+        for (byte[] frame : frames) {
+            size += frame.length;
+        }
+        byte[] payload = new byte[size];
+        int position = 0;
+        for (byte[] frame : frames) {
+            System.arraycopy(frame, 0, payload, position, frame.length);
+            position += frame.length;
+        }
+        if (current.offer(ReplicationProtocol.message(ReplicationProtocol.MSG_FRAMES, payload))) {
+            commitsSent.incrementAndGet();
+        } else {
+            // It reconnects and starts over from a fresh sync
+            logger.warn("Standby fell {} messages behind, dropping it", GameConstants.REPLICATION_QUEUE_CAPACITY);
+            current.close();
+        }
+    }
+
+    private byte[] syncMessage() throws IOException {
+        // Commands up to here are already applied to the lobbies encoded below
+        LobbyJournal journal = lobbyManager.getJournal();
+        long coveredSeq = journal != null ? journal.getLastSeq() : 0;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        DataOutputStream out = new DataOutputStream(bytes);
+        List<GameLobby> lobbies = lobbyManager.getLobbies();
+        int count = 0;
+        ByteArrayOutputStream records = new ByteArrayOutputStream(4096);
+        DataOutputStream recordsOut = new DataOutputStream(records);
+        for (GameLobby lobby : lobbies) {
+            try {
+                byte[] record = LobbyCodec.encode(lobby);
+                recordsOut.writeInt(record.length);
+                recordsOut.write(record);
+                count++;
+            } catch (Exception e) {
+                logger.error("Failed to encode lobby {} for the standby: {}", lobby.getLobbyCode(), e.getMessage(), e);
+            }
+        }
+        out.writeLong(coveredSeq);
+        out.writeInt(count);
+        records.writeTo(out);
+        out.flush();
+        syncsSent.incrementAndGet();
+        return ReplicationProtocol.message(ReplicationProtocol.MSG_SYNC, bytes.toByteArray());
+    }
+
+    /**
+     * Hands every lobby to the connected standby and stops serving them.
+     *
+     * @return True if the lobbies were handed over, or sent to a standby that
+     *         may have taken them; false if there is no standby or it dropped
+     *         before the handoff was sent, in which case this process goes on
+     */
+    public boolean handoff() {
+        synchronized (handoffLock) {
+            Link current = link;
+            if (current == null || handedOver.get()) {
+                return false;
+            }
+            logger.info("Handing lobbies over to the standby...");
+
+            HandoffBotSession polling = session;
+            int offset = polling != null ? polling.drain() : 0;
+            if (bot != null) {
+                bot.getLobbyScavenger().stop();
+                bot.getSnapshotStore().stop();
+                // Nothing is written here after the handoff, so finished games go out now
+                bot.getPlayerStatsStore().flush();
+                bot.getGameArchive().flush();
+                bot.getEventColumnStore().flush();
+            }
+            List<GameLobby> lobbies = lobbyManager.getLobbies();
+            for (GameLobby lobby : lobbies) {
+                lobby.getContext().cancelTimers();
+            }
+            LobbyJournal journal = lobbyManager.getJournal();
+            long journalSeq = 0;
+            if (journal != null) {
+                try {
+                    journal.flush();
+                } catch (IOException e) {
+                    logger.error("Failed to flush journal before handoff: {}", e.getMessage(), e);
+                }
+                journalSeq = journal.getLastSeq();
+            }
+
+            boolean acknowledged = false;
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(12);
+                DataOutputStream out = new DataOutputStream(bytes);
+                out.writeInt(offset);
+                out.writeLong(journalSeq);
+                byte[] handoff = ReplicationProtocol.message(ReplicationProtocol.MSG_HANDOFF, bytes.toByteArray());
+                current.handoffMessage = handoff;
+                current.offer(syncMessage());
+                current.offer(handoff);
+                acknowledged = current.awaitAck(TimeUnit.SECONDS.toNanos(GameConstants.REPLICATION_ACK_TIMEOUT_SECONDS));
+            } catch (IOException e) {
+                logger.error("Failed to send handoff: {}", e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            if (acknowledged || current.handoffSent) {
+                if (!acknowledged) {
+                    logger.error("Standby did not acknowledge the handoff; not resuming, it may be serving the lobbies");
+                }
+                handedOver.set(true);
+                stop();
+                lobbyManager.releaseAll();
+                logger.info("Handed {} lobbies over at update offset {}", lobbies.size(), offset);
+                return true;
+            }
+
+            logger.error("Standby did not take over, resuming {} lobbies here", lobbies.size());
+            resume(lobbies, polling);
+            return false;
+        }
+    }
+
+    private void resume(List<GameLobby> lobbies, HandoffBotSession polling) {
+        for (GameLobby lobby : lobbies) {
+            GameState state = lobby.getGameState();
+            try {
+                if (state != null) {
+                    state.onRestore(bot, lobby);
+                }
+            } catch (Exception e) {
+                logger.error("Failed to re-arm timers of lobby {}: {}", lobby.getLobbyCode(), e.getMessage(), e);
+            }
+        }
+        if (bot != null) {
+            bot.getLobbyScavenger().start();
+            bot.getSnapshotStore().start();
+        }
+        if (polling != null) {
+            polling.start();
+        }
+    }
+
+    /**
+     * @return The bound port, or -1 if not listening
+     */
+    public synchronized int getPort() {
+        return serverSocket != null ? serverSocket.getLocalPort() : -1;
+    }
+
+    public boolean hasStandby() {
+        return link != null;
+    }
+
+    public boolean isHandedOver() {
+        return handedOver.get();
+    }
+
+    /**
+     * Gets the replication metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        return String.format("ReplicationPrimary Stats - Standby: %s, Connections: %d, Syncs: %d, Commits: %d, " +
+                "Bytes: %d, Handed Over: %s",
+                link != null ? "connected" : "none", standbysConnected.get(), syncsSent.get(),
+                commitsSent.get(), bytesQueued.get(), handedOver.get());
+    }
+
+    /**
+     * One standby connection: a sender thread draining a bounded queue, so a
+     * slow standby never blocks the journal, and a reader for its requests.
+     */
+    private final class Link {
+        private final Socket socket;
+        private final DataInputStream in;
+        private final BlockingQueue<byte[]> outbox = new LinkedBlockingQueue<>(GameConstants.REPLICATION_QUEUE_CAPACITY);
+        private final CountDownLatch ack = new CountDownLatch(1);
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        private Thread sender;
+        private volatile byte[] handoffMessage;
+        // Set before the handoff is written: from then on the standby may take over
+        private volatile boolean handoffSent;
+
+        private Link(Socket socket, DataInputStream in) {
+            this.socket = socket;
+            this.in = in;
+        }
+
+        private void start() {
+            sender = new Thread(this::sendLoop, "AmongUs-ReplicationSend");
+            sender.setDaemon(true);
+            sender.start();
+            Thread reader = new Thread(this::readLoop, "AmongUs-ReplicationRead");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private boolean offer(byte[] message) {
+            if (closed.get() || !outbox.offer(message)) {
+                return false;
+            }
+            bytesQueued.addAndGet(message.length);
+            return true;
+        }
+
+        /**
+         * Waits for the standby's acknowledgement, giving up early if it disconnects.
+         */
+        private boolean awaitAck(long timeoutNanos) throws InterruptedException {
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (!closed.get() && System.nanoTime() < deadline) {
+                if (ack.await(100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+            return ack.getCount() == 0;
+        }
+
+        private void sendLoop() {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                while (!closed.get()) {
+                    byte[] message = outbox.take();
+                    write(out, message);
+                    // Batches whatever queued up meanwhile into one flush
+                    byte[] next;
+                    while ((next = outbox.poll()) != null) {
+                        write(out, next);
+                    }
+                    out.flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                if (!closed.get()) {
+                    logger.warn("Lost standby while sending: {}", e.getMessage());
+                }
+            } finally {
+                close();
+            }
+        }
+
+        private void write(DataOutputStream out, byte[] message) throws IOException {
+            if (message == handoffMessage) {
+                handoffSent = true;
+            }
+            out.write(message);
+        }
+
+        private void readLoop() {
+            byte[] type = new byte[1];
+            try {
+                while (!closed.get()) {
+                    ReplicationProtocol.read(in, type);
+                    if (type[0] == ReplicationProtocol.MSG_ACK) {
+                        ack.countDown();
+                    } else if (type[0] == ReplicationProtocol.MSG_HANDOFF_REQUEST) {
+                        // Not on this thread: the handoff waits for an ack this thread reads
+                        Thread handoff = new Thread(ReplicationPrimary.this::handoff, "AmongUs-Handoff");
+                        handoff.setDaemon(true);
+                        handoff.start();
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed.get()) {
+                    logger.info("Standby disconnected: {}", e.getMessage());
+                }
+            } finally {
+                close();
+            }
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            if (link == this) {
+                link = null;
+            }
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.debug("Error closing standby socket: {}", e.getMessage());
+            }
+            if (sender != null) {
+                sender.interrupt();
+            }
+        }
+    }
+}
+// COMPLETED: ReplicationPrimary class
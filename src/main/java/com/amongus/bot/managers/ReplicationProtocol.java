@@ -0,0 +1,69 @@
+package com.amongus.bot.managers;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Wire format between a primary and its standby. After the standby's
+ * greeting (magic and version), each message is a type byte, a payload
+ * length and the payload:
+ *
+ * <ul>
+ *   <li>{@code SYNC}: covered journal sequence, then length-prefixed
+ *       {@link com.amongus.bot.game.lobby.LobbyCodec} records of every lobby</li>
+ *   <li>{@code FRAMES}: one journal commit, the frames exactly as written</li>
+ *   <li>{@code HANDOFF}: the update offset to poll from and the journal sequence</li>
+ *   <li>{@code HANDOFF_REQUEST}: the standby asks to take over</li>
+ *   <li>{@code ACK}: the standby is polling, the primary may let go</li>
+ * </ul>
+ */
+final class ReplicationProtocol {
+    static final int MAGIC = 0x4155524C; // "AURL"
+    static final int VERSION = 1;
+
+    static final byte MSG_SYNC = 1;
+    static final byte MSG_FRAMES = 2;
+    static final byte MSG_HANDOFF = 3;
+    static final byte MSG_HANDOFF_REQUEST = 4;
+    static final byte MSG_ACK = 5;
+
+    private static final int MAX_PAYLOAD_BYTES = 256 * 1024 * 1024;
+
+    private ReplicationProtocol() {
+        throw new AssertionError("Utility class should not be instantiated");
+    }
+
+    static byte[] message(byte type, byte[] payload) {
+        byte[] message = new byte[5 + payload.length];
+        message[0] = type;
+        message[1] = (byte) (payload.length >>> 24);
+        message[2] = (byte) (payload.length >>> 16);
+        message[3] = (byte) (payload.length >>> 8);
+        message[4] = (byte) payload.length;
+        System.arraycopy(payload, 0, message, 5, payload.length);
+        return message;
+    }
+
+    static void write(DataOutputStream out, byte type, byte[] payload) throws IOException {
+        out.write(message(type, payload));
+        out.flush();
+    }
+
+    /**
+     * Reads the next message.
+     *
+     * @return The payload; its type is stored in {@code type[0]}
+     */
+    static byte[] read(DataInputStream in, byte[] type) throws IOException {
+        type[0] = in.readByte();
+        int length = in.readInt();
+        if (length < 0 || length > MAX_PAYLOAD_BYTES) {
+            throw new IOException("Invalid replication message length " + length);
+        }
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return payload;
+    }
+}
+// COMPLETED: ReplicationProtocol class
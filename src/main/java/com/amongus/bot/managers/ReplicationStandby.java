@@ -0,0 +1,327 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyCodec;
+import com.amongus.bot.game.states.GameState;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Standby side of hot-standby replication. Connects to a primary on the same
+ * machine and keeps a decoded copy of its lobbies, updated from the streamed
+ * journal; the copy is not registered and runs no timers. Reconnects if the
+ * primary goes away without handing over.
+ *
+ * <p>When the primary hands over, the final sync is registered with the lobby
+ * manager and each state re-arms its timers with the time it had left, as
+ * after a restart. Control message IDs travel with the lobbies, so the games
+ * keep editing the same messages. The caller then calls {@link #acknowledge()}
+ * and, only if that succeeds, starts polling from {@link #getHandoffOffset()}.
+ */
+public class ReplicationStandby {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationStandby.class);
+
+    private final LobbyManager lobbyManager;
+    private final AmongUsBot bot;
+    private final String host;
+    private final int port;
+
+    // Decoded copy of the primary's lobbies by code (guarded by itself)
+    private final Map<String, GameLobby> replica = new HashMap<>();
+    private final CountDownLatch handoff = new CountDownLatch(1);
+    private volatile int handoffOffset;
+    private volatile boolean requestHandoff;
+    private volatile boolean stopped;
+    private volatile Socket socket;
+    private Thread reader;
+
+    // Metrics
+    private final AtomicLong syncsReceived = new AtomicLong();
+    private final AtomicLong commitsReceived = new AtomicLong();
+    private final AtomicLong imagesApplied = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+
+    /**
+     * @param lobbyManager The lobby manager to register the lobbies with on takeover
+     * @param bot Passed to the states as they resume; may be null
+     * @param host The primary's host, normally the loopback address
+     * @param port The primary's replication port
+     */
+    public ReplicationStandby(LobbyManager lobbyManager, AmongUsBot bot, String host, int port) {
+        this.lobbyManager = lobbyManager;
+        this.bot = bot;
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * Starts following the primary in the background.
+     *
+     * @param requestHandoff Whether to ask the primary to hand over once the first sync arrived
+     */
+    public synchronized void start(boolean requestHandoff) {
+        if (reader != null) {
+            return;
+        }
+        this.requestHandoff = requestHandoff;
+        reader = new Thread(this::followLoop, "AmongUs-Standby");
+        reader.setDaemon(true);
+        reader.start();
+        logger.info("Following primary at {}:{}", host, port);
+    }
+
+    /**
+     * Stops following the primary.
+     */
+    public void stop() {
+        stopped = true;
+        closeSocket();
+    }
+
+    private void followLoop() {
+        while (!stopped && handoff.getCount() > 0) {
+            Socket connection = new Socket();
+            try {
+                connection.connect(new InetSocketAddress(host, port), 5000);
+                connection.setTcpNoDelay(true);
+                socket = connection;
+                follow(connection);
+            } catch (IOException e) {
+                if (!stopped) {
+                    logger.debug("Primary unavailable: {}", e.getMessage());
+                }
+            }
+            if (stopped || handoff.getCount() == 0) {
+                // After a handoff the connection stays open for acknowledge()
+                break;
+            }
+            socket = null;
+            try {
+                connection.close();
+            } catch (IOException e) {
+                logger.debug("Error closing primary socket: {}", e.getMessage());
+            }
+            reconnects.incrementAndGet();
+            try {
+                Thread.sleep(GameConstants.REPLICATION_RECONNECT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    private void follow(Socket connection) throws IOException {
+        DataOutputStream out = new DataOutputStream(connection.getOutputStream());
+        out.writeInt(ReplicationProtocol.MAGIC);
+        out.writeInt(ReplicationProtocol.VERSION);
+        out.flush();
+
+        DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+        byte[] type = new byte[1];
+        while (!stopped) {
+            byte[] payload = ReplicationProtocol.read(in, type);
+            switch (type[0]) {
+                case ReplicationProtocol.MSG_SYNC:
+                    applySync(payload);
+                    if (requestHandoff) {
+                        requestHandoff = false;
+                        ReplicationProtocol.write(out, ReplicationProtocol.MSG_HANDOFF_REQUEST, new byte[0]);
+                        logger.info("Asked the primary to hand over");
+                    }
+                    break;
+                case ReplicationProtocol.MSG_FRAMES:
+                    applyFrames(payload);
+                    break;
+                case ReplicationProtocol.MSG_HANDOFF:
+                    DataInputStream body = new DataInputStream(new ByteArrayInputStream(payload));
+                    takeOver(body.readInt(), body.readLong());
+                    // Stays connected until acknowledge() tells the primary to let go
+                    return;
+                default:
+                    logger.warn("Ignoring unknown replication message {}", type[0]);
+            }
+        }
+    }
+
+    private void applySync(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        in.readLong(); // covered journal sequence, implied by the lobbies themselves
+        int count = in.readInt();
+        Map<String, GameLobby> lobbies = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            byte[] record = new byte[in.readInt()];
+            in.readFully(record);
+            try {
+                GameLobby lobby = LobbyCodec.decode(record);
+                lobbies.put(lobby.getLobbyCode(), lobby);
+            } catch (IOException e) {
+                logger.error("Skipping unreadable lobby record from the primary: {}", e.getMessage());
+            }
+        }
+        synchronized (replica) {
+            replica.clear();
+            replica.putAll(lobbies);
+        }
+        syncsReceived.incrementAndGet();
+        logger.info("Synced {} lobbies from the primary", lobbies.size());
+    }
+
+    /**
+     * Applies one journal commit: newer lobby images replace the copy and
+     * closes remove it, the same rules as a journal replay after a restart.
+     */
+    private void applyFrames(byte[] payload) throws IOException {
+        List<LobbyJournal.Entry> entries = new ArrayList<>();
+        LobbyJournal.parseFrames(ByteBuffer.wrap(payload), "Replicated commit", entries);
+        synchronized (replica) {
+            for (LobbyJournal.Entry entry : entries) {
+                if (entry.getKind() == LobbyJournal.KIND_CLOSE) {
+                    replica.remove(entry.getLobbyCode());
+                } else if (entry.getKind() == LobbyJournal.KIND_IMAGE) {
+                    GameLobby lobby;
+                    try {
+                        lobby = LobbyCodec.decode(entry.getImage());
+                    } catch (IOException e) {
+                        logger.error("Skipping unreadable image of lobby {}: {}", entry.getLobbyCode(), e.getMessage());
+                        continue;
+                    }
+                    replica.merge(entry.getLobbyCode(), lobby, (current, image) ->
+                            image.getLastActivityMillis() >= current.getLastActivityMillis() ? image : current);
+                    imagesApplied.incrementAndGet();
+                }
+            }
+        }
+        commitsReceived.incrementAndGet();
+    }
+
+    private void takeOver(int updateOffset, long journalSeq) {
+        List<GameLobby> lobbies;
+        synchronized (replica) {
+            lobbies = new ArrayList<>(replica.values());
+            replica.clear();
+        }
+
+        LobbyJournal journal = lobbyManager.getJournal();
+        if (journal != null) {
+            try {
+                // Registers the primary's segments for compaction, then continues its numbering
+                journal.readAll();
+            } catch (IOException e) {
+                logger.warn("Could not read journal {} on takeover: {}", journal.getDirectory(), e.getMessage());
+            }
+            journal.advanceSequence(journalSeq);
+        }
+
+        int restored = 0;
+        for (GameLobby lobby : lobbies) {
+            if (!lobbyManager.restoreLobby(lobby)) {
+                continue;
+            }
+            GameState state = lobby.getGameState();
+            try {
+                if (state != null) {
+                    state.onRestore(bot, lobby);
+                }
+                restored++;
+            } catch (Exception e) {
+                logger.error("Failed to resume state of lobby {}: {}", lobby.getLobbyCode(), e.getMessage(), e);
+            }
+        }
+        handoffOffset = updateOffset;
+        logger.info("Took over {} of {} lobbies, polling from update offset {}", restored, lobbies.size(), updateOffset);
+        handoff.countDown();
+    }
+
+    /**
+     * Waits for the primary to hand over.
+     *
+     * @return True once the lobbies are registered here, false on timeout
+     */
+    public boolean awaitHandoff(long timeout, TimeUnit unit) throws InterruptedException {
+        return handoff.await(timeout, unit);
+    }
+
+    /**
+     * @return The offset of the first update the primary did not handle
+     */
+    public int getHandoffOffset() {
+        return handoffOffset;
+    }
+
+    /**
+     * Tells the primary that this process takes the lobbies over, so it can
+     * release them, and disconnects. Polling starts only after this succeeded.
+     *
+     * @return True if the acknowledgement was sent
+     */
+    public boolean acknowledge() {
+        Socket connection = socket;
+        if (connection == null) {
+            logger.error("Cannot acknowledge handoff: not connected to the primary");
+            return false;
+        }
+        try {
+            ReplicationProtocol.write(new DataOutputStream(connection.getOutputStream()),
+                    ReplicationProtocol.MSG_ACK, new byte[0]);
+            return true;
+        } catch (IOException e) {
+            logger.error("Failed to acknowledge handoff: {}", e.getMessage(), e);
+            return false;
+        } finally {
+            stop();
+        }
+    }
+
+    private void closeSocket() {
+        Socket connection = socket;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                logger.debug("Error closing primary socket: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return The number of lobbies in the copy
+     */
+    public int getReplicaCount() {
+        synchronized (replica) {
+            return replica.size();
+        }
+    }
+
+    /**
+     * Gets the replication metrics.
+     *
+     * @return Statistics string
+     */
+    public String getStatistics() {
+        return String.format("ReplicationStandby Stats - Lobbies: %d, Syncs: %d, Commits: %d, Images: %d, " +
+                "Reconnects: %d, Taken Over: %s",
+                getReplicaCount(), syncsReceived.get(), commitsReceived.get(), imagesApplied.get(),
+                reconnects.get(), handoff.getCount() == 0);
+    }
+}
+// COMPLETED: ReplicationStandby class
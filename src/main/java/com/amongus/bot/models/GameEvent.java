@@ -22,11 +22,24 @@ public class GameEvent {
      * @param details Детали события
      */
     public GameEvent(Long userId, String userName, String action, String details) {
+        this(userId, userName, action, details, new Date());
+    }
+    
+    /**
+     * Создает игровое событие с заданным временем, например сводку старых событий.
+     * 
+     * @param userId ID пользователя, совершившего действие
+     * @param userName Имя пользователя
+     * @param action Тип действия
+     * @param details Детали события
+     * @param timestamp Время события
+     */
+    public GameEvent(Long userId, String userName, String action, String details, Date timestamp) {
         this.userId = userId;
         this.userName = userName;
         this.action = action;
         this.details = details;
-        this.timestamp = new Date();
+        this.timestamp = timestamp;
         this.photoFileId = null;
     }
     
@@ -150,6 +163,8 @@ public class GameEvent {
                 return "🎭";
             case "GAME_OVER":
                 return "🏁";
+            case "SUMMARY":
+                return "🗂️";
             default:
                 return "📝";
         }
@@ -188,6 +203,8 @@ public class GameEvent {
                 return "Имитация задания";
             case "GAME_OVER":
                 return "Окончание игры";
+            case "SUMMARY":
+                return "Сводка событий";
             default:
                 return action;
         }
@@ -0,0 +1,132 @@
+package com.amongus.bot.models;
+
+/**
+ * Lifetime statistics of one player across finished games. Immutable: a
+ * finished game produces a per-game instance that is added to the stored
+ * totals with {@link #plus(PlayerStats)}.
+ */
+public final class PlayerStats {
+    private final Long userId;
+    private final String userName;
+    private final int gamesPlayed;
+    private final int crewmateGames;
+    private final int impostorGames;
+    private final int crewmateWins;
+    private final int impostorWins;
+    private final int kills;
+    private final int deaths;
+    private final int tasksCompleted;
+    private final int ejections;
+    private final int meetingsCalled;
+
+    public PlayerStats(Long userId, String userName, int gamesPlayed, int crewmateGames, int impostorGames,
+                       int crewmateWins, int impostorWins, int kills, int deaths, int tasksCompleted,
+                       int ejections, int meetingsCalled) {
+        this.userId = userId;
+        this.userName = userName;
+        this.gamesPlayed = gamesPlayed;
+        this.crewmateGames = crewmateGames;
+        this.impostorGames = impostorGames;
+        this.crewmateWins = crewmateWins;
+        this.impostorWins = impostorWins;
+        this.kills = kills;
+        this.deaths = deaths;
+        this.tasksCompleted = tasksCompleted;
+        this.ejections = ejections;
+        this.meetingsCalled = meetingsCalled;
+    }
+
+    /**
+     * Creates empty statistics for a player who has not finished a game yet.
+     */
+    public static PlayerStats empty(Long userId, String userName) {
+        return new PlayerStats(userId, userName, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Adds another set of statistics for the same player, e.g. one game's.
+     * The other instance's name wins, so renamed players show their latest name.
+     *
+     * @param other The statistics to add
+     * @return The combined statistics
+     */
+    public PlayerStats plus(PlayerStats other) {
+        return new PlayerStats(userId, other.userName != null ? other.userName : userName,
+                gamesPlayed + other.gamesPlayed,
+                crewmateGames + other.crewmateGames,
+                impostorGames + other.impostorGames,
+                crewmateWins + other.crewmateWins,
+                impostorWins + other.impostorWins,
+                kills + other.kills,
+                deaths + other.deaths,
+                tasksCompleted + other.tasksCompleted,
+                ejections + other.ejections,
+                meetingsCalled + other.meetingsCalled);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    public int getCrewmateGames() {
+        return crewmateGames;
+    }
+
+    public int getImpostorGames() {
+        return impostorGames;
+    }
+
+    public int getCrewmateWins() {
+        return crewmateWins;
+    }
+
+    public int getImpostorWins() {
+        return impostorWins;
+    }
+
+    public int getWins() {
+        return crewmateWins + impostorWins;
+    }
+
+    public int getKills() {
+        return kills;
+    }
+
+    public int getDeaths() {
+        return deaths;
+    }
+
+    public int getTasksCompleted() {
+        return tasksCompleted;
+    }
+
+    public int getEjections() {
+        return ejections;
+    }
+
+    public int getMeetingsCalled() {
+        return meetingsCalled;
+    }
+
+    /**
+     * @return Share of games won, in percent
+     */
+    public int getWinRate() {
+        return gamesPlayed > 0 ? (int) Math.round(100.0 * getWins() / gamesPlayed) : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PlayerStats{userId=%d, games=%d, wins=%d/%d, kills=%d, tasks=%d, ejections=%d, meetings=%d}",
+                userId, gamesPlayed, crewmateWins, impostorWins, kills, tasksCompleted, ejections, meetingsCalled);
+    }
+}
+// COMPLETED: PlayerStats class
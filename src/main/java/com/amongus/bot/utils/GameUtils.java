@@ -1,5 +1,7 @@
 package com.amongus.bot.utils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -100,6 +102,27 @@ public class GameUtils {
         return username.matches("^[a-zA-Z0-9_]{5,32}$");
     }
     
+    /**
+     * Checks whether a game over winner names the crew. Games end with
+     * either the English or the Russian side name depending on the path.
+     * 
+     * @param winner The winner passed to the game over state
+     * @return True for "Crewmates" or "Члены экипажа"
+     */
+    public static boolean isCrewmateWin(String winner) {
+        return "Crewmates".equalsIgnoreCase(winner) || "Члены экипажа".equalsIgnoreCase(winner);
+    }
+    
+    /**
+     * Checks whether a game over winner names the impostors.
+     * 
+     * @param winner The winner passed to the game over state
+     * @return True for "Impostors" or "Предатели"
+     */
+    public static boolean isImpostorWin(String winner) {
+        return "Impostors".equalsIgnoreCase(winner) || "Предатели".equalsIgnoreCase(winner);
+    }
+    
     /**
      * Returns an emoji representation of a numeric value from 0-100.
      * 
@@ -122,5 +145,22 @@ public class GameUtils {
         
         return progress.toString();
     }
+    
+    /**
+     * Splits a long message into parts of at most maxLength characters,
+     * e.g. to stay under Telegram's 4096-character limit.
+     * 
+     * @param message The message to split
+     * @param maxLength The maximum length of a part
+     * @return The parts in order
+     */
+    public static List<String> splitMessage(String message, int maxLength) {
+        List<String> parts = new ArrayList<>();
+        int length = message.length();
+        for (int i = 0; i < length; i += maxLength) {
+            parts.add(message.substring(i, Math.min(length, i + maxLength)));
+        }
+        return parts;
+    }
 }
 // COMPLETED: GameUtils class 
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.amongus.bot.analytics;
+
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.roles.Crewmate;
+import com.amongus.bot.game.roles.Impostor;
+import com.amongus.bot.models.GameEvent;
+import com.amongus.bot.models.Player;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EventQueryTest {
+    private static final long START = 1_000_000L;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * A finished game where the impostor (user 1) kills user 2 after the given delay.
+     */
+    private GameLobby game(int playerCount, long killAfter) {
+        List<Player> players = new ArrayList<>();
+        for (long id = playerCount; id >= 1; id--) {
+            Player player = new Player(id, "P" + id);
+            player.setRole(id == 1 ? new Impostor() : new Crewmate());
+            players.add(player);
+        }
+        List<GameEvent> events = List.of(
+                new GameEvent(3L, "P3", "TASK", "Проводка", new Date(START + 500)),
+                new GameEvent(1L, "P1", "KILL", "Убил P2", new Date(START + killAfter)),
+                new GameEvent(2L, "P2", "KILL", "Был убит", new Date(START + killAfter)));
+
+        GameLobby lobby = mock(GameLobby.class);
+        when(lobby.getPlayerList()).thenReturn(players);
+        when(lobby.getSortedGameEvents()).thenReturn(events);
+        when(lobby.getGameStartedAt()).thenReturn(START);
+        return lobby;
+    }
+
+    @Test
+    void testMedianTimeToFirstKillAcrossSegments() {
+        EventColumnStore store = new EventColumnStore(tempDir, 2);
+        store.record(game(8, 30_000), "Impostors");
+        store.record(game(8, 10_000), "Crewmates");
+        store.record(game(8, 20_000), "Impostors");
+        store.record(game(5, 1_000), "Impostors");
+        store.flush();
+        assertEquals(2, store.getSegments().size());
+
+        EventQuery eightPlayers = new EventQuery().players(8, 8).impostors(1, 1);
+        int[] times = eightPlayers.timeToFirst(store, EventAction.KILL);
+        assertArrayEquals(new int[] {10_000, 20_000, 30_000}, times);
+        assertEquals(20_000, EventQuery.median(times));
+        assertEquals(3, eightPlayers.countGames(store));
+        assertEquals(2, new EventQuery().players(8, 8).winner("Impostors").countGames(store));
+        assertEquals(0, new EventQuery().impostors(2, 2).countGames(store));
+        assertEquals(0, new EventQuery().timeToFirst(store, EventAction.SABOTAGE).length);
+
+        long[] counts = new EventQuery().countActions(store);
+        assertEquals(8, counts[EventAction.KILL.code()]);
+        assertEquals(4, counts[EventAction.TASK.code()]);
+    }
+
+    @Test
+    void testRussianWinnerNameIsRecorded() {
+        // GameActiveState ends games with the Russian side name, DiscussionState with the English one
+        EventColumnStore store = new EventColumnStore(tempDir, 4);
+        store.record(game(6, 5_000), "Предатели");
+        store.record(game(6, 7_000), "Члены экипажа");
+        store.record(game(6, 9_000), "Crewmates");
+        store.flush();
+
+        assertEquals(1, new EventQuery().winner("Impostors").countGames(store));
+        assertEquals(2, new EventQuery().winner("Crewmates").countGames(store));
+    }
+
+    @Test
+    void testSlotsAndReopen() {
+        EventColumnStore store = new EventColumnStore(tempDir, 10);
+        store.record(game(4, 5_000), "Impostors");
+        store.flush();
+
+        EventColumnStore reopened = new EventColumnStore(tempDir);
+        ColumnSegment segment = reopened.getSegments().get(0);
+        assertEquals(1, segment.getGameCount());
+        assertEquals(4, segment.players(0));
+        // Slots follow user ID order, so the impostor (user 1) is slot 0
+        assertEquals(0b1, segment.impostorMask(0));
+        assertEquals(500, segment.time(0));
+        assertEquals(EventAction.KILL.code(), segment.action(1));
+        assertEquals(0, segment.actor(1));
+        assertEquals(1, segment.target(1));
+        assertEquals(-1, segment.target(2));
+
+        reopened.record(game(4, 6_000), "Crewmates");
+        reopened.flush();
+        assertEquals(2, reopened.getSegments().get(1).gameId(0));
+    }
+
+    @Test
+    void testLargeLobbyKeepsImpostorCountWithoutMask() {
+        GameLobby lobby = game(40, 5_000);
+        // Игрок 35 занимает слот 34, который не помещается в маску
+        lobby.getPlayerList().get(5).setRole(new Impostor());
+        EventColumnStore store = new EventColumnStore(tempDir, 10);
+        store.record(lobby, "Impostors");
+        store.flush();
+
+        ColumnSegment segment = store.getSegments().get(0);
+        assertEquals(40, segment.players(0));
+        assertEquals(2, segment.impostors(0));
+        assertEquals(ColumnSegment.IMPOSTOR_MASK_UNRECORDED, segment.impostorMask(0));
+        assertEquals(1, new EventQuery().players(40, 40).impostors(2, 2).countGames(store));
+    }
+
+    @Test
+    void testBufferIsWrittenOnceItsFirstGameIsOld() throws InterruptedException {
+        EventColumnStore store = new EventColumnStore(tempDir, 10, 50);
+        store.record(game(6, 5_000), "Crewmates");
+        store.record(game(6, 6_000), "Impostors");
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (store.getSegments().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, store.getSegments().size());
+        assertEquals(2, store.getSegments().get(0).getGameCount());
+        assertEquals(2, new EventQuery().players(6, 6).countGames(store));
+    }
+}
@@ -1,5 +1,7 @@
 package com.amongus.bot.core;
 
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.replay.HeadlessBot;
 import com.amongus.bot.handlers.CallbackQueryHandler;
 import com.amongus.bot.handlers.CommandHandler;
 import com.amongus.bot.handlers.MessageHandler;
@@ -12,6 +14,8 @@ import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -83,6 +87,29 @@ class AmongUsBotTest {
         assertDoesNotThrow(() -> realBot.onUpdateReceived(update));
     }
 
+    @Test
+    void testLobbyIsTouchedAfterTheUpdateIsHandled() {
+        HeadlessBot headless = new HeadlessBot();
+        headless.getLobbyManager().setJournal(null);
+        GameLobby lobby = headless.getLobbyManager().createLobby(1L, "Host");
+        AtomicLong activityAtJoin = new AtomicLong(-1);
+        lobby.setChangeListener((changed, command, userId, details) -> {
+            if ("JOIN".equals(command)) {
+                activityAtJoin.set(changed.getActivityCount());
+            }
+        });
+
+        // Joining fires no touch of its own; a snapshot taken mid-join must not stay current
+        Update join = createTestUpdate();
+        join.getMessage().setText("/join " + lobby.getLobbyCode());
+        join.getMessage().getChat().setType("private");
+        headless.onUpdateReceived(join);
+
+        assertNotNull(lobby.getPlayer(123L));
+        assertTrue(lobby.getActivityCount() > activityAtJoin.get());
+        headless.getLobbyManager().closeLobby(lobby.getLobbyCode());
+    }
+
     private Update createTestUpdate() {
         Update update = new Update();
         Message message = new Message();
@@ -0,0 +1,184 @@
+package com.amongus.bot.core;
+
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.replay.SimulatedClock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.ApiResponse;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiException;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiRetrierTest {
+
+    private final SimulatedClock clock = new SimulatedClock(0);
+    private final List<Long> sleeps = new ArrayList<>();
+    private final ApiRetrier retrier = new ApiRetrier(clock, sleeps::add);
+
+    @Test
+    void testRateLimitWaitsRetryAfter() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retrier.call("sendMessage", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw apiError(429, 2);
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(List.of(2000L), sleeps);
+        assertTrue(retrier.getStatistics().contains("RateLimited: 1"));
+    }
+
+    @Test
+    void testLongFloodWaitFailsFastWithinTheWaitBudget() throws Exception {
+        ApiRetrier updatePath = new ApiRetrier(clock, sleeps::add,
+                () -> GameConstants.API_UPDATE_PATH_MAX_WAIT_MILLIS);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(TelegramApiRequestException.class, () -> updatePath.call("sendMessage", () -> {
+            attempts.incrementAndGet();
+            throw apiError(429, 5);
+        }));
+        assertEquals(1, attempts.get());
+        assertTrue(sleeps.isEmpty());
+
+        // A short backoff still fits the budget
+        attempts.set(0);
+        assertEquals("ok", updatePath.call("sendMessage", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw apiError(429, 1);
+            }
+            return "ok";
+        }));
+        assertEquals(List.of(1000L), sleeps);
+    }
+
+    @Test
+    void testClientErrorIsNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(TelegramApiRequestException.class, () -> retrier.call("sendMessage", () -> {
+            attempts.incrementAndGet();
+            throw apiError(403, null);
+        }));
+
+        assertEquals(1, attempts.get());
+        assertTrue(sleeps.isEmpty());
+    }
+
+    @Test
+    void testServerErrorBacksOffUntilAttemptsRunOut() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(TelegramApiException.class, () -> retrier.call("sendMessage", () -> {
+            attempts.incrementAndGet();
+            throw new TelegramApiException("Unable to execute sendmessage method", new IOException("reset"));
+        }));
+
+        assertEquals(GameConstants.API_MAX_ATTEMPTS, attempts.get());
+        assertEquals(GameConstants.API_MAX_ATTEMPTS - 1, sleeps.size());
+        for (int i = 0; i < sleeps.size(); i++) {
+            long ceiling = GameConstants.API_BACKOFF_BASE_MILLIS << i;
+            assertTrue(sleeps.get(i) >= ceiling / 2 && sleeps.get(i) <= ceiling, "backoff " + sleeps.get(i));
+        }
+    }
+
+    @Test
+    void testBreakerOpensDuringOutageAndClosesAfterProbe() throws Exception {
+        // Отказы подряд открывают автомат, дальше вызовы отклоняются без обращения к API
+        while (retrier.getBreakerState() == ApiRetrier.BreakerState.CLOSED) {
+            assertThrows(TelegramApiException.class, () -> retrier.call("sendMessage", () -> {
+                throw apiError(502, null);
+            }));
+        }
+        assertEquals(ApiRetrier.BreakerState.OPEN, retrier.getBreakerState());
+        assertFalse(retrier.isAvailable());
+
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(ApiRetrier.CircuitOpenException.class, () -> retrier.call("sendMessage", () -> {
+            attempts.incrementAndGet();
+            return "ok";
+        }));
+        assertEquals(0, attempts.get());
+
+        clock.advanceTo(GameConstants.API_BREAKER_OPEN_MILLIS);
+        assertTrue(retrier.isAvailable());
+        assertEquals("ok", retrier.call("sendMessage", () -> "ok"));
+        assertEquals(ApiRetrier.BreakerState.CLOSED, retrier.getBreakerState());
+        assertTrue(retrier.getStatistics().contains("BreakerOpened: 1"));
+    }
+
+    @Test
+    void testProbeThatThrowsAtRuntimeFreesTheNextProbe() throws Exception {
+        while (retrier.getBreakerState() == ApiRetrier.BreakerState.CLOSED) {
+            assertThrows(TelegramApiException.class, () -> retrier.call("sendMessage", () -> {
+                throw apiError(502, null);
+            }));
+        }
+        clock.advanceTo(GameConstants.API_BREAKER_OPEN_MILLIS);
+
+        assertThrows(IllegalStateException.class, () -> retrier.call("sendMessage", () -> {
+            throw new IllegalStateException("Сломанный обработчик ответа");
+        }));
+
+        // The failed probe is released, so the next call probes instead of being rejected
+        assertEquals("ok", retrier.call("sendMessage", () -> "ok"));
+        assertEquals(ApiRetrier.BreakerState.CLOSED, retrier.getBreakerState());
+    }
+
+    @Test
+    void testWorkHandedToAnotherThreadKeepsTheCallersBudget() throws Exception {
+        ThreadLocal<Boolean> onUpdatePath = ThreadLocal.withInitial(() -> false);
+        ApiRetrier bot = new ApiRetrier(clock, sleeps::add,
+                () -> onUpdatePath.get() ? GameConstants.API_UPDATE_PATH_MAX_WAIT_MILLIS : Long.MAX_VALUE);
+        AtomicInteger attempts = new AtomicInteger();
+        Callable<String> send = () -> bot.call("sendMessage", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw apiError(429, 5);
+            }
+            return "ok";
+        });
+
+        onUpdatePath.set(true);
+        Callable<String> pooled = bot.withCallerBudget(send);
+        onUpdatePath.set(false);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            // The pool thread alone would wait out the flood; the update thread's budget fails fast
+            Exception failure = assertThrows(Exception.class, () -> pool.submit(pooled).get());
+            assertInstanceOf(TelegramApiRequestException.class, failure.getCause());
+            assertTrue(sleeps.isEmpty());
+
+            attempts.set(0);
+            assertEquals("ok", pool.submit(send).get());
+            assertEquals(List.of(5000L), sleeps);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static TelegramApiRequestException apiError(int code, Integer retryAfter) {
+        String parameters = retryAfter != null ? ",\"parameters\":{\"retry_after\":" + retryAfter + "}" : "";
+        try {
+            ApiResponse<?> response = new ObjectMapper().readValue(
+                    "{\"ok\":false,\"error_code\":" + code + ",\"description\":\"error " + code + "\"" + parameters + "}",
+                    ApiResponse.class);
+            return new TelegramApiRequestException("Error sending method", response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
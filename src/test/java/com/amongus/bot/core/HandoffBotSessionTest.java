@@ -0,0 +1,139 @@
+package com.amongus.bot.core;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.bots.DefaultBotOptions;
+import org.telegram.telegrambots.bots.TelegramLongPollingBot;
+import org.telegram.telegrambots.meta.api.methods.BotApiMethod;
+import org.telegram.telegrambots.meta.api.methods.updates.GetUpdates;
+import org.telegram.telegrambots.meta.api.objects.Update;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HandoffBotSessionTest {
+
+    /**
+     * Bot API stand-in: getUpdates returns everything at or after the offset,
+     * like Telegram does for updates that were not confirmed yet.
+     */
+    private static class FakeApiBot extends TelegramLongPollingBot {
+        private final List<Update> unconfirmed = new CopyOnWriteArrayList<>();
+        private final List<Integer> handled = new CopyOnWriteArrayList<>();
+        private final CountDownLatch slowUpdateStarted = new CountDownLatch(1);
+
+        private FakeApiBot() {
+            super(new DefaultBotOptions(), "test-token");
+        }
+
+        private void push(int... updateIds) {
+            for (int updateId : updateIds) {
+                Update update = new Update();
+                update.setUpdateId(updateId);
+                unconfirmed.add(update);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends Serializable, Method extends BotApiMethod<T>> T execute(Method method) {
+            int offset = ((GetUpdates) method).getOffset();
+            unconfirmed.removeIf(update -> update.getUpdateId() < offset);
+            if (unconfirmed.isEmpty()) {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return (T) new ArrayList<>(unconfirmed);
+        }
+
+        @Override
+        public void onUpdateReceived(Update update) {
+            handled.add(update.getUpdateId());
+            if (update.getUpdateId() == 2) {
+                slowUpdateStarted.countDown();
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public String getBotUsername() {
+            return "test";
+        }
+    }
+
+    @Test
+    void testDrainStopsAtFirstUnhandledUpdate() throws Exception {
+        FakeApiBot bot = new FakeApiBot();
+        bot.push(1, 2, 3);
+        HandoffBotSession session = new HandoffBotSession();
+        session.setOptions(new DefaultBotOptions());
+        session.setCallback(bot);
+        session.start();
+
+        assertTrue(bot.slowUpdateStarted.await(5, TimeUnit.SECONDS));
+        // Waits for update 2 to finish; update 3 was fetched but is never handled
+        assertEquals(3, session.drain());
+        assertFalse(session.isRunning());
+        assertEquals(List.of(1, 2), bot.handled);
+
+        // Update 3 is still unconfirmed, so polling again from the offset picks it up once
+        bot.push(4);
+        session.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bot.handled.size() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(5, session.drain());
+        assertEquals(List.of(1, 2, 3, 4), bot.handled);
+    }
+
+    @Test
+    void testRestartWaitsForTheDrainedPoll() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger mostInFlight = new AtomicInteger();
+        CountDownLatch polling = new CountDownLatch(1);
+        FakeApiBot bot = new FakeApiBot() {
+            @Override
+            public <T extends Serializable, Method extends BotApiMethod<T>> T execute(Method method) {
+                mostInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                polling.countDown();
+                try {
+                    // A long poll ignores the interrupt from drain()
+                    long until = System.currentTimeMillis() + 200;
+                    while (System.currentTimeMillis() < until) {
+                        Thread.onSpinWait();
+                    }
+                    return super.execute(method);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            }
+        };
+        HandoffBotSession session = new HandoffBotSession();
+        session.setOptions(new DefaultBotOptions());
+        session.setCallback(bot);
+        session.start();
+        assertTrue(polling.await(5, TimeUnit.SECONDS));
+
+        session.drain();
+        session.start();
+        Thread.sleep(500);
+        session.drain();
+
+        // The drained loop's poll finished before the new loop sent its own
+        assertEquals(1, mostInFlight.get());
+    }
+}
@@ -0,0 +1,144 @@
+package com.amongus.bot.core;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientTransportTest {
+    private static final Logger logger = LoggerFactory.getLogger(HttpClientTransportTest.class);
+
+    private static final int MESSAGES = 128;
+    private static final long API_LATENCY_MILLIS = 5;
+
+    static {
+        // Без этого заглушка ждёт delayed ACK на каждом ответе, и задержка сети не та
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final Queue<String> requests = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger messageIds = new AtomicInteger();
+    private volatile boolean rateLimited;
+    private HttpClientTransport transport;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Заглушка Bot API: отвечает на sendMessage с задержкой, как удалённый сервер
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.createContext("/", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            requests.add(exchange.getRequestURI().getPath() + " " + body);
+            String answer;
+            int status;
+            if (rateLimited) {
+                status = 429;
+                answer = "{\"ok\":false,\"error_code\":429,\"description\":\"Too Many Requests: retry after 2\"," +
+                        "\"parameters\":{\"retry_after\":2}}";
+            } else {
+                try {
+                    Thread.sleep(API_LATENCY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                status = 200;
+                answer = "{\"ok\":true,\"result\":{\"message_id\":" + messageIds.incrementAndGet() +
+                        ",\"date\":0,\"chat\":{\"id\":101,\"type\":\"private\"},\"text\":\"ok\"}}";
+            }
+            byte[] bytes = answer.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        transport = new HttpClientTransport("http://127.0.0.1:" + server.getAddress().getPort() + "/bottest-token/");
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void testSendMessageRoundTrip() throws Exception {
+        Message message = transport.execute(message("Привет"));
+
+        assertEquals(1, message.getMessageId());
+        String request = requests.poll();
+        assertTrue(request.startsWith("/bottest-token/sendmessage "), request);
+        assertTrue(request.contains("\"chat_id\":\"101\""), request);
+        assertTrue(request.contains("Привет"), request);
+    }
+
+    @Test
+    void testApiErrorKeepsRetryAfter() {
+        rateLimited = true;
+
+        TelegramApiRequestException e = assertThrows(TelegramApiRequestException.class,
+                () -> transport.execute(message("Привет")));
+
+        assertEquals(429, e.getErrorCode());
+        assertEquals(2, e.getParameters().getRetryAfter());
+        assertTrue(ApiRetrier.isRetryable(e));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 8, 64})
+    void testConcurrentSenders(int senders) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(senders);
+        long started = System.nanoTime();
+        try {
+            List<Future<Message>> sent = new ArrayList<>();
+            for (int i = 0; i < MESSAGES; i++) {
+                int index = i;
+                sent.add(pool.submit(() -> transport.execute(message("Сообщение " + index))));
+            }
+            for (Future<Message> future : sent) {
+                assertNotNull(future.get().getMessageId());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        logger.info("{} senders: {} messages in {} ms, {} msg/s - {}", senders, MESSAGES,
+                Math.round(seconds * 1000), Math.round(MESSAGES / seconds), transport.getStatistics());
+
+        assertEquals(MESSAGES, requests.size());
+        assertEquals(0, transport.getInFlight());
+        assertTrue(transport.getStatistics().contains("Calls: " + MESSAGES + ", Failures: 0"));
+    }
+
+    private static SendMessage message(String text) {
+        SendMessage message = new SendMessage();
+        message.setChatId(101L);
+        message.setText(text);
+        return message;
+    }
+}
@@ -27,6 +27,28 @@ class GameLobbyTest {
         assertTrue(lobby.isHost(HOST_ID));
     }
 
+    @Test
+    void testSnapshotIsRepublishedOnMutation() {
+        LobbySnapshot initial = lobby.getSnapshot();
+        assertEquals(1, initial.getPlayerCount());
+        assertEquals(HOST_NAME, initial.getHostName());
+        assertNull(initial.getStateName());
+
+        lobby.addPlayer(456L, "NewPlayer");
+        LobbySnapshot afterJoin = lobby.getSnapshot();
+        assertTrue(afterJoin.getVersion() > initial.getVersion());
+        assertEquals(2, afterJoin.getPlayerCount());
+        assertEquals(1, initial.getPlayerCount(), "Published snapshots must not change");
+
+        lobby.removePlayer(HOST_ID);
+        lobby.assignNewHost();
+        LobbySnapshot afterHostLeft = lobby.getSnapshot();
+        assertEquals(456L, afterHostLeft.getHostId());
+        assertEquals("NewPlayer", afterHostLeft.getHostName());
+        assertTrue(afterHostLeft.getPlayers().get(0).isHost());
+        assertThrows(UnsupportedOperationException.class, () -> afterHostLeft.getPlayers().clear());
+    }
+
     @Test
     void testAddPlayer() {
         Long newPlayerId = 456L;
@@ -131,6 +153,70 @@ class GameLobbyTest {
         assertEquals(10, lobby.getPlayerCount());
     }
 
+    @Test
+    void testLargeLobbyMode() {
+        assertTrue(lobby.updateSetting("max_players", 100));
+        assertEquals(100, lobby.getSettings().getMaxPlayers());
+        for (int i = 1; i < 100; i++) {
+            assertTrue(lobby.addPlayer((long) i + 1000, "Player" + i));
+        }
+        
+        assertFalse(lobby.addPlayer(5000L, "ExtraPlayer"));
+        assertEquals(100, lobby.getPlayerCount());
+        assertFalse(lobby.updateSetting("max_players", 101));
+    }
+
+    @Test
+    void testEventQuotaSummarizesRoutineEvents() {
+        lobby.setMaxGameEvents(100);
+        lobby.addGameEvent(HOST_ID, "KILL", "first kill");
+        for (int i = 0; i < 150; i++) {
+            lobby.addGameEvent(HOST_ID, "TASK", "task " + i);
+        }
+        
+        List<GameEvent> events = lobby.getGameEvents();
+        assertTrue(events.size() <= 100);
+        assertEquals("KILL", events.get(0).getAction());
+        assertEquals(1, lobby.getEventsByType("SUMMARY").size());
+        assertEquals("task 149", events.get(events.size() - 1).getDetails());
+        
+        // Summarized and kept events still account for everything that happened
+        long kept = lobby.getEventsByType("TASK").size();
+        assertEquals(150, kept + lobby.getSummarizedEventCount());
+        assertTrue(lobby.getEventsByType("SUMMARY").get(0).getDetails().contains("TASK ×" + lobby.getSummarizedEventCount()));
+    }
+
+    @Test
+    void testEventQuotaKeepsKeyAndPhotoEvents() {
+        lobby.setMaxGameEvents(100);
+        for (int i = 0; i < 80; i++) {
+            lobby.addGameEvent(HOST_ID, "TASK", "task " + i, "photo-" + i);
+            lobby.addGameEvent(HOST_ID, "KILL", "kill " + i);
+        }
+        for (int i = 0; i < 20; i++) {
+            lobby.addGameEvent(HOST_ID, "VOTE", "vote " + i);
+        }
+        
+        // Only the photo-less votes can be folded; the rest stays over the quota
+        assertEquals(80, lobby.getEventsByType("TASK").size());
+        assertEquals(80, lobby.getEventsByType("KILL").size());
+        assertEquals("photo-0", lobby.getEventsByType("TASK").get(0).getPhotoFileId());
+        assertEquals(20, lobby.getEventsByType("VOTE").size() + lobby.getSummarizedEventCount());
+    }
+
+    @Test
+    void testFootprintGrowsWithEvents() {
+        LobbyFootprint empty = lobby.getFootprint();
+        assertEquals(1, empty.getPlayerCount());
+        assertEquals(0, empty.getEventCount());
+        
+        lobby.addGameEvent(HOST_ID, "TASK", "Починил проводку");
+        LobbyFootprint withEvent = lobby.getFootprint();
+        assertEquals(1, withEvent.getEventCount());
+        assertTrue(withEvent.getEventBytes() > 0);
+        assertTrue(withEvent.getTotalBytes() > empty.getTotalBytes());
+    }
+
     @Test
     void testHasEnoughPlayers() {
         // Initially not enough players
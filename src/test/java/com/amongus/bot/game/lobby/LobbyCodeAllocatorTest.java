@@ -0,0 +1,50 @@
+package com.amongus.bot.game.lobby;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+class LobbyCodeAllocatorTest {
+
+    @Test
+    void testFormatAndParseRoundTrip() {
+        assertEquals("AAAAAA", LobbyCodeAllocator.format(0));
+        assertEquals("ZZZZZZ", LobbyCodeAllocator.format(LobbyCodeAllocator.CODE_SPACE - 1));
+        assertEquals(0, LobbyCodeAllocator.parse("AAAAAA"));
+
+        int key = LobbyCodeAllocator.parse("QWERTY");
+        assertEquals("QWERTY", LobbyCodeAllocator.format(key));
+        assertEquals(key, LobbyCodeAllocator.parse("  qwerty "));
+    }
+
+    @Test
+    void testParseRejectsInvalidCodes() {
+        assertEquals(LobbyCodeAllocator.INVALID_KEY, LobbyCodeAllocator.parse(null));
+        assertEquals(LobbyCodeAllocator.INVALID_KEY, LobbyCodeAllocator.parse("ABC"));
+        assertEquals(LobbyCodeAllocator.INVALID_KEY, LobbyCodeAllocator.parse("ABC123"));
+        assertEquals(LobbyCodeAllocator.INVALID_KEY, LobbyCodeAllocator.parse("FAKECODE"));
+    }
+
+    @Test
+    void testKeysAreUniqueWithoutRetries() {
+        LobbyCodeAllocator allocator = new LobbyCodeAllocator();
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = allocator.nextKey(k -> false);
+            assertTrue(key >= 0 && key < LobbyCodeAllocator.CODE_SPACE);
+            assertTrue(seen.add(key), "Duplicate key " + LobbyCodeAllocator.format(key));
+        }
+    }
+
+    @Test
+    void testKeysInUseAreSkipped() {
+        LobbyCodeAllocator allocator = new LobbyCodeAllocator();
+        Set<Integer> taken = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            taken.add(allocator.nextKey(taken::contains));
+        }
+        assertEquals(1000, taken.size());
+    }
+}
@@ -0,0 +1,86 @@
+package com.amongus.bot.game.lobby;
+
+import com.amongus.bot.game.roles.Crewmate;
+import com.amongus.bot.game.roles.Impostor;
+import com.amongus.bot.game.states.DiscussionState;
+import com.amongus.bot.game.tasks.SimpleTask;
+import com.amongus.bot.game.tasks.Task;
+import com.amongus.bot.game.tasks.TaskDifficulty;
+import com.amongus.bot.models.GameEvent;
+import com.amongus.bot.models.Player;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobbyCodecTest {
+
+    @Test
+    void testRoundTripKeepsPlayersTasksEventsAndSettings() throws IOException {
+        GameLobby lobby = new GameLobby("ABC123", 1L, "Host");
+        lobby.addPlayer(2L, "Alice");
+        lobby.addPlayer(3L, "Bob");
+        lobby.getSettings().updateSetting(LobbySettings.KILL_COOLDOWN, 40);
+
+        Player host = lobby.getPlayer(1L);
+        host.setChatId(100L);
+        host.setRole(new Crewmate());
+        List<Task> tasks = Arrays.asList(
+                new SimpleTask("Проводка", "Почините проводку", TaskDifficulty.EASY),
+                new SimpleTask("Реактор", "Запустите реактор", TaskDifficulty.HARD));
+        host.setTasks(tasks);
+        host.completeTask(1);
+        host.setAwaitingPhotoForTaskIndex(0);
+        host.incrementEmergencyMeetingsUsed();
+
+        lobby.getPlayer(2L).setRole(new Impostor());
+        lobby.getPlayer(3L).setRole(new Crewmate());
+        lobby.getPlayer(3L).kill();
+
+        lobby.addGameEvent(2L, "KILL", "Bob");
+        lobby.setGameState(new DiscussionState("Alice", 3L));
+
+        GameLobby decoded = LobbyCodec.decode(LobbyCodec.encode(lobby));
+
+        assertEquals("ABC123", decoded.getLobbyCode());
+        assertEquals(1L, decoded.getHostId());
+        assertEquals(3, decoded.getPlayerCount());
+        assertEquals(40, decoded.getSettings().getKillCooldown());
+        assertEquals(lobby.getLastActivityMillis(), decoded.getLastActivityMillis());
+
+        Player restoredHost = decoded.getPlayer(1L);
+        assertEquals(100L, restoredHost.getChatId());
+        assertFalse(restoredHost.isImpostor());
+        assertEquals(2, restoredHost.getTotalTaskCount());
+        assertEquals(1, restoredHost.getCompletedTaskCount());
+        assertTrue(restoredHost.isTaskCompleted(1));
+        assertEquals(TaskDifficulty.HARD, restoredHost.getTask(1).getDifficulty());
+        assertEquals(0, restoredHost.getAwaitingPhotoForTaskIndex());
+        assertEquals(1, restoredHost.getEmergencyMeetingsUsed());
+
+        assertTrue(decoded.getPlayer(2L).isImpostor());
+        assertFalse(decoded.getPlayer(3L).isAlive());
+        assertTrue(decoded.getPlayer(3L).wasKilled());
+
+        List<GameEvent> events = decoded.getGameEvents();
+        assertEquals(lobby.getGameEvents().size(), events.size());
+        GameEvent kill = events.get(events.size() - 1);
+        assertEquals("KILL", kill.getAction());
+        assertEquals("Bob", kill.getDetails());
+        assertEquals(lobby.getGameEvents().get(events.size() - 1).getTimestamp(), kill.getTimestamp());
+
+        assertEquals("DISCUSSION", decoded.getGameState().getStateName());
+        assertEquals("DISCUSSION", decoded.getSnapshot().getStateName());
+    }
+
+    @Test
+    void testTruncatedRecordIsRejected() throws IOException {
+        GameLobby lobby = new GameLobby("ABC123", 1L, "Host");
+        byte[] record = LobbyCodec.encode(lobby);
+
+        assertThrows(IOException.class, () -> LobbyCodec.decode(Arrays.copyOf(record, record.length / 2)));
+    }
+}
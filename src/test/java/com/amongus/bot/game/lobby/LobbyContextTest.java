@@ -0,0 +1,87 @@
+package com.amongus.bot.game.lobby;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class LobbyContextTest {
+    private final ScheduledExecutorService scheduler = LobbyContext.newScheduler(1, "LobbyContextTest");
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void testCloseCancelsTimers() {
+        LobbyContext context = new LobbyContext("TEST01");
+        AtomicInteger runs = new AtomicInteger();
+        ScheduledFuture<?> timer = context.schedule(scheduler, runs::incrementAndGet, 1, TimeUnit.HOURS);
+        assertEquals(1, context.getPendingTimerCount());
+
+        context.close();
+
+        assertTrue(timer.isCancelled());
+        assertEquals(0, context.getPendingTimerCount());
+        assertNull(context.schedule(scheduler, runs::incrementAndGet, 1, TimeUnit.MILLISECONDS));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void testCloseRunsReleasesOnce() {
+        LobbyContext context = new LobbyContext("TEST01");
+        AtomicInteger released = new AtomicInteger();
+        context.register("registry", this, released::incrementAndGet);
+        context.trackedMessages("voting").put(1L, 10);
+
+        context.close();
+        context.close();
+
+        assertEquals(1, released.get());
+        assertEquals(0, context.getRegistrationCount());
+        assertEquals(0, context.getTrackedMessageCount());
+        assertTrue(context.isClosed());
+    }
+
+    @Test
+    void testReleaseOnlyByOwner() {
+        LobbyContext context = new LobbyContext("TEST01");
+        Object owner = new Object();
+        AtomicInteger released = new AtomicInteger();
+        context.register("registry", owner, released::incrementAndGet);
+
+        assertFalse(context.release("registry", new Object()));
+        assertTrue(context.release("registry", owner));
+        assertFalse(context.release("registry", owner));
+        assertEquals(1, released.get());
+    }
+
+    @Test
+    void testNewOwnerSupersedesRegistration() {
+        LobbyContext context = new LobbyContext("TEST01");
+        AtomicInteger first = new AtomicInteger();
+        AtomicInteger second = new AtomicInteger();
+        context.register("registry", new Object(), first::incrementAndGet);
+        context.register("registry", new Object(), second::incrementAndGet);
+
+        assertEquals(1, first.get());
+        assertEquals(0, second.get());
+        assertEquals(1, context.getRegistrationCount());
+    }
+
+    @Test
+    void testRegisterAfterCloseReleasesImmediately() {
+        LobbyContext context = new LobbyContext("TEST01");
+        context.close();
+        AtomicInteger released = new AtomicInteger();
+        context.register("registry", this, released::incrementAndGet);
+
+        assertEquals(1, released.get());
+        assertEquals(0, context.getRegistrationCount());
+    }
+}
@@ -0,0 +1,89 @@
+package com.amongus.bot.game.replay;
+
+import com.amongus.bot.game.lobby.LobbySettings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplaySimulatorTest {
+    private static final long START = 1_700_000_000_000L;
+    private static final long SEED = 42L;
+
+    @TempDir
+    Path tempDir;
+
+    private GameReplay replay(List<GameReplay.Input> inputs) {
+        List<GameReplay.PlayerEntry> players = new ArrayList<>();
+        for (long id = 1; id <= 4; id++) {
+            players.add(new GameReplay.PlayerEntry(id, "Player" + id, id));
+        }
+        Map<String, Integer> settings = new LinkedHashMap<>();
+        settings.put(LobbySettings.IMPOSTOR_COUNT, 1);
+        settings.put(LobbySettings.KILL_COOLDOWN, 10);
+        return new GameReplay("REPLAY", 1L, SEED, START, null, settings, players, inputs, new ArrayList<>());
+    }
+
+    @Test
+    void testSeedReproducesAssignmentAndTimersRunOnSimulatedTime() {
+        ReplayResult idle = new ReplaySimulator().run(replay(List.of()));
+        assertEquals("ACTIVE", idle.getFinalState());
+        assertEquals(List.of("0ms SETUP", "2000ms ACTIVE"), idle.getStateTrace());
+        assertEquals(1, idle.getImpostorIds().size());
+        assertEquals(idle.getImpostorIds(), new ReplaySimulator().run(replay(List.of())).getImpostorIds());
+        assertTrue(idle.getApiCalls().getOrDefault("SendMessage", 0) > 0);
+        // Nothing waited for the 15 minutes of simulated time
+        assertTrue(idle.getElapsedNanos() < 60_000_000_000L);
+    }
+
+    @Test
+    void testRecordedKillsEndTheGameOnceAndReplayIdentically() throws Exception {
+        long impostor = new ReplaySimulator().run(replay(List.of())).getImpostorIds().get(0);
+        List<Long> crew = new ArrayList<>(List.of(1L, 2L, 3L, 4L));
+        crew.remove(impostor);
+
+        List<GameReplay.Input> inputs = List.of(
+                new GameReplay.Input(5_000, GameReplay.INPUT_CALLBACK, impostor, impostor, "kill:" + crew.get(0)),
+                // Still on cooldown: ignored
+                new GameReplay.Input(8_000, GameReplay.INPUT_CALLBACK, impostor, impostor, "kill:" + crew.get(1)),
+                new GameReplay.Input(20_000, GameReplay.INPUT_CALLBACK, impostor, impostor, "kill:" + crew.get(1)));
+        GameReplay recorded = replay(inputs);
+
+        Path file = tempDir.resolve("game.replay");
+        recorded.writeTo(file);
+        GameReplay loaded = GameReplay.readFrom(file);
+        assertEquals(3, loaded.getInputs().size());
+        assertEquals("kill:" + crew.get(1), loaded.getInputs().get(2).getData());
+
+        ReplayResult first = new ReplaySimulator().run(loaded);
+        assertEquals("GAME_OVER", first.getFinalState());
+        assertEquals(1, first.countState("GAME_OVER"));
+        assertTrue(first.getStateTrace().contains("20000ms GAME_OVER"));
+
+        ReplayResult second = new ReplaySimulator().run(loaded);
+        assertEquals(first.getStateTrace(), second.getStateTrace());
+        assertEquals(first.getEvents().toString(), second.getEvents().toString());
+    }
+
+    @Test
+    void testRunsLeaveNoBackgroundThreads() {
+        long before = botThreads();
+        for (int i = 0; i < 3; i++) {
+            new ReplaySimulator().run(replay(List.of()));
+        }
+        assertEquals(before, botThreads());
+    }
+
+    private static long botThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .map(Thread::getName)
+                .filter(name -> name.startsWith("AmongUs-MessageSweeper") || name.startsWith("AmongUs-Photo"))
+                .count();
+    }
+}
@@ -2,27 +2,40 @@ package com.amongus.bot.game.states;
 
 import com.amongus.bot.core.AmongUsBot;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyContext;
 import com.amongus.bot.game.lobby.LobbySettings;
 import com.amongus.bot.models.Player;
 import com.amongus.bot.game.roles.Crewmate;
 import com.amongus.bot.game.roles.Impostor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
+import org.telegram.telegrambots.meta.api.methods.polls.SendPoll;
+import org.telegram.telegrambots.meta.api.methods.polls.StopPoll;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Chat;
 import org.telegram.telegrambots.meta.api.objects.Message;
 import org.telegram.telegrambots.meta.api.objects.Update;
 import org.telegram.telegrambots.meta.api.objects.User;
+import org.telegram.telegrambots.meta.api.objects.polls.Poll;
+import org.telegram.telegrambots.meta.api.objects.polls.PollAnswer;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class DiscussionStateTest {
@@ -60,6 +73,7 @@ class DiscussionStateTest {
         }
         
         when(lobby.getLobbyCode()).thenReturn("TEST123");
+        when(lobby.getContext()).thenReturn(new LobbyContext("TEST123"));
         when(lobby.getPlayerList()).thenReturn(players);
         when(lobby.getSettings()).thenReturn(settings);
         when(settings.getVotingTime()).thenReturn(30);
@@ -155,6 +169,152 @@ class DiscussionStateTest {
         }
     }
     
+    @Test
+    void testReadyQuorumCutsDiscussionShort() {
+        when(settings.getDiscussionTime()).thenReturn(90);
+        when(settings.getReadyQuorum()).thenReturn(60);
+        when(lobby.getPlayer(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return players.stream().filter(p -> p.getUserId().equals(id)).findFirst().orElse(null);
+        });
+        discussionState.onEnter(bot, lobby);
+        
+        Update update = mock(Update.class);
+        CallbackQuery callbackQuery = mock(CallbackQuery.class);
+        User user = mock(User.class);
+        when(update.hasCallbackQuery()).thenReturn(true);
+        when(update.getCallbackQuery()).thenReturn(callbackQuery);
+        when(callbackQuery.getData()).thenReturn("ready_vote");
+        when(callbackQuery.getFrom()).thenReturn(user);
+        
+        // 60% of 5 alive players is 3; the fourth press must not reschedule again
+        for (long id = 1; id <= 4; id++) {
+            when(user.getId()).thenReturn(id);
+            assertNull(discussionState.handleUpdate(bot, lobby, update));
+            if (id == 2) {
+                verify(bot, never()).sendTextMessage(anyLong(), contains("Игроки готовы"));
+            }
+        }
+        
+        for (Player player : players) {
+            verify(bot, times(1)).sendTextMessage(eq(player.getChatId()), contains("Игроки готовы"));
+        }
+        verify(lobby, times(1)).addGameEvent(null, "DISCUSSION_SKIPPED", "Игроки готовы к голосованию досрочно");
+        
+        discussionState.onExit(bot, lobby);
+    }
+    
+    @Test
+    void testLargeLobbyVotingKeyboardIsPaginated() {
+        for (int i = 6; i <= 20; i++) {
+            Player player = new Player(Long.valueOf(i), "Player" + i);
+            player.setChatId(Long.valueOf(i * 100));
+            player.setRole(new Crewmate());
+            players.add(player);
+        }
+        when(lobby.getPlayer(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return players.stream().filter(p -> p.getUserId().equals(id)).findFirst().orElse(null);
+        });
+        discussionState.onEnter(bot, lobby);
+        
+        ArgumentCaptor<SendMessage> sent = ArgumentCaptor.forClass(SendMessage.class);
+        verify(bot, times(players.size())).executeMethod(sent.capture());
+        SendMessage firstPage = sent.getAllValues().stream()
+                .filter(m -> m.getChatId().equals("100"))
+                .findFirst().orElseThrow();
+        
+        Set<String> targets = new HashSet<>();
+        collectVoteTargets((InlineKeyboardMarkup) firstPage.getReplyMarkup(), targets);
+        assertEquals(8, targets.size());
+        
+        // Walk the remaining pages of player 1 through the navigation callbacks
+        Update update = mock(Update.class);
+        CallbackQuery callbackQuery = mock(CallbackQuery.class);
+        User user = mock(User.class);
+        when(update.hasCallbackQuery()).thenReturn(true);
+        when(update.getCallbackQuery()).thenReturn(callbackQuery);
+        when(callbackQuery.getFrom()).thenReturn(user);
+        when(user.getId()).thenReturn(1L);
+        
+        ArgumentCaptor<InlineKeyboardMarkup> edited = ArgumentCaptor.forClass(InlineKeyboardMarkup.class);
+        for (int page = 1; page <= 2; page++) {
+            when(callbackQuery.getData()).thenReturn("vote_page:" + page);
+            assertNull(discussionState.handleUpdate(bot, lobby, update));
+        }
+        verify(bot, times(2)).editMessageReplyMarkup(eq(100L), eq(1), edited.capture());
+        for (InlineKeyboardMarkup markup : edited.getAllValues()) {
+            collectVoteTargets(markup, targets);
+        }
+        
+        // Every other alive player appears exactly once across the pages, the voter never
+        assertEquals(19, targets.size());
+        assertFalse(targets.contains("vote:1"));
+        
+        discussionState.onExit(bot, lobby);
+    }
+    
+    private void collectVoteTargets(InlineKeyboardMarkup markup, Set<String> targets) {
+        for (List<InlineKeyboardButton> row : markup.getKeyboard()) {
+            for (InlineKeyboardButton button : row) {
+                String data = button.getCallbackData();
+                if (data.startsWith("vote:") && !data.equals("vote:skip")) {
+                    assertTrue(targets.add(data), "Candidate shown twice: " + data);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void testGroupMeetingVotesInPoll() {
+        when(lobby.isGroupMode()).thenReturn(true);
+        when(lobby.getGroupChatId()).thenReturn(-100L);
+        when(bot.isPollVotingEnabled()).thenReturn(true);
+        when(lobby.getPlayer(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return players.stream().filter(p -> p.getUserId().equals(id)).findFirst().orElse(null);
+        });
+        Poll poll = new Poll();
+        poll.setId("poll-1");
+        Message pollMessage = new Message();
+        pollMessage.setMessageId(42);
+        pollMessage.setPoll(poll);
+        when(bot.executeMethod(any(SendPoll.class))).thenReturn(pollMessage);
+        
+        discussionState.onEnter(bot, lobby);
+        
+        // One poll for the meeting instead of a keyboard per player
+        ArgumentCaptor<SendPoll> sentPoll = ArgumentCaptor.forClass(SendPoll.class);
+        verify(bot).executeMethod(sentPoll.capture());
+        assertEquals(players.size() + 1, sentPoll.getValue().getOptions().size());
+        assertFalse(sentPoll.getValue().getIsAnonymous());
+        verify(bot, never()).executeMethod(any(SendMessage.class));
+        
+        assertNull(discussionState.toVoteCallback(new PollAnswer("other-poll", user(2L), List.of(0), null)));
+        assertNull(discussionState.toVoteCallback(new PollAnswer("poll-1", user(2L), List.of(), null)));
+        assertEquals("vote:skip", discussionState.toVoteCallback(new PollAnswer("poll-1", user(2L), List.of(5), null)));
+        
+        // Votes for the impostor, the first option, until a majority settles the meeting
+        GameState next = null;
+        for (long id = 1; id <= players.size() && next == null; id++) {
+            Update update = new Update();
+            update.setPollAnswer(new PollAnswer("poll-1", user(id), List.of(0), null));
+            next = discussionState.handleUpdate(bot, lobby, update);
+        }
+        
+        assertTrue(next instanceof GameOverState);
+        assertTrue(players.get(0).isEjected());
+        verify(bot).executeMethod(any(StopPoll.class));
+        verify(bot, never()).sendTextMessage(anyLong(), contains("Вы проголосовали"));
+    }
+    
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName("Player" + id);
+        return user;
+    }
+    
     @Test
     void testCannotPerformActionsInDiscussion() {
         // Test that players cannot perform game actions during discussion
@@ -2,12 +2,14 @@ package com.amongus.bot.game.states;
 
 import com.amongus.bot.core.AmongUsBot;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyContext;
 import com.amongus.bot.game.lobby.LobbySettings;
 import com.amongus.bot.models.Player;
 import com.amongus.bot.game.roles.Impostor;
 import com.amongus.bot.game.roles.Crewmate;
 import com.amongus.bot.game.tasks.SimpleTask;
 import com.amongus.bot.game.tasks.TaskDifficulty;
+import com.amongus.bot.game.utils.CallbackReply;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
@@ -71,6 +73,7 @@ class GameActiveStateTest {
         when(lobby.getPlayerList()).thenReturn(players);
         when(lobby.getPlayerCount()).thenReturn(players.size());
         when(lobby.getLobbyCode()).thenReturn("TEST123");
+        when(lobby.getContext()).thenReturn(new LobbyContext("TEST123"));
         when(lobby.getSettings()).thenReturn(settings);
         when(settings.getTasksPerPlayer()).thenReturn(3);
         when(settings.getKillCooldown()).thenReturn(30);
@@ -219,6 +222,26 @@ class GameActiveStateTest {
         verify(bot, atLeastOnce()).executeMethod(any(SendMessage.class));
     }
 
+    @Test
+    void testKillOnCooldownIsAnsweredWithToast() {
+        gameActiveState.onEnter(bot, lobby);
+
+        Player impostor = players.get(0);
+        gameActiveState.handleUpdate(bot, lobby,
+                createCallbackUpdate(impostor.getUserId(), impostor.getChatId(), "kill:2"));
+        assertFalse(players.get(1).isAlive());
+
+        CallbackReply.Holder reply = new CallbackReply.Holder();
+        gameActiveState.handleUpdate(bot, lobby,
+                createCallbackUpdate(impostor.getUserId(), impostor.getChatId(), "kill:3"), reply);
+
+        // Отказ приходит во всплывающем ответе на кнопку, а не отдельным сообщением
+        assertTrue(players.get(2).isAlive());
+        assertNotNull(reply.get());
+        assertTrue(reply.get().getText().contains("перезаряжается"));
+        verify(bot, never()).sendTextMessage(eq(impostor.getChatId()), contains("перезаряжается"));
+    }
+
     @Test
     void testSabotageMenuAction() {
         gameActiveState.onEnter(bot, lobby);
@@ -1,13 +1,17 @@
 package com.amongus.bot.game.states;
 
 import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.game.GameConstants;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.replay.SimulatedClock;
 import com.amongus.bot.models.Player;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
 import org.telegram.telegrambots.meta.api.objects.CallbackQuery;
 import org.telegram.telegrambots.meta.api.objects.Chat;
 import org.telegram.telegrambots.meta.api.objects.Message;
@@ -51,6 +55,9 @@ class LobbyStateTest {
         when(lobby.getLobbyCode()).thenReturn("TEST123");
         when(lobby.isHost(1L)).thenReturn(true);
         when(lobby.isHost(2L)).thenReturn(false);
+        GameLobby realLobby = new GameLobby("TEST123", 1L, "Host");
+        realLobby.addPlayer(2L, "Player");
+        when(lobby.getSnapshot()).thenReturn(realLobby.getSnapshot());
         
         // Выполнение метода
         lobbyState.onEnter(bot, lobby);
@@ -59,6 +66,36 @@ class LobbyStateTest {
         verify(bot, times(2)).executeMethod(any(SendMessage.class));
     }
     
+    @Test
+    void testJoinBurstIsOneEditPerPlayer() {
+        SimulatedClock clock = new SimulatedClock(0L);
+        GameLobby realLobby = new GameLobby("BURST1", 1L, "Host");
+        realLobby.getContext().setClock(clock);
+        realLobby.setGameState(lobbyState);
+        realLobby.getPlayer(1L).setChatId(1L);
+        lobbyState.trackStatusMessage(realLobby, 1L, 10);
+        when(bot.executeMethod(any(EditMessageText.class))).thenReturn(true);
+        when(bot.executeMethod(any(SendMessage.class))).thenReturn(new Message());
+        
+        // Каждый присоединившийся уже получил подтверждение, которое станет его статусом
+        for (long id = 2; id <= 10; id++) {
+            realLobby.addPlayer(id, "Player" + id);
+            realLobby.getPlayer(id).setChatId(id);
+            lobbyState.trackStatusMessage(realLobby, id, (int) (10 + id));
+            lobbyState.rosterChanged(bot, realLobby);
+        }
+        verify(bot, never()).executeMethod(any(EditMessageText.class));
+        
+        clock.advanceTo(GameConstants.ROSTER_DEBOUNCE_MILLIS);
+        
+        ArgumentCaptor<EditMessageText> edits = ArgumentCaptor.forClass(EditMessageText.class);
+        verify(bot, times(10)).executeMethod(edits.capture());
+        assertTrue(edits.getValue().getText().contains("Player10"));
+        verify(bot, never()).executeMethod(any(SendMessage.class));
+        assertEquals(0, clock.getPendingTimers());
+        realLobby.getContext().close();
+    }
+    
     @Test
     void testHandleUpdateStartGame() {
         // Подготовка тестовых данных
@@ -2,6 +2,7 @@ package com.amongus.bot.game.states;
 
 import com.amongus.bot.core.AmongUsBot;
 import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.lobby.LobbyContext;
 import com.amongus.bot.game.lobby.LobbySettings;
 import com.amongus.bot.models.Player;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +15,7 @@ import org.telegram.telegrambots.meta.api.objects.Update;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -45,6 +47,7 @@ class SetupStateTest {
         when(lobby.getPlayerList()).thenReturn(players);
         when(lobby.getPlayerCount()).thenReturn(players.size());
         when(lobby.getLobbyCode()).thenReturn("TEST123");
+        when(lobby.getContext()).thenReturn(new LobbyContext("TEST123"));
         when(lobby.getSettings()).thenReturn(settings);
         when(settings.getTasksPerPlayer()).thenReturn(3);
 
@@ -85,6 +88,33 @@ class SetupStateTest {
 
         // Проверяем отправку сообщений
         verify(bot, atLeast(players.size())).executeMethod(any(SendMessage.class));
+        
+        // Сид раздачи записывается до назначения ролей
+        verify(lobby).setGameSeed(anyLong());
+    }
+
+    @Test
+    void testSameSeedGivesSameAssignment() {
+        GameLobby first = new GameLobby("AAA111", 1L, "Host");
+        GameLobby second = new GameLobby("BBB222", 1L, "Host");
+        // Игроки добавляются в разном порядке: результат не должен от этого зависеть
+        for (long id = 2; id <= 7; id++) {
+            first.addPlayer(id, "Player" + id);
+            second.addPlayer(9 - id, "Player" + (9 - id));
+        }
+
+        Random firstRandom = new Random(42);
+        setupState.assignRoles(first, firstRandom);
+        setupState.assignTasks(first, firstRandom);
+        Random secondRandom = new Random(42);
+        setupState.assignRoles(second, secondRandom);
+        setupState.assignTasks(second, secondRandom);
+
+        for (Player player : first.getPlayerList()) {
+            Player twin = second.getPlayer(player.getUserId());
+            assertEquals(player.isImpostor(), twin.isImpostor());
+            assertEquals(player.getTask(0).getName(), twin.getTask(0).getName());
+        }
     }
 
     @Test
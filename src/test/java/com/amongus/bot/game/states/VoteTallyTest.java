@@ -0,0 +1,99 @@
+package com.amongus.bot.game.states;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VoteTallyTest {
+
+    private VoteTally newTally(int voters) {
+        return new VoteTally(Arrays.asList(1L, 2L, 3L, 4L, 5L), voters);
+    }
+
+    @Test
+    void testUniqueLeaderIsEjected() {
+        VoteTally tally = newTally(5);
+        tally.recordVote(2L);
+        tally.recordVote(2L);
+        tally.recordVote(3L);
+        tally.recordSkip();
+
+        assertEquals(2, tally.getVotes(2L));
+        assertEquals(1, tally.getSkipVotes());
+        assertEquals(4, tally.getCastVotes());
+        assertEquals(2L, tally.getEjectedId());
+    }
+
+    @Test
+    void testTieDoesNotDependOnOrder() {
+        VoteTally first = newTally(4);
+        first.recordVote(2L);
+        first.recordVote(3L);
+        first.recordVote(3L);
+        first.recordVote(2L);
+
+        VoteTally second = newTally(4);
+        second.recordVote(3L);
+        second.recordVote(2L);
+        second.recordVote(2L);
+        second.recordVote(3L);
+
+        assertNull(first.getEjectedId());
+        assertNull(second.getEjectedId());
+    }
+
+    @Test
+    void testSkipMajorityEjectsNobody() {
+        VoteTally tally = newTally(5);
+        tally.recordSkip();
+        tally.recordSkip();
+        tally.recordVote(4L);
+
+        assertNull(tally.getEjectedId());
+    }
+
+    @Test
+    void testUnknownCandidateIsRejected() {
+        VoteTally tally = newTally(5);
+        assertFalse(tally.recordVote(42L));
+        assertEquals(0, tally.getCastVotes());
+    }
+
+    @Test
+    void testDecidedWhenLeadCannotBeCaught() {
+        VoteTally tally = newTally(5);
+        tally.recordVote(2L);
+        tally.recordVote(2L);
+        assertFalse(tally.isDecided());
+
+        tally.recordSkip();
+        assertFalse(tally.isDecided(), "Two remaining votes can still overtake the leader");
+
+        tally.recordVote(2L);
+        assertTrue(tally.isDecided());
+        assertEquals(2L, tally.getEjectedId());
+    }
+
+    @Test
+    void testDecidedWhenSkipCannotBeCaught() {
+        VoteTally tally = newTally(5);
+        tally.recordSkip();
+        tally.recordSkip();
+        tally.recordSkip();
+
+        assertTrue(tally.isDecided());
+        assertNull(tally.getEjectedId());
+    }
+
+    @Test
+    void testDecidedWhenEveryoneVoted() {
+        VoteTally tally = newTally(2);
+        tally.recordVote(1L);
+        assertFalse(tally.isDecided());
+        tally.recordVote(2L);
+        assertTrue(tally.isDecided());
+        assertNull(tally.getEjectedId());
+    }
+}
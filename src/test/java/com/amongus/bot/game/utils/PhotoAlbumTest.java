@@ -0,0 +1,78 @@
+package com.amongus.bot.game.utils;
+
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.models.GameEvent;
+
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.send.SendMediaGroup;
+import org.telegram.telegrambots.meta.api.methods.send.SendPhoto;
+import org.telegram.telegrambots.meta.api.objects.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class PhotoAlbumTest {
+
+    @Test
+    void testPhotosAreSpreadEvenlyOverAlbums() {
+        PhotoAlbum album = PhotoAlbum.of(events(11));
+
+        assertEquals(11, album.getPhotoCount());
+        assertEquals(2, album.getGroups().size());
+        assertEquals(5, album.getGroups().get(0).size());
+        assertEquals(6, album.getGroups().get(1).size());
+        assertTrue(album.getGroups().get(0).get(0).getCaption().contains("Task 0"));
+    }
+
+    @Test
+    void testEventsWithoutPhotosAreSkipped() {
+        List<GameEvent> events = events(3);
+        events.add(new GameEvent(9L, "NoPhoto", "VOTE", "Проголосовал"));
+
+        PhotoAlbum album = PhotoAlbum.of(events);
+
+        assertEquals(3, album.getPhotoCount());
+        assertTrue(PhotoAlbum.of(List.of(new GameEvent(9L, "NoPhoto", "VOTE", "x"))).isEmpty());
+    }
+
+    @Test
+    void testSameAlbumIsSentToEveryChat() {
+        AmongUsBot bot = mock(AmongUsBot.class);
+        List<Message> sent = List.of(new Message());
+        when(bot.sendMediaGroup(any(SendMediaGroup.class))).thenReturn(sent);
+        PhotoAlbum album = PhotoAlbum.of(events(25));
+
+        assertEquals(0, album.sendTo(bot, 101L));
+        assertEquals(0, album.sendTo(bot, 102L));
+
+        // Три альбома на каждого получателя вместо 25 отдельных фото
+        verify(bot, times(6)).sendMediaGroup(any(SendMediaGroup.class));
+        verify(bot, never()).sendPhoto(any(SendPhoto.class));
+    }
+
+    @Test
+    void testSinglePhotoIsSentAsPhoto() {
+        AmongUsBot bot = mock(AmongUsBot.class);
+        when(bot.sendPhoto(any(SendPhoto.class))).thenReturn(new Message());
+        PhotoAlbum album = PhotoAlbum.of(events(1));
+
+        assertEquals(0, album.sendTo(bot, 101L));
+
+        verify(bot).sendPhoto(any(SendPhoto.class));
+        verify(bot, never()).sendMediaGroup(any(SendMediaGroup.class));
+    }
+
+    private static List<GameEvent> events(int photos) {
+        List<GameEvent> events = new ArrayList<>();
+        for (int i = 0; i < photos; i++) {
+            GameEvent event = new GameEvent((long) i, "Player" + i, "TASK", "Task " + i);
+            event.setPhotoFileId("photo-" + i);
+            events.add(event);
+        }
+        return events;
+    }
+}
@@ -5,8 +5,10 @@ import com.amongus.bot.managers.LobbyManager;
 import com.amongus.bot.game.lobby.GameLobby;
 import com.amongus.bot.game.states.GameState;
 import com.amongus.bot.game.states.LobbyState;
+import com.amongus.bot.game.utils.CallbackReply;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.telegram.telegrambots.meta.api.methods.AnswerCallbackQuery;
@@ -39,6 +41,7 @@ class CallbackQueryHandlerTest {
         when(lobbyManager.getLobbyForPlayer(any(Long.class))).thenReturn(lobby);
         when(lobby.getGameState()).thenReturn(gameState);
         when(lobby.getLobbyCode()).thenReturn("TEST123");
+        when(lobby.getSnapshot()).thenReturn(new GameLobby("TEST123", 1L, "Host").getSnapshot());
 
         // ИСПРАВЛЕНО: Мокаем execute для AnswerCallbackQuery (из AmongUsBot видно, что он использует execute)
         when(bot.execute(any(AnswerCallbackQuery.class))).thenReturn(true);
@@ -52,11 +55,12 @@ class CallbackQueryHandlerTest {
         Update update = createCallbackUpdate("start_game", 1L, 101L);
         LobbyState newState = new LobbyState();
 
-        when(gameState.handleUpdate(bot, lobby, update)).thenReturn(newState);
+        when(gameState.handleUpdate(eq(bot), eq(lobby), eq(update), any(CallbackReply.Holder.class)))
+                .thenReturn(newState);
 
         callbackQueryHandler.handle(update);
 
-        verify(gameState).handleUpdate(bot, lobby, update);
+        verify(gameState).handleUpdate(eq(bot), eq(lobby), eq(update), any(CallbackReply.Holder.class));
         verify(lobby).setGameState(newState);
         verify(bot).execute(any(AnswerCallbackQuery.class));
     }
@@ -65,15 +69,35 @@ class CallbackQueryHandlerTest {
     void testHandleCallbackWithLobbyNoStateTransition() throws TelegramApiException {
         Update update = createCallbackUpdate("vote:2", 1L, 101L);
 
-        when(gameState.handleUpdate(bot, lobby, update)).thenReturn(null);
+        when(gameState.handleUpdate(eq(bot), eq(lobby), eq(update), any(CallbackReply.Holder.class)))
+                .thenReturn(null);
 
         callbackQueryHandler.handle(update);
 
-        verify(gameState).handleUpdate(bot, lobby, update);
+        verify(gameState).handleUpdate(eq(bot), eq(lobby), eq(update), any(CallbackReply.Holder.class));
         verify(lobby, never()).setGameState(any(GameState.class));
         verify(bot).execute(any(AnswerCallbackQuery.class));
     }
 
+    @Test
+    void testStateReplyRidesOnCallbackAnswer() throws TelegramApiException {
+        Update update = createCallbackUpdate("kill:2", 1L, 101L);
+        when(gameState.handleUpdate(eq(bot), eq(lobby), eq(update), any(CallbackReply.Holder.class)))
+                .thenAnswer(invocation -> {
+                    CallbackReply.Holder reply = invocation.getArgument(3);
+                    reply.set(CallbackReply.alert("Неверная цель или цель уже мертва."));
+                    return null;
+                });
+
+        callbackQueryHandler.handle(update);
+
+        ArgumentCaptor<AnswerCallbackQuery> answer = ArgumentCaptor.forClass(AnswerCallbackQuery.class);
+        verify(bot).execute(answer.capture());
+        assertEquals("Неверная цель или цель уже мертва.", answer.getValue().getText());
+        assertTrue(answer.getValue().getShowAlert());
+        verify(bot, never()).sendTextMessage(anyLong(), anyString());
+    }
+
     @Test
     void testHandleCallbackWithoutLobby() throws TelegramApiException {
         Update update = createCallbackUpdate("start_game", 1L, 101L);
@@ -82,7 +106,7 @@ class CallbackQueryHandlerTest {
 
         callbackQueryHandler.handle(update);
 
-        verify(gameState, never()).handleUpdate(any(), any(), any());
+        verify(gameState, never()).handleUpdate(any(), any(), any(), any());
         verify(bot).execute(any(AnswerCallbackQuery.class));
     }
 
@@ -16,6 +16,7 @@ import org.telegram.telegrambots.meta.api.objects.User;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -268,10 +269,11 @@ class CommandHandlerTest {
         when(lobby.getHostId()).thenReturn(1L);
         when(lobby.getPlayer(1L)).thenReturn(player);
         when(lobby.getGameState()).thenReturn(null);
+        when(lobby.getSnapshot()).thenReturn(new GameLobby("TEST123", 1L, "TestUser").getSnapshot());
 
         assertDoesNotThrow(() -> commandHandler.handle(update));
 
-        verify(bot).sendTextMessage(eq(1L), any(String.class));
+        verify(bot).sendTextMessage(eq(1L), contains("Хост: TestUser"));
     }
 
     @Test
@@ -282,10 +284,74 @@ class CommandHandlerTest {
         when(lobby.getLobbyCode()).thenReturn("TEST123");
         when(lobby.getPlayerList()).thenReturn(java.util.Arrays.asList(player));
         when(lobby.isHost(1L)).thenReturn(true);
+        when(lobby.getSnapshot()).thenReturn(new GameLobby("TEST123", 1L, "TestUser").getSnapshot());
 
         assertDoesNotThrow(() -> commandHandler.handle(update));
 
-        verify(bot).sendTextMessage(eq(1L), any(String.class));
+        verify(bot).sendTextMessage(eq(1L), contains("TestUser (Хост)"));
+    }
+
+    @Test
+    void testMemoryCommandRequiresAdmin() {
+        Update update = createPrivateMessageUpdate("/memory", 1L);
+
+        assertDoesNotThrow(() -> commandHandler.handle(update));
+
+        verify(lobbyManager, never()).getMemoryStatistics();
+        verify(bot).sendTextMessage(eq(1L), contains("Неизвестная команда"));
+    }
+
+    @Test
+    void testMemoryCommandForAdmin() {
+        commandHandler = new CommandHandler(bot, lobbyManager, java.util.Set.of(1L));
+        Update update = createPrivateMessageUpdate("/memory", 1L);
+        GameLobby realLobby = new GameLobby("TEST123", 1L, "TestUser");
+
+        when(lobbyManager.getMemoryStatistics()).thenReturn("LobbyManager Memory - Lobbies: 1");
+        when(lobbyManager.getFootprints()).thenReturn(java.util.List.of(realLobby.getFootprint()));
+        when(lobbyManager.getLeakDetector()).thenReturn(new com.amongus.bot.managers.LobbyLeakDetector());
+
+        assertDoesNotThrow(() -> commandHandler.handle(update));
+
+        verify(bot).sendTextMessage(eq(1L), contains("1. TEST123"));
+    }
+
+    @Test
+    void testStatsCommand() {
+        com.amongus.bot.managers.PlayerStatsStore statsStore = mock(com.amongus.bot.managers.PlayerStatsStore.class);
+        when(bot.getPlayerStatsStore()).thenReturn(statsStore);
+        when(statsStore.get(1L)).thenReturn(new com.amongus.bot.models.PlayerStats(1L, "TestUser",
+                4, 3, 1, 2, 1, 2, 1, 9, 0, 1));
+
+        assertDoesNotThrow(() -> commandHandler.handle(createPrivateMessageUpdate("/stats", 1L)));
+        verify(bot).sendTextMessage(eq(1L), contains("Побед: 3 (75%)"));
+
+        assertDoesNotThrow(() -> commandHandler.handle(createPrivateMessageUpdate("/stats", 2L)));
+        verify(bot).sendTextMessage(eq(2L), contains("нет завершённых игр"));
+    }
+
+    @Test
+    void testLastGameCommand() {
+        com.amongus.bot.managers.GameArchive archive = mock(com.amongus.bot.managers.GameArchive.class);
+        com.amongus.bot.managers.GameArchive.ArchivedGame game = mock(com.amongus.bot.managers.GameArchive.ArchivedGame.class);
+        when(bot.getGameArchive()).thenReturn(archive);
+        when(archive.readLastGame(1L)).thenReturn(game);
+        when(game.getSummary()).thenReturn("🏁 ИГРА ОКОНЧЕНА!");
+        when(game.getReport()).thenReturn("x".repeat(5000));
+
+        assertDoesNotThrow(() -> commandHandler.handle(createPrivateMessageUpdate("/lastgame", 1L)));
+        verify(bot).sendTextMessage(eq(1L), contains("ИГРА ОКОНЧЕНА"));
+        verify(bot).sendTextMessage(1L, "x".repeat(4096));
+        verify(bot).sendTextMessage(1L, "x".repeat(904));
+
+        assertDoesNotThrow(() -> commandHandler.handle(createPrivateMessageUpdate("/lastgame", 2L)));
+        verify(bot).sendTextMessage(eq(2L), contains("нет завершённых игр"));
+    }
+
+    @Test
+    void testParseAdminIds() {
+        assertEquals(java.util.Set.of(1L, 42L), CommandHandler.parseAdminIds(" 1, 42,abc"));
+        assertTrue(CommandHandler.parseAdminIds(null).isEmpty());
     }
 
     private Update createPrivateMessageUpdate(String text, Long userId) {
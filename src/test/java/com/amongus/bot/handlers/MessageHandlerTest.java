@@ -2,6 +2,7 @@ package com.amongus.bot.handlers;
 
 import com.amongus.bot.core.AmongUsBot;
 import com.amongus.bot.managers.LobbyManager;
+import com.amongus.bot.managers.PhotoProofPipeline;
 import com.amongus.bot.game.lobby.GameLobby;
 import com.amongus.bot.models.Player;
 import com.amongus.bot.models.GameEvent;
@@ -168,7 +169,7 @@ class MessageHandlerTest {
         messageHandler.handle(update);
 
         verify(gameActiveState).confirmLightsFix(bot, lobby, player);
-        verify(lobby).addGameEvent(eq(1L), eq("FIX_LIGHTS"), anyString());
+        verify(lobby).addGameEvent(eq(1L), eq("FIX_LIGHTS"), anyString(), anyString());
     }
 
     @Test
@@ -183,7 +184,25 @@ class MessageHandlerTest {
         messageHandler.handle(update);
 
         verify(gameActiveState).confirmReactorFix(bot, lobby, player);
-        verify(lobby).addGameEvent(eq(1L), eq("FIX_REACTOR"), anyString());
+        verify(lobby).addGameEvent(eq(1L), eq("FIX_REACTOR"), anyString(), anyString());
+    }
+
+    @Test
+    void testReusedPhotoIsRejected() {
+        when(bot.getPhotoProofPipeline()).thenReturn(new PhotoProofPipeline(null, 1));
+        when(player.isAwaitingPhotoConfirmation()).thenReturn(true);
+        when(player.getAwaitingPhotoForTaskIndex()).thenReturn(0, 1);
+        when(player.getTasks()).thenReturn(Arrays.asList(task, task));
+        when(task.getName()).thenReturn("Test Task");
+        when(player.completeTask(0)).thenReturn(true);
+
+        messageHandler.handle(createPhotoMessageUpdate(1L, 101L));
+        messageHandler.handle(createPhotoMessageUpdate(1L, 101L));
+
+        // Второе задание не засчитывается тем же фото
+        verify(player).completeTask(0);
+        verify(player, never()).completeTask(1);
+        verify(bot).sendTextMessage(eq(101L), contains("уже использовалось"));
     }
 
     @Test
@@ -16,6 +16,7 @@ import com.amongus.bot.game.states.SetupState;
 import com.amongus.bot.game.tasks.SimpleTask;
 import com.amongus.bot.game.tasks.Task;
 import com.amongus.bot.game.tasks.TaskDifficulty;
+import com.amongus.bot.managers.LobbyLeakDetector;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
@@ -395,58 +396,63 @@ class ConcurrencyStressTest {
     @Test
     @Timeout(30)
     void testMemoryLeakPrevention() throws InterruptedException {
-        // Test for potential memory leaks during extended gameplay
+        // Every lobby and state of a finished game must become unreachable once the lobby is closed
         int numGames = 10;
+        LobbyLeakDetector detector = new LobbyLeakDetector(0, true);
         
         for (int game = 0; game < numGames; game++) {
-            // Create fresh lobby for each game
-            GameLobby testLobby = new GameLobby("MEMORY" + game, 1L, "Host");
-            
-            // Add players using correct method
-            for (int i = 1; i <= 8; i++) {
-                testLobby.addPlayer(Long.valueOf(i), "Player" + i);
-                Player player = testLobby.getPlayer(Long.valueOf(i));
-                player.setRole(i <= 2 ? new Impostor() : new Crewmate());
-            }
-            
-            // Simulate full game cycle
-            SetupState setup = new SetupState();
-            testLobby.setGameState(setup);
-            setup.onEnter(bot, testLobby);
-            setup.onExit(bot, testLobby);
-            
-            GameActiveState active = new GameActiveState();
-            testLobby.setGameState(active);
-            active.onEnter(bot, testLobby);
-            active.onExit(bot, testLobby);
-            
-            DiscussionState discussion = new DiscussionState("TestPlayer", null);
-            testLobby.setGameState(discussion);
-            discussion.onEnter(bot, testLobby);
-            discussion.onExit(bot, testLobby);
-            
-            GameOverState gameOver = new GameOverState("Crewmates", "Memory test");
-            testLobby.setGameState(gameOver);
-            gameOver.onEnter(bot, testLobby);
-            gameOver.onExit(bot, testLobby);
-            
-            // Clear references
-            testLobby.clearGameEvents();
-            testLobby = null;
-            
-            // Suggest garbage collection
-            if (game % 3 == 0) {
-                System.gc();
-                Thread.sleep(100);
-            }
+            playAndCloseGame(game, detector);
         }
+        assertEquals(numGames * 5, detector.getWatchedCount());
         
-        // Force garbage collection and verify no major memory issues
-        System.gc();
-        Thread.sleep(500);
+        int retained = detector.awaitCollection(10_000);
+        assertEquals(0, retained, "Still reachable after close: " + detector.getRetainedLabels());
+        assertTrue(detector.check(System.currentTimeMillis()).isEmpty());
+    }
+    
+    /**
+     * Plays one full game cycle, closes the lobby and hands it to the detector.
+     * Kept in its own method so no local of the test still references the game.
+     */
+    private void playAndCloseGame(int game, LobbyLeakDetector detector) {
+        GameLobby testLobby = new GameLobby("MEMORY" + game, 1L, "Host");
+        
+        // Add players using correct method
+        for (int i = 1; i <= 8; i++) {
+            testLobby.addPlayer(Long.valueOf(i), "Player" + i);
+            Player player = testLobby.getPlayer(Long.valueOf(i));
+            player.setRole(i <= 2 ? new Impostor() : new Crewmate());
+        }
         
-        // If we reach here without OutOfMemoryError, the test passes
-        assertTrue(true, "Memory leak test completed successfully");
+        // Simulate full game cycle
+        SetupState setup = new SetupState();
+        testLobby.setGameState(setup);
+        setup.onEnter(bot, testLobby);
+        setup.onExit(bot, testLobby);
+        
+        GameActiveState active = new GameActiveState();
+        testLobby.setGameState(active);
+        active.onEnter(bot, testLobby);
+        active.onExit(bot, testLobby);
+        
+        DiscussionState discussion = new DiscussionState("TestPlayer", null);
+        testLobby.setGameState(discussion);
+        discussion.onEnter(bot, testLobby);
+        discussion.onExit(bot, testLobby);
+        
+        GameOverState gameOver = new GameOverState("Crewmates", "Memory test");
+        testLobby.setGameState(gameOver);
+        gameOver.onEnter(bot, testLobby);
+        gameOver.onExit(bot, testLobby);
+        
+        // Close the lobby the way LobbyManager does and watch everything it owned
+        testLobby.getContext().close();
+        assertEquals(0, testLobby.getContext().getPendingTimerCount());
+        assertEquals(0, testLobby.getContext().getRegistrationCount());
+        detector.watchLobby(testLobby);
+        detector.watchState(setup, testLobby.getLobbyCode());
+        detector.watchState(active, testLobby.getLobbyCode());
+        detector.watchState(discussion, testLobby.getLobbyCode());
     }
     
     private Update createCallbackUpdate(Long userId, String callbackData) {
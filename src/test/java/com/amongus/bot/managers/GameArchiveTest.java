@@ -0,0 +1,94 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.roles.Crewmate;
+import com.amongus.bot.game.roles.Impostor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameArchiveTest {
+    @TempDir
+    Path tempDir;
+
+    private GameLobby finishedGame(String code) {
+        GameLobby lobby = new GameLobby(code, 1L, "Host");
+        lobby.addPlayer(2L, "Alice");
+        lobby.getPlayer(1L).setRole(new Crewmate());
+        lobby.getPlayer(2L).setRole(new Impostor());
+        lobby.addGameEvent(2L, "KILL", "Убил Host");
+        lobby.getGameEvents().get(0).setPhotoFileId("photo-1");
+        return lobby;
+    }
+
+    @Test
+    void testArchivedGameIsReadBack() {
+        GameArchive archive = new GameArchive(tempDir);
+        String report = "📊 ОТЧЕТ\n" + "событие\n".repeat(20000);
+        GameArchive.ArchivedGame written = archive.archive(finishedGame("ABC123"), "Impostors", "Все убиты",
+                "🏁 ИГРА ОКОНЧЕНА!", report);
+        archive.flush();
+
+        GameArchive.ArchivedGame game = archive.read(written.getGameId());
+        assertEquals("ABC123", game.getLobbyCode());
+        assertEquals("Impostors", game.getWinner());
+        assertEquals(report, game.getReport());
+        assertEquals(2, game.getPlayers().size());
+        assertTrue(game.getPlayers().get(1).isImpostor());
+        assertEquals("photo-1", game.getEvents().get(0).getPhotoFileId());
+        assertNull(archive.read(99L));
+
+        // The repetitive report compresses well
+        assertTrue(tempDir.resolve("games.dat").toFile().length() < report.length() / 10);
+    }
+
+    @Test
+    void testLastGamePerPlayerSurvivesReopen() throws Exception {
+        GameArchive archive = new GameArchive(tempDir);
+        archive.archive(finishedGame("FIRST1"), "Crewmates", "Задания", "first", "report");
+        GameLobby second = new GameLobby("SECOND", 2L, "Alice");
+        archive.archive(second, "Impostors", "Все убиты", "second", "report");
+        archive.close();
+
+        // A torn index entry from a crash is ignored
+        Files.write(tempDir.resolve("games.idx"), new byte[] {0, 0, 0, 1}, java.nio.file.StandardOpenOption.APPEND);
+
+        GameArchive reopened = new GameArchive(tempDir);
+        assertEquals(2, reopened.getGameCount());
+        assertEquals("FIRST1", reopened.readLastGame(1L).getLobbyCode());
+        assertEquals("second", reopened.readLastGame(2L).getSummary());
+        assertNull(reopened.readLastGame(3L));
+
+        GameArchive.ArchivedGame third = reopened.archive(finishedGame("THIRD1"), "Crewmates", "Задания", "third", "");
+        assertEquals(3L, third.getGameId());
+        reopened.flush();
+        assertEquals("THIRD1", reopened.readLastGame(1L).getLobbyCode());
+        reopened.close();
+
+        // The torn bytes were cut off, so the third game's entry is found after a restart
+        GameArchive restarted = new GameArchive(tempDir);
+        assertEquals(3, restarted.getGameCount());
+        assertEquals("third", restarted.readLastGame(1L).getSummary());
+        restarted.close();
+    }
+
+    @Test
+    void testUnreferencedDataTailIsTruncated() throws Exception {
+        GameArchive archive = new GameArchive(tempDir);
+        archive.archive(finishedGame("FIRST1"), "Crewmates", "Задания", "first", "report");
+        archive.close();
+        long dataSize = Files.size(tempDir.resolve("games.dat"));
+
+        // A crash between the data and the index write leaves a record nobody references
+        Files.write(tempDir.resolve("games.dat"), new byte[64], java.nio.file.StandardOpenOption.APPEND);
+
+        GameArchive reopened = new GameArchive(tempDir);
+        assertEquals(1, reopened.getGameCount());
+        assertEquals(dataSize, Files.size(tempDir.resolve("games.dat")));
+        reopened.close();
+    }
+}
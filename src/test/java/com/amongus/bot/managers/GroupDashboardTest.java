@@ -0,0 +1,165 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.replay.SimulatedClock;
+import com.amongus.bot.game.states.LobbyState;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.telegram.telegrambots.meta.api.methods.pinnedmessages.PinChatMessage;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.EditMessageText;
+import org.telegram.telegrambots.meta.api.objects.Message;
+import org.telegram.telegrambots.meta.exceptions.TelegramApiRequestException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class GroupDashboardTest {
+
+    private static final Long GROUP_ID = -100500L;
+
+    private final AmongUsBot bot = mock(AmongUsBot.class);
+    private final SimulatedClock clock = new SimulatedClock(1_000_000L);
+    private GameLobby lobby;
+    private GroupDashboard dashboard;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Message sent = new Message();
+        sent.setMessageId(77);
+        when(bot.executeMethod(any(SendMessage.class))).thenReturn(sent);
+        when(bot.executeChecked(any(EditMessageText.class))).thenReturn(true);
+
+        lobby = new GameLobby("GROUP1", 1L, "Host");
+        lobby.getContext().setClock(clock);
+        lobby.setGroupChatId(GROUP_ID);
+        lobby.setGameState(new LobbyState());
+        dashboard = new GroupDashboard(bot);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lobby.getContext().close();
+    }
+
+    @Test
+    void testFirstRefreshPostsAndPinsDashboard() {
+        dashboard.refresh(lobby);
+        clock.advanceTo(clock.millis());
+
+        ArgumentCaptor<SendMessage> message = ArgumentCaptor.forClass(SendMessage.class);
+        verify(bot).executeMethod(message.capture());
+        assertEquals(GROUP_ID.toString(), message.getValue().getChatId());
+        assertTrue(message.getValue().getText().contains("Host"));
+        verify(bot).executeMethod(any(PinChatMessage.class));
+        assertEquals(77, lobby.getDashboardMessageId());
+    }
+
+    @Test
+    void testRefreshesWithinIntervalCoalesceIntoOneEdit() throws Exception {
+        dashboard.refresh(lobby);
+        clock.advanceTo(clock.millis());
+
+        lobby.addPlayer(2L, "Alice");
+        dashboard.refresh(lobby);
+        lobby.addPlayer(3L, "Bob");
+        dashboard.refresh(lobby);
+        dashboard.announce(lobby, "Скоро старт");
+        clock.advanceTo(clock.millis() + 1000);
+        verify(bot, never()).executeChecked(any(EditMessageText.class));
+
+        clock.advanceTo(clock.millis() + 3000);
+
+        ArgumentCaptor<EditMessageText> edit = ArgumentCaptor.forClass(EditMessageText.class);
+        verify(bot).executeChecked(edit.capture());
+        assertEquals(77, edit.getValue().getMessageId());
+        assertTrue(edit.getValue().getText().contains("Bob"));
+        assertTrue(edit.getValue().getText().contains("Скоро старт"));
+    }
+
+    @Test
+    void testUnchangedDashboardIsNotEdited() throws Exception {
+        dashboard.refresh(lobby);
+        clock.advanceTo(clock.millis());
+        dashboard.refresh(lobby);
+        clock.advanceTo(clock.millis() + 5000);
+
+        verify(bot, never()).executeChecked(any(EditMessageText.class));
+        assertTrue(dashboard.getStatistics().contains("Unchanged: 1"));
+    }
+
+    @Test
+    void testPrivateLobbyHasNoDashboard() {
+        GameLobby privateLobby = new GameLobby("PRIV01", 5L, "Solo");
+        when(bot.getGroupDashboard()).thenReturn(dashboard);
+
+        assertNull(GroupDashboard.forLobby(bot, privateLobby));
+        assertSame(dashboard, GroupDashboard.forLobby(bot, lobby));
+        privateLobby.getContext().close();
+    }
+
+    private static TelegramApiRequestException apiError(int code, String description) {
+        TelegramApiRequestException error = mock(TelegramApiRequestException.class);
+        when(error.getErrorCode()).thenReturn(code);
+        when(error.getApiResponse()).thenReturn(description);
+        return error;
+    }
+
+    private void postThenChange() {
+        dashboard.refresh(lobby);
+        clock.advanceTo(clock.millis());
+        lobby.addPlayer(2L, "Alice");
+        dashboard.refresh(lobby);
+    }
+
+    @Test
+    void testDeletedDashboardIsPostedAgain() throws Exception {
+        TelegramApiRequestException gone = apiError(400, "Bad Request: message to edit not found");
+        when(bot.executeChecked(any(EditMessageText.class))).thenThrow(gone);
+        postThenChange();
+        clock.advanceTo(clock.millis() + 5000);
+
+        verify(bot, times(2)).executeMethod(any(SendMessage.class));
+        verify(bot, times(2)).executeMethod(any(PinChatMessage.class));
+    }
+
+    @Test
+    void testTransientEditFailureIsRetriedInPlace() throws Exception {
+        TelegramApiRequestException badGateway = apiError(502, "Bad Gateway");
+        when(bot.executeChecked(any(EditMessageText.class))).thenThrow(badGateway).thenReturn(true);
+        postThenChange();
+        clock.advanceTo(clock.millis() + 5000);
+        clock.advanceTo(clock.millis() + 5000);
+
+        // No second dashboard; the same message is edited again with the new roster
+        verify(bot, times(1)).executeMethod(any(SendMessage.class));
+        ArgumentCaptor<EditMessageText> edit = ArgumentCaptor.forClass(EditMessageText.class);
+        verify(bot, times(2)).executeChecked(edit.capture());
+        assertEquals(77, edit.getValue().getMessageId());
+        assertTrue(edit.getValue().getText().contains("Alice"));
+        assertTrue(dashboard.getStatistics().contains("Edits: 1"));
+    }
+
+    @Test
+    void testOtherEditFailureWaitsForNextRefresh() throws Exception {
+        TelegramApiRequestException notModified = apiError(400, "Bad Request: message is not modified");
+        TelegramApiRequestException kicked = apiError(403, "Forbidden: bot was kicked from the group chat");
+        when(bot.executeChecked(any(EditMessageText.class))).thenThrow(notModified).thenThrow(kicked);
+        postThenChange();
+        clock.advanceTo(clock.millis() + 5000);
+        lobby.addPlayer(3L, "Bob");
+        dashboard.refresh(lobby);
+        clock.advanceTo(clock.millis() + 5000);
+        clock.advanceTo(clock.millis() + 5000);
+
+        verify(bot, times(1)).executeMethod(any(SendMessage.class));
+        verify(bot, times(2)).executeChecked(any(EditMessageText.class));
+        assertTrue(dashboard.getStatistics().contains("Unchanged: 1"));
+        assertTrue(dashboard.getStatistics().contains("Failures: 1"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.states.LobbyState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobbyJournalTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCommandsAreJournaledAndReplayed() throws IOException {
+        LobbyJournal journal = new LobbyJournal(tempDir);
+        LobbyManager manager = new LobbyManager();
+        manager.setJournal(journal);
+
+        GameLobby lobby = manager.createLobby(1L, "Host");
+        manager.addPlayerToLobby(lobby.getLobbyCode(), 2L, "Alice");
+        lobby.setGameState(new LobbyState());
+        lobby.addGameEvent(2L, "TASK", "Проводка");
+        GameLobby closed = manager.createLobby(3L, "Other");
+        manager.closeLobby(closed.getLobbyCode());
+        journal.flush();
+
+        List<LobbyJournal.Entry> entries = new LobbyJournal(tempDir).readAll();
+        List<String> commands = entries.stream()
+                .filter(entry -> entry.getLobbyCode().equals(lobby.getLobbyCode()))
+                .map(LobbyJournal.Entry::getCommand)
+                .collect(Collectors.toList());
+        assertEquals(List.of("CREATE", "JOIN", "STATE", "TASK", "IMAGE"), commands);
+
+        Map<String, GameLobby> replayed = LobbyJournal.replay(entries, 0);
+        GameLobby rebuilt = replayed.get(lobby.getLobbyCode());
+        assertEquals(2, rebuilt.getPlayerCount());
+        assertEquals("LOBBY", rebuilt.getGameState().getStateName());
+        assertEquals("Проводка", rebuilt.getGameEvents().get(rebuilt.getGameEvents().size() - 1).getDetails());
+        assertTrue(replayed.containsKey(closed.getLobbyCode()));
+        assertNull(replayed.get(closed.getLobbyCode()));
+
+        long joinSeq = entries.stream().filter(entry -> entry.getCommand().equals("JOIN")).findFirst().get().getSeq();
+        assertNull(LobbyJournal.rebuild(entries, lobby.getLobbyCode(), joinSeq));
+    }
+
+    @Test
+    void testTornTailIsIgnored() throws IOException {
+        LobbyJournal journal = new LobbyJournal(tempDir);
+        GameLobby lobby = new GameLobby("ABC123", 1L, "Host");
+        lobby.setChangeListener(journal);
+        lobby.addPlayer(2L, "Alice");
+        journal.flush();
+        journal.stop();
+
+        Path segment;
+        try (Stream<Path> files = Files.list(tempDir)) {
+            segment = files.findFirst().get();
+        }
+        Files.write(segment, new byte[] {0, 0, 1, 0, 42}, StandardOpenOption.APPEND);
+
+        List<LobbyJournal.Entry> entries = new LobbyJournal(tempDir).readAll();
+        assertEquals(2, entries.size());
+        assertEquals(2, LobbyJournal.replay(entries, 0).get("ABC123").getPlayerCount());
+    }
+
+    @Test
+    void testSnapshotCompactsJournalAndRestoreAppliesTheRest() throws IOException {
+        Path journalDir = tempDir.resolve("journal");
+        Path snapshotFile = tempDir.resolve("lobbies.snapshot");
+        LobbyJournal journal = new LobbyJournal(journalDir);
+        LobbyManager manager = new LobbyManager();
+        manager.setJournal(journal);
+
+        GameLobby lobby = manager.createLobby(1L, "Host");
+        journal.flush();
+        new LobbySnapshotStore(manager, null, snapshotFile).snapshot();
+        assertEquals(0, journal.getSegmentCount());
+
+        // Changes after the snapshot only exist in the journal
+        manager.addPlayerToLobby(lobby.getLobbyCode(), 2L, "Alice");
+        journal.flush();
+        journal.stop();
+
+        LobbyManager restarted = new LobbyManager();
+        LobbyJournal restartedJournal = new LobbyJournal(journalDir);
+        restarted.setJournal(restartedJournal);
+        assertEquals(1, new LobbySnapshotStore(restarted, null, snapshotFile).restore());
+
+        GameLobby restored = restarted.getLobby(lobby.getLobbyCode());
+        assertEquals(2, restored.getPlayerCount());
+        assertSame(restored, restarted.getLobbyForPlayer(2L));
+        assertTrue(restartedJournal.getLastSeq() >= journal.getLastSeq());
+    }
+
+    @Test
+    void testEmptiedLobbyIsClosedAndNotReplayed() throws IOException {
+        LobbyJournal journal = new LobbyJournal(tempDir);
+        LobbyManager manager = new LobbyManager();
+        manager.setJournal(journal);
+
+        GameLobby lobby = manager.createLobby(1L, "Host");
+        manager.addPlayerToLobby(lobby.getLobbyCode(), 2L, "Alice");
+        manager.removePlayerFromLobby(2L);
+        manager.removePlayerFromLobby(1L);
+        journal.flush();
+
+        assertNull(manager.getLobby(lobby.getLobbyCode()));
+        assertTrue(lobby.getContext().isClosed());
+        Map<String, GameLobby> replayed = LobbyJournal.replay(new LobbyJournal(tempDir).readAll(), 0);
+        assertTrue(replayed.containsKey(lobby.getLobbyCode()));
+        assertNull(replayed.get(lobby.getLobbyCode()));
+    }
+
+    @Test
+    void testChangeRacingTheCloseDoesNotBringTheLobbyBack() throws IOException {
+        LobbyJournal journal = new LobbyJournal(tempDir);
+        GameLobby lobby = new GameLobby("LATE01", 1L, "Host");
+        journal.onLobbyChange(lobby, "CREATE", 1L, "Host");
+        journal.flush();
+
+        // A timer thread read the listener before the close and reports its change after it
+        journal.recordClose(lobby);
+        journal.onLobbyChange(lobby, "STATE", null, "ACTIVE");
+        journal.flush();
+
+        List<LobbyJournal.Entry> entries = new LobbyJournal(tempDir).readAll();
+        for (int i = 1; i < entries.size(); i++) {
+            assertTrue(entries.get(i).getSeq() > entries.get(i - 1).getSeq());
+        }
+        Map<String, GameLobby> replayed = LobbyJournal.replay(entries, 0);
+        assertNull(replayed.get("LATE01"));
+    }
+}
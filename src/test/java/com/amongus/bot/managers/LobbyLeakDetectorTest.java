@@ -0,0 +1,50 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.lobby.GameLobby;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobbyLeakDetectorTest {
+
+    @Test
+    void testReachableLobbyIsFlaggedOnce() {
+        LobbyLeakDetector detector = new LobbyLeakDetector(1000, true);
+        GameLobby retained = new GameLobby("LEAK01", 1L, "Host");
+        detector.watchLobby(retained);
+        long closedAt = System.currentTimeMillis();
+
+        // Still within the grace period
+        assertTrue(detector.check(closedAt).isEmpty());
+
+        List<String> flagged = detector.check(closedAt + 2000);
+        assertEquals(List.of("GameLobby LEAK01"), flagged);
+        assertEquals(1, detector.getFlaggedCount());
+        assertTrue(detector.check(closedAt + 4000).isEmpty());
+        assertNotNull(retained.getLobbyCode());
+    }
+
+    @Test
+    void testClosedLobbyIsCollected() throws InterruptedException {
+        LobbyLeakDetector detector = new LobbyLeakDetector(0, true);
+        detector.watchLobby(new GameLobby("LEAK02", 1L, "Host"));
+        Object retained = new Object();
+        detector.watch(retained, "retained");
+
+        assertEquals(1, detector.awaitCollection(5000));
+        assertEquals(List.of("retained"), detector.getRetainedLabels());
+        assertNotNull(retained);
+    }
+
+    @Test
+    void testManagerWatchesClosedLobbies() {
+        LobbyManager manager = new LobbyManager();
+        GameLobby lobby = manager.createLobby(1L, "Host1");
+
+        assertTrue(manager.closeLobby(lobby.getLobbyCode()));
+        assertTrue(lobby.getContext().isClosed());
+        assertEquals(1, manager.getLeakDetector().getWatchedCount());
+    }
+}
@@ -0,0 +1,122 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.models.Player;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobbyManagerTest {
+    private LobbyManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new LobbyManager();
+    }
+
+    @Test
+    void testJoinIsCaseInsensitive() {
+        GameLobby lobby = manager.createLobby(1L, "Host");
+        assertTrue(manager.addPlayerToLobby(lobby.getLobbyCode().toLowerCase(), 2L, "Player"));
+        assertSame(lobby, manager.getLobbyForPlayer(2L));
+        assertSame(lobby, manager.getLobby(" " + lobby.getLobbyCode() + " "));
+    }
+
+    @Test
+    void testMoveBetweenLobbiesReassignsHost() {
+        GameLobby first = manager.createLobby(1L, "Host1");
+        manager.addPlayerToLobby(first.getLobbyCode(), 2L, "Player2");
+        GameLobby second = manager.createLobby(3L, "Host3");
+
+        assertTrue(manager.addPlayerToLobby(second.getLobbyCode(), 1L, "Host1"));
+        assertSame(second, manager.getLobbyForPlayer(1L));
+        assertFalse(first.hasPlayer(1L));
+        assertEquals(2L, first.getHostId());
+    }
+
+    @Test
+    void testFailedJoinKeepsPlayerInPreviousLobby() {
+        GameLobby full = manager.createLobby(100L, "Host");
+        for (long id = 101; id < 110; id++) {
+            assertTrue(manager.addPlayerToLobby(full.getLobbyCode(), id, "P" + id));
+        }
+        GameLobby home = manager.createLobby(1L, "Host1");
+
+        assertFalse(manager.addPlayerToLobby(full.getLobbyCode(), 1L, "Host1"));
+        assertSame(home, manager.getLobbyForPlayer(1L));
+        assertTrue(home.hasPlayer(1L));
+    }
+
+    @Test
+    void testCloseLobbyClearsMemberships() {
+        GameLobby lobby = manager.createLobby(1L, "Host");
+        manager.addPlayerToLobby(lobby.getLobbyCode(), 2L, "Player");
+
+        assertTrue(manager.closeLobby(lobby.getLobbyCode()));
+        assertNull(manager.getLobbyForPlayer(1L));
+        assertNull(manager.getLobbyForPlayer(2L));
+        assertNull(manager.getLobby(lobby.getLobbyCode()));
+        assertFalse(manager.closeLobby("ABC123"));
+    }
+
+    @Test
+    void testConcurrentJoinsAndLeavesKeepMapsConsistent() throws InterruptedException {
+        List<String> codes = new ArrayList<>();
+        for (long host = 1; host <= 6; host++) {
+            codes.add(manager.createLobby(host, "Host" + host).getLobbyCode());
+        }
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 2000; i++) {
+                        long userId = 1000 + random.nextInt(40);
+                        if (random.nextBoolean()) {
+                            manager.addPlayerToLobby(codes.get(random.nextInt(codes.size())), userId, "U" + userId);
+                        } else {
+                            manager.removePlayerFromLobby(userId);
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        // Every membership points at a live lobby that contains the player, and nobody is in two lobbies
+        Map<Long, GameLobby> seen = new HashMap<>();
+        for (String code : codes) {
+            GameLobby lobby = manager.getLobby(code);
+            if (lobby == null) {
+                continue;
+            }
+            assertFalse(lobby.isEmpty());
+            assertTrue(lobby.hasPlayer(lobby.getHostId()));
+            for (Player player : lobby.getPlayerList()) {
+                assertNull(seen.put(player.getUserId(), lobby), "Player in two lobbies: " + player.getUserId());
+                assertSame(lobby, manager.getLobbyForPlayer(player.getUserId()));
+            }
+        }
+        for (long userId = 1000; userId < 1040; userId++) {
+            GameLobby lobby = manager.getLobbyForPlayer(userId);
+            assertSame(seen.get(userId), lobby);
+        }
+    }
+}
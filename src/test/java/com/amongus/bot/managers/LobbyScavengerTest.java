@@ -0,0 +1,103 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.states.GameActiveState;
+import com.amongus.bot.game.states.LobbyState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class LobbyScavengerTest {
+    private LobbyManager manager;
+    private LobbyScavenger scavenger;
+
+    @BeforeEach
+    void setUp() {
+        manager = new LobbyManager();
+        scavenger = new LobbyScavenger(manager, null, 2);
+    }
+
+    @Test
+    void testIdleLobbyIsEvicted() {
+        GameLobby idle = manager.createLobby(1L, "Host1");
+        manager.addPlayerToLobby(idle.getLobbyCode(), 2L, "Player2");
+        idle.setGameState(new LobbyState());
+        long limit = scavenger.getIdleLimitMillis("LOBBY");
+
+        assertEquals(0, scavenger.scavenge(System.currentTimeMillis()));
+        assertEquals(1, scavenger.scavenge(idle.getLastActivityMillis() + limit));
+
+        assertNull(manager.getLobby(idle.getLobbyCode()));
+        assertNull(manager.getLobbyForPlayer(1L));
+        assertNull(manager.getLobbyForPlayer(2L));
+        assertEquals(1, scavenger.getEvictedLobbies());
+        assertEquals(3, scavenger.getEvictedObjects());
+        assertTrue(scavenger.getEvictedBytes() > 0);
+    }
+
+    @Test
+    void testIdleLimitsArePerState() {
+        GameLobby waiting = manager.createLobby(1L, "Host1");
+        waiting.setGameState(new LobbyState());
+        GameLobby finished = manager.createLobby(2L, "Host2");
+        finished.setGameState(new LobbyState());
+        scavenger.setIdleLimit("LOBBY", 10, TimeUnit.MINUTES);
+        scavenger.setDefaultIdleLimit(1, TimeUnit.MINUTES);
+        finished.setGameState(null);
+
+        long now = Math.max(waiting.getLastActivityMillis(), finished.getLastActivityMillis())
+                + TimeUnit.MINUTES.toMillis(2);
+        assertEquals(1, scavenger.scavenge(now));
+        assertNotNull(manager.getLobby(waiting.getLobbyCode()));
+        assertNull(manager.getLobby(finished.getLobbyCode()));
+    }
+
+    @Test
+    void testEvictionIsBatched() {
+        for (long host = 1; host <= 5; host++) {
+            manager.createLobby(host, "Host" + host);
+        }
+        long later = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1);
+
+        assertEquals(2, scavenger.scavenge(later));
+        assertEquals(2, scavenger.scavenge(later));
+        assertEquals(1, scavenger.scavenge(later));
+        assertTrue(manager.getLobbies().isEmpty());
+    }
+
+    @Test
+    void testActivityKeepsLobbyAlive() throws InterruptedException {
+        GameLobby lobby = manager.createLobby(1L, "Host1");
+        long idleSince = lobby.getLastActivityMillis();
+        Thread.sleep(5);
+        manager.recordActivity(1L);
+
+        long limit = scavenger.getIdleLimitMillis(null);
+        assertEquals(0, scavenger.scavenge(idleSince + limit));
+        assertNotNull(manager.getLobby(lobby.getLobbyCode()));
+    }
+
+    @Test
+    void testStaleGameRegistrationIsPurged() {
+        GameLobby lobby = manager.createLobby(1L, "Host1");
+        GameActiveState game = new GameActiveState();
+        lobby.setGameState(game);
+        game.onEnter(mock(AmongUsBot.class), lobby);
+        assertSame(game, GameActiveState.getGameForLobby(lobby.getLobbyCode()));
+
+        // Still the current state: kept
+        scavenger.scavenge(System.currentTimeMillis());
+        assertSame(game, GameActiveState.getGameForLobby(lobby.getLobbyCode()));
+
+        // Replaced without onExit: purged on the next pass
+        lobby.setGameState(new LobbyState());
+        scavenger.scavenge(System.currentTimeMillis());
+        assertNull(GameActiveState.getGameForLobby(lobby.getLobbyCode()));
+        assertTrue(scavenger.getPurgedRegistrations() >= 1);
+    }
+}
@@ -0,0 +1,67 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.states.LobbyState;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobbySnapshotStoreTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSnapshotRestoresIntoNewManager() throws IOException {
+        LobbyManager manager = new LobbyManager();
+        GameLobby first = manager.createLobby(1L, "Host1");
+        manager.addPlayerToLobby(first.getLobbyCode(), 2L, "Player2");
+        first.setGameState(new LobbyState());
+        GameLobby second = manager.createLobby(3L, "Host3");
+
+        Path file = tempDir.resolve("data").resolve("lobbies.snapshot");
+        assertEquals(2, new LobbySnapshotStore(manager, null, file).snapshot());
+        assertTrue(Files.exists(file));
+
+        LobbyManager restartedManager = new LobbyManager();
+        LobbySnapshotStore restartedStore = new LobbySnapshotStore(restartedManager, null, file);
+        assertEquals(2, restartedStore.restore());
+
+        GameLobby restored = restartedManager.getLobby(first.getLobbyCode());
+        assertNotNull(restored);
+        assertEquals(2, restored.getPlayerCount());
+        assertEquals("LOBBY", restored.getGameState().getStateName());
+        assertSame(restored, restartedManager.getLobbyForPlayer(2L));
+        assertNotNull(restartedManager.getLobby(second.getLobbyCode()));
+        assertSame(restartedManager.getLobby(second.getLobbyCode()), restartedManager.getLobbyForPlayer(3L));
+    }
+
+    @Test
+    void testIdleLobbiesReuseTheirRecords() throws IOException {
+        LobbyManager manager = new LobbyManager();
+        GameLobby lobby = manager.createLobby(1L, "Host1");
+        LobbySnapshotStore store = new LobbySnapshotStore(manager, null, tempDir.resolve("lobbies.snapshot"));
+
+        store.snapshot();
+        store.snapshot();
+        assertEquals(1, store.getRecordsEncoded());
+        assertEquals(1, store.getRecordsReused());
+
+        manager.closeLobby(lobby.getLobbyCode());
+        assertEquals(0, store.snapshot());
+        assertTrue(new LobbySnapshotStore(new LobbyManager(), null, store.getFile()).load().isEmpty());
+    }
+
+    @Test
+    void testUnreadableFileRestoresNothing() throws IOException {
+        Path file = tempDir.resolve("lobbies.snapshot");
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20});
+
+        assertEquals(0, new LobbySnapshotStore(new LobbyManager(), null, file).restore());
+        assertEquals(0, new LobbySnapshotStore(new LobbyManager(), null, tempDir.resolve("missing")).restore());
+    }
+}
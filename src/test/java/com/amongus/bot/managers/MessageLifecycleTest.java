@@ -0,0 +1,129 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.core.AmongUsBot;
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.replay.SimulatedClock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.methods.updatingmessages.DeleteMessage;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MessageLifecycleTest {
+
+    private final SimulatedClock clock = new SimulatedClock(0);
+    private final GameLobby lobby = new GameLobby("CLEAN1", 1L, "Host");
+    private AmongUsBot bot;
+    private MessageLifecycle lifecycle;
+
+    @BeforeEach
+    void setUp() {
+        bot = mock(AmongUsBot.class);
+        when(bot.executeMethod(any(DeleteMessage.class))).thenReturn(true);
+        lifecycle = new MessageLifecycle(bot, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lobby.getContext().close();
+    }
+
+    @Test
+    void testExpiredMessageIsDeletedAfterTtl() {
+        lifecycle.expire(101L, 7, GameConstants.ROLE_MESSAGE_TTL_MILLIS);
+
+        clock.advanceTo(GameConstants.ROLE_MESSAGE_TTL_MILLIS - 1);
+        assertEquals(0, lifecycle.sweep());
+        verify(bot, never()).executeMethod(any(DeleteMessage.class));
+
+        clock.advanceTo(GameConstants.ROLE_MESSAGE_TTL_MILLIS);
+        assertEquals(1, lifecycle.sweep());
+        verify(bot).executeMethod(any(DeleteMessage.class));
+        assertEquals(0, lifecycle.getPendingCount());
+    }
+
+    @Test
+    void testPurgeDeletesPhaseMessagesInBatches() {
+        int messages = GameConstants.MESSAGE_DELETE_BATCH_SIZE * 2 + 5;
+        for (int i = 0; i < messages; i++) {
+            lifecycle.track(lobby, 100L + i % 4, i, MessageLifecycle.Scope.PHASE);
+        }
+        lifecycle.track(lobby, 100L, 999, MessageLifecycle.Scope.PERMANENT);
+
+        assertEquals(messages, lifecycle.purge(lobby));
+
+        // Один пакет на интервал, остаток переносится дальше
+        assertEquals(GameConstants.MESSAGE_DELETE_BATCH_SIZE, lifecycle.sweep());
+        assertEquals(0, lifecycle.sweep());
+        clock.advanceTo(GameConstants.MESSAGE_DELETE_BUCKET_MILLIS);
+        assertEquals(GameConstants.MESSAGE_DELETE_BATCH_SIZE, lifecycle.sweep());
+        clock.advanceTo(GameConstants.MESSAGE_DELETE_BUCKET_MILLIS * 2);
+        assertEquals(5, lifecycle.sweep());
+
+        verify(bot, times(messages)).executeMethod(any(DeleteMessage.class));
+        assertEquals(0, lifecycle.purge(lobby));
+    }
+
+    @Test
+    void testDeletionsAddedDuringSweepsAreNotLost() throws Exception {
+        int writers = 4;
+        int perWriter = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        for (int w = 0; w < writers; w++) {
+            long chatId = 100L + w;
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < perWriter; i++) {
+                    lifecycle.delete(chatId, i);
+                }
+            });
+        }
+
+        // Сборщик опустошает корзины, пока в них пишут
+        start.countDown();
+        int swept = 0;
+        pool.shutdown();
+        while (!pool.isTerminated() || lifecycle.getPendingCount() > 0) {
+            swept += lifecycle.sweep();
+            clock.advanceTo(clock.millis() + GameConstants.MESSAGE_DELETE_BUCKET_MILLIS);
+        }
+
+        assertEquals(writers * perWriter, swept);
+    }
+
+    @Test
+    void testDeletedPhaseMessageIsNotPurgedAgain() {
+        lifecycle.track(lobby, 100L, 1, MessageLifecycle.Scope.PHASE);
+        lifecycle.track(lobby, 100L, 2, MessageLifecycle.Scope.PHASE);
+
+        lifecycle.delete(100L, 1);
+
+        assertEquals(1, lifecycle.purge(lobby));
+        assertEquals(2, lifecycle.sweep());
+    }
+
+    @Test
+    void testClosedLobbyIsForgotten() {
+        lifecycle.track(lobby, 100L, 1, MessageLifecycle.Scope.PHASE);
+        assertTrue(lifecycle.getStatistics().contains("Lobbies: 1"));
+
+        lobby.getContext().close();
+
+        assertTrue(lifecycle.getStatistics().contains("Lobbies: 0"));
+        assertEquals(0, lifecycle.purge(lobby));
+    }
+}
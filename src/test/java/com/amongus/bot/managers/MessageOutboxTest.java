@@ -0,0 +1,91 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.GameConstants;
+import com.amongus.bot.game.replay.SimulatedClock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.telegram.telegrambots.meta.api.methods.send.SendMessage;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.InlineKeyboardMarkup;
+import org.telegram.telegrambots.meta.api.objects.replykeyboard.buttons.InlineKeyboardButton;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageOutboxTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimulatedClock clock = new SimulatedClock(0);
+    private final List<SendMessage> delivered = new ArrayList<>();
+    private final AtomicBoolean available = new AtomicBoolean(true);
+
+    @Test
+    void testMessagesSurviveRestartInOrder() {
+        MessageOutbox outbox = outbox();
+        outbox.add(message(101L, "Вас убил предатель!"));
+        outbox.add(message(102L, "Началось собрание"));
+
+        MessageOutbox restarted = outbox();
+        assertEquals(2, restarted.load());
+        assertEquals(2, restarted.drain());
+
+        assertEquals("Вас убил предатель!", delivered.get(0).getText());
+        assertEquals("101", delivered.get(0).getChatId());
+        assertEquals("Началось собрание", delivered.get(1).getText());
+        assertEquals(0, outbox().load());
+    }
+
+    @Test
+    void testDrainWaitsWhileApiIsUnavailable() {
+        MessageOutbox outbox = outbox();
+        outbox.add(message(101L, "Голосование"));
+        available.set(false);
+
+        assertEquals(0, outbox.drain());
+        assertEquals(1, outbox.getPendingCount());
+
+        available.set(true);
+        assertEquals(1, outbox.drain());
+        assertEquals(0, outbox.getPendingCount());
+    }
+
+    @Test
+    void testOldMessagesExpire() {
+        MessageOutbox outbox = outbox();
+        outbox.add(message(101L, "Устарело"));
+
+        clock.advanceTo(GameConstants.OUTBOX_MAX_AGE_MILLIS + 1);
+
+        assertEquals(0, outbox.drain());
+        assertTrue(delivered.isEmpty());
+        assertTrue(outbox.getStatistics().contains("Expired: 1"));
+    }
+
+    @Test
+    void testMessageWithKeyboardIsNotQueued() {
+        MessageOutbox outbox = outbox();
+        SendMessage vote = message(101L, "Голосуйте");
+        vote.setReplyMarkup(new InlineKeyboardMarkup(List.of(List.of(
+                InlineKeyboardButton.builder().text("Пропустить").callbackData("vote:skip").build()))));
+
+        assertFalse(outbox.add(vote));
+        assertEquals(0, outbox.getPendingCount());
+    }
+
+    private MessageOutbox outbox() {
+        return new MessageOutbox(directory, clock, message -> delivered.add(message), available::get);
+    }
+
+    private static SendMessage message(Long chatId, String text) {
+        SendMessage message = new SendMessage();
+        message.setChatId(chatId);
+        message.setText(text);
+        return message;
+    }
+}
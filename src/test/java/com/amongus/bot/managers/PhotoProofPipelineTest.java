@@ -0,0 +1,176 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.lobby.GameLobby;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.telegram.telegrambots.meta.api.objects.PhotoSize;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhotoProofPipelineTest {
+
+    private final Map<String, byte[]> files = new HashMap<>();
+    private final GameLobby lobby = new GameLobby("PHOTO1", 1L, "Host");
+    private PhotoProofPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.close();
+        }
+        lobby.getContext().close();
+    }
+
+    @Test
+    void testDistinctPhotosAreAccepted() throws Exception {
+        pipeline = new PhotoProofPipeline(files::get, 2);
+        files.put("a", png(image(1, 0)));
+        files.put("b", png(image(2, 0)));
+
+        assertEquals(PhotoProofPipeline.Verdict.ACCEPTED, submit("a"));
+        assertEquals(PhotoProofPipeline.Verdict.ACCEPTED, submit("b"));
+    }
+
+    @Test
+    void testSameUniqueIdIsDuplicate() throws Exception {
+        pipeline = new PhotoProofPipeline(files::get, 2);
+        files.put("a", png(image(1, 0)));
+
+        assertEquals(PhotoProofPipeline.Verdict.ACCEPTED, submit("a"));
+        assertEquals(PhotoProofPipeline.Verdict.DUPLICATE, submit("a"));
+    }
+
+    @Test
+    void testBrightenedCopyIsNearDuplicate() throws Exception {
+        pipeline = new PhotoProofPipeline(files::get, 2);
+        files.put("a", png(image(1, 0)));
+        files.put("a-bright", png(image(1, 20)));
+
+        assertEquals(PhotoProofPipeline.Verdict.ACCEPTED, submit("a"));
+        assertEquals(PhotoProofPipeline.Verdict.NEAR_DUPLICATE, submit("a-bright"));
+    }
+
+    @Test
+    void testNewGameStartsFreshIndex() throws Exception {
+        pipeline = new PhotoProofPipeline(null, 1);
+
+        assertEquals(PhotoProofPipeline.Verdict.ACCEPTED, submit("a"));
+        lobby.setGameSeed(lobby.getGameSeed() + 1);
+        assertEquals(PhotoProofPipeline.Verdict.ACCEPTED, submit("a"));
+        assertEquals(PhotoProofPipeline.Verdict.DUPLICATE, submit("a"));
+
+        lobby.getContext().close();
+        assertEquals(0, pipeline.getIndexedLobbyCount());
+    }
+
+    @Test
+    void testSubmitDoesNotWaitForDownload() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        byte[] bytes = png(image(1, 0));
+        pipeline = new PhotoProofPipeline(fileId -> {
+            release.await();
+            return bytes;
+        }, 1);
+
+        CompletableFuture<PhotoProofPipeline.Verdict> verdict = new CompletableFuture<>();
+        pipeline.submit(lobby, 1L, sizes("slow"), verdict::complete);
+        assertFalse(verdict.isDone());
+
+        release.countDown();
+        assertEquals(PhotoProofPipeline.Verdict.ACCEPTED, verdict.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailedDownloadIsAccepted() throws Exception {
+        pipeline = new PhotoProofPipeline(fileId -> {
+            throw new IOException("offline");
+        }, 1);
+
+        assertEquals(PhotoProofPipeline.Verdict.ACCEPTED, submit("missing"));
+        assertTrue(pipeline.getStatistics().contains("Unchecked: 1"));
+    }
+
+    @Test
+    void testReleasedPhotoCanBeSentAgain() throws Exception {
+        pipeline = new PhotoProofPipeline(files::get, 2);
+        files.put("a", png(image(1, 0)));
+        long gameSeed = lobby.getGameSeed();
+
+        assertEquals(PhotoProofPipeline.Verdict.ACCEPTED, submit("a"));
+        // Вердикт пришёл во время собрания и не был использован
+        pipeline.release(lobby, gameSeed, sizes("a"));
+
+        assertEquals(PhotoProofPipeline.Verdict.ACCEPTED, submit("a"));
+        assertEquals(PhotoProofPipeline.Verdict.DUPLICATE, submit("a"));
+    }
+
+    @Test
+    void testBackgroundVerdictsPassTheGate() throws Exception {
+        pipeline = new PhotoProofPipeline(files::get, 1);
+        files.put("a", png(image(1, 0)));
+        List<String> gated = new CopyOnWriteArrayList<>();
+        pipeline.setVerdictGate(delivery -> {
+            gated.add(Thread.currentThread().getName());
+            delivery.run();
+        });
+
+        assertEquals(PhotoProofPipeline.Verdict.ACCEPTED, submit("a"));
+        assertEquals(List.of("AmongUs-PhotoVerdict"), gated);
+    }
+
+    private PhotoProofPipeline.Verdict submit(String fileId) throws Exception {
+        CompletableFuture<PhotoProofPipeline.Verdict> verdict = new CompletableFuture<>();
+        pipeline.submit(lobby, 1L, sizes(fileId), verdict::complete);
+        return verdict.get(5, TimeUnit.SECONDS);
+    }
+
+    private static List<PhotoSize> sizes(String fileId) {
+        PhotoSize size = new PhotoSize();
+        size.setFileId(fileId);
+        size.setFileUniqueId(fileId);
+        size.setWidth(90);
+        size.setHeight(80);
+        return List.of(size);
+    }
+
+    /**
+     * A blocky random picture; the same seed gives the same picture, offset
+     * in brightness.
+     */
+    private static BufferedImage image(long seed, int brightness) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(90, 80, BufferedImage.TYPE_INT_RGB);
+        for (int by = 0; by < 8; by++) {
+            for (int bx = 0; bx < 9; bx++) {
+                int gray = Math.min(255, 40 + random.nextInt(170) + brightness);
+                int rgb = gray << 16 | gray << 8 | gray;
+                for (int y = by * 10; y < by * 10 + 10; y++) {
+                    for (int x = bx * 10; x < bx * 10 + 10; x++) {
+                        image.setRGB(x, y, rgb);
+                    }
+                }
+            }
+        }
+        return image;
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
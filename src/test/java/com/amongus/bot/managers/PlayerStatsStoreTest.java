@@ -0,0 +1,169 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.roles.Crewmate;
+import com.amongus.bot.game.roles.Impostor;
+import com.amongus.bot.game.tasks.SimpleTask;
+import com.amongus.bot.game.tasks.TaskDifficulty;
+import com.amongus.bot.models.PlayerStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerStatsStoreTest {
+    @TempDir
+    Path tempDir;
+
+    private GameLobby finishedGame() {
+        GameLobby lobby = new GameLobby("ABC123", 1L, "Host");
+        lobby.addPlayer(2L, "Alice");
+        lobby.addPlayer(3L, "Bob");
+        lobby.getPlayer(1L).setRole(new Crewmate());
+        lobby.getPlayer(2L).setRole(new Impostor());
+        lobby.getPlayer(3L).setRole(new Crewmate());
+        lobby.getPlayer(1L).setTasks(List.of(
+                new SimpleTask("Проводка", "Почините проводку", TaskDifficulty.EASY),
+                new SimpleTask("Реактор", "Запустите реактор", TaskDifficulty.HARD)));
+        lobby.getPlayer(1L).completeTask(0);
+
+        // The impostor's kill is logged under the killer only
+        lobby.getPlayer(3L).kill();
+        lobby.addGameEvent(2L, "KILL", "Убил Bob");
+        lobby.addGameEvent(1L, "EMERGENCY_MEETING", "Созвал экстренное собрание");
+        lobby.getPlayer(2L).eject();
+        lobby.addGameEvent(2L, "EJECTED", "Исключён");
+        return lobby;
+    }
+
+    @Test
+    void testGameIsTalliedFromEvents() {
+        PlayerStatsStore store = new PlayerStatsStore(tempDir.resolve("stats.db"));
+        store.recordGame(finishedGame(), "Crewmates");
+
+        // Queued games are visible before they reach the disk
+        PlayerStats host = store.get(1L);
+        assertEquals(1, host.getGamesPlayed());
+        assertEquals(1, host.getCrewmateWins());
+        assertEquals(1, host.getTasksCompleted());
+        assertEquals(1, host.getMeetingsCalled());
+
+        PlayerStats impostor = store.get(2L);
+        assertEquals(1, impostor.getImpostorGames());
+        assertEquals(0, impostor.getWins());
+        assertEquals(1, impostor.getKills());
+        assertEquals(1, impostor.getEjections());
+        assertEquals(0, impostor.getDeaths());
+
+        assertEquals(1, store.get(3L).getDeaths());
+        assertEquals(0, store.get(1L).getDeaths());
+        assertNull(store.get(99L));
+        assertFalse(Files.exists(tempDir.resolve("stats.db")));
+    }
+
+    @Test
+    void testRussianWinnerNameCountsTheWin() {
+        // GameActiveState ends games with the Russian side name, DiscussionState with the English one
+        PlayerStatsStore store = new PlayerStatsStore(tempDir.resolve("stats.db"));
+        store.recordGame(finishedGame(), "Предатели");
+        store.recordGame(finishedGame(), "Члены экипажа");
+
+        assertEquals(1, store.get(2L).getImpostorWins());
+        assertEquals(1, store.get(1L).getCrewmateWins());
+        assertEquals(1, store.get(1L).getWins());
+    }
+
+    @Test
+    void testTotalsSurviveReopenAndCacheEviction() {
+        Path file = tempDir.resolve("stats.db");
+        PlayerStatsStore store = new PlayerStatsStore(file);
+        store.recordGame(finishedGame(), "Crewmates");
+        store.flush();
+        store.recordGame(finishedGame(), "Impostors");
+        store.close();
+
+        // A one-entry cache forces most reads back to the file
+        PlayerStatsStore reopened = new PlayerStatsStore(file, 1);
+        assertEquals(2, reopened.get(2L).getGamesPlayed());
+        assertEquals(1, reopened.get(2L).getImpostorWins());
+        assertEquals("Alice", reopened.get(2L).getUserName());
+        assertEquals(2, reopened.get(1L).getTasksCompleted());
+        assertEquals(1, reopened.get(3L).getCrewmateWins());
+
+        reopened.recordGame(finishedGame(), "Crewmates");
+        reopened.flush();
+        assertEquals(3, new PlayerStatsStore(file).get(1L).getGamesPlayed());
+        assertEquals(3 * 128 + 16, file.toFile().length());
+    }
+
+    @Test
+    void testFailedWriteIsRetriedWithTheNextBatch() {
+        Path file = tempDir.resolve("stats.db");
+        AtomicBoolean failing = new AtomicBoolean(true);
+        PlayerStatsStore store = new PlayerStatsStore(file, 16) {
+            @Override
+            void writeRecords(List<PlayerStats> records) throws IOException {
+                if (failing.get()) {
+                    throw new IOException("Нет места на диске");
+                }
+                super.writeRecords(records);
+            }
+        };
+        store.recordGame(finishedGame(), "Crewmates");
+        store.flush();
+
+        // The failed batch is queued again and still counted once
+        assertEquals(3, store.getPendingCount());
+        assertEquals(1, store.get(1L).getGamesPlayed());
+
+        store.recordGame(finishedGame(), "Impostors");
+        assertEquals(2, store.get(1L).getGamesPlayed());
+        failing.set(false);
+        store.close();
+
+        PlayerStatsStore reopened = new PlayerStatsStore(file);
+        assertEquals(2, reopened.get(1L).getGamesPlayed());
+        assertEquals(1, reopened.get(2L).getImpostorWins());
+        assertEquals(3 * 128 + 16, file.toFile().length());
+    }
+
+    @Test
+    void testCloseWaitsForTheScheduledFlush() throws Exception {
+        Path file = tempDir.resolve("stats.db");
+        CountDownLatch writing = new CountDownLatch(1);
+        AtomicBoolean interrupted = new AtomicBoolean();
+        PlayerStatsStore store = new PlayerStatsStore(file, 16) {
+            @Override
+            void writeRecords(List<PlayerStats> records) throws IOException {
+                if (Thread.currentThread().getName().equals("AmongUs-PlayerStats")) {
+                    writing.countDown();
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        interrupted.set(true);
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.writeRecords(records);
+            }
+        };
+        store.recordGame(finishedGame(), "Crewmates");
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        // close() lands in the middle of the writer thread's batch
+        store.close();
+
+        assertFalse(interrupted.get());
+        PlayerStatsStore reopened = new PlayerStatsStore(file);
+        assertEquals(1, reopened.get(1L).getGamesPlayed());
+        assertEquals(3 * 128 + 16, file.toFile().length());
+    }
+}
@@ -0,0 +1,139 @@
+package com.amongus.bot.managers;
+
+import com.amongus.bot.game.lobby.GameLobby;
+import com.amongus.bot.game.states.LobbyState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationTest {
+    @TempDir
+    Path tempDir;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private LobbyJournal primaryJournal;
+    private ReplicationPrimary primary;
+    private ReplicationStandby standby;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (standby != null) {
+            standby.stop();
+        }
+        if (primary != null) {
+            primary.stop();
+        }
+        if (primaryJournal != null) {
+            primaryJournal.stop();
+        }
+    }
+
+    private LobbyManager startPrimary() throws Exception {
+        primaryJournal = new LobbyJournal(tempDir.resolve("primary"));
+        LobbyManager manager = new LobbyManager();
+        manager.setJournal(primaryJournal);
+        primary = new ReplicationPrimary(manager, null, 0);
+        primary.start();
+        primaryJournal.start();
+        return manager;
+    }
+
+    private LobbyManager startStandby(LobbyJournal journal) {
+        LobbyManager manager = new LobbyManager();
+        manager.setJournal(journal);
+        standby = new ReplicationStandby(manager, null, "127.0.0.1", primary.getPort());
+        standby.start(false);
+        return manager;
+    }
+
+    private void awaitReplica(int lobbies) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (standby.getReplicaCount() != lobbies && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(lobbies, standby.getReplicaCount());
+    }
+
+    @Test
+    void testStandbyFollowsJournalAndTakesOver() throws Exception {
+        LobbyManager primaryManager = startPrimary();
+        GameLobby lobby = primaryManager.createLobby(1L, "Host");
+        primaryManager.addPlayerToLobby(lobby.getLobbyCode(), 2L, "Alice");
+        lobby.setGameState(new LobbyState());
+        lobby.getContext().trackedMessages("voting").put(2L, 77);
+
+        LobbyJournal standbyJournal = new LobbyJournal(tempDir.resolve("standby"));
+        LobbyManager standbyManager = startStandby(standbyJournal);
+        awaitReplica(1);
+
+        // Changes after the initial sync arrive through the journal stream
+        GameLobby closed = primaryManager.createLobby(3L, "Other");
+        awaitReplica(2);
+        primaryManager.closeLobby(closed.getLobbyCode());
+        awaitReplica(1);
+        primaryManager.addPlayerToLobby(lobby.getLobbyCode(), 4L, "Bob");
+
+        Future<Boolean> handedOver = executor.submit(primary::handoff);
+        assertTrue(standby.awaitHandoff(5, TimeUnit.SECONDS));
+        assertEquals(0, standby.getHandoffOffset());
+        assertTrue(standby.acknowledge());
+        assertTrue(handedOver.get(5, TimeUnit.SECONDS));
+
+        assertTrue(primary.isHandedOver());
+        assertTrue(primaryManager.getLobbies().isEmpty());
+        GameLobby resumed = standbyManager.getLobby(lobby.getLobbyCode());
+        assertNotNull(resumed);
+        assertEquals(3, resumed.getPlayerCount());
+        assertEquals("LOBBY", resumed.getGameState().getStateName());
+        assertEquals(77, resumed.getContext().trackedMessages("voting").get(2L));
+        assertSame(resumed, standbyManager.getLobbyForPlayer(4L));
+        assertNull(standbyManager.getLobby(closed.getLobbyCode()));
+        assertTrue(standbyJournal.getLastSeq() >= primaryJournal.getLastSeq());
+    }
+
+    @Test
+    void testPrimaryKeepsLobbiesWhenStandbyDropsBeforeHandoff() throws Exception {
+        LobbyManager primaryManager = startPrimary();
+        GameLobby lobby = primaryManager.createLobby(1L, "Host");
+        startStandby(null);
+        awaitReplica(1);
+
+        standby.stop();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (primary.hasStandby() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertFalse(primary.handoff());
+        assertFalse(primary.isHandedOver());
+        assertSame(lobby, primaryManager.getLobby(lobby.getLobbyCode()));
+        assertFalse(lobby.getContext().isClosed());
+    }
+
+    @Test
+    void testPrimaryDoesNotResumeAfterUnacknowledgedHandoff() throws Exception {
+        LobbyManager primaryManager = startPrimary();
+        GameLobby lobby = primaryManager.createLobby(1L, "Host");
+        startStandby(null);
+        awaitReplica(1);
+
+        Future<Boolean> handedOver = executor.submit(primary::handoff);
+        assertTrue(standby.awaitHandoff(5, TimeUnit.SECONDS));
+        // Резерв получил передачу, но подтверждение потерялось: он мог уже начать опрос
+        standby.stop();
+
+        assertTrue(handedOver.get(5, TimeUnit.SECONDS));
+        assertTrue(primary.isHandedOver());
+        assertNull(primaryManager.getLobby(lobby.getLobbyCode()));
+        assertTrue(lobby.getContext().isClosed());
+    }
+}